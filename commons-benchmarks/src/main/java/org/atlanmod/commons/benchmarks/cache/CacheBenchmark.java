@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.benchmarks.cache;
+
+import org.atlanmod.commons.cache.Cache;
+import org.atlanmod.commons.cache.CacheBuilder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Benchmarks of the main operations of the {@link Cache} implementations, with a Zipfian distribution of keys.
+ * <p>
+ * The key space is four times larger than the cache, so the hit rate depends on the skew of the distribution. The
+ * number of threads is set with the {@code -t} option of JMH, except for the {@code readWrite} group which mixes three
+ * readers for one writer:
+ * <pre>{@code
+ * mvn -P benchmarks package
+ * java -jar commons-benchmarks/target/benchmarks.jar CacheBenchmark -t 4 -p implementation=Manual,Loading
+ * }</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@ParametersAreNonnullByDefault
+public class CacheBenchmark {
+
+    /**
+     * The number of pre-generated keys; must be a power of two.
+     */
+    private static final int KEY_COUNT = 1 << 20;
+
+    /**
+     * The mask used to cycle over the pre-generated keys.
+     */
+    private static final int KEY_MASK = KEY_COUNT - 1;
+
+    /**
+     * The number of keys requested by each {@link Cache#getAll(Iterable)}.
+     */
+    private static final int BATCH_SIZE = 16;
+
+    /**
+     * The number of pre-generated batches; must be a power of two.
+     */
+    private static final int BATCH_COUNT = KEY_COUNT / BATCH_SIZE;
+
+    /**
+     * The mask used to cycle over the pre-generated batches.
+     */
+    private static final int BATCH_MASK = BATCH_COUNT - 1;
+
+    /**
+     * The function used to compute the missing values.
+     */
+    private static final Function<Integer, Integer> LOADER = Function.identity();
+
+    /**
+     * The benchmarked implementation: {@code Manual} for {@link CacheBuilder#build()}, {@code Loading} for {@link
+     * CacheBuilder#build(Function)}, and {@code Empty} for {@link CacheBuilder#empty()}.
+     */
+    @Param({"Manual", "Loading", "Empty"})
+    private String implementation;
+
+    /**
+     * The maximum number of entries of the cache.
+     */
+    @Param({"1024", "65536"})
+    private int maximumSize;
+
+    /**
+     * The skew of the Zipfian distribution of keys.
+     */
+    @Param({"0.8", "1.2"})
+    private double skew;
+
+    /**
+     * The benchmarked cache.
+     */
+    private Cache<Integer, Integer> cache;
+
+    /**
+     * The pre-generated keys, boxed beforehand.
+     */
+    private Integer[] keys;
+
+    /**
+     * The pre-generated batches of keys.
+     */
+    private List<Integer>[] batches;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        keys = ZipfianKeys.generate(KEY_COUNT, maximumSize * 4, skew, 42L);
+
+        batches = new List[BATCH_COUNT];
+        for (int i = 0; i < BATCH_COUNT; i++) {
+            batches[i] = Arrays.asList(Arrays.copyOfRange(keys, i * BATCH_SIZE, (i + 1) * BATCH_SIZE));
+        }
+
+        cache = newCache();
+        for (Integer key : keys) {
+            cache.put(key, key);
+        }
+    }
+
+    @Benchmark
+    public Integer get(ThreadState state) {
+        return cache.get(keys[state.next() & KEY_MASK]);
+    }
+
+    @Benchmark
+    public Integer getWithLoader(ThreadState state) {
+        return cache.get(keys[state.next() & KEY_MASK], LOADER);
+    }
+
+    @Benchmark
+    public void put(ThreadState state) {
+        Integer key = keys[state.next() & KEY_MASK];
+        cache.put(key, key);
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> getAll(ThreadState state) {
+        return cache.getAll(batches[state.next() & BATCH_MASK]);
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(3)
+    public Integer readWrite_get(ThreadState state) {
+        return cache.get(keys[state.next() & KEY_MASK]);
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(1)
+    public void readWrite_put(ThreadState state) {
+        Integer key = keys[state.next() & KEY_MASK];
+        cache.put(key, key);
+    }
+
+    /**
+     * Creates the benchmarked cache.
+     *
+     * @return a new cache
+     */
+    private Cache<Integer, Integer> newCache() {
+        switch (implementation) {
+            case "Manual":
+                return CacheBuilder.builder().maximumSize(maximumSize).build();
+            case "Loading":
+                return CacheBuilder.builder().maximumSize(maximumSize).build(LOADER);
+            case "Empty":
+                return CacheBuilder.empty();
+            default:
+                throw new IllegalArgumentException(String.format("Unknown implementation: %s", implementation));
+        }
+    }
+
+    /**
+     * The position of a thread in the pre-generated keys. Each thread starts at a random position, so that the threads
+     * do not access the same keys at the same time.
+     */
+    @State(Scope.Thread)
+    public static class ThreadState {
+
+        /**
+         * The current position.
+         */
+        private int index = ThreadLocalRandom.current().nextInt();
+
+        /**
+         * Returns the current position, and moves to the next one.
+         *
+         * @return the current position
+         */
+        int next() {
+            return index++;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.benchmarks.cache;
+
+import org.atlanmod.commons.Preconditions;
+import org.atlanmod.commons.Throwables;
+import org.atlanmod.commons.annotation.Static;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Static utility methods to generate sequences of keys following a Zipfian distribution, where the probability of the
+ * {@code k}-th most frequent key is proportional to {@code 1 / k^skew}.
+ */
+@Static
+@ParametersAreNonnullByDefault
+final class ZipfianKeys {
+
+    private ZipfianKeys() {
+        throw Throwables.notInstantiableClass(getClass());
+    }
+
+    /**
+     * Generates a sequence of {@code count} keys, drawn among {@code distinctKeys} keys. The most frequent keys are
+     * scattered in the key space, so that they are not stored next to each other in a hash table.
+     *
+     * @param count        the number of keys to generate
+     * @param distinctKeys the number of distinct keys
+     * @param skew         the skew of the distribution; {@code 0} for a uniform distribution
+     * @param seed         the seed of the random generator
+     *
+     * @return the keys
+     */
+    @Nonnull
+    public static Integer[] generate(@Nonnegative int count, @Nonnegative int distinctKeys, double skew, long seed) {
+        Preconditions.checkGreaterThanOrEqualTo(count, 0, "count (%d) must not be negative", count);
+        Preconditions.checkGreaterThan(distinctKeys, 0, "distinctKeys (%d) must be positive", distinctKeys);
+        Preconditions.checkGreaterThanOrEqualTo(skew, 0d, "skew (%s) must not be negative", skew);
+
+        double[] cumulativeProbabilities = new double[distinctKeys];
+        double sum = 0;
+        for (int rank = 0; rank < distinctKeys; rank++) {
+            sum += 1 / Math.pow(rank + 1, skew);
+            cumulativeProbabilities[rank] = sum;
+        }
+
+        Random random = new Random(seed);
+        Integer[] keys = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            int rank = Arrays.binarySearch(cumulativeProbabilities, random.nextDouble() * sum);
+            rank = rank >= 0 ? rank : -rank - 1;
+
+            // Scatter the ranks with a multiplicative hash, and box all the keys beforehand
+            keys[i] = rank * 0x9E3779B9;
+        }
+        return keys;
+    }
+}
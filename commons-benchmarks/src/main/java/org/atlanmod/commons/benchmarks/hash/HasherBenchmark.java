@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.benchmarks.hash;
+
+import org.atlanmod.commons.hash.HashCode;
+import org.atlanmod.commons.hash.Hasher;
+import org.atlanmod.commons.hash.StandardHashers;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Benchmarks of the {@link StandardHashers}, shared between all the threads.
+ * <p>
+ * The {@code hashToLong} benchmarks measure the primitive variants, which do not allocate any object for the 64-bit
+ * hashers.
+ * <p>
+ * The throughput of a thread-safe hasher must grow with the number of threads, up to the number of cores. The number
+ * of threads is set with the {@code -t} option of JMH:
+ * <pre>{@code
+ * mvn -P benchmarks package
+ * java -jar commons-benchmarks/target/benchmarks.jar HasherBenchmark -t 1
+ * java -jar commons-benchmarks/target/benchmarks.jar HasherBenchmark -t 4
+ * }</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@ParametersAreNonnullByDefault
+public class HasherBenchmark {
+
+    /**
+     * The name of the benchmarked hasher, as accepted by {@link StandardHashers#forName(String)}.
+     */
+    @Param({"MD5", "SHA1", "SHA256", "MURMUR3"})
+    private String algorithm;
+
+    /**
+     * The number of bytes to hash.
+     */
+    @Param({"64", "4096"})
+    private int dataSize;
+
+    /**
+     * The benchmarked hasher.
+     */
+    private Hasher hasher;
+
+    @Setup
+    public void setUp() {
+        hasher = StandardHashers.forName(algorithm);
+    }
+
+    @Benchmark
+    public HashCode hash(ThreadState state) {
+        return hasher.hash(state.data);
+    }
+
+    @Benchmark
+    public long hashToLong(ThreadState state) {
+        return hasher.hashToLong(state.data);
+    }
+
+    @Benchmark
+    public long hashIntToLong(ThreadState state) {
+        return hasher.hashToLong(state.counter++);
+    }
+
+    /**
+     * The data hashed by a thread.
+     */
+    @State(Scope.Thread)
+    public static class ThreadState {
+
+        /**
+         * The data to hash.
+         */
+        byte[] data;
+
+        /**
+         * The next key to hash, as in the partitioning of a cache.
+         */
+        int counter;
+
+        @Setup
+        public void setUp(HasherBenchmark benchmark) {
+            data = new byte[benchmark.dataSize];
+            ThreadLocalRandom.current().nextBytes(data);
+        }
+    }
+}
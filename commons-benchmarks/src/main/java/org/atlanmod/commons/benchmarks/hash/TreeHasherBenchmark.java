@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.benchmarks.hash;
+
+import org.atlanmod.commons.hash.HashCode;
+import org.atlanmod.commons.hash.Hasher;
+import org.atlanmod.commons.hash.MerkleTree;
+import org.atlanmod.commons.hash.StandardHashers;
+import org.atlanmod.commons.hash.TreeHasher;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Benchmarks of the {@link TreeHasher} on a large payload, compared with the sequential hashing of its leaf hasher.
+ * <p>
+ * The tree hashing uses all the threads of the common pool: its speedup depends on the number of cores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@ParametersAreNonnullByDefault
+public class TreeHasherBenchmark {
+
+    /**
+     * The name of the leaf hasher, as accepted by {@link StandardHashers#forName(String)}.
+     */
+    @Param({"SHA256", "XX"})
+    private String algorithm;
+
+    /**
+     * The number of bytes to hash.
+     */
+    @Param({"67108864"})
+    private int dataSize;
+
+    /**
+     * The leaf hasher, used alone as a reference.
+     */
+    private Hasher leafHasher;
+
+    /**
+     * The benchmarked hasher.
+     */
+    private TreeHasher treeHasher;
+
+    /**
+     * The data to hash.
+     */
+    private byte[] data;
+
+    /**
+     * The tree of the data.
+     */
+    private MerkleTree tree;
+
+    @Setup
+    public void setUp() {
+        leafHasher = StandardHashers.forName(algorithm);
+        treeHasher = new TreeHasher(leafHasher);
+
+        data = new byte[dataSize];
+        ThreadLocalRandom.current().nextBytes(data);
+        tree = treeHasher.tree(data);
+    }
+
+    @Benchmark
+    public HashCode sequential() {
+        return leafHasher.hash(data);
+    }
+
+    @Benchmark
+    public HashCode tree() {
+        return treeHasher.hash(data);
+    }
+
+    @Benchmark
+    public MerkleTree updateOneChunk() {
+        return treeHasher.update(tree, ByteBuffer.wrap(data), dataSize / 2, 1);
+    }
+}
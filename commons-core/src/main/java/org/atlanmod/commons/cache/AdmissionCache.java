@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.Preconditions;
+import org.atlanmod.commons.log.Log;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * A {@link Cache} that only stores the computed values of the keys that have been requested at least twice recently,
+ * so that a scan through many keys accessed once does not evict the frequently accessed entries.
+ * <p>
+ * The recently requested keys are remembered by a {@link Doorkeeper}. On a miss, the value is computed outside the
+ * delegated cache, then stored only if its key passes the doorkeeper; otherwise it is returned without being stored,
+ * and the rejection is counted by {@link CacheStats#admissionRejectedCount()}. The values stored explicitly, with
+ * {@link #put(Object, Object)} and its variants, are always admitted. When the cache computes its values itself, {@link
+ * #getAll(Iterable)} and {@link #refresh(Object)} load the missing values through the same admission policy.
+ * <p>
+ * If a key is invalidated while its value is computed, the computed value is not kept. The concurrent loadings of the
+ * same key are coalesced if this cache is built with {@link CacheBuilder#coalesceLoads()}.
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of mapped values
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+final class AdmissionCache<K, V> extends ComputingCache<K, V> {
+
+    /**
+     * The delegated cache.
+     */
+    @Nonnull
+    private final Cache<K, V> delegate;
+
+    /**
+     * The filter of the recently requested keys.
+     */
+    @Nonnull
+    private final Doorkeeper doorkeeper;
+
+    /**
+     * The function to compute the values of {@link #get(Object)}, or {@code null} if the delegated cache does not load
+     * its values.
+     */
+    @Nullable
+    private final Function<? super K, ? extends V> mappingFunction;
+
+    /**
+     * The number of rejected admissions.
+     */
+    @Nonnull
+    private final LongAdder rejectedCount = new LongAdder();
+
+    /**
+     * Constructs a new {@code AdmissionCache}.
+     *
+     * @param delegate        the delegated cache
+     * @param expectedKeys    the number of keys remembered by the doorkeeper, typically the maximum size of the cache
+     * @param mappingFunction the function to compute the values of {@link #get(Object)}, or {@code null} if the
+     *                        delegated cache does not load its values
+     * @param recordStats     {@code true} if the statistics are recorded
+     * @param coalesceLoads   {@code true} if the concurrent loadings of the same key are coalesced
+     */
+    public AdmissionCache(Cache<K, V> delegate, @Nonnegative long expectedKeys, @Nullable Function<? super K, ? extends V> mappingFunction, boolean recordStats, boolean coalesceLoads) {
+        super(recordStats, coalesceLoads);
+        this.delegate = delegate;
+        this.doorkeeper = new Doorkeeper(expectedKeys);
+        this.mappingFunction = mappingFunction;
+    }
+
+    @Nonnull
+    @Override
+    protected Cache<K, V> delegate() {
+        return delegate;
+    }
+
+    @Nullable
+    @Override
+    public V get(K key) {
+        return nonNull(mappingFunction)
+                ? get(key, mappingFunction)
+                : delegate.get(key);
+    }
+
+    @Override
+    public V get(K key, Function<? super K, ? extends V> mappingFunction) {
+        Preconditions.checkNotNull(key, "key");
+        Preconditions.checkNotNull(mappingFunction, "mappingFunction");
+
+        V value = delegate.get(key);
+        if (nonNull(value)) {
+            return value;
+        }
+
+        return loadAndStore(key, mappingFunction, v -> admit(key, v));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * If the values are computed by this cache, the missing values are loaded and submitted to the admission policy.
+     */
+    @Nonnull
+    @Override
+    public Map<K, V> getAll(Iterable<? extends K> keys) {
+        Preconditions.checkNotNull(keys, "keys");
+
+        if (isNull(mappingFunction)) {
+            return delegate.getAll(keys);
+        }
+
+        Map<K, V> presentValues = delegate.getAll(keys);
+        Map<K, V> values = new LinkedHashMap<>();
+        for (K key : keys) {
+            if (values.containsKey(key)) {
+                continue;
+            }
+
+            V value = presentValues.get(key);
+            if (isNull(value)) {
+                value = loadAndStore(key, mappingFunction, v -> admit(key, v));
+            }
+            if (nonNull(value)) {
+                values.put(key, value);
+            }
+        }
+        return Collections.unmodifiableMap(values);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The new value is loaded synchronously. If the {@code key} is absent, the new value is submitted to the admission
+     * policy.
+     */
+    @Override
+    public void refresh(K key) {
+        Preconditions.checkNotNull(key, "key");
+
+        if (isNull(mappingFunction)) {
+            return;
+        }
+
+        V value;
+        try {
+            value = loadAndStore(key, mappingFunction, v -> isNull(delegate.asMap().replace(key, v)) ? admit(key, v) : v);
+        }
+        catch (RuntimeException e) {
+            Log.warn(e, "Unable to refresh the value of {0}", key);
+            return;
+        }
+
+        if (isNull(value)) {
+            invalidate(key);
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        super.invalidateAll();
+        doorkeeper.clear();
+    }
+
+    @Nonnull
+    @Override
+    public CacheStats stats() {
+        CacheStats stats = super.stats();
+        return recordsStats()
+                ? stats.toBuilder().admissionRejectedCount(rejectedCount.sum()).build()
+                : stats;
+    }
+
+    /**
+     * Stores a computed value if its {@code key} passes the doorkeeper, unless a value has been stored in the
+     * meantime.
+     *
+     * @param key   the key of the value
+     * @param value the computed value
+     *
+     * @return the current value associated with the {@code key}, or the computed value if it has not been admitted
+     */
+    @Nonnull
+    private V admit(K key, V value) {
+        if (!doorkeeper.record(key)) {
+            rejectedCount.increment();
+            return value;
+        }
+
+        V currentValue = delegate.asMap().putIfAbsent(key, value);
+        return nonNull(currentValue) ? currentValue : value;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A semi-persistent mapping from keys to values, which computes its values asynchronously and returns them as {@link
+ * CompletableFuture}s. Values are loaded on an {@link Executor}, so that a slow loading does not block the calling
+ * thread, and the loadings of distinct keys can overlap.
+ * <p>
+ * Implementations of this interface are expected to be thread-safe, and can be safely accessed by multiple concurrent
+ * threads.
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of mapped values
+ *
+ * @see CacheBuilder#buildAsync(Function)
+ * @see CacheBuilder#buildAsync(Function, Executor)
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+public interface AsyncCache<K, V> {
+
+    /**
+     * Returns the future value associated with the {@code key} in this cache, or {@code null} if there is no cached
+     * future for the {@code key}.
+     *
+     * @param key the key whose associated value is to be returned
+     *
+     * @return the future value to which the specified key is mapped, or {@code null} if this cache contains no mapping
+     * for the key
+     */
+    @Nullable
+    CompletableFuture<V> getIfPresent(K key);
+
+    /**
+     * Returns the future value associated with the {@code key} in this cache, obtaining that value from the loading
+     * function of this cache if necessary. If another call is currently loading the value for the {@code key}, the
+     * future of this loading is returned.
+     * <p>
+     * If the asynchronous computation fails or computes a {@code null} value, then the entry will be automatically
+     * removed.
+     *
+     * @param key the key whose associated value is to be returned
+     *
+     * @return the current (existing or computed) future value associated with the specified key
+     */
+    @Nonnull
+    CompletableFuture<V> get(K key);
+
+    /**
+     * Returns the future value associated with the {@code key} in this cache, obtaining that value from the {@code
+     * mappingFunction} if necessary. The {@code mappingFunction} is called on the executor of this cache.
+     * <p>
+     * If the asynchronous computation fails or computes a {@code null} value, then the entry will be automatically
+     * removed.
+     *
+     * @param key             the key with which the specified value is to be associated
+     * @param mappingFunction the function to asynchronously compute a value
+     *
+     * @return the current (existing or computed) future value associated with the specified key
+     */
+    @Nonnull
+    CompletableFuture<V> get(K key, Function<? super K, ? extends V> mappingFunction);
+
+    /**
+     * Returns the future of a map of the values associated with the {@code keys}, loading the values that are not
+     * already present in this cache. The missing keys are loaded concurrently, and the returned future completes when
+     * all of them are loaded.
+     *
+     * @param keys the keys whose associated values are to be returned
+     *
+     * @return the future of the unmodifiable mapping of keys to values for the specified keys
+     */
+    @Nonnull
+    CompletableFuture<Map<K, V>> getAll(Iterable<? extends K> keys);
+
+    /**
+     * Associates the {@code valueFuture} with the {@code key} in this cache. If the cache previously contained a value
+     * associated with the {@code key}, the old value is replaced by the new {@code valueFuture}.
+     * <p>
+     * If the asynchronous computation fails or computes a {@code null} value, then the entry will be automatically
+     * removed.
+     *
+     * @param key         the key with which the specified value is to be associated
+     * @param valueFuture the future value to be associated with the specified key
+     */
+    void put(K key, CompletableFuture<V> valueFuture);
+
+    /**
+     * Returns a view of the entries stored in this cache as a synchronous {@link Cache}. A mapping is not present if
+     * the value is currently being loaded. Modifications made to the synchronous cache directly affect the asynchronous
+     * cache.
+     *
+     * @return a thread-safe synchronous view of this cache
+     */
+    @Nonnull
+    Cache<K, V> synchronous();
+}
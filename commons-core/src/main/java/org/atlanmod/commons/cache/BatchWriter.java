@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * A writer that propagates the modifications of a {@link Cache} to an external store, by batches.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ *
+ * @see CacheBuilder#writeBehind(BatchWriter, java.time.Duration, int)
+ */
+@FunctionalInterface
+@ParametersAreNonnullByDefault
+public interface BatchWriter<K, V> {
+
+    /**
+     * Writes the {@code entries} to the external store. Each key appears only once, with its latest value.
+     *
+     * @param entries the entries to write
+     */
+    void writeAll(Map<? extends K, ? extends V> entries);
+
+    /**
+     * Deletes the entries associated with the {@code keys} from the external store. By default, does nothing.
+     *
+     * @param keys the keys of the entries to delete
+     */
+    default void deleteAll(Set<? extends K> keys) {
+        // Do nothing
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * A Caffeine {@link CacheLoader} that delegates all its loadings to a bulk {@link Function}, so that the missing keys
+ * of a {@link Cache#getAll(Iterable)} call are loaded in a single batch.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ */
+@ParametersAreNonnullByDefault
+class BulkCacheLoader<K, V> implements CacheLoader<K, V> {
+
+    /**
+     * The function used to obtain new values.
+     */
+    @Nonnull
+    private final Function<? super Set<K>, ? extends Map<? extends K, ? extends V>> bulkMappingFunction;
+
+    /**
+     * Constructs a new {@code BulkCacheLoader}.
+     *
+     * @param bulkMappingFunction the function used to obtain new values
+     */
+    public BulkCacheLoader(Function<? super Set<K>, ? extends Map<? extends K, ? extends V>> bulkMappingFunction) {
+        this.bulkMappingFunction = bulkMappingFunction;
+    }
+
+    @Nullable
+    @Override
+    public V load(K key) {
+        Map<? extends K, ? extends V> values = bulkMappingFunction.apply(Collections.singleton(key));
+        return values.get(key);
+    }
+
+    @Nonnull
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<K, V> loadAll(Iterable<? extends K> keys) {
+        Set<K> keySet = new LinkedHashSet<>();
+        keys.forEach(keySet::add);
+
+        return (Map<K, V>) bulkMappingFunction.apply(Collections.unmodifiableSet(keySet));
+    }
+}
@@ -8,15 +8,24 @@
 
 package org.atlanmod.commons.cache;
 
+import org.atlanmod.commons.Preconditions;
+
+import java.io.Closeable;
 import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.ParametersAreNonnullByDefault;
 import javax.annotation.concurrent.ThreadSafe;
 
+import static java.util.Objects.nonNull;
+
 /**
  * A semi-persistent mapping from keys to values. Cache entries are manually added using {@link #get(Object, Function)}
  * or {@link #put(Object, Object)}, and are stored in the cache until either evicted or manually invalidated.
@@ -29,7 +38,7 @@ import javax.annotation.concurrent.ThreadSafe;
  */
 @ThreadSafe
 @ParametersAreNonnullByDefault
-public interface Cache<K, V> {
+public interface Cache<K, V> extends Closeable {
 
     /**
      * Returns the value associated with the {@code key} in this cache, or {@code null} if there is no cached value for
@@ -62,6 +71,31 @@ public interface Cache<K, V> {
      */
     V get(K key, Function<? super K, ? extends V> mappingFunction);
 
+    /**
+     * Returns the value associated with the {@code key} in this cache, or computes it with the {@code mappingFunction}
+     * without storing it in this cache.
+     * <p>
+     * Unlike {@link #get(Object, Function)}, this method never adds an entry, does not count as a request for the
+     * admission policy of a {@linkplain CacheBuilder#scanResistant() scan-resistant} cache, and does not record any
+     * statistics. It is intended for one-off reads, such as batch scans, that must not pollute the cache. The value is
+     * read from {@link #asMap()}: a cached value may still count as an access for the eviction policy of the cache, as
+     * Caffeine does not provide any read that leaves its frequency and recency unchanged.
+     *
+     * @param key             the key whose associated value is to be returned
+     * @param mappingFunction the function to compute a value
+     *
+     * @return the cached value associated with the specified key, or the computed value if there is none
+     *
+     * @throws RuntimeException if the mappingFunction does so
+     */
+    default V bypass(K key, Function<? super K, ? extends V> mappingFunction) {
+        Preconditions.checkNotNull(key, "key");
+        Preconditions.checkNotNull(mappingFunction, "mappingFunction");
+
+        V value = asMap().get(key);
+        return nonNull(value) ? value : mappingFunction.apply(key);
+    }
+
     /**
      * Returns a map of the values associated with the {@code keys} in this cache. The returned map will only contain
      * entries which are already present in the cache.
@@ -120,6 +154,90 @@ public interface Cache<K, V> {
      */
     void invalidateAll();
 
+    /**
+     * Performs the {@code action} for each entry of this cache, in parallel on the {@link
+     * java.util.concurrent.ForkJoinPool#commonPool()} if this cache contains at least {@code parallelismThreshold}
+     * entries.
+     * <p>
+     * The entries are read from {@link #asMap()} without copying them: the iteration is weakly consistent, and the
+     * {@code action} may be performed concurrently for different entries. The lookups do not record any statistics.
+     *
+     * @param parallelismThreshold the estimated number of entries needed for this operation to be executed in parallel;
+     *                             {@link Long#MAX_VALUE} performs it sequentially
+     * @param action               the action to perform for each entry
+     *
+     * @throws IllegalArgumentException if {@code parallelismThreshold} is not positive
+     */
+    default void forEach(@Nonnegative long parallelismThreshold, BiConsumer<? super K, ? super V> action) {
+        Preconditions.checkArgument(parallelismThreshold > 0, "parallelismThreshold (%d) must be positive", parallelismThreshold);
+        Preconditions.checkNotNull(action, "action");
+
+        Stream<Map.Entry<K, V>> entries = asMap().entrySet().stream();
+        if (size() >= parallelismThreshold) {
+            entries = entries.parallel();
+        }
+        entries.forEach(e -> action.accept(e.getKey(), e.getValue()));
+    }
+
+    /**
+     * Discards the entries of this cache that match the {@code predicate}, in parallel on the {@link
+     * java.util.concurrent.ForkJoinPool#commonPool()} if this cache contains at least {@code parallelismThreshold}
+     * entries.
+     * <p>
+     * An entry is only discarded if it is still associated with the tested value: an entry updated concurrently is
+     * kept. The {@code predicate} may be tested concurrently for different entries.
+     *
+     * @param parallelismThreshold the estimated number of entries needed for this operation to be executed in parallel;
+     *                             {@link Long#MAX_VALUE} performs it sequentially
+     * @param predicate            the predicate that returns {@code true} for the entries to discard
+     *
+     * @return the number of discarded entries
+     *
+     * @throws IllegalArgumentException if {@code parallelismThreshold} is not positive
+     */
+    @Nonnegative
+    default long invalidateIf(@Nonnegative long parallelismThreshold, BiPredicate<? super K, ? super V> predicate) {
+        Preconditions.checkArgument(parallelismThreshold > 0, "parallelismThreshold (%d) must be positive", parallelismThreshold);
+        Preconditions.checkNotNull(predicate, "predicate");
+
+        ConcurrentMap<K, V> map = asMap();
+        Stream<Map.Entry<K, V>> entries = map.entrySet().stream();
+        if (size() >= parallelismThreshold) {
+            entries = entries.parallel();
+        }
+        return entries
+                .filter(e -> predicate.test(e.getKey(), e.getValue()))
+                .filter(e -> map.remove(e.getKey(), e.getValue()))
+                .count();
+    }
+
+    /**
+     * Replaces the value of each entry of this cache with the result of the {@code function}, in parallel on the
+     * {@link java.util.concurrent.ForkJoinPool#commonPool()} if this cache contains at least {@code
+     * parallelismThreshold} entries.
+     * <p>
+     * Each entry is updated atomically, with {@link ConcurrentMap#computeIfPresent(Object, BiFunction)}: if the {@code
+     * function} returns {@code null}, the entry is discarded. The {@code function} may be applied concurrently for
+     * different entries.
+     *
+     * @param parallelismThreshold the estimated number of entries needed for this operation to be executed in parallel;
+     *                             {@link Long#MAX_VALUE} performs it sequentially
+     * @param function             the function that computes the new value of an entry
+     *
+     * @throws IllegalArgumentException if {@code parallelismThreshold} is not positive
+     */
+    default void replaceAll(@Nonnegative long parallelismThreshold, BiFunction<? super K, ? super V, ? extends V> function) {
+        Preconditions.checkArgument(parallelismThreshold > 0, "parallelismThreshold (%d) must be positive", parallelismThreshold);
+        Preconditions.checkNotNull(function, "function");
+
+        ConcurrentMap<K, V> map = asMap();
+        Stream<K> keys = map.keySet().stream();
+        if (size() >= parallelismThreshold) {
+            keys = keys.parallel();
+        }
+        keys.forEach(k -> map.computeIfPresent(k, function));
+    }
+
     /**
      * Returns {@code true} if this map contains a mapping for the specified {@code key}.
      *
@@ -152,6 +270,18 @@ public interface Cache<K, V> {
      */
     void cleanUp();
 
+    /**
+     * Releases the resources held by this cache outside of the Java heap, such as the memory of an off-heap cache or
+     * the file of a tiered cache. A cache that only stores its entries on the heap does not need to be closed: by
+     * default, this method does nothing.
+     * <p>
+     * A closed cache must not be used anymore. Closing a closed cache has no effect.
+     */
+    @Override
+    default void close() {
+        // Nothing to release
+    }
+
     /**
      * Returns a view of the entries stored in this cache as a thread-safe map. Modifications made to the map directly
      * affect the cache.
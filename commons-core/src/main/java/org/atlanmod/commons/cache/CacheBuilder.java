@@ -9,10 +9,19 @@
 package org.atlanmod.commons.cache;
 
 import org.atlanmod.commons.annotation.Builder;
+import org.atlanmod.commons.concurrent.MoreExecutors;
+import org.atlanmod.commons.hash.Hasher;
+import org.atlanmod.commons.io.serializer.BinarySerializer;
 
 import java.lang.ref.SoftReference;
 import java.lang.ref.WeakReference;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.function.ToIntBiFunction;
 
 import javax.annotation.Nonnegative;
@@ -62,6 +71,27 @@ public interface CacheBuilder<K, V> {
     @Nonnull
     CacheBuilder<K, V> recordStats();
 
+    /**
+     * Enables the accumulation of {@link CacheStats} during the operation of the cache, using the {@link StatsCounter}
+     * created by the {@code statsCounterSupplier}. A new counter is requested for each built cache.
+     * <p>
+     * The counter is notified of each event as it occurs, and can push them to a monitoring system; the evictions are
+     * recorded with their {@link RemovalCause}, asynchronously on the executor of the cache. {@link Cache#stats()}
+     * returns the {@link StatsCounter#snapshot()} of the counter, with the current weighted size of the cache.
+     * <p>
+     * This feature is not supported by tiered caches.
+     *
+     * @param statsCounterSupplier the supplier of the counters
+     *
+     * @return this builder (for chaining)
+     *
+     * @throws IllegalStateException if a counter supplier was already set
+     * @see HistogramStatsCounter
+     * @see #executor(Executor)
+     */
+    @Nonnull
+    CacheBuilder<K, V> recordStats(Supplier<? extends StatsCounter> statsCounterSupplier);
+
     /**
      * Sets the minimum total size for the internal data structures.
      * <p>
@@ -129,6 +159,26 @@ public interface CacheBuilder<K, V> {
      */
     <K1 extends K, V1 extends V> CacheBuilder<K, V> maximumWeight(@Nonnegative long maximumWeight, ToIntBiFunction<? super K1, ? extends V1> weigher);
 
+    /**
+     * Specifies the maximum number of bytes the entries of the cache may retain on the heap, as estimated by {@link
+     * Weighers#retainedSize()}. This is a shortcut for {@code maximumWeight(maximumBytes, Weighers.retainedSize())}.
+     * <p>
+     * The estimation is computed once when an entry is inserted or updated: the values must not be modified while they
+     * are in the cache. Measuring serializable objects, other than strings, arrays of primitives and boxed primitives,
+     * requires to serialize them.
+     * <p>
+     * This feature cannot be used in conjunction with {@link #maximumSize}.
+     *
+     * @param maximumBytes the maximum number of bytes retained by the entries
+     *
+     * @return this builder (for chaining)
+     *
+     * @throws IllegalArgumentException if {@code maximumBytes} is negative
+     * @throws IllegalStateException    if a maximum weight or size was already set
+     */
+    @Nonnull
+    CacheBuilder<K, V> maximumMemory(@Nonnegative long maximumBytes);
+
     /**
      * Specifies that each key (not value) stored in the cache should be wrapped in a {@link WeakReference} (by default,
      * strong references are used).
@@ -181,6 +231,279 @@ public interface CacheBuilder<K, V> {
     @Nonnull
     CacheBuilder<K, V> softValues();
 
+    /**
+     * Specifies that each entry should be automatically removed from the cache once a fixed duration has elapsed after
+     * the entry's creation, or the most recent replacement of its value.
+     * <p>
+     * Expired entries may be counted in {@link Cache#size()}, but will never be visible to read or write operations.
+     * <p>
+     * This feature cannot be used in conjunction with {@link #expireAfter(Expiry)}.
+     *
+     * @param duration the length of time after an entry is created that it should be automatically removed
+     *
+     * @return this builder (for chaining)
+     *
+     * @throws IllegalArgumentException if {@code duration} is negative
+     * @throws IllegalStateException    if the time to live or variable expiration was already set
+     */
+    @Nonnull
+    CacheBuilder<K, V> expireAfterWrite(Duration duration);
+
+    /**
+     * Specifies that each entry should be automatically removed from the cache once a fixed duration has elapsed after
+     * the entry's creation, the most recent replacement of its value, or its last read.
+     * <p>
+     * Expired entries may be counted in {@link Cache#size()}, but will never be visible to read or write operations.
+     * <p>
+     * This feature cannot be used in conjunction with {@link #expireAfter(Expiry)}.
+     *
+     * @param duration the length of time after an entry is last accessed that it should be automatically removed
+     *
+     * @return this builder (for chaining)
+     *
+     * @throws IllegalArgumentException if {@code duration} is negative
+     * @throws IllegalStateException    if the time to idle or variable expiration was already set
+     */
+    @Nonnull
+    CacheBuilder<K, V> expireAfterAccess(Duration duration);
+
+    /**
+     * Specifies that each entry should be automatically removed from the cache once a duration, calculated for each
+     * entry by the {@code expiry}, has elapsed. The {@code expiry} sets the duration when the entry is created, and
+     * decides the new duration after each replacement of its value and each read; by default, these operations keep
+     * the remaining duration unchanged.
+     * <p>
+     * This feature cannot be used in conjunction with {@link #expireAfterWrite(Duration)} or {@link
+     * #expireAfterAccess(Duration)}.
+     *
+     * @param expiry the expiry to use in calculating the expiration time of cache entries
+     * @param <K1>   the key type of the expiry
+     * @param <V1>   the value type of the expiry
+     *
+     * @return this builder (for chaining)
+     *
+     * @throws IllegalStateException if expiration was already set
+     */
+    @Nonnull
+    <K1 extends K, V1 extends V> CacheBuilder<K, V> expireAfter(Expiry<? super K1, ? super V1> expiry);
+
+    /**
+     * Specifies that active entries are eligible for automatic refresh once a fixed duration has elapsed after the
+     * entry's creation, or the most recent replacement of its value.
+     * <p>
+     * The refresh is triggered by the first read of an eligible entry, and is performed asynchronously on the executor
+     * of the cache: while the new value is loading, the previous value continues to be returned, so readers never wait
+     * for a refresh. If an exception is thrown while refreshing, the previous value is kept.
+     * <p>
+     * This feature is only supported by loading caches, built with {@link #build(Function)}, {@link
+     * #buildAll(Function)} or {@link #buildAsync(Function)}.
+     *
+     * @param duration the length of time after an entry is created that it should be considered stale, and thus
+     *                 eligible for refresh
+     *
+     * @return this builder (for chaining)
+     *
+     * @throws IllegalArgumentException if {@code duration} is zero or negative
+     * @throws IllegalStateException    if the refresh interval was already set
+     * @see #executor(Executor)
+     */
+    @Nonnull
+    CacheBuilder<K, V> refreshAfterWrite(Duration duration);
+
+    /**
+     * Specifies that the absent results of the mapping function, {@code null} or an empty {@link
+     * java.util.Optional}, must be cached during the given {@code duration}, instead of calling the function again on
+     * each miss.
+     * <p>
+     * The absent results are kept apart from the entries, and do not count towards the size of the cache. Storing,
+     * invalidating or refreshing a key forgets its absent result. Like any unsuccessful loading, the lookups answered by
+     * an absent result are counted by {@link CacheStats#loadFailureCount()}.
+     * <p>
+     * This feature is only supported by loading caches built with {@link #build(Function)}.
+     *
+     * @param duration the length of time during which an absent result is cached
+     *
+     * @return this builder (for chaining)
+     *
+     * @throws IllegalArgumentException if {@code duration} is zero or negative
+     * @throws IllegalStateException    if the negative caching was already set
+     */
+    @Nonnull
+    CacheBuilder<K, V> negativeCaching(Duration duration);
+
+    /**
+     * Specifies that the mapping function must not be called again for a key during a delay after it has failed, which
+     * doubles with each consecutive failure of the key, from {@code initialDelay} up to {@code maximumDelay}.
+     * <p>
+     * During the delay, the lookups of the key throw a new {@link LoadBackoffException} caused by the last exception of
+     * the mapping function, without calling it, and are counted by {@link CacheStats#loadFailureCount()}. A successful
+     * loading, or storing, invalidating or refreshing the key, resets its delay. This prevents a failing backend from
+     * being called on every miss.
+     * <p>
+     * This feature is only supported by loading caches built with {@link #build(Function)}.
+     *
+     * @param initialDelay the delay after the first failure of a key
+     * @param maximumDelay the maximum delay after consecutive failures of a key
+     *
+     * @return this builder (for chaining)
+     *
+     * @throws IllegalArgumentException if {@code initialDelay} is zero or negative, or if {@code maximumDelay} is
+     *                                  shorter than {@code initialDelay}
+     * @throws IllegalStateException    if the backoff was already set
+     */
+    @Nonnull
+    CacheBuilder<K, V> loadFailureBackoff(Duration initialDelay, Duration maximumDelay);
+
+    /**
+     * Specifies that the concurrent calls to {@link Cache#get(Object, Function)} for the same missing key must be
+     * coalesced: a single caller computes the value, while the others wait for its result. The number of coalesced calls
+     * is reported by {@link CacheStats#coalescedCount()}.
+     * <p>
+     * Caches backed by Caffeine already load each key at most once at a time, but block the loadings of the keys that
+     * share the same internal lock while loading; with this feature, the waiting callers do not hold any lock of the
+     * cache. This feature is only supported by manual caches, built with {@link #build()} or {@link
+     * #buildOffHeap(long, BinarySerializer)}, and by {@linkplain #scanResistant() scan-resistant} caches.
+     *
+     * @return this builder (for chaining)
+     *
+     * @throws IllegalStateException if the coalescing was already enabled
+     * @see SingleFlight
+     */
+    @Nonnull
+    CacheBuilder<K, V> coalesceLoads();
+
+    /**
+     * Specifies that the cache must resist to scans: a computed value is only stored if its key has already been
+     * requested recently, so that reading many keys once, such as in a batch job, does not evict the entries that are
+     * accessed frequently.
+     * <p>
+     * The recently requested keys are remembered by a compact probabilistic filter, sized on the maximum size of the
+     * cache. A value that is not admitted is returned without being stored, and is counted by {@link
+     * CacheStats#admissionRejectedCount()}. The values stored explicitly, with {@link Cache#put(Object, Object)} and
+     * its variants, are always admitted. The jobs that must not fill the cache nor be counted by its admission policy
+     * can read through it with {@link Cache#bypass(Object, Function)}.
+     * <p>
+     * Unlike the caches without admission, the mapping function may be applied concurrently for the same key, unless
+     * the loadings are {@linkplain #coalesceLoads() coalesced}. This feature requires {@link #maximumSize(long)}, and
+     * is only supported by caches built with {@link #build()} or {@link #build(Function)}, without refresh or load
+     * guard.
+     *
+     * @return this builder (for chaining)
+     *
+     * @throws IllegalStateException if the scan resistance was already enabled
+     */
+    @Nonnull
+    CacheBuilder<K, V> scanResistant();
+
+    /**
+     * Specifies that the byte array values of at least {@code threshold} bytes must be stored compressed with {@link
+     * Codecs#deflate()}. This is a shortcut for {@code compressValues(threshold, Codecs.deflate())}.
+     *
+     * @param threshold the minimum length of the byte arrays to compress
+     *
+     * @return this builder (for chaining)
+     *
+     * @throws IllegalArgumentException if {@code threshold} is negative
+     * @throws IllegalStateException    if the compression was already enabled
+     * @see #compressValues(int, Codec)
+     */
+    @Nonnull
+    CacheBuilder<K, V> compressValues(@Nonnegative int threshold);
+
+    /**
+     * Specifies that the byte array values of at least {@code threshold} bytes must be stored compressed with the
+     * {@code codec}, and decompressed each time they are read. A value is only compressed if its compressed form is
+     * shorter; the other values are stored as they are.
+     * <p>
+     * The weigher set by {@link #maximumWeight(long, ToIntBiFunction)} or {@link #maximumMemory(long)} receives the
+     * compressed bytes instead of the original value, so that a bounded cache holds more compressible values. Since
+     * each read decompresses the value into a new array, the values must be compared by content.
+     * <p>
+     * This feature is not supported with {@link #expireAfter(Expiry)}, and is only supported by caches built with
+     * {@link #build()}, {@link #build(Function)} or {@link #buildPartitioned(int, Hasher)} and its variant.
+     *
+     * @param threshold the minimum length of the byte arrays to compress
+     * @param codec     the codec used to compress the values
+     *
+     * @return this builder (for chaining)
+     *
+     * @throws IllegalArgumentException if {@code threshold} is negative
+     * @throws IllegalStateException    if the compression was already enabled
+     */
+    @Nonnull
+    CacheBuilder<K, V> compressValues(@Nonnegative int threshold, Codec codec);
+
+    /**
+     * Specifies a listener that is notified each time an entry is removed from the cache, whatever the {@link
+     * RemovalCause}: explicit invalidation, replacement, eviction by size, expiration, or collection of a weak or soft
+     * reference.
+     * <p>
+     * The listener is invoked asynchronously on the executor of the cache, after the removal. An exception thrown by
+     * the listener is logged and ignored.
+     * <p>
+     * This feature is not supported by caches with primitive keys, off-heap caches and tiered caches.
+     *
+     * @param listener the listener to notify
+     * @param <K1>     the key type of the listener
+     * @param <V1>     the value type of the listener
+     *
+     * @return this builder (for chaining)
+     *
+     * @throws IllegalStateException if a removal listener was already set
+     * @see #executor(Executor)
+     */
+    @Nonnull
+    <K1 extends K, V1 extends V> CacheBuilder<K, V> removalListener(RemovalListener<? super K1, ? super V1> listener);
+
+    /**
+     * Specifies that the modifications of the cache must be propagated to the {@code writer}, asynchronously and by
+     * batches.
+     * <p>
+     * The entries modified by {@link Cache#put(Object, Object)}, {@link Cache#putIfAbsent(Object, Object)}, {@link
+     * Cache#putAll(Map)} and the invalidation methods are marked as dirty, and only the latest modification of each key
+     * is kept. The dirty entries are written on the executor of the cache once the {@code delay} has elapsed after the
+     * first modification, or as soon as {@code maximumBatchSize} entries are dirty. With a {@code maximumBatchSize} of
+     * {@code 1}, each modification is written synchronously by the modifying thread, before the method returns. If too
+     * many entries are dirty, the modifying threads write them synchronously too. {@link Cache#cleanUp()} and {@link
+     * Cache#close()} write all the dirty entries synchronously. If the writer fails, the entries are written again by
+     * the next flush, up to 3 attempts, after which they are discarded. Until they are written, the dirty values remain
+     * readable even if they are evicted from the cache.
+     * <p>
+     * The values computed by a mapping function, and the modifications made through {@link Cache#asMap()}, are not
+     * written. Evictions and expirations are not propagated either.
+     * <p>
+     * This feature is not supported by asynchronous caches, caches with primitive keys and tiered caches.
+     *
+     * @param writer           the writer of the modified entries
+     * @param delay            the maximum delay between a modification and its writing
+     * @param maximumBatchSize the maximum number of entries written in a single batch
+     * @param <K1>             the key type of the writer
+     * @param <V1>             the value type of the writer
+     *
+     * @return this builder (for chaining)
+     *
+     * @throws IllegalArgumentException if {@code delay} is negative, or if {@code maximumBatchSize} is not positive
+     * @throws IllegalStateException    if a writer was already set
+     * @see #executor(Executor)
+     */
+    @Nonnull
+    <K1 extends K, V1 extends V> CacheBuilder<K, V> writeBehind(BatchWriter<? super K1, ? super V1> writer, Duration delay, @Nonnegative int maximumBatchSize);
+
+    /**
+     * Specifies the executor to use when running asynchronous tasks, such as refreshes and asynchronous loadings.
+     * <p>
+     * When no executor is specified, the refreshes and asynchronous loadings are performed on a shared pool of daemon
+     * threads created with {@link MoreExecutors#newCachedThreadPool(String)}.
+     *
+     * @param executor the executor to use for asynchronous execution
+     *
+     * @return this builder (for chaining)
+     *
+     * @throws IllegalStateException if the executor was already set
+     */
+    @Nonnull
+    CacheBuilder<K, V> executor(Executor executor);
+
     /**
      * Builds a {@link Cache} which does not automatically load values when keys are requested.
      * <p>
@@ -190,6 +513,8 @@ public interface CacheBuilder<K, V> {
      * @param <V1> the value type of the cache
      *
      * @return a new cache
+     *
+     * @throws IllegalStateException if a refresh interval was set
      */
     @Nonnull
     <K1 extends K, V1 extends V> Cache<K1, V1> build();
@@ -208,4 +533,209 @@ public interface CacheBuilder<K, V> {
      */
     @Nonnull
     <K1 extends K, V1 extends V> Cache<K1, V1> build(Function<? super K1, ? extends V1> mappingFunction);
+
+    /**
+     * Builds a {@link Cache}, which either returns an already-loaded value for a given key or retrieves it using the
+     * supplied bulk {@link Function}. When several keys are missing in a call to {@link Cache#getAll(Iterable)}, they
+     * are loaded with a single call to {@code bulkMappingFunction}, instead of one call per key.
+     * <p>
+     * The function receives the set of the missing keys, and returns the mapping of the values found; a key that is
+     * absent from the returned map is considered as not found. A single missing key is loaded as a singleton set.
+     *
+     * @param bulkMappingFunction the function used to obtain new values
+     * @param <K1>                the key type of the loader
+     * @param <V1>                the value type of the loader
+     *
+     * @return a new cache
+     */
+    @Nonnull
+    <K1 extends K, V1 extends V> Cache<K1, V1> buildAll(Function<? super Set<K1>, ? extends Map<? extends K1, ? extends V1>> bulkMappingFunction);
+
+    /**
+     * Builds a {@link PartitionedCache} made of {@code partitionCount} independent manual caches, which hold the keys
+     * according to the hash of their {@link Object#hashCode()} computed by the {@code hasher}.
+     * <p>
+     * The current settings apply to each partition, except the initial capacity, the maximum size and the maximum
+     * weight, which are divided between the partitions. A key is evicted according to the content of its partition
+     * only. When a statistics counter supplier is specified, it is called once per partition.
+     * <p>
+     * Load coalescing and write-behind are not supported by partitioned caches.
+     *
+     * @param partitionCount the number of partitions
+     * @param hasher         the hash function used to designate the partition of a key
+     * @param <K1>           the key type of the cache
+     * @param <V1>           the value type of the cache
+     *
+     * @return a new cache
+     *
+     * @throws IllegalArgumentException if {@code partitionCount} is not positive
+     * @throws IllegalStateException    if a setting is not supported by partitioned manual caches
+     */
+    @Nonnull
+    <K1 extends K, V1 extends V> PartitionedCache<K1, V1> buildPartitioned(@Nonnegative int partitionCount, Hasher hasher);
+
+    /**
+     * Builds a {@link PartitionedCache} made of {@code partitionCount} independent loading caches, which hold the keys
+     * according to the hash of their {@link Object#hashCode()} computed by the {@code hasher}. Each partition either
+     * returns an already-loaded value for a given key or atomically computes it using the supplied {@link Function}.
+     * <p>
+     * The current settings apply to each partition, as for {@link #buildPartitioned(int, Hasher)}.
+     *
+     * @param partitionCount  the number of partitions
+     * @param hasher          the hash function used to designate the partition of a key
+     * @param mappingFunction the function used to obtain new values
+     * @param <K1>            the key type of the cache
+     * @param <V1>            the value type of the cache
+     *
+     * @return a new cache
+     *
+     * @throws IllegalArgumentException if {@code partitionCount} is not positive
+     * @throws IllegalStateException    if a setting is not supported by partitioned loading caches
+     */
+    @Nonnull
+    <K1 extends K, V1 extends V> PartitionedCache<K1, V1> buildPartitioned(@Nonnegative int partitionCount, Hasher hasher, Function<? super K1, ? extends V1> mappingFunction);
+
+    /**
+     * Builds an {@link AsyncCache}, which either returns an already-loaded value for a given key or computes it
+     * asynchronously using the supplied {@link Function}. Unless an {@link #executor(Executor)} was specified, the
+     * values are loaded on a shared pool of daemon threads created with {@link MoreExecutors#newCachedThreadPool(String)},
+     * so that blocking loads can overlap.
+     * <p>
+     * Weak keys, weak values and soft values are not supported by asynchronous caches.
+     *
+     * @param mappingFunction the function used to obtain new values
+     * @param <K1>            the key type of the loader
+     * @param <V1>            the value type of the loader
+     *
+     * @return a new cache
+     *
+     * @throws IllegalStateException if weak keys, weak values or soft values were set
+     * @see #buildAsync(Function, Executor)
+     */
+    @Nonnull
+    <K1 extends K, V1 extends V> AsyncCache<K1, V1> buildAsync(Function<? super K1, ? extends V1> mappingFunction);
+
+    /**
+     * Builds an {@link AsyncCache}, which either returns an already-loaded value for a given key or computes it
+     * asynchronously on the {@code executor} using the supplied {@link Function}.
+     * <p>
+     * Weak keys, weak values and soft values are not supported by asynchronous caches.
+     *
+     * @param mappingFunction the function used to obtain new values
+     * @param executor        the executor used to load the values
+     * @param <K1>            the key type of the loader
+     * @param <V1>            the value type of the loader
+     *
+     * @return a new cache
+     *
+     * @throws IllegalStateException if weak keys, weak values or soft values were set
+     */
+    @Nonnull
+    <K1 extends K, V1 extends V> AsyncCache<K1, V1> buildAsync(Function<? super K1, ? extends V1> mappingFunction, Executor executor);
+
+    /**
+     * Builds a {@link LongCache}, which does not box its keys. The cache is backed by an open-addressing hash table, so
+     * a cache hit does not allocate.
+     * <p>
+     * Only the {@link #initialCapacity(int)}, {@link #maximumSize(long)} and {@link #recordStats()} settings are
+     * supported by this cache.
+     *
+     * @param <V1> the value type of the cache
+     *
+     * @return a new cache
+     *
+     * @throws IllegalStateException if a maximum weight, an expiration, a refresh interval, weak keys, weak values or
+     *                               soft values were set
+     */
+    @Nonnull
+    <V1 extends V> LongCache<V1> buildLong();
+
+    /**
+     * Builds an {@link IntCache}, which does not box its keys. The cache is backed by an open-addressing hash table, so
+     * a cache hit does not allocate.
+     * <p>
+     * Only the {@link #initialCapacity(int)}, {@link #maximumSize(long)} and {@link #recordStats()} settings are
+     * supported by this cache.
+     *
+     * @param <V1> the value type of the cache
+     *
+     * @return a new cache
+     *
+     * @throws IllegalStateException if a maximum weight, an expiration, a refresh interval, weak keys, weak values or
+     *                               soft values were set
+     */
+    @Nonnull
+    <V1 extends V> IntCache<V1> buildInt();
+
+    /**
+     * Builds a {@link Cache} that stores its values outside of the Java heap, in direct {@link java.nio.ByteBuffer}s.
+     * Values are serialized with the {@code serializer} when they are stored, and deserialized each time they are
+     * read. When the {@code maximumBytes} are occupied, the least recently used entries are evicted.
+     * <p>
+     * Only the {@link #initialCapacity(int)} and {@link #recordStats()} settings are supported by this cache. The
+     * {@link CacheStats#weightedSize()} of this cache is the number of bytes it occupies.
+     *
+     * @param maximumBytes the maximum number of bytes the values may occupy
+     * @param serializer   the serializer used to store the values
+     * @param <K1>         the key type of the cache
+     * @param <V1>         the value type of the cache
+     *
+     * @return a new cache
+     *
+     * @throws IllegalStateException if a maximum size, a maximum weight, an expiration, a refresh interval, weak keys,
+     *                               weak values or soft values were set
+     */
+    @Nonnull
+    <K1 extends K, V1 extends V> Cache<K1, V1> buildOffHeap(@Nonnegative long maximumBytes, BinarySerializer<V1> serializer);
+
+    /**
+     * Builds a {@link Cache} that stores its values outside of the Java heap, in a memory-mapped {@code file}. The
+     * file is truncated when the cache is built, and is only used as a backing storage: its content cannot be reused by
+     * another cache.
+     * <p>
+     * Only the {@link #initialCapacity(int)} and {@link #recordStats()} settings are supported by this cache. The
+     * {@link CacheStats#weightedSize()} of this cache is the number of bytes it occupies.
+     *
+     * @param maximumBytes the maximum number of bytes the values may occupy
+     * @param serializer   the serializer used to store the values
+     * @param file         the file to map
+     * @param <K1>         the key type of the cache
+     * @param <V1>         the value type of the cache
+     *
+     * @return a new cache
+     *
+     * @throws IllegalStateException         if a maximum size, a maximum weight, an expiration, a refresh interval, weak
+     *                                       keys, weak values or soft values were set
+     * @throws java.io.UncheckedIOException if the file cannot be opened
+     *
+     * @see #buildOffHeap(long, BinarySerializer)
+     */
+    @Nonnull
+    <K1 extends K, V1 extends V> Cache<K1, V1> buildOffHeap(@Nonnegative long maximumBytes, BinarySerializer<V1> serializer, Path file);
+
+    /**
+     * Builds a {@link TieredCache}, made of an on-heap cache in front of a store persisted in the {@code file}. The
+     * current settings of this builder apply to the first tier, which must be bounded: the entries it evicts because
+     * of its size are demoted to the second tier, and the entries found in the second tier are promoted to the first
+     * tier. Expired entries are not demoted.
+     * <p>
+     * The second tier serializes the keys and the values in the {@code file}, and evicts its least recently used
+     * entries when they occupy more than {@code maximumBytes}. If the {@code file} already exists, the entries it
+     * contains are restored. A file must not be used by several caches at the same time.
+     *
+     * @param file            the file of the second tier
+     * @param maximumBytes    the maximum number of bytes of the second tier
+     * @param keySerializer   the serializer used to store the keys in the second tier
+     * @param valueSerializer the serializer used to store the values in the second tier
+     * @param <K1>            the key type of the cache
+     * @param <V1>            the value type of the cache
+     *
+     * @return a new cache
+     *
+     * @throws IllegalStateException         if neither a maximum size nor a maximum weight were set, or if a refresh
+     *                                       interval, weak keys, weak values or soft values were set
+     * @throws java.io.UncheckedIOException if the file cannot be opened, or is not a file of a tiered cache
+     */
+    @Nonnull
+    <K1 extends K, V1 extends V> TieredCache<K1, V1> buildTiered(Path file, @Nonnegative long maximumBytes, BinarySerializer<K1> keySerializer, BinarySerializer<V1> valueSerializer);
 }
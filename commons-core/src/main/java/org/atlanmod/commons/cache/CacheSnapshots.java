@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.Preconditions;
+import org.atlanmod.commons.Throwables;
+import org.atlanmod.commons.annotation.Static;
+import org.atlanmod.commons.io.serializer.BinarySerializer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * Static utility methods to save the content of a {@link Cache} in a file, and to warm up a new cache from this file.
+ * <p>
+ * A snapshot is a sequence of records {@code [keyLength][key][valueLength][value]}, serialized with {@link
+ * BinarySerializer}s. Snapshots are written and read as streams, so that the memory used does not depend on the size
+ * of the snapshot. A snapshot is written in a temporary file of the same directory, unique to each save, which
+ * replaces the target file once complete: an interrupted save never leaves a partial snapshot, and the temporary file
+ * is deleted if the save fails.
+ */
+@Static
+@ParametersAreNonnullByDefault
+public final class CacheSnapshots {
+
+    /**
+     * The magic number identifying the snapshot files.
+     */
+    private static final int MAGIC = 0x41534E31;
+
+    /**
+     * The length that marks the end of a snapshot.
+     */
+    private static final int END = -1;
+
+    /**
+     * The size of the buffers used to write and read the files.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private CacheSnapshots() {
+        throw Throwables.notInstantiableClass(getClass());
+    }
+
+    /**
+     * Saves all the entries of the {@code cache} in the {@code file}. The entries are read from {@link
+     * Cache#asMap()}, without affecting the statistics of the cache; the entries modified during the save may or may
+     * not be included.
+     *
+     * @param cache           the cache to save
+     * @param file            the file to write
+     * @param keySerializer   the serializer used to write the keys
+     * @param valueSerializer the serializer used to write the values
+     * @param <K>             the type of keys maintained by the cache
+     * @param <V>             the type of mapped values
+     *
+     * @return the number of saved entries
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Nonnegative
+    public static <K, V> long save(Cache<K, V> cache, Path file, BinarySerializer<K> keySerializer, BinarySerializer<V> valueSerializer) throws IOException {
+        Preconditions.checkNotNull(cache, "cache");
+
+        return write(cache.asMap().entrySet(), file, keySerializer, valueSerializer);
+    }
+
+    /**
+     * Saves the {@code limit} hottest entries of the {@code cache} in the {@code file}. The entries are selected by
+     * frequency if the cache is bounded, by recency if it expires after access, and arbitrarily otherwise, including
+     * when the cache is decorated by the features of {@link CacheBuilder}. They are
+     * written from the coldest to the hottest, so that the hottest entries are the most recent ones when the snapshot
+     * is loaded.
+     *
+     * @param cache           the cache to save
+     * @param file            the file to write
+     * @param keySerializer   the serializer used to write the keys
+     * @param valueSerializer the serializer used to write the values
+     * @param limit           the maximum number of entries to save
+     * @param <K>             the type of keys maintained by the cache
+     * @param <V>             the type of mapped values
+     *
+     * @return the number of saved entries
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Nonnegative
+    public static <K, V> long save(Cache<K, V> cache, Path file, BinarySerializer<K> keySerializer, BinarySerializer<V> valueSerializer, @Nonnegative int limit) throws IOException {
+        Preconditions.checkNotNull(cache, "cache");
+        Preconditions.checkGreaterThanOrEqualTo(limit, 0, "limit (%d) must not be negative", limit);
+
+        List<Map.Entry<K, V>> entries;
+        Map<K, V> hottestEntries = hottest(cache, limit);
+        if (nonNull(hottestEntries)) {
+            entries = new ArrayList<>(hottestEntries.entrySet());
+        }
+        else {
+            entries = new ArrayList<>(Math.min(limit, 1024));
+            for (Map.Entry<K, V> e : cache.asMap().entrySet()) {
+                if (entries.size() == limit) {
+                    break;
+                }
+                entries.add(e);
+            }
+        }
+
+        Collections.reverse(entries);
+        return write(entries, file, keySerializer, valueSerializer);
+    }
+
+    /**
+     * Loads the entries of the snapshot {@code file} in the {@code cache}. An entry is only loaded if the cache does
+     * not already contain a value for its key, so that the values computed since the startup are preserved. The
+     * entries are written through {@link Cache#asMap()}, without affecting the statistics of the cache. If the {@code
+     * file} does not exist, the cache is left unchanged.
+     *
+     * @param cache           the cache to warm up
+     * @param file            the snapshot file
+     * @param keySerializer   the serializer used to read the keys
+     * @param valueSerializer the serializer used to read the values
+     * @param <K>             the type of keys maintained by the cache
+     * @param <V>             the type of mapped values
+     *
+     * @return the number of read entries
+     *
+     * @throws IOException if an I/O error occurs, or if the file is not a complete snapshot; the entries read before
+     *                     the error remain in the cache
+     */
+    @Nonnegative
+    public static <K, V> long load(Cache<K, V> cache, Path file, BinarySerializer<K> keySerializer, BinarySerializer<V> valueSerializer) throws IOException {
+        Preconditions.checkNotNull(cache, "cache");
+        Preconditions.checkNotNull(file, "file");
+        Preconditions.checkNotNull(keySerializer, "keySerializer");
+        Preconditions.checkNotNull(valueSerializer, "valueSerializer");
+
+        if (!Files.exists(file)) {
+            return 0;
+        }
+
+        ConcurrentMap<K, V> map = cache.asMap();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(String.format("%s is not a cache snapshot", file));
+            }
+
+            long count = 0;
+            int keyLength;
+            while ((keyLength = in.readInt()) != END) {
+                K key = keySerializer.deserialize(readBytes(in, keyLength));
+                V value = valueSerializer.deserialize(readBytes(in, in.readInt()));
+                map.putIfAbsent(key, value);
+                count++;
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Returns a snapshot of the {@code limit} hottest entries of the {@code cache}, from the hottest to the coldest. The
+     * decorated caches are unwrapped until a Caffeine cache is found.
+     *
+     * @param cache the cache
+     * @param limit the maximum number of entries
+     * @param <K>   the type of keys maintained by the cache
+     * @param <V>   the type of mapped values
+     *
+     * @return a snapshot of the hottest entries, or {@code null} if the cache does not order its entries
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    static <K, V> Map<K, V> hottest(Cache<K, V> cache, @Nonnegative int limit) {
+        if (cache instanceof CaffeineManualCache) {
+            return ((CaffeineManualCache<?, K, V>) cache).hottest(limit);
+        }
+        if (cache instanceof ForwardingCache) {
+            return hottest(((ForwardingCache<K, V>) cache).delegate(), limit);
+        }
+        if (cache instanceof CompressingCache) {
+            return ((CompressingCache<K, V>) cache).hottest(limit);
+        }
+        return null;
+    }
+
+    /**
+     * Writes the {@code entries} in the {@code file}.
+     *
+     * @param entries         the entries to write
+     * @param file            the file to write
+     * @param keySerializer   the serializer used to write the keys
+     * @param valueSerializer the serializer used to write the values
+     * @param <K>             the type of keys
+     * @param <V>             the type of values
+     *
+     * @return the number of written entries
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Nonnegative
+    private static <K, V> long write(Iterable<Map.Entry<K, V>> entries, Path file, BinarySerializer<K> keySerializer, BinarySerializer<V> valueSerializer) throws IOException {
+        Preconditions.checkNotNull(file, "file");
+        Preconditions.checkNotNull(keySerializer, "keySerializer");
+        Preconditions.checkNotNull(valueSerializer, "valueSerializer");
+
+        // A unique temporary file per save, so that concurrent saves do not write the same file
+        Path absoluteFile = file.toAbsolutePath();
+        Path temporaryFile = Files.createTempFile(absoluteFile.getParent(), absoluteFile.getFileName() + ".", ".tmp");
+        try {
+            long count = 0;
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile), BUFFER_SIZE))) {
+                out.writeInt(MAGIC);
+
+                for (Map.Entry<K, V> e : entries) {
+                    writeBytes(out, keySerializer.serialize(e.getKey()));
+                    writeBytes(out, valueSerializer.serialize(e.getValue()));
+                    count++;
+                }
+
+                out.writeInt(END);
+            }
+
+            Files.move(temporaryFile, absoluteFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return count;
+        }
+        finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    /**
+     * Writes a length-prefixed array of bytes.
+     *
+     * @param out  the output stream
+     * @param data the bytes to write
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private static void writeBytes(DataOutputStream out, byte[] data) throws IOException {
+        out.writeInt(data.length);
+        out.write(data);
+    }
+
+    /**
+     * Reads an array of {@code length} bytes.
+     *
+     * @param in     the input stream
+     * @param length the number of bytes to read
+     *
+     * @return the bytes
+     *
+     * @throws IOException if an I/O error occurs, or if the length is invalid
+     */
+    private static byte[] readBytes(DataInputStream in, int length) throws IOException {
+        if (length < 0) {
+            throw new IOException(String.format("Invalid record length: %d", length));
+        }
+
+        byte[] data = new byte[length];
+        in.readFully(data);
+        return data;
+    }
+}
@@ -18,7 +18,9 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
 
+import static java.util.Objects.isNull;
 import static org.atlanmod.commons.Preconditions.checkGreaterThanOrEqualTo;
 
 /**
@@ -26,7 +28,7 @@ import static org.atlanmod.commons.Preconditions.checkGreaterThanOrEqualTo;
  */
 @Immutable
 @ParametersAreNonnullByDefault
-public final class CacheStats {
+public class CacheStats {
 
     /**
      * The number of cache hits.
@@ -65,7 +67,73 @@ public final class CacheStats {
     private final long evictionCount;
 
     /**
-     * Constructs a new {@code CacheStats}.
+     * The sum of weights of evicted entries.
+     */
+    @Nonnegative
+    private final long evictionWeight;
+
+    /**
+     * The weighted size of the cache when this snapshot was taken.
+     */
+    @Nonnegative
+    private final long weightedSize;
+
+    /**
+     * The number of calls that waited for the loading of another caller.
+     */
+    @Nonnegative
+    private final long coalescedCount;
+
+    /**
+     * The number of computed values that the admission policy refused to store.
+     */
+    @Nonnegative
+    private final long admissionRejectedCount;
+
+    /**
+     * Constructs a new {@code CacheStats} from the values of a {@code builder}.
+     *
+     * @param builder the builder holding the values of the statistics
+     *
+     * @throws IllegalArgumentException if a value is negative
+     * @see #builder()
+     */
+    protected CacheStats(Builder builder) {
+        Preconditions.checkGreaterThanOrEqualTo(builder.hitCount, 0L, "hitCount (%d) must not be negative", builder.hitCount);
+        Preconditions.checkGreaterThanOrEqualTo(builder.missCount, 0L, "missCount (%d) must not be negative", builder.missCount);
+        Preconditions.checkGreaterThanOrEqualTo(builder.loadSuccessCount, 0L, "loadSuccessCount (%d) must not be negative", builder.loadSuccessCount);
+        Preconditions.checkGreaterThanOrEqualTo(builder.loadFailureCount, 0L, "loadFailureCount (%d) must not be negative", builder.loadFailureCount);
+        Preconditions.checkGreaterThanOrEqualTo(builder.totalLoadTime, 0L, "totalLoadTime (%d) must not be negative", builder.totalLoadTime);
+        Preconditions.checkGreaterThanOrEqualTo(builder.evictionCount, 0L, "evictionCount (%d) must not be negative", builder.evictionCount);
+        Preconditions.checkGreaterThanOrEqualTo(builder.evictionWeight, 0L, "evictionWeight (%d) must not be negative", builder.evictionWeight);
+        Preconditions.checkGreaterThanOrEqualTo(builder.weightedSize, 0L, "weightedSize (%d) must not be negative", builder.weightedSize);
+        Preconditions.checkGreaterThanOrEqualTo(builder.coalescedCount, 0L, "coalescedCount (%d) must not be negative", builder.coalescedCount);
+        Preconditions.checkGreaterThanOrEqualTo(builder.admissionRejectedCount, 0L, "admissionRejectedCount (%d) must not be negative", builder.admissionRejectedCount);
+
+        this.hitCount = builder.hitCount;
+        this.missCount = builder.missCount;
+        this.loadSuccessCount = builder.loadSuccessCount;
+        this.loadFailureCount = builder.loadFailureCount;
+        this.totalLoadTime = builder.totalLoadTime;
+        this.evictionCount = builder.evictionCount;
+        this.evictionWeight = builder.evictionWeight;
+        this.weightedSize = builder.weightedSize;
+        this.coalescedCount = builder.coalescedCount;
+        this.admissionRejectedCount = builder.admissionRejectedCount;
+    }
+
+    /**
+     * Creates a new builder of {@code CacheStats}, with all its values set to {@code 0}.
+     *
+     * @return a new builder
+     */
+    @Nonnull
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Creates a new {@code CacheStats}, typically from the counters of a {@link StatsCounter}.
      *
      * @param hitCount         the number of cache hits
      * @param missCount        the number of cache misses
@@ -73,21 +141,23 @@ public final class CacheStats {
      * @param loadFailureCount the number of failed cache loads
      * @param totalLoadTime    the total load time (success and failure) in nanoseconds
      * @param evictionCount    the number of entries evicted from the cache
+     * @param evictionWeight   the sum of weights of evicted entries
+     *
+     * @return a new statistics instance
+     *
+     * @throws IllegalArgumentException if a value is negative
      */
-    protected CacheStats(@Nonnegative long hitCount, @Nonnegative long missCount, @Nonnegative long loadSuccessCount, @Nonnegative long loadFailureCount, @Nonnegative long totalLoadTime, @Nonnegative long evictionCount) {
-        Preconditions.checkGreaterThanOrEqualTo(hitCount, 0L, "hitCount (%d) must not be negative", hitCount);
-        Preconditions.checkGreaterThanOrEqualTo(missCount, 0L, "missCount (%d) must not be negative", missCount);
-        Preconditions.checkGreaterThanOrEqualTo(loadSuccessCount, 0L, "loadSuccessCount (%d) must not be negative", loadSuccessCount);
-        Preconditions.checkGreaterThanOrEqualTo(loadFailureCount, 0L, "loadFailureCount (%d) must not be negative", loadFailureCount);
-        Preconditions.checkGreaterThanOrEqualTo(totalLoadTime, 0L, "totalLoadTime (%d) must not be negative", totalLoadTime);
-        Preconditions.checkGreaterThanOrEqualTo(evictionCount, 0L, "evictionCount (%d) must not be negative", evictionCount);
-
-        this.hitCount = hitCount;
-        this.missCount = missCount;
-        this.loadSuccessCount = loadSuccessCount;
-        this.loadFailureCount = loadFailureCount;
-        this.totalLoadTime = totalLoadTime;
-        this.evictionCount = evictionCount;
+    @Nonnull
+    public static CacheStats of(@Nonnegative long hitCount, @Nonnegative long missCount, @Nonnegative long loadSuccessCount, @Nonnegative long loadFailureCount, @Nonnegative long totalLoadTime, @Nonnegative long evictionCount, @Nonnegative long evictionWeight) {
+        return builder()
+                .hitCount(hitCount)
+                .missCount(missCount)
+                .loadSuccessCount(loadSuccessCount)
+                .loadFailureCount(loadFailureCount)
+                .totalLoadTime(totalLoadTime)
+                .evictionCount(evictionCount)
+                .evictionWeight(evictionWeight)
+                .build();
     }
 
     /**
@@ -237,9 +307,61 @@ public final class CacheStats {
         return evictionCount;
     }
 
+    /**
+     * Returns the sum of weights of evicted entries. This total does not include manual {@link Cache#invalidate}. For
+     * a cache that is not bounded by weight, each entry weighs {@code 1}.
+     *
+     * @return the sum of weights of evicted entries
+     */
+    @Nonnegative
+    public long evictionWeight() {
+        return evictionWeight;
+    }
+
+    /**
+     * Returns the weighted size of the cache when this snapshot was taken, such as the number of bytes occupied by an
+     * off-heap cache. Unlike the other statistics, this value is not cumulative; it is {@code 0} for a cache that is
+     * not bounded by weight.
+     *
+     * @return the weighted size of the cache
+     */
+    @Nonnegative
+    public long weightedSize() {
+        return weightedSize;
+    }
+
+    /**
+     * Returns the number of calls to {@link Cache#get(Object, java.util.function.Function)} that waited for the loading
+     * of the same key by another caller, instead of loading it again. This value is only recorded by the caches that
+     * coalesce their loadings.
+     *
+     * @return the number of coalesced calls
+     *
+     * @see CacheBuilder#coalesceLoads()
+     */
+    @Nonnegative
+    public long coalescedCount() {
+        return coalescedCount;
+    }
+
+    /**
+     * Returns the number of values computed by {@link Cache#get(Object, java.util.function.Function)} that the
+     * admission policy of the cache refused to store, because their key was not accessed frequently enough. This value
+     * is only recorded by scan-resistant caches.
+     *
+     * @return the number of rejected admissions
+     *
+     * @see CacheBuilder#scanResistant()
+     */
+    @Nonnegative
+    public long admissionRejectedCount() {
+        return admissionRejectedCount;
+    }
+
     /**
      * Returns a new {@code CacheStats} representing the difference between this {@code CacheStats} and {@code other}.
-     * Negative values, which aren't supported by {@code CacheStats} will be rounded up to zero.
+     * Negative values, which aren't supported by {@code CacheStats} will be rounded up to zero. The {@link
+     * #weightedSize()} is not cumulative: the one of this instance is kept.
      *
      * @param other the statistics to subtract with
      *
@@ -247,17 +369,23 @@ public final class CacheStats {
      */
     @Nonnull
     public CacheStats minus(CacheStats other) {
-        return new CacheStats(
-                Math.max(0L, hitCount - other.hitCount),
-                Math.max(0L, missCount - other.missCount),
-                Math.max(0L, loadSuccessCount - other.loadSuccessCount),
-                Math.max(0L, loadFailureCount - other.loadFailureCount),
-                Math.max(0L, totalLoadTime - other.totalLoadTime),
-                Math.max(0L, evictionCount - other.evictionCount));
+        return builder()
+                .hitCount(Math.max(0L, hitCount - other.hitCount))
+                .missCount(Math.max(0L, missCount - other.missCount))
+                .loadSuccessCount(Math.max(0L, loadSuccessCount - other.loadSuccessCount))
+                .loadFailureCount(Math.max(0L, loadFailureCount - other.loadFailureCount))
+                .totalLoadTime(Math.max(0L, totalLoadTime - other.totalLoadTime))
+                .evictionCount(Math.max(0L, evictionCount - other.evictionCount))
+                .evictionWeight(Math.max(0L, evictionWeight - other.evictionWeight))
+                .weightedSize(weightedSize)
+                .coalescedCount(Math.max(0L, coalescedCount - other.coalescedCount))
+                .admissionRejectedCount(Math.max(0L, admissionRejectedCount - other.admissionRejectedCount))
+                .build();
     }
 
     /**
-     * Returns a new {@code CacheStats} representing the sum of this {@code CacheStats} and {@code other}.
+     * Returns a new {@code CacheStats} representing the sum of this {@code CacheStats} and {@code other}. The {@link
+     * #weightedSize()} are also summed, so that the statistics of several caches can be aggregated.
      *
      * @param other the statistics to add with
      *
@@ -265,18 +393,43 @@ public final class CacheStats {
      */
     @Nonnull
     public CacheStats plus(CacheStats other) {
-        return new CacheStats(
-                hitCount + other.hitCount,
-                missCount + other.missCount,
-                loadSuccessCount + other.loadSuccessCount,
-                loadFailureCount + other.loadFailureCount,
-                totalLoadTime + other.totalLoadTime,
-                evictionCount + other.evictionCount);
+        return builder()
+                .hitCount(hitCount + other.hitCount)
+                .missCount(missCount + other.missCount)
+                .loadSuccessCount(loadSuccessCount + other.loadSuccessCount)
+                .loadFailureCount(loadFailureCount + other.loadFailureCount)
+                .totalLoadTime(totalLoadTime + other.totalLoadTime)
+                .evictionCount(evictionCount + other.evictionCount)
+                .evictionWeight(evictionWeight + other.evictionWeight)
+                .weightedSize(weightedSize + other.weightedSize)
+                .coalescedCount(coalescedCount + other.coalescedCount)
+                .admissionRejectedCount(admissionRejectedCount + other.admissionRejectedCount)
+                .build();
+    }
+
+    /**
+     * Creates a new builder initialized with the values of this {@code CacheStats}, to create a modified copy.
+     *
+     * @return a new builder
+     */
+    @Nonnull
+    public Builder toBuilder() {
+        return builder()
+                .hitCount(hitCount)
+                .missCount(missCount)
+                .loadSuccessCount(loadSuccessCount)
+                .loadFailureCount(loadFailureCount)
+                .totalLoadTime(totalLoadTime)
+                .evictionCount(evictionCount)
+                .evictionWeight(evictionWeight)
+                .weightedSize(weightedSize)
+                .coalescedCount(coalescedCount)
+                .admissionRejectedCount(admissionRejectedCount);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(hitCount, missCount, loadSuccessCount, loadFailureCount, totalLoadTime, evictionCount);
+        return Objects.hash(hitCount, missCount, loadSuccessCount, loadFailureCount, totalLoadTime, evictionCount, evictionWeight, weightedSize, coalescedCount, admissionRejectedCount);
     }
 
     @Override
@@ -284,7 +437,7 @@ public final class CacheStats {
         if (this == o) {
             return true;
         }
-        if (!CacheStats.class.isInstance(o)) {
+        if (isNull(o) || getClass() != o.getClass()) {
             return false;
         }
 
@@ -294,7 +447,11 @@ public final class CacheStats {
                 && loadSuccessCount == that.loadSuccessCount
                 && loadFailureCount == that.loadFailureCount
                 && totalLoadTime == that.totalLoadTime
-                && evictionCount == that.evictionCount;
+                && evictionCount == that.evictionCount
+                && evictionWeight == that.evictionWeight
+                && weightedSize == that.weightedSize
+                && coalescedCount == that.coalescedCount
+                && admissionRejectedCount == that.admissionRejectedCount;
     }
 
     @Override
@@ -302,12 +459,233 @@ public final class CacheStats {
         return String.format("CacheStats {"
                         + "Hit = %d (%.0f%%), "
                         + "Miss = %d (%.0f%%), "
-                        + "Eviction Count = %d"
+                        + "Load Success = %d, "
+                        + "Load Failure = %d, "
+                        + "Eviction Count = %d, "
+                        + "Eviction Weight = %d, "
+                        + "Weighted Size = %d, "
+                        + "Coalesced = %d, "
+                        + "Admission Rejected = %d"
                         + '}',
                 hitCount(),
                 hitRate() * 100,
                 missCount(),
                 missRate() * 100,
-                evictionCount());
+                loadSuccessCount(),
+                loadFailureCount(),
+                evictionCount(),
+                evictionWeight(),
+                weightedSize(),
+                coalescedCount(),
+                admissionRejectedCount());
+    }
+
+    /**
+     * A builder of {@link CacheStats}. All the values are {@code 0} unless they are specified.
+     *
+     * @see #builder()
+     * @see #toBuilder()
+     */
+    @NotThreadSafe
+    @ParametersAreNonnullByDefault
+    public static final class Builder {
+
+        /**
+         * The number of cache hits.
+         */
+        private long hitCount;
+
+        /**
+         * The number of cache misses.
+         */
+        private long missCount;
+
+        /**
+         * The number of successful cache loads.
+         */
+        private long loadSuccessCount;
+
+        /**
+         * The number of failed cache loads.
+         */
+        private long loadFailureCount;
+
+        /**
+         * The total load time (success and failure) in nanoseconds.
+         */
+        private long totalLoadTime;
+
+        /**
+         * The number of entries evicted from the cache.
+         */
+        private long evictionCount;
+
+        /**
+         * The sum of weights of evicted entries.
+         */
+        private long evictionWeight;
+
+        /**
+         * The weighted size of the cache when the snapshot was taken.
+         */
+        private long weightedSize;
+
+        /**
+         * The number of calls that waited for the loading of another caller.
+         */
+        private long coalescedCount;
+
+        /**
+         * The number of computed values that the admission policy refused to store.
+         */
+        private long admissionRejectedCount;
+
+        /**
+         * Constructs a new {@code Builder}.
+         */
+        private Builder() {
+        }
+
+        /**
+         * Sets the number of cache hits.
+         *
+         * @param hitCount the number of cache hits
+         *
+         * @return this builder (for chaining)
+         */
+        @Nonnull
+        public Builder hitCount(@Nonnegative long hitCount) {
+            this.hitCount = hitCount;
+            return this;
+        }
+
+        /**
+         * Sets the number of cache misses.
+         *
+         * @param missCount the number of cache misses
+         *
+         * @return this builder (for chaining)
+         */
+        @Nonnull
+        public Builder missCount(@Nonnegative long missCount) {
+            this.missCount = missCount;
+            return this;
+        }
+
+        /**
+         * Sets the number of successful cache loads.
+         *
+         * @param loadSuccessCount the number of successful cache loads
+         *
+         * @return this builder (for chaining)
+         */
+        @Nonnull
+        public Builder loadSuccessCount(@Nonnegative long loadSuccessCount) {
+            this.loadSuccessCount = loadSuccessCount;
+            return this;
+        }
+
+        /**
+         * Sets the number of failed cache loads.
+         *
+         * @param loadFailureCount the number of failed cache loads
+         *
+         * @return this builder (for chaining)
+         */
+        @Nonnull
+        public Builder loadFailureCount(@Nonnegative long loadFailureCount) {
+            this.loadFailureCount = loadFailureCount;
+            return this;
+        }
+
+        /**
+         * Sets the total load time (success and failure) in nanoseconds.
+         *
+         * @param totalLoadTime the total load time (success and failure) in nanoseconds
+         *
+         * @return this builder (for chaining)
+         */
+        @Nonnull
+        public Builder totalLoadTime(@Nonnegative long totalLoadTime) {
+            this.totalLoadTime = totalLoadTime;
+            return this;
+        }
+
+        /**
+         * Sets the number of entries evicted from the cache.
+         *
+         * @param evictionCount the number of entries evicted from the cache
+         *
+         * @return this builder (for chaining)
+         */
+        @Nonnull
+        public Builder evictionCount(@Nonnegative long evictionCount) {
+            this.evictionCount = evictionCount;
+            return this;
+        }
+
+        /**
+         * Sets the sum of weights of evicted entries.
+         *
+         * @param evictionWeight the sum of weights of evicted entries
+         *
+         * @return this builder (for chaining)
+         */
+        @Nonnull
+        public Builder evictionWeight(@Nonnegative long evictionWeight) {
+            this.evictionWeight = evictionWeight;
+            return this;
+        }
+
+        /**
+         * Sets the weighted size of the cache when the snapshot was taken.
+         *
+         * @param weightedSize the weighted size of the cache when the snapshot was taken
+         *
+         * @return this builder (for chaining)
+         */
+        @Nonnull
+        public Builder weightedSize(@Nonnegative long weightedSize) {
+            this.weightedSize = weightedSize;
+            return this;
+        }
+
+        /**
+         * Sets the number of calls that waited for the loading of another caller.
+         *
+         * @param coalescedCount the number of calls that waited for the loading of another caller
+         *
+         * @return this builder (for chaining)
+         */
+        @Nonnull
+        public Builder coalescedCount(@Nonnegative long coalescedCount) {
+            this.coalescedCount = coalescedCount;
+            return this;
+        }
+
+        /**
+         * Sets the number of computed values that the admission policy refused to store.
+         *
+         * @param admissionRejectedCount the number of computed values that the admission policy refused to store
+         *
+         * @return this builder (for chaining)
+         */
+        @Nonnull
+        public Builder admissionRejectedCount(@Nonnegative long admissionRejectedCount) {
+            this.admissionRejectedCount = admissionRejectedCount;
+            return this;
+        }
+
+        /**
+         * Creates a new {@code CacheStats} with the values of this builder.
+         *
+         * @return a new statistics instance
+         *
+         * @throws IllegalArgumentException if a value is negative
+         */
+        @Nonnull
+        public CacheStats build() {
+            return new CacheStats(this);
+        }
     }
 }
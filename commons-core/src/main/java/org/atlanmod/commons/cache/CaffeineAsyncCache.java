@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.Preconditions;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * A Caffeine {@link AsyncCache} implementation.
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of mapped values
+ */
+@ParametersAreNonnullByDefault
+class CaffeineAsyncCache<K, V> implements AsyncCache<K, V> {
+
+    /**
+     * The internal cache implementation.
+     */
+    @Nonnull
+    private final AsyncLoadingCache<K, V> cache;
+
+    /**
+     * Constructs a new {@code CaffeineAsyncCache}.
+     *
+     * @param cache the internal cache implementation
+     */
+    protected CaffeineAsyncCache(AsyncLoadingCache<K, V> cache) {
+        this.cache = cache;
+    }
+
+    @Nullable
+    @Override
+    public CompletableFuture<V> getIfPresent(K key) {
+        Preconditions.checkNotNull(key, "key");
+
+        return cache.getIfPresent(key);
+    }
+
+    @Nonnull
+    @Override
+    public CompletableFuture<V> get(K key) {
+        Preconditions.checkNotNull(key, "key");
+
+        return cache.get(key);
+    }
+
+    @Nonnull
+    @Override
+    public CompletableFuture<V> get(K key, Function<? super K, ? extends V> mappingFunction) {
+        Preconditions.checkNotNull(key, "key");
+        Preconditions.checkNotNull(mappingFunction, "mappingFunction");
+
+        return cache.get(key, mappingFunction);
+    }
+
+    @Nonnull
+    @Override
+    public CompletableFuture<Map<K, V>> getAll(Iterable<? extends K> keys) {
+        Preconditions.checkNotNull(keys, "keys");
+
+        return cache.getAll(keys);
+    }
+
+    @Override
+    public void put(K key, CompletableFuture<V> valueFuture) {
+        Preconditions.checkNotNull(key, "key");
+        Preconditions.checkNotNull(valueFuture, "valueFuture");
+
+        cache.put(key, valueFuture);
+    }
+
+    @Nonnull
+    @Override
+    public Cache<K, V> synchronous() {
+        return new CaffeineLoadingCache<>(cache.synchronous());
+    }
+}
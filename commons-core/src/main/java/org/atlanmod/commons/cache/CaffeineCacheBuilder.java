@@ -9,19 +9,39 @@
 package org.atlanmod.commons.cache;
 
 import org.atlanmod.commons.Preconditions;
+import org.atlanmod.commons.annotation.Static;
+import org.atlanmod.commons.concurrent.MoreExecutors;
+import org.atlanmod.commons.hash.Hasher;
+import org.atlanmod.commons.io.serializer.BinarySerializer;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.function.ToIntBiFunction;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 
-import static org.atlanmod.commons.Preconditions.checkGreaterThanOrEqualTo;
-import static org.atlanmod.commons.Preconditions.checkNotNull;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 
 /**
  * A Caffeine {@link CacheBuilder} implementation.
+ * <p>
+ * The settings are recorded by this builder, and a new Caffeine builder is created from them each time a cache is
+ * built. This allows the same configuration to be applied to the caches that are not backed by Caffeine.
  *
  * @param <K> the base key type for {@link Cache}s created by this builder
  * @param <V> the base value type for {@link Cache} created by this builder
@@ -30,75 +50,382 @@ import static org.atlanmod.commons.Preconditions.checkNotNull;
 final class CaffeineCacheBuilder<K, V> implements CacheBuilder<K, V> {
 
     /**
-     * The internal cache builder implementation.
+     * The value of an unset integer setting.
      */
-    @Nonnull
-    private final com.github.benmanes.caffeine.cache.Caffeine<Object, Object> builder;
+    private static final int UNSET_INT = -1;
+
+    /**
+     * Whether the statistics must be recorded.
+     */
+    private boolean recordStats;
+
+    /**
+     * The supplier of the statistics counters, or {@code null} to use the default counters.
+     */
+    @Nullable
+    private Supplier<? extends StatsCounter> statsCounterSupplier;
+
+    /**
+     * The minimum total size for the internal data structures.
+     */
+    private int initialCapacity = UNSET_INT;
+
+    /**
+     * The maximum number of entries the cache may contain.
+     */
+    private long maximumSize = UNSET_INT;
+
+    /**
+     * The maximum weight of entries the cache may contain.
+     */
+    private long maximumWeight = UNSET_INT;
+
+    /**
+     * The weigher to use in calculating the weight of cache entries.
+     */
+    @Nullable
+    private ToIntBiFunction<Object, Object> weigher;
+
+    /**
+     * Whether the keys must be wrapped in a {@link java.lang.ref.WeakReference}.
+     */
+    private boolean weakKeys;
+
+    /**
+     * Whether the values must be wrapped in a {@link java.lang.ref.WeakReference}.
+     */
+    private boolean weakValues;
+
+    /**
+     * Whether the values must be wrapped in a {@link java.lang.ref.SoftReference}.
+     */
+    private boolean softValues;
+
+    /**
+     * The duration after which an entry expires after its creation or update, in nanoseconds.
+     */
+    private long expireAfterWriteNanos = UNSET_INT;
+
+    /**
+     * The duration after which an entry expires after its last access, in nanoseconds.
+     */
+    private long expireAfterAccessNanos = UNSET_INT;
+
+    /**
+     * The expiry used to calculate a variable expiration time.
+     */
+    @Nullable
+    private Expiry<Object, Object> expiry;
+
+    /**
+     * The duration after which an entry is eligible for refresh after its creation or update, in nanoseconds.
+     */
+    private long refreshAfterWriteNanos = UNSET_INT;
+
+    /**
+     * The executor used for asynchronous tasks.
+     */
+    @Nullable
+    private Executor executor;
+
+    /**
+     * The duration during which the absent results are cached, in nanoseconds.
+     */
+    private long negativeCachingNanos = UNSET_INT;
+
+    /**
+     * The delay after the first load failure of a key, in nanoseconds.
+     */
+    private long initialBackoffNanos = UNSET_INT;
+
+    /**
+     * The maximum delay after consecutive load failures of a key, in nanoseconds.
+     */
+    private long maximumBackoffNanos = UNSET_INT;
+
+    /**
+     * Whether the concurrent loadings of the same key must be coalesced.
+     */
+    private boolean coalesceLoads;
+
+    /**
+     * Whether the computed values are only admitted for the keys that have already been requested.
+     */
+    private boolean scanResistant;
+
+    /**
+     * The codec used to compress the byte array values, or {@code null} if the values are not compressed.
+     */
+    @Nullable
+    private Codec valueCodec;
+
+    /**
+     * The minimum length of the byte array values to compress.
+     */
+    private int compressionThreshold = UNSET_INT;
+
+    /**
+     * The listener notified when an entry is removed.
+     */
+    @Nullable
+    private RemovalListener<Object, Object> removalListener;
+
+    /**
+     * The writer of the modified entries.
+     */
+    @Nullable
+    private BatchWriter<Object, Object> batchWriter;
+
+    /**
+     * The maximum delay between a modification and its writing, in nanoseconds.
+     */
+    private long writeBehindDelayNanos = UNSET_INT;
+
+    /**
+     * The maximum number of entries written in a single batch.
+     */
+    private int writeBehindBatchSize = UNSET_INT;
 
     /**
      * Constructs a new {@code CacheBuilder}.
      */
     protected CaffeineCacheBuilder() {
-        builder = com.github.benmanes.caffeine.cache.Caffeine.newBuilder();
     }
 
     @Nonnull
     @Override
     public CacheBuilder<K, V> recordStats() {
-        builder.recordStats();
+        recordStats = true;
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    public CacheBuilder<K, V> recordStats(Supplier<? extends StatsCounter> statsCounterSupplier) {
+        Preconditions.checkNotNull(statsCounterSupplier, "statsCounterSupplier");
+        Preconditions.checkState(isNull(this.statsCounterSupplier), "stats counter was already set");
+
+        this.statsCounterSupplier = statsCounterSupplier;
+        recordStats = true;
         return this;
     }
 
     @Nonnull
     @Override
     public CacheBuilder<K, V> initialCapacity(int initialCapacity) {
-        builder.initialCapacity(initialCapacity);
+        Preconditions.checkState(this.initialCapacity == UNSET_INT, "initial capacity was already set to %d", this.initialCapacity);
+        Preconditions.checkGreaterThanOrEqualTo(initialCapacity, 0, "initialCapacity (%d) must not be negative", initialCapacity);
+
+        this.initialCapacity = initialCapacity;
         return this;
     }
 
     @Nonnull
     @Override
     public CacheBuilder<K, V> maximumSize(@Nonnegative long maximumSize) {
+        Preconditions.checkState(this.maximumSize == UNSET_INT, "maximum size was already set to %d", this.maximumSize);
+        Preconditions.checkState(this.maximumWeight == UNSET_INT, "maximum weight was already set to %d", this.maximumWeight);
         Preconditions.checkGreaterThanOrEqualTo(maximumSize, 0L, "maximumSize (%d) must not be negative", maximumSize);
 
-        builder.maximumSize(maximumSize);
+        this.maximumSize = maximumSize;
         return this;
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public <K1 extends K, V1 extends V> CacheBuilder<K, V> maximumWeight(@Nonnegative long maximumWeight, ToIntBiFunction<? super K1, ? extends V1> weigher) {
+        Preconditions.checkState(this.maximumWeight == UNSET_INT, "maximum weight was already set to %d", this.maximumWeight);
+        Preconditions.checkState(this.maximumSize == UNSET_INT, "maximum size was already set to %d", this.maximumSize);
         Preconditions.checkGreaterThanOrEqualTo(maximumWeight, 0L, "maximumWeight (%d) must not be negative", maximumWeight);
+        Preconditions.checkNotNull(weigher, "weigher");
 
-        builder.maximumWeight(maximumWeight);
-        builder.weigher(weigher::applyAsInt);
+        this.maximumWeight = maximumWeight;
+        this.weigher = (ToIntBiFunction<Object, Object>) weigher;
         return this;
     }
 
+    @Nonnull
+    @Override
+    public CacheBuilder<K, V> maximumMemory(@Nonnegative long maximumBytes) {
+        return maximumWeight(maximumBytes, Weighers.retainedSize());
+    }
+
     @Nonnull
     @Override
     public CacheBuilder<K, V> weakKeys() {
-        builder.weakKeys();
+        Preconditions.checkState(!weakKeys, "key strength was already set");
+
+        weakKeys = true;
         return this;
     }
 
     @Nonnull
     @Override
     public CacheBuilder<K, V> weakValues() {
-        builder.weakValues();
+        Preconditions.checkState(!weakValues && !softValues, "value strength was already set");
+
+        weakValues = true;
         return this;
     }
 
     @Nonnull
     @Override
     public CacheBuilder<K, V> softValues() {
-        builder.softValues();
+        Preconditions.checkState(!weakValues && !softValues, "value strength was already set");
+
+        softValues = true;
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    public CacheBuilder<K, V> expireAfterWrite(Duration duration) {
+        Preconditions.checkState(expireAfterWriteNanos == UNSET_INT, "expireAfterWrite was already set to %d ns", expireAfterWriteNanos);
+        Preconditions.checkState(isNull(expiry), "expireAfterWrite may not be used with variable expiration");
+
+        expireAfterWriteNanos = checkDuration(duration).toNanos();
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    public CacheBuilder<K, V> expireAfterAccess(Duration duration) {
+        Preconditions.checkState(expireAfterAccessNanos == UNSET_INT, "expireAfterAccess was already set to %d ns", expireAfterAccessNanos);
+        Preconditions.checkState(isNull(expiry), "expireAfterAccess may not be used with variable expiration");
+
+        expireAfterAccessNanos = checkDuration(duration).toNanos();
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    @SuppressWarnings("unchecked")
+    public <K1 extends K, V1 extends V> CacheBuilder<K, V> expireAfter(Expiry<? super K1, ? super V1> expiry) {
+        Preconditions.checkNotNull(expiry, "expiry");
+        Preconditions.checkState(isNull(this.expiry), "expiry was already set");
+        Preconditions.checkState(expireAfterWriteNanos == UNSET_INT, "expireAfter may not be used with expireAfterWrite");
+        Preconditions.checkState(expireAfterAccessNanos == UNSET_INT, "expireAfter may not be used with expireAfterAccess");
+        Preconditions.checkState(isNull(valueCodec), "expireAfter may not be used with compressValues");
+
+        this.expiry = (Expiry<Object, Object>) expiry;
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    public CacheBuilder<K, V> refreshAfterWrite(Duration duration) {
+        Preconditions.checkState(refreshAfterWriteNanos == UNSET_INT, "refreshAfterWrite was already set to %d ns", refreshAfterWriteNanos);
+        Preconditions.checkArgument(!checkDuration(duration).isZero(), "duration must be positive");
+
+        refreshAfterWriteNanos = duration.toNanos();
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    public CacheBuilder<K, V> negativeCaching(Duration duration) {
+        Preconditions.checkState(negativeCachingNanos == UNSET_INT, "negativeCaching was already set to %d ns", negativeCachingNanos);
+        Preconditions.checkArgument(!checkDuration(duration).isZero(), "duration must be positive");
+
+        negativeCachingNanos = duration.toNanos();
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    public CacheBuilder<K, V> loadFailureBackoff(Duration initialDelay, Duration maximumDelay) {
+        Preconditions.checkState(initialBackoffNanos == UNSET_INT, "loadFailureBackoff was already set to %d ns", initialBackoffNanos);
+        Preconditions.checkArgument(!checkDuration(initialDelay).isZero(), "initialDelay must be positive");
+        Preconditions.checkArgument(checkDuration(maximumDelay).compareTo(initialDelay) >= 0, "maximumDelay (%s) must not be shorter than initialDelay (%s)", maximumDelay, initialDelay);
+
+        initialBackoffNanos = initialDelay.toNanos();
+        maximumBackoffNanos = maximumDelay.toNanos();
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    public CacheBuilder<K, V> coalesceLoads() {
+        Preconditions.checkState(!coalesceLoads, "coalesceLoads was already set");
+
+        coalesceLoads = true;
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    public CacheBuilder<K, V> scanResistant() {
+        Preconditions.checkState(!scanResistant, "scanResistant was already set");
+
+        scanResistant = true;
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    public CacheBuilder<K, V> compressValues(@Nonnegative int threshold) {
+        return compressValues(threshold, Codecs.deflate());
+    }
+
+    @Nonnull
+    @Override
+    public CacheBuilder<K, V> compressValues(@Nonnegative int threshold, Codec codec) {
+        Preconditions.checkNotNull(codec, "codec");
+        Preconditions.checkState(isNull(valueCodec), "value compression was already set");
+        Preconditions.checkState(isNull(expiry), "compressValues may not be used with variable expiration");
+        Preconditions.checkGreaterThanOrEqualTo(threshold, 0, "threshold (%d) must not be negative", threshold);
+
+        compressionThreshold = threshold;
+        valueCodec = codec;
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    @SuppressWarnings("unchecked")
+    public <K1 extends K, V1 extends V> CacheBuilder<K, V> removalListener(RemovalListener<? super K1, ? super V1> listener) {
+        Preconditions.checkNotNull(listener, "listener");
+        Preconditions.checkState(isNull(removalListener), "removal listener was already set");
+
+        removalListener = (RemovalListener<Object, Object>) listener;
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    @SuppressWarnings("unchecked")
+    public <K1 extends K, V1 extends V> CacheBuilder<K, V> writeBehind(BatchWriter<? super K1, ? super V1> writer, Duration delay, int maximumBatchSize) {
+        Preconditions.checkNotNull(writer, "writer");
+        Preconditions.checkState(isNull(batchWriter), "writer was already set");
+        Preconditions.checkGreaterThan(maximumBatchSize, 0, "maximumBatchSize (%d) must be positive", maximumBatchSize);
+
+        writeBehindDelayNanos = checkDuration(delay).toNanos();
+        writeBehindBatchSize = maximumBatchSize;
+        batchWriter = (BatchWriter<Object, Object>) writer;
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    public CacheBuilder<K, V> executor(Executor executor) {
+        Preconditions.checkNotNull(executor, "executor");
+        Preconditions.checkState(isNull(this.executor), "executor was already set");
+
+        this.executor = executor;
         return this;
     }
 
     @Nonnull
     @Override
     public <K1 extends K, V1 extends V> Cache<K1, V1> build() {
-        return new CaffeineManualCache<>(builder.build());
+        Preconditions.checkState(refreshAfterWriteNanos == UNSET_INT, "refreshAfterWrite requires a loading cache");
+        checkNoLoadGuard("manual caches");
+
+        if (scanResistant) {
+            checkScanResistant();
+            return decorate(new AdmissionCache<>(newManualCache(1), Math.max(maximumSize, 1), null, recordStats, coalesceLoads));
+        }
+        return decorate(newManualCache(1));
     }
 
     @Nonnull
@@ -106,6 +433,617 @@ final class CaffeineCacheBuilder<K, V> implements CacheBuilder<K, V> {
     public <K1 extends K, V1 extends V> Cache<K1, V1> build(Function<? super K1, ? extends V1> mappingFunction) {
         Preconditions.checkNotNull(mappingFunction, "mappingFunction");
 
-        return new CaffeineLoadingCache<>(builder.build(mappingFunction::apply));
+        if (scanResistant) {
+            checkScanResistant();
+            Preconditions.checkState(refreshAfterWriteNanos == UNSET_INT, "refreshAfterWrite is not supported by scan-resistant caches");
+            checkNoLoadGuard("scan-resistant caches");
+            return decorate(new AdmissionCache<>(newManualCache(1), Math.max(maximumSize, 1), mappingFunction, recordStats, coalesceLoads));
+        }
+
+        Preconditions.checkState(!coalesceLoads, "coalesceLoads is only supported by manual and scan-resistant caches");
+        return decorate(newLoadingCache(mappingFunction, 1));
+    }
+
+    @Nonnull
+    @Override
+    public <K1 extends K, V1 extends V> Cache<K1, V1> buildAll(Function<? super Set<K1>, ? extends Map<? extends K1, ? extends V1>> bulkMappingFunction) {
+        Preconditions.checkNotNull(bulkMappingFunction, "bulkMappingFunction");
+        Preconditions.checkState(!coalesceLoads, "coalesceLoads is only supported by manual caches");
+        Preconditions.checkState(!scanResistant, "scanResistant is not supported by bulk loading caches");
+        Preconditions.checkState(isNull(valueCodec), "compressValues is not supported by bulk loading caches");
+        checkNoLoadGuard("bulk loading caches");
+
+        return decorate(new CaffeineLoadingCache<>(newCaffeine().build(new BulkCacheLoader<>(bulkMappingFunction))));
+    }
+
+    @Nonnull
+    @Override
+    public <K1 extends K, V1 extends V> PartitionedCache<K1, V1> buildPartitioned(@Nonnegative int partitionCount, Hasher hasher) {
+        Preconditions.checkArgument(partitionCount > 0, "partitionCount (%d) must be positive", partitionCount);
+        Preconditions.checkNotNull(hasher, "hasher");
+        Preconditions.checkState(refreshAfterWriteNanos == UNSET_INT, "refreshAfterWrite requires a loading cache");
+        Preconditions.checkState(!coalesceLoads, "coalesceLoads is not supported by partitioned caches");
+        Preconditions.checkState(isNull(batchWriter), "writeBehind is not supported by partitioned caches");
+        Preconditions.checkState(!scanResistant, "scanResistant is not supported by partitioned caches");
+        checkNoLoadGuard("manual caches");
+
+        List<Cache<K1, V1>> partitions = new ArrayList<>(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            partitions.add(newManualCache(partitionCount));
+        }
+        return new HashPartitionedCache<>(partitions, hasher);
+    }
+
+    @Nonnull
+    @Override
+    public <K1 extends K, V1 extends V> PartitionedCache<K1, V1> buildPartitioned(@Nonnegative int partitionCount, Hasher hasher, Function<? super K1, ? extends V1> mappingFunction) {
+        Preconditions.checkArgument(partitionCount > 0, "partitionCount (%d) must be positive", partitionCount);
+        Preconditions.checkNotNull(hasher, "hasher");
+        Preconditions.checkNotNull(mappingFunction, "mappingFunction");
+        Preconditions.checkState(!coalesceLoads, "coalesceLoads is only supported by manual caches");
+        Preconditions.checkState(isNull(batchWriter), "writeBehind is not supported by partitioned caches");
+        Preconditions.checkState(!scanResistant, "scanResistant is not supported by partitioned caches");
+
+        List<Cache<K1, V1>> partitions = new ArrayList<>(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            partitions.add(newLoadingCache(mappingFunction, partitionCount));
+        }
+        return new HashPartitionedCache<>(partitions, hasher);
+    }
+
+    @Nonnull
+    @Override
+    public <K1 extends K, V1 extends V> AsyncCache<K1, V1> buildAsync(Function<? super K1, ? extends V1> mappingFunction) {
+        return buildAsync(mappingFunction, nonNull(executor) ? executor : DefaultExecutorHolder.EXECUTOR);
+    }
+
+    @Nonnull
+    @Override
+    public <K1 extends K, V1 extends V> AsyncCache<K1, V1> buildAsync(Function<? super K1, ? extends V1> mappingFunction, Executor executor) {
+        Preconditions.checkNotNull(mappingFunction, "mappingFunction");
+        Preconditions.checkNotNull(executor, "executor");
+        Preconditions.checkState(!weakKeys && !weakValues && !softValues, "weak or soft references are not supported by asynchronous caches");
+        Preconditions.checkState(isNull(batchWriter), "writeBehind is not supported by asynchronous caches");
+        Preconditions.checkState(!coalesceLoads, "asynchronous caches always coalesce their loadings");
+        Preconditions.checkState(!scanResistant, "scanResistant is not supported by asynchronous caches");
+        Preconditions.checkState(isNull(valueCodec), "compressValues is not supported by asynchronous caches");
+        checkNoLoadGuard("asynchronous caches");
+
+        return new CaffeineAsyncCache<>(newCaffeine(1, executor).buildAsync(mappingFunction::apply));
+    }
+
+    @Nonnull
+    @Override
+    public <V1 extends V> LongCache<V1> buildLong() {
+        checkPrimitiveKeys();
+
+        return new OpenAddressingLongCache<>(initialCapacity, maximumSize, newStatsCounter());
+    }
+
+    @Nonnull
+    @Override
+    public <V1 extends V> IntCache<V1> buildInt() {
+        checkPrimitiveKeys();
+
+        return new OpenAddressingIntCache<>(new OpenAddressingLongCache<>(initialCapacity, maximumSize, newStatsCounter()));
+    }
+
+    @Nonnull
+    @Override
+    public <K1 extends K, V1 extends V> Cache<K1, V1> buildOffHeap(@Nonnegative long maximumBytes, BinarySerializer<V1> serializer) {
+        Preconditions.checkNotNull(serializer, "serializer");
+        checkOffHeap();
+
+        return decorate(new OffHeapCache<>(new OffHeapArena(maximumBytes, OffHeapArena.DEFAULT_BLOCK_SIZE, null), serializer, initialCapacity, newStatsCounter()));
+    }
+
+    @Nonnull
+    @Override
+    public <K1 extends K, V1 extends V> Cache<K1, V1> buildOffHeap(@Nonnegative long maximumBytes, BinarySerializer<V1> serializer, Path file) {
+        Preconditions.checkNotNull(serializer, "serializer");
+        Preconditions.checkNotNull(file, "file");
+        checkOffHeap();
+
+        return decorate(new OffHeapCache<>(new OffHeapArena(maximumBytes, OffHeapArena.DEFAULT_BLOCK_SIZE, file), serializer, initialCapacity, newStatsCounter()));
+    }
+
+    @Nonnull
+    @Override
+    public <K1 extends K, V1 extends V> TieredCache<K1, V1> buildTiered(Path file, @Nonnegative long maximumBytes, BinarySerializer<K1> keySerializer, BinarySerializer<V1> valueSerializer) {
+        Preconditions.checkNotNull(file, "file");
+        Preconditions.checkNotNull(keySerializer, "keySerializer");
+        Preconditions.checkNotNull(valueSerializer, "valueSerializer");
+        Preconditions.checkState(maximumSize != UNSET_INT || maximumWeight != UNSET_INT, "the first tier must be bounded by maximumSize or maximumWeight");
+        Preconditions.checkState(!weakKeys, "weakKeys is not supported by tiered caches");
+        Preconditions.checkState(!weakValues && !softValues, "weakValues and softValues are not supported by tiered caches");
+        Preconditions.checkState(refreshAfterWriteNanos == UNSET_INT, "refreshAfterWrite is not supported by tiered caches");
+        Preconditions.checkState(isNull(removalListener), "removalListener is not supported by tiered caches");
+        Preconditions.checkState(isNull(statsCounterSupplier), "custom stats counters are not supported by tiered caches");
+        Preconditions.checkState(isNull(batchWriter), "writeBehind is not supported by tiered caches");
+        Preconditions.checkState(!coalesceLoads, "coalesceLoads is not supported by tiered caches");
+        Preconditions.checkState(!scanResistant, "scanResistant is not supported by tiered caches");
+        Preconditions.checkState(isNull(valueCodec), "compressValues is not supported by tiered caches");
+        checkNoLoadGuard("tiered caches");
+
+        FileStore<K1, V1> l2 = new FileStore<>(file, maximumBytes, keySerializer, valueSerializer, recordStats);
+        return new CaffeineTieredCache<>(newCaffeine(), l2, recordStats);
+    }
+
+    /**
+     * Creates a new manual cache, or a partition of a manual cache, from the current settings.
+     *
+     * @param partitionCount the number of partitions sharing the size bound of the cache
+     * @param <K1>           the key type of the cache
+     * @param <V1>           the value type of the cache
+     *
+     * @return a new cache
+     */
+    @Nonnull
+    private <K1, V1> Cache<K1, V1> newManualCache(@Nonnegative int partitionCount) {
+        if (nonNull(valueCodec)) {
+            return new CompressingCache<>(new CaffeineManualCache<>(newCaffeine(partitionCount).build()), valueCodec, compressionThreshold);
+        }
+        return new CaffeineManualCache<>(newCaffeine(partitionCount).build());
+    }
+
+    /**
+     * Creates a new loading cache, or a partition of a loading cache, from the current settings.
+     *
+     * @param mappingFunction the function to compute the values
+     * @param partitionCount  the number of partitions sharing the size bound of the cache
+     * @param <K1>            the key type of the cache
+     * @param <V1>            the value type of the cache
+     *
+     * @return a new cache
+     */
+    @Nonnull
+    private <K1, V1> Cache<K1, V1> newLoadingCache(Function<? super K1, ? extends V1> mappingFunction, @Nonnegative int partitionCount) {
+        if (nonNull(valueCodec)) {
+            Codec codec = valueCodec;
+            int threshold = compressionThreshold;
+            Function<? super K1, Object> encodingFunction = k -> CompressingCache.encode(mappingFunction.apply(k), codec, threshold);
+            return new CompressingCache<>(newUncompressedLoadingCache(encodingFunction, partitionCount), codec, threshold);
+        }
+        return newUncompressedLoadingCache(mappingFunction, partitionCount);
+    }
+
+    /**
+     * Creates a new loading cache, or a partition of a loading cache, from the current settings, without compressing
+     * its values.
+     *
+     * @param mappingFunction the function to compute the values
+     * @param partitionCount  the number of partitions sharing the size bound of the cache
+     * @param <K1>            the key type of the cache
+     * @param <V1>            the value type of the cache
+     *
+     * @return a new cache
+     */
+    @Nonnull
+    private <K1, V1> Cache<K1, V1> newUncompressedLoadingCache(Function<? super K1, ? extends V1> mappingFunction, @Nonnegative int partitionCount) {
+        if (negativeCachingNanos == UNSET_INT && initialBackoffNanos == UNSET_INT) {
+            return new CaffeineLoadingCache<>(newCaffeine(partitionCount).build(mappingFunction::apply));
+        }
+
+        long guardSize = maximumSize != UNSET_INT ? partitionBound(maximumSize, partitionCount) : UNSET_INT;
+        LoadGuard<K1, V1> guard = new LoadGuard<>(mappingFunction, negativeCachingNanos, initialBackoffNanos, maximumBackoffNanos, guardSize, executor);
+        return new GuardedLoadingCache<>(new CaffeineLoadingCache<>(newCaffeine(partitionCount).build(guard::apply)), guard);
+    }
+
+    /**
+     * Returns the share of a bound for one of the {@code partitionCount} partitions of a cache.
+     *
+     * @param bound          the bound of the whole cache
+     * @param partitionCount the number of partitions
+     *
+     * @return the bound of a partition, rounded up
+     */
+    @Nonnegative
+    private static long partitionBound(@Nonnegative long bound, @Nonnegative int partitionCount) {
+        return (bound + partitionCount - 1) / partitionCount;
+    }
+
+    /**
+     * Ensures that the current settings can be applied to an off-heap cache.
+     *
+     * @throws IllegalStateException if a setting is not supported by off-heap caches
+     */
+    private void checkOffHeap() {
+        Preconditions.checkState(maximumSize == UNSET_INT && maximumWeight == UNSET_INT, "off-heap caches are bounded by maximumBytes");
+        Preconditions.checkState(!weakKeys, "weakKeys is not supported by off-heap caches");
+        Preconditions.checkState(!weakValues && !softValues, "weakValues and softValues are not supported by off-heap caches");
+        Preconditions.checkState(expireAfterWriteNanos == UNSET_INT && expireAfterAccessNanos == UNSET_INT && isNull(expiry), "expiration is not supported by off-heap caches");
+        Preconditions.checkState(refreshAfterWriteNanos == UNSET_INT, "refreshAfterWrite is not supported by off-heap caches");
+        Preconditions.checkState(isNull(removalListener), "removalListener is not supported by off-heap caches");
+        Preconditions.checkState(!scanResistant, "scanResistant is not supported by off-heap caches");
+        Preconditions.checkState(isNull(valueCodec), "compressValues is not supported by off-heap caches");
+        checkNoLoadGuard("off-heap caches");
+    }
+
+    /**
+     * Ensures that the current settings can be applied to a cache with primitive keys.
+     *
+     * @throws IllegalStateException if a setting is not supported by caches with primitive keys
+     */
+    private void checkPrimitiveKeys() {
+        Preconditions.checkState(maximumWeight == UNSET_INT, "maximumWeight is not supported by caches with primitive keys");
+        Preconditions.checkState(!weakKeys, "weakKeys is not supported by caches with primitive keys");
+        Preconditions.checkState(!weakValues && !softValues, "weakValues and softValues are not supported by caches with primitive keys");
+        Preconditions.checkState(expireAfterWriteNanos == UNSET_INT && expireAfterAccessNanos == UNSET_INT && isNull(expiry), "expiration is not supported by caches with primitive keys");
+        Preconditions.checkState(refreshAfterWriteNanos == UNSET_INT, "refreshAfterWrite is not supported by caches with primitive keys");
+        Preconditions.checkState(isNull(removalListener), "removalListener is not supported by caches with primitive keys");
+        Preconditions.checkState(isNull(batchWriter), "writeBehind is not supported by caches with primitive keys");
+        Preconditions.checkState(!coalesceLoads, "coalesceLoads is not supported by caches with primitive keys");
+        Preconditions.checkState(!scanResistant, "scanResistant is not supported by caches with primitive keys");
+        Preconditions.checkState(isNull(valueCodec), "compressValues is not supported by caches with primitive keys");
+        checkNoLoadGuard("caches with primitive keys");
+    }
+
+    /**
+     * Ensures that the current settings can be applied to a scan-resistant cache.
+     *
+     * @throws IllegalStateException if a setting is not supported by scan-resistant caches
+     */
+    private void checkScanResistant() {
+        Preconditions.checkState(maximumSize != UNSET_INT, "scanResistant requires maximumSize");
+    }
+
+    /**
+     * Ensures that neither the negative caching nor the load failure backoff has been set, for a kind of cache that
+     * does not support them.
+     *
+     * @param kind the kind of cache, used in the error message
+     *
+     * @throws IllegalStateException if one of these settings has been set
+     */
+    private void checkNoLoadGuard(String kind) {
+        Preconditions.checkState(negativeCachingNanos == UNSET_INT, "negativeCaching is not supported by %s", kind);
+        Preconditions.checkState(initialBackoffNanos == UNSET_INT, "loadFailureBackoff is not supported by %s", kind);
+    }
+
+    /**
+     * Creates a new statistics counter from the current settings.
+     *
+     * @return a new counter, or {@code null} if the statistics must not be recorded
+     */
+    @Nullable
+    private StatsCounter newStatsCounter() {
+        if (nonNull(statsCounterSupplier)) {
+            return Preconditions.checkNotNull(statsCounterSupplier.get(), "statsCounter");
+        }
+        return recordStats ? new ConcurrentStatsCounter() : null;
+    }
+
+    /**
+     * Wraps the {@code cache} in a {@link CoalescingCache} and in a {@link WriteBehindCache}, if these features have
+     * been enabled. A scan-resistant cache coalesces its loadings itself.
+     *
+     * @param cache the cache to wrap
+     * @param <K1>  the key type of the cache
+     * @param <V1>  the value type of the cache
+     *
+     * @return the decorated cache, or the {@code cache} itself if no decoration is needed
+     */
+    @Nonnull
+    private <K1, V1> Cache<K1, V1> decorate(Cache<K1, V1> cache) {
+        Cache<K1, V1> decoratedCache = cache;
+
+        if (coalesceLoads && !scanResistant) {
+            decoratedCache = new CoalescingCache<>(decoratedCache, recordStats);
+        }
+        if (nonNull(batchWriter)) {
+            Executor writeExecutor = nonNull(executor) ? executor : DefaultExecutorHolder.EXECUTOR;
+            decoratedCache = new WriteBehindCache<>(decoratedCache, batchWriter, writeBehindDelayNanos, writeBehindBatchSize, writeExecutor);
+        }
+        return decoratedCache;
+    }
+
+    /**
+     * Ensures that the {@code duration} is not negative.
+     *
+     * @param duration the duration to check
+     *
+     * @return the duration
+     *
+     * @throws IllegalArgumentException if {@code duration} is negative
+     */
+    @Nonnull
+    private static Duration checkDuration(Duration duration) {
+        Preconditions.checkNotNull(duration, "duration");
+        Preconditions.checkArgument(!duration.isNegative(), "duration (%s) must not be negative", duration);
+
+        return duration;
+    }
+
+    /**
+     * Creates a new Caffeine builder from the current settings.
+     *
+     * @return a new builder
+     */
+    @Nonnull
+    private Caffeine<Object, Object> newCaffeine() {
+        return newCaffeine(1, null);
+    }
+
+    /**
+     * Creates a new Caffeine builder from the current settings, for a partition of a cache: the maximum size and the
+     * maximum weight are shared between the partitions.
+     *
+     * @param partitionCount the number of partitions of the cache
+     *
+     * @return a new builder
+     */
+    @Nonnull
+    private Caffeine<Object, Object> newCaffeine(@Nonnegative int partitionCount) {
+        return newCaffeine(partitionCount, null);
+    }
+
+    /**
+     * Creates a new Caffeine builder from the current settings, for a partition of a cache: the maximum size and the
+     * maximum weight are shared between the partitions.
+     *
+     * @param partitionCount   the number of partitions of the cache
+     * @param explicitExecutor the executor to use, taking precedence over the configured one, or {@code null}
+     *
+     * @return a new builder
+     */
+    @Nonnull
+    private Caffeine<Object, Object> newCaffeine(@Nonnegative int partitionCount, @Nullable Executor explicitExecutor) {
+        Caffeine<Object, Object> caffeine = Caffeine.newBuilder();
+
+        ToIntBiFunction<Object, Object> storedWeigher = weigher;
+        RemovalListener<Object, Object> storedListener = removalListener;
+        if (nonNull(valueCodec)) {
+            Codec codec = valueCodec;
+            if (nonNull(weigher)) {
+                ToIntBiFunction<Object, Object> valueWeigher = weigher;
+                storedWeigher = (k, v) -> valueWeigher.applyAsInt(k, CompressingCache.unwrap(v));
+            }
+            if (nonNull(removalListener)) {
+                RemovalListener<Object, Object> valueListener = removalListener;
+                storedListener = (k, v, c) -> valueListener.onRemoval(k, CompressingCache.decode(v, codec), c);
+            }
+        }
+
+        StatsCounter statsCounter = null;
+        if (nonNull(statsCounterSupplier)) {
+            StatsCounter counter = newStatsCounter();
+            caffeine.recordStats(() -> new CaffeineStatsCounter(counter));
+            statsCounter = counter;
+        }
+        else if (recordStats) {
+            caffeine.recordStats();
+        }
+        if (initialCapacity != UNSET_INT) {
+            caffeine.initialCapacity((int) partitionBound(initialCapacity, partitionCount));
+        }
+        if (maximumSize != UNSET_INT) {
+            caffeine.maximumSize(partitionBound(maximumSize, partitionCount));
+        }
+        if (maximumWeight != UNSET_INT && nonNull(storedWeigher)) {
+            caffeine.maximumWeight(partitionBound(maximumWeight, partitionCount));
+            caffeine.weigher(storedWeigher::applyAsInt);
+        }
+        if (weakKeys) {
+            caffeine.weakKeys();
+        }
+        if (weakValues) {
+            caffeine.weakValues();
+        }
+        else if (softValues) {
+            caffeine.softValues();
+        }
+        if (expireAfterWriteNanos != UNSET_INT) {
+            caffeine.expireAfterWrite(expireAfterWriteNanos, TimeUnit.NANOSECONDS);
+        }
+        if (expireAfterAccessNanos != UNSET_INT) {
+            caffeine.expireAfterAccess(expireAfterAccessNanos, TimeUnit.NANOSECONDS);
+        }
+        if (nonNull(expiry)) {
+            caffeine.expireAfter(new CaffeineExpiry(expiry));
+        }
+        if (refreshAfterWriteNanos != UNSET_INT) {
+            caffeine.refreshAfterWrite(refreshAfterWriteNanos, TimeUnit.NANOSECONDS);
+        }
+        if (nonNull(removalListener) || nonNull(statsCounter)) {
+            caffeine.removalListener(new CaffeineRemovalListener(storedListener, statsCounter, maximumWeight != UNSET_INT ? storedWeigher : null));
+        }
+        if (nonNull(explicitExecutor)) {
+            caffeine.executor(explicitExecutor);
+        }
+        else if (nonNull(executor)) {
+            caffeine.executor(executor);
+        }
+        else if (refreshAfterWriteNanos != UNSET_INT || nonNull(removalListener) || nonNull(statsCounter)) {
+            caffeine.executor(DefaultExecutorHolder.EXECUTOR);
+        }
+
+        return caffeine;
+    }
+
+    /**
+     * The initialization-on-demand holder of the default executor of asynchronous caches.
+     */
+    @Static
+    private static final class DefaultExecutorHolder {
+
+        /**
+         * The executor used to load the values of asynchronous caches, when no executor is specified.
+         */
+        @Nonnull
+        static final ExecutorService EXECUTOR = MoreExecutors.newCachedThreadPool("cache-loader");
+    }
+
+    /**
+     * A Caffeine expiry that delegates its calls to an {@link Expiry}.
+     */
+    @ParametersAreNonnullByDefault
+    private static final class CaffeineExpiry implements com.github.benmanes.caffeine.cache.Expiry<Object, Object> {
+
+        /**
+         * The delegated expiry.
+         */
+        @Nonnull
+        private final Expiry<Object, Object> delegate;
+
+        /**
+         * Constructs a new {@code CaffeineExpiry}.
+         *
+         * @param delegate the delegated expiry
+         */
+        CaffeineExpiry(Expiry<Object, Object> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public long expireAfterCreate(Object key, Object value, long currentTime) {
+            return delegate.expireAfterCreate(key, value);
+        }
+
+        @Override
+        public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+            return delegate.expireAfterUpdate(key, value, currentDuration);
+        }
+
+        @Override
+        public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+            return delegate.expireAfterRead(key, value, currentDuration);
+        }
+    }
+
+    /**
+     * A Caffeine statistics counter that delegates its calls to a {@link StatsCounter}.
+     * <p>
+     * The evictions are ignored: they are recorded with their cause by a {@link CaffeineRemovalListener}.
+     */
+    @ParametersAreNonnullByDefault
+    private static final class CaffeineStatsCounter implements com.github.benmanes.caffeine.cache.stats.StatsCounter {
+
+        /**
+         * The delegated counter.
+         */
+        @Nonnull
+        private final StatsCounter delegate;
+
+        /**
+         * Constructs a new {@code CaffeineStatsCounter}.
+         *
+         * @param delegate the delegated counter
+         */
+        CaffeineStatsCounter(StatsCounter delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void recordHits(int count) {
+            delegate.recordHits(count);
+        }
+
+        @Override
+        public void recordMisses(int count) {
+            delegate.recordMisses(count);
+        }
+
+        @Override
+        public void recordLoadSuccess(long loadTime) {
+            delegate.recordLoadSuccess(loadTime);
+        }
+
+        @Override
+        public void recordLoadFailure(long loadTime) {
+            delegate.recordLoadFailure(loadTime);
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public void recordEviction() {
+            // Do nothing: the evictions are recorded by the removal listener
+        }
+
+        @Override
+        public void recordEviction(int weight) {
+            // Do nothing: the evictions are recorded by the removal listener
+        }
+
+        @Nonnull
+        @Override
+        public com.github.benmanes.caffeine.cache.stats.CacheStats snapshot() {
+            CacheStats stats = delegate.snapshot();
+
+            return new com.github.benmanes.caffeine.cache.stats.CacheStats(
+                    stats.hitCount(),
+                    stats.missCount(),
+                    stats.loadSuccessCount(),
+                    stats.loadFailureCount(),
+                    stats.totalLoadTime().toNanos(),
+                    stats.evictionCount(),
+                    stats.evictionWeight());
+        }
+    }
+
+    /**
+     * A Caffeine removal listener that notifies a {@link RemovalListener}, and records the evictions in a {@link
+     * StatsCounter}.
+     */
+    @ParametersAreNonnullByDefault
+    private static final class CaffeineRemovalListener implements com.github.benmanes.caffeine.cache.RemovalListener<Object, Object> {
+
+        /**
+         * The listener to notify, or {@code null}.
+         */
+        @Nullable
+        private final RemovalListener<Object, Object> listener;
+
+        /**
+         * The counter where the evictions are recorded, or {@code null}.
+         */
+        @Nullable
+        private final StatsCounter statsCounter;
+
+        /**
+         * The weigher of the entries, or {@code null} if the cache is not bounded by weight.
+         */
+        @Nullable
+        private final ToIntBiFunction<Object, Object> weigher;
+
+        /**
+         * Constructs a new {@code CaffeineRemovalListener}.
+         *
+         * @param listener     the listener to notify, or {@code null}
+         * @param statsCounter the counter where the evictions are recorded, or {@code null}
+         * @param weigher      the weigher of the entries, or {@code null} if the cache is not bounded by weight
+         */
+        CaffeineRemovalListener(@Nullable RemovalListener<Object, Object> listener, @Nullable StatsCounter statsCounter, @Nullable ToIntBiFunction<Object, Object> weigher) {
+            this.listener = listener;
+            this.statsCounter = statsCounter;
+            this.weigher = weigher;
+        }
+
+        @Override
+        public void onRemoval(@Nullable Object key, @Nullable Object value, com.github.benmanes.caffeine.cache.RemovalCause caffeineCause) {
+            RemovalCause cause = RemovalCause.valueOf(caffeineCause.name());
+
+            if (nonNull(statsCounter) && cause.wasEvicted()) {
+                statsCounter.recordEviction(weightOf(key, value), cause);
+            }
+            if (nonNull(listener)) {
+                listener.onRemoval(key, value, cause);
+            }
+        }
+
+        /**
+         * Returns the weight of an entry.
+         *
+         * @param key   the key of the entry
+         * @param value the value of the entry
+         *
+         * @return the weight, or {@code 0} if the key or value has been collected from a weighted cache
+         */
+        @Nonnegative
+        private long weightOf(@Nullable Object key, @Nullable Object value) {
+            if (isNull(weigher)) {
+                return 1;
+            }
+            return nonNull(key) && nonNull(value) ? weigher.applyAsInt(key, value) : 0;
+        }
     }
 }
@@ -10,10 +10,14 @@ package org.atlanmod.commons.cache;
 
 import org.atlanmod.commons.Preconditions;
 
+import com.github.benmanes.caffeine.cache.Policy;
+
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
 import java.util.function.Function;
 
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
@@ -137,14 +141,54 @@ class CaffeineManualCache<C extends com.github.benmanes.caffeine.cache.Cache<K,
     @Nonnull
     @Override
     public CacheStats stats() {
+        return statsOf(cache);
+    }
+
+    /**
+     * Returns a snapshot of the {@code limit} hottest entries of this cache, from the hottest to the coldest. The
+     * entries are ordered by frequency if the cache is bounded, by recency if it expires after access, and in an
+     * arbitrary order otherwise.
+     *
+     * @param limit the maximum number of entries
+     *
+     * @return a snapshot of the hottest entries
+     */
+    @Nonnull
+    Map<K, V> hottest(@Nonnegative int limit) {
+        Policy<K, V> policy = cache.policy();
+
+        return policy.eviction().map(e -> e.hottest(limit))
+                .orElseGet(() -> policy.expireAfterAccess().map(e -> e.youngest(limit))
+                        .orElseGet(() -> cache.asMap().entrySet().stream()
+                                .limit(limit)
+                                .collect(LinkedHashMap<K, V>::new, (m, e) -> m.put(e.getKey(), e.getValue()), Map::putAll)));
+    }
+
+    /**
+     * Returns a snapshot of the statistics of the Caffeine {@code cache}.
+     *
+     * @param cache the cache
+     *
+     * @return the statistics
+     */
+    @Nonnull
+    static CacheStats statsOf(com.github.benmanes.caffeine.cache.Cache<?, ?> cache) {
         com.github.benmanes.caffeine.cache.stats.CacheStats stats = cache.stats();
 
-        return new CacheStats(
-                stats.hitCount(),
-                stats.missCount(),
-                stats.loadSuccessCount(),
-                stats.loadFailureCount(),
-                stats.totalLoadTime(),
-                stats.evictionCount());
+        long weightedSize = cache.policy().eviction()
+                .filter(Policy.Eviction::isWeighted)
+                .map(e -> e.weightedSize().orElse(0L))
+                .orElse(0L);
+
+        return CacheStats.builder()
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .loadSuccessCount(stats.loadSuccessCount())
+                .loadFailureCount(stats.loadFailureCount())
+                .totalLoadTime(stats.totalLoadTime())
+                .evictionCount(stats.evictionCount())
+                .evictionWeight(stats.evictionWeight())
+                .weightedSize(weightedSize)
+                .build();
     }
 }
@@ -0,0 +1,739 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.Preconditions;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.CacheWriter;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * A {@link TieredCache} with a Caffeine cache as first tier, and a {@link FileStore} as second tier.
+ * <p>
+ * Every operation on a key is performed under a lock of this cache, selected from the key, so the moves of an entry
+ * between the tiers are atomic with respect to the other operations on the same key. The second tier is never accessed
+ * in a computation of the first tier: its I/O never blocks the other operations of Caffeine.
+ * <p>
+ * The entries evicted from the first tier are recorded by a {@link CacheWriter}, and remain readable until they are
+ * written in the second tier by the next operation on this cache, after its own lock has been released.
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of mapped values
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+final class CaffeineTieredCache<K, V> implements TieredCache<K, V> {
+
+    /**
+     * The first tier.
+     */
+    @Nonnull
+    private final com.github.benmanes.caffeine.cache.Cache<K, V> l1;
+
+    /**
+     * The second tier.
+     */
+    @Nonnull
+    private final FileStore<K, V> l2;
+
+    /**
+     * The number of locks guarding the keys.
+     */
+    private static final int LOCK_COUNT = 64;
+
+    /**
+     * The locks guarding the keys; a key is guarded by the lock selected by its hash code.
+     */
+    @Nonnull
+    private final Lock[] locks = new Lock[LOCK_COUNT];
+
+    /**
+     * The entries evicted from the first tier, which have not been written in the second tier yet.
+     */
+    @Nonnull
+    private final ConcurrentMap<K, V> demotions = new ConcurrentHashMap<>();
+
+    /**
+     * The statistics of the loadings, or {@code null} if they are not recorded.
+     */
+    @Nullable
+    private final ConcurrentStatsCounter loads;
+
+    /**
+     * The map view of this cache, created on demand.
+     */
+    @Nullable
+    private ConcurrentMap<K, V> mapView;
+
+    /**
+     * Constructs a new {@code CaffeineTieredCache}.
+     *
+     * @param caffeine    the builder of the first tier
+     * @param l2          the second tier
+     * @param recordStats {@code true} if the statistics must be recorded
+     */
+    public CaffeineTieredCache(Caffeine<Object, Object> caffeine, FileStore<K, V> l2, boolean recordStats) {
+        this.l2 = l2;
+        this.loads = recordStats ? new ConcurrentStatsCounter() : null;
+        this.l1 = caffeine.writer(new DemotingWriter()).build();
+
+        for (int i = 0; i < LOCK_COUNT; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    @Nullable
+    @Override
+    public V get(K key) {
+        Preconditions.checkNotNull(key, "key");
+
+        V value = l1.getIfPresent(key);
+        return nonNull(value) ? value : withLock(key, () -> promote(key));
+    }
+
+    @Override
+    public V get(K key, Function<? super K, ? extends V> mappingFunction) {
+        Preconditions.checkNotNull(key, "key");
+        Preconditions.checkNotNull(mappingFunction, "mappingFunction");
+
+        V value = l1.getIfPresent(key);
+        if (nonNull(value)) {
+            return value;
+        }
+
+        return withLock(key, () -> {
+            V promoted = promote(key);
+            if (nonNull(promoted)) {
+                return promoted;
+            }
+
+            V loaded = load(key, mappingFunction);
+            if (nonNull(loaded)) {
+                l1.put(key, loaded);
+            }
+            return loaded;
+        });
+    }
+
+    @Nonnull
+    @Override
+    public Map<K, V> getAll(Iterable<? extends K> keys) {
+        Preconditions.checkNotNull(keys, "keys");
+
+        Map<K, V> result = new LinkedHashMap<>();
+        for (K key : keys) {
+            V value = get(key);
+            if (nonNull(value)) {
+                result.put(key, value);
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    @Override
+    public void put(K key, V value) {
+        Preconditions.checkNotNull(key, "key");
+        Preconditions.checkNotNull(value, "value");
+
+        withLock(key, () -> {
+            removeLower(key);
+            l1.put(key, value);
+            return null;
+        });
+    }
+
+    @Override
+    public void putIfAbsent(K key, V value) {
+        Preconditions.checkNotNull(key, "key");
+        Preconditions.checkNotNull(value, "value");
+
+        withLock(key, () -> {
+            if (isNull(l1.asMap().get(key)) && isNull(removeLower(key))) {
+                l1.put(key, value);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> map) {
+        Preconditions.checkNotNull(map, "map");
+
+        map.forEach(this::put);
+    }
+
+    @Override
+    public void invalidate(K key) {
+        Preconditions.checkNotNull(key, "key");
+
+        // The first tier is invalidated first: an entry evicted concurrently is then removed from the lower tiers
+        withLock(key, () -> {
+            l1.invalidate(key);
+            removeLower(key);
+            return null;
+        });
+    }
+
+    @Override
+    public void invalidateAll(Iterable<? extends K> keys) {
+        Preconditions.checkNotNull(keys, "keys");
+
+        keys.forEach(this::invalidate);
+    }
+
+    @Override
+    public void invalidateAll() {
+        l1.invalidateAll();
+        demotions.clear();
+        l2.invalidateAll();
+    }
+
+    @Override
+    public boolean contains(K key) {
+        Preconditions.checkNotNull(key, "key");
+
+        return l1.asMap().containsKey(key) || demotions.containsKey(key) || l2.contains(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The {@linkplain #flush() flushed} entries are stored in both tiers, and are counted once: the keys of the second
+     * tier are compared with the keys of the first tier, in a time proportional to the size of the second tier.
+     */
+    @Override
+    public long size() {
+        long l2Size = l2.keys().stream()
+                .filter(k -> !l1.asMap().containsKey(k) && !demotions.containsKey(k))
+                .count();
+
+        return l1.estimatedSize() + demotions.size() + l2Size;
+    }
+
+    @Override
+    public void refresh(K key) {
+        // Do nothing
+    }
+
+    @Override
+    public void cleanUp() {
+        l1.cleanUp();
+        demote();
+    }
+
+    @Override
+    public void flush() {
+        for (K key : l1.asMap().keySet()) {
+            withLock(key, () -> {
+                V value = l1.asMap().get(key);
+                if (nonNull(value)) {
+                    l2.put(key, value);
+                }
+                return null;
+            });
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The entries evicted from the first tier are written in the second tier, and its file is closed. The entries of
+     * the first tier that have not been {@linkplain #flush() flushed} are discarded.
+     *
+     * @throws UncheckedIOException if an I/O error occurs while closing the file
+     */
+    @Override
+    public void close() {
+        demote();
+        l1.invalidateAll();
+        try {
+            l2.close();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Nonnull
+    @Override
+    public ConcurrentMap<K, V> asMap() {
+        if (isNull(mapView)) {
+            mapView = new MapView();
+        }
+        return mapView;
+    }
+
+    @Nonnull
+    @Override
+    public TieredCacheStats stats() {
+        CacheStats loadStats = isNull(loads)
+                ? CacheStats.builder().build()
+                : loads.snapshot();
+
+        // Caffeine records the computations of the first tier as loadings, including the promotions
+        CacheStats l1Stats = CaffeineManualCache.statsOf(l1);
+        l1Stats = l1Stats.toBuilder()
+                .loadSuccessCount(0)
+                .loadFailureCount(0)
+                .totalLoadTime(0)
+                .build();
+
+        return new TieredCacheStats(l1Stats, l2.stats(), loadStats);
+    }
+
+    /**
+     * Performs an {@code operation} on the {@code key}, while holding the lock of the key. The evicted entries are
+     * demoted after the lock has been released.
+     *
+     * @param key       the key
+     * @param operation the operation to perform
+     * @param <R>       the type of the result
+     *
+     * @return the result of the operation
+     */
+    private <R> R withLock(Object key, Supplier<R> operation) {
+        Lock lock = lockOf(key);
+        lock.lock();
+        try {
+            return operation.get();
+        }
+        finally {
+            lock.unlock();
+            demote();
+        }
+    }
+
+    /**
+     * Returns the lock guarding the {@code key}.
+     *
+     * @param key the key
+     *
+     * @return the lock
+     */
+    @Nonnull
+    private Lock lockOf(Object key) {
+        int hash = key.hashCode();
+        return locks[(hash ^ (hash >>> 16)) & (LOCK_COUNT - 1)];
+    }
+
+    /**
+     * Moves the value associated with the {@code key} from the lower tiers to the first tier, and records a hit or a
+     * miss in the second tier. The lock of the key must be held.
+     *
+     * @param key the key whose associated value is to be returned
+     *
+     * @return the value, or {@code null} if this cache contains no mapping for the key
+     */
+    @Nullable
+    private V promote(K key) {
+        V value = l1.asMap().get(key);
+        if (nonNull(value)) {
+            return value;
+        }
+
+        value = demotions.remove(key);
+        if (isNull(value)) {
+            value = l2.take(key);
+        }
+        if (nonNull(value)) {
+            l1.put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Removes and returns the value associated with the {@code key} in the lower tiers, without recording any
+     * statistic. The lock of the key must be held.
+     *
+     * @param key the key of the entry to remove
+     *
+     * @return the removed value, or {@code null} if the lower tiers contained no mapping for the key
+     */
+    @Nullable
+    private V removeLower(K key) {
+        V demoted = demotions.remove(key);
+        V stored = l2.remove(key);
+        return nonNull(demoted) ? demoted : stored;
+    }
+
+    /**
+     * Writes the entries evicted from the first tier in the second tier. Each entry is written under the lock of its
+     * key, unless it has been promoted or replaced in the meantime. The lock of another key must not be held.
+     * <p>
+     * An entry is recorded by the {@link DemotingWriter} before Caffeine removes it from the first tier: an entry whose
+     * value is still in the first tier is being evicted, and is written.
+     */
+    private void demote() {
+        if (demotions.isEmpty()) {
+            return;
+        }
+
+        for (Map.Entry<K, V> e : demotions.entrySet()) {
+            K key = e.getKey();
+            Lock lock = lockOf(key);
+            if (!lock.tryLock()) {
+                // The key is being accessed: the entry will be demoted after this access
+                continue;
+            }
+            try {
+                if (demotions.remove(key, e.getValue()) && isEvicted(key, e.getValue())) {
+                    l2.put(key, e.getValue());
+                }
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Checks whether the {@code value} of the {@code key} is evicted, or being evicted, from the first tier, rather
+     * than replaced by another value.
+     *
+     * @param key   the key of the entry
+     * @param value the demoted value
+     *
+     * @return {@code true} if the value is evicted
+     */
+    private boolean isEvicted(K key, V value) {
+        if (!l1.asMap().containsKey(key)) {
+            return true;
+        }
+
+        V current = l1.asMap().get(key);
+        return isNull(current) || current == value;
+    }
+
+    /**
+     * Loads the value associated with the {@code key} with the {@code mappingFunction}, and records its statistics.
+     *
+     * @param key             the key whose associated value is to be loaded
+     * @param mappingFunction the function to compute a value
+     *
+     * @return the loaded value, or {@code null} if the {@code mappingFunction} returned {@code null}
+     */
+    @Nullable
+    private V load(K key, Function<? super K, ? extends V> mappingFunction) {
+        long start = System.nanoTime();
+
+        V value;
+        try {
+            value = mappingFunction.apply(key);
+        }
+        catch (RuntimeException | Error e) {
+            if (nonNull(loads)) {
+                loads.recordLoadFailure(System.nanoTime() - start);
+            }
+            throw e;
+        }
+
+        if (nonNull(loads)) {
+            if (nonNull(value)) {
+                loads.recordLoadSuccess(System.nanoTime() - start);
+            }
+            else {
+                loads.recordLoadFailure(System.nanoTime() - start);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Returns the value associated with the {@code key} in any tier, without moving it nor recording any statistic.
+     *
+     * @param key the key whose associated value is to be returned
+     *
+     * @return the value, or {@code null} if this cache contains no mapping for the key
+     */
+    @Nullable
+    private V peek(K key) {
+        V value = l1.asMap().get(key);
+        if (nonNull(value)) {
+            return value;
+        }
+
+        V demoted = demotions.get(key);
+        return nonNull(demoted) ? demoted : l2.peek(key);
+    }
+
+    /**
+     * A {@link CacheWriter} that records the entries evicted from the first tier because of its size, to be demoted
+     * outside of the eviction. This writer does not perform any I/O.
+     */
+    private final class DemotingWriter implements CacheWriter<K, V> {
+
+        @Override
+        public void write(K key, V value) {
+            // Do nothing
+        }
+
+        @Override
+        public void delete(K key, @Nullable V value, RemovalCause cause) {
+            if (cause == RemovalCause.SIZE && nonNull(value)) {
+                demotions.put(key, value);
+            }
+        }
+    }
+
+    /**
+     * A {@link ConcurrentMap} view of this cache. Reading this view does not record statistics, and does not promote
+     * the entries of the second tier.
+     */
+    private final class MapView extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+
+        @Override
+        public int size() {
+            return (int) Math.min(Integer.MAX_VALUE, CaffeineTieredCache.this.size());
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean containsKey(Object key) {
+            Preconditions.checkNotNull(key, "key");
+
+            return contains((K) key);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V get(Object key) {
+            Preconditions.checkNotNull(key, "key");
+
+            return peek((K) key);
+        }
+
+        @Override
+        public V put(K key, V value) {
+            Preconditions.checkNotNull(key, "key");
+            Preconditions.checkNotNull(value, "value");
+
+            return withLock(key, () -> {
+                V current = l1.asMap().get(key);
+                V stored = removeLower(key);
+                l1.put(key, value);
+                return nonNull(current) ? current : stored;
+            });
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V remove(Object key) {
+            Preconditions.checkNotNull(key, "key");
+
+            return withLock(key, () -> {
+                V current = l1.asMap().remove(key);
+                V stored = removeLower((K) key);
+                return nonNull(current) ? current : stored;
+            });
+        }
+
+        @Override
+        public void clear() {
+            invalidateAll();
+        }
+
+        @Override
+        public V putIfAbsent(K key, V value) {
+            Preconditions.checkNotNull(key, "key");
+            Preconditions.checkNotNull(value, "value");
+
+            return withLock(key, () -> {
+                V existing = existing(key);
+                if (isNull(existing)) {
+                    l1.put(key, value);
+                }
+                return existing;
+            });
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean remove(Object key, Object value) {
+            Preconditions.checkNotNull(key, "key");
+
+            return withLock(key, () -> {
+                V existing = existing((K) key);
+                if (nonNull(existing) && Objects.equals(existing, value)) {
+                    l1.invalidate(key);
+                    removeLower((K) key);
+                    return true;
+                }
+                return false;
+            });
+        }
+
+        @Override
+        public boolean replace(K key, V oldValue, V newValue) {
+            Preconditions.checkNotNull(key, "key");
+            Preconditions.checkNotNull(oldValue, "oldValue");
+            Preconditions.checkNotNull(newValue, "newValue");
+
+            return withLock(key, () -> {
+                if (Objects.equals(existing(key), oldValue)) {
+                    l1.put(key, newValue);
+                    return true;
+                }
+                return false;
+            });
+        }
+
+        @Override
+        public V replace(K key, V value) {
+            Preconditions.checkNotNull(key, "key");
+            Preconditions.checkNotNull(value, "value");
+
+            return withLock(key, () -> {
+                V existing = existing(key);
+                if (nonNull(existing)) {
+                    l1.put(key, value);
+                }
+                return existing;
+            });
+        }
+
+        /**
+         * Returns the value associated with the {@code key} in any tier, after moving it to the first tier, without
+         * recording any statistic. The lock of the key must be held.
+         *
+         * @param key the key whose associated value is to be returned
+         *
+         * @return the value, or {@code null} if this cache contains no mapping for the key
+         */
+        @Nullable
+        private V existing(K key) {
+            V current = l1.asMap().get(key);
+            if (nonNull(current)) {
+                return current;
+            }
+
+            V stored = removeLower(key);
+            if (nonNull(stored)) {
+                l1.put(key, stored);
+            }
+            return stored;
+        }
+
+        @Nonnull
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            return new AbstractSet<Entry<K, V>>() {
+                @Override
+                public int size() {
+                    return MapView.this.size();
+                }
+
+                @Override
+                public void clear() {
+                    invalidateAll();
+                }
+
+                @Nonnull
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    return new EntryIterator();
+                }
+            };
+        }
+    }
+
+    /**
+     * An iterator over a snapshot of the keys of both tiers, which reads the values lazily. The entries removed after
+     * the snapshot are skipped.
+     */
+    private final class EntryIterator implements Iterator<Map.Entry<K, V>> {
+
+        /**
+         * The snapshot of the keys.
+         */
+        @Nonnull
+        private final Iterator<K> keys;
+
+        /**
+         * The next entry to return, or {@code null} if it has not been read yet.
+         */
+        @Nullable
+        private Map.Entry<K, V> next;
+
+        /**
+         * The key of the last returned entry, or {@code null} if it has been removed.
+         */
+        @Nullable
+        private K last;
+
+        /**
+         * Constructs a new {@code EntryIterator}.
+         */
+        EntryIterator() {
+            Set<K> snapshot = new LinkedHashSet<>(l1.asMap().keySet());
+            snapshot.addAll(demotions.keySet());
+            snapshot.addAll(l2.keys());
+            this.keys = snapshot.iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (isNull(next) && keys.hasNext()) {
+                K key = keys.next();
+                V value = peek(key);
+                if (nonNull(value)) {
+                    next = new AbstractMap.SimpleImmutableEntry<>(key, value);
+                }
+            }
+            return nonNull(next);
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            Map.Entry<K, V> entry = next;
+            next = null;
+            last = entry.getKey();
+            return entry;
+        }
+
+        @Override
+        public void remove() {
+            Preconditions.checkState(nonNull(last), "no entry to remove");
+
+            invalidate(last);
+            last = null;
+        }
+    }
+}
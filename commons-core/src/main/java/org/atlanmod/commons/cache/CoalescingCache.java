@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.Preconditions;
+
+import java.util.function.Function;
+
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * A {@link Cache} that coalesces the concurrent loadings of the same key with a {@link SingleFlight}.
+ * <p>
+ * A lookup first reads the delegated cache, which records a hit or a miss. On a miss, a single caller per key computes
+ * the value outside the locks of the delegated cache, and stores it with {@link
+ * java.util.concurrent.ConcurrentMap#putIfAbsent(Object, Object)} on {@link Cache#asMap()}, while the other callers
+ * wait for its result. The loadings are recorded by this cache, since they are not performed by the delegated cache.
+ * <p>
+ * If the key is invalidated while its value is computed, the computed value is returned to the callers but is not
+ * kept in the delegated cache, since it may have been computed from the data that the invalidation refers to.
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of mapped values
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+final class CoalescingCache<K, V> extends ComputingCache<K, V> {
+
+    /**
+     * The delegated cache.
+     */
+    @Nonnull
+    private final Cache<K, V> delegate;
+
+    /**
+     * Constructs a new {@code CoalescingCache}.
+     *
+     * @param delegate    the delegated cache
+     * @param recordStats {@code true} if the statistics are recorded
+     */
+    public CoalescingCache(Cache<K, V> delegate, boolean recordStats) {
+        super(recordStats, true);
+        this.delegate = delegate;
+    }
+
+    @Nonnull
+    @Override
+    protected Cache<K, V> delegate() {
+        return delegate;
+    }
+
+    @Override
+    public V get(K key, Function<? super K, ? extends V> mappingFunction) {
+        Preconditions.checkNotNull(key, "key");
+        Preconditions.checkNotNull(mappingFunction, "mappingFunction");
+
+        V value = delegate.get(key);
+        if (nonNull(value)) {
+            return value;
+        }
+
+        return loadAndStore(key, mappingFunction, v -> {
+            V currentValue = delegate.asMap().putIfAbsent(key, v);
+            return nonNull(currentValue) ? currentValue : v;
+        });
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A compression algorithm, used to store the values of a cache in a compact form.
+ *
+ * @see Codecs
+ * @see CacheBuilder#compressValues(int, Codec)
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+public interface Codec {
+
+    /**
+     * Compresses the {@code data}.
+     *
+     * @param data the data to compress
+     *
+     * @return the compressed data
+     */
+    @Nonnull
+    byte[] encode(byte[] data);
+
+    /**
+     * Decompresses the {@code data}.
+     *
+     * @param data   the data to decompress, as returned by {@link #encode(byte[])}
+     * @param length the length of the original data
+     *
+     * @return the original data
+     *
+     * @throws IllegalArgumentException if the data is corrupted
+     */
+    @Nonnull
+    byte[] decode(byte[] data, @Nonnegative int length);
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.Preconditions;
+import org.atlanmod.commons.Throwables;
+import org.atlanmod.commons.annotation.Static;
+
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Static factory methods of the {@link Codec}s available in the JDK.
+ */
+@Static
+@ParametersAreNonnullByDefault
+public final class Codecs {
+
+    /**
+     * The default codec: Deflate with the fastest compression level.
+     */
+    @Nonnull
+    private static final Codec DEFAULT = new DeflateCodec(Deflater.BEST_SPEED);
+
+    /**
+     * This class should not be instantiated.
+     *
+     * @throws IllegalStateException every time
+     */
+    private Codecs() {
+        throw Throwables.notInstantiableClass(getClass());
+    }
+
+    /**
+     * Returns a codec that uses the Deflate algorithm with the fastest compression level, which is a good trade-off for
+     * caching: about as fast to compress as to copy the data several times, while dividing the size of textual data by
+     * 3 to 10.
+     *
+     * @return a codec
+     */
+    @Nonnull
+    public static Codec deflate() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns a codec that uses the Deflate algorithm with the given compression {@code level}.
+     *
+     * @param level the compression level, from {@link Deflater#BEST_SPEED} to {@link Deflater#BEST_COMPRESSION}
+     *
+     * @return a codec
+     *
+     * @throws IllegalArgumentException if {@code level} is not a valid compression level
+     */
+    @Nonnull
+    public static Codec deflate(int level) {
+        Preconditions.checkArgument(level >= Deflater.BEST_SPEED && level <= Deflater.BEST_COMPRESSION, "level (%d) must be between %d and %d", level, Deflater.BEST_SPEED, Deflater.BEST_COMPRESSION);
+
+        return level == Deflater.BEST_SPEED ? DEFAULT : new DeflateCodec(level);
+    }
+
+    /**
+     * A {@link Codec} that uses the Deflate algorithm. The native compressors are reused by each thread, rather than
+     * allocated on each call.
+     */
+    @ThreadSafe
+    private static final class DeflateCodec implements Codec {
+
+        /**
+         * The compressors of each thread.
+         */
+        @Nonnull
+        private final ThreadLocal<Deflater> deflaters;
+
+        /**
+         * The decompressors of each thread.
+         */
+        @Nonnull
+        private final ThreadLocal<Inflater> inflaters = ThreadLocal.withInitial(Inflater::new);
+
+        /**
+         * Constructs a new {@code DeflateCodec}.
+         *
+         * @param level the compression level
+         */
+        DeflateCodec(int level) {
+            this.deflaters = ThreadLocal.withInitial(() -> new Deflater(level));
+        }
+
+        @Nonnull
+        @Override
+        public byte[] encode(byte[] data) {
+            Deflater deflater = deflaters.get();
+            deflater.reset();
+            deflater.setInput(data);
+            deflater.finish();
+
+            byte[] buffer = new byte[Math.max(64, data.length / 2)];
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                length += deflater.deflate(buffer, length, buffer.length - length);
+            }
+            return Arrays.copyOf(buffer, length);
+        }
+
+        @Nonnull
+        @Override
+        public byte[] decode(byte[] data, @Nonnegative int length) {
+            Inflater inflater = inflaters.get();
+            inflater.reset();
+            inflater.setInput(data);
+
+            byte[] result = new byte[length];
+            try {
+                int offset = 0;
+                while (offset < length) {
+                    int count = inflater.inflate(result, offset, length - offset);
+                    if (count == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    offset += count;
+                }
+                Preconditions.checkArgument(offset == length, "corrupted data: expected %d bytes, got %d", length, offset);
+            }
+            catch (DataFormatException e) {
+                throw new IllegalArgumentException("corrupted data", e);
+            }
+            return result;
+        }
+    }
+}
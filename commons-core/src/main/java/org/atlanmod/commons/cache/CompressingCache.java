@@ -0,0 +1,460 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.Preconditions;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static java.util.Objects.isNull;
+
+/**
+ * A {@link Cache} that stores its large byte array values in a compressed form, and decompresses them on each read.
+ * <p>
+ * A byte array is compressed if its length is at least the threshold of this cache, and if its compressed form is
+ * shorter; the other values are stored as they are. The delegated cache holds the compressed forms, so that its
+ * weigher and its size bound apply to them.
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of mapped values
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+final class CompressingCache<K, V> implements Cache<K, V> {
+
+    /**
+     * The delegated cache, holding the stored forms of the values.
+     */
+    @Nonnull
+    private final Cache<K, Object> delegate;
+
+    /**
+     * The codec used to compress the values.
+     */
+    @Nonnull
+    private final Codec codec;
+
+    /**
+     * The minimum length of the byte arrays to compress.
+     */
+    @Nonnegative
+    private final int threshold;
+
+    /**
+     * The {@link ConcurrentMap} view of this cache.
+     */
+    @Nonnull
+    private final MapView mapView = new MapView();
+
+    /**
+     * Constructs a new {@code CompressingCache}.
+     *
+     * @param delegate  the delegated cache, holding the stored forms of the values
+     * @param codec     the codec used to compress the values
+     * @param threshold the minimum length of the byte arrays to compress
+     */
+    public CompressingCache(Cache<K, Object> delegate, Codec codec, @Nonnegative int threshold) {
+        this.delegate = delegate;
+        this.codec = codec;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Returns the form in which the {@code value} is stored: a {@link Compressed} value if it is a byte array that
+     * compresses well, or the {@code value} itself.
+     *
+     * @param value     the value to store
+     * @param codec     the codec used to compress the values
+     * @param threshold the minimum length of the byte arrays to compress
+     *
+     * @return the stored form of the value
+     */
+    @Nullable
+    static Object encode(@Nullable Object value, Codec codec, @Nonnegative int threshold) {
+        if (!(value instanceof byte[])) {
+            return value;
+        }
+
+        byte[] data = (byte[]) value;
+        if (data.length < threshold) {
+            return value;
+        }
+
+        byte[] compressedData = codec.encode(data);
+        return compressedData.length < data.length
+                ? new Compressed(compressedData, data.length)
+                : value;
+    }
+
+    /**
+     * Returns the value represented by a stored form.
+     *
+     * @param storedValue the stored form of the value
+     * @param codec       the codec used to compress the values
+     *
+     * @return the value
+     */
+    @Nullable
+    static Object decode(@Nullable Object storedValue, Codec codec) {
+        if (!(storedValue instanceof Compressed)) {
+            return storedValue;
+        }
+
+        Compressed compressed = (Compressed) storedValue;
+        return codec.decode(compressed.data, compressed.length);
+    }
+
+    /**
+     * Returns the object to weigh for a stored form: the compressed data if the value is compressed, or the value
+     * itself.
+     *
+     * @param storedValue the stored form of a value
+     *
+     * @return the object to weigh
+     */
+    @Nullable
+    static Object unwrap(@Nullable Object storedValue) {
+        return storedValue instanceof Compressed
+                ? ((Compressed) storedValue).data
+                : storedValue;
+    }
+
+    @Nullable
+    @Override
+    public V get(K key) {
+        return decode(delegate.get(key));
+    }
+
+    @Override
+    public V get(K key, Function<? super K, ? extends V> mappingFunction) {
+        Preconditions.checkNotNull(mappingFunction, "mappingFunction");
+
+        return decode(delegate.get(key, k -> encode(mappingFunction.apply(k))));
+    }
+
+    @Nonnull
+    @Override
+    public Map<K, V> getAll(Iterable<? extends K> keys) {
+        Map<K, V> values = new HashMap<>();
+        delegate.getAll(keys).forEach((k, v) -> values.put(k, decode(v)));
+        return Collections.unmodifiableMap(values);
+    }
+
+    @Override
+    public void put(K key, V value) {
+        delegate.put(key, encode(value));
+    }
+
+    @Override
+    public void putIfAbsent(K key, V value) {
+        delegate.putIfAbsent(key, encode(value));
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> map) {
+        Preconditions.checkNotNull(map, "map");
+
+        Map<K, Object> storedValues = new HashMap<>(map.size());
+        map.forEach((k, v) -> storedValues.put(k, encode(v)));
+        delegate.putAll(storedValues);
+    }
+
+    @Override
+    public void invalidate(K key) {
+        delegate.invalidate(key);
+    }
+
+    @Override
+    public void invalidateAll(Iterable<? extends K> keys) {
+        delegate.invalidateAll(keys);
+    }
+
+    @Override
+    public void invalidateAll() {
+        delegate.invalidateAll();
+    }
+
+    @Override
+    public boolean contains(K key) {
+        return delegate.contains(key);
+    }
+
+    @Override
+    public long size() {
+        return delegate.size();
+    }
+
+    @Override
+    public void refresh(K key) {
+        delegate.refresh(key);
+    }
+
+    @Override
+    public void cleanUp() {
+        delegate.cleanUp();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    @Nonnull
+    @Override
+    public ConcurrentMap<K, V> asMap() {
+        return mapView;
+    }
+
+    @Nonnull
+    @Override
+    public CacheStats stats() {
+        return delegate.stats();
+    }
+
+    /**
+     * Returns a snapshot of the {@code limit} hottest entries of this cache, from the hottest to the coldest, as
+     * ordered by the delegated cache.
+     *
+     * @param limit the maximum number of entries
+     *
+     * @return a snapshot of the hottest entries, or {@code null} if the delegated cache does not order its entries
+     */
+    @Nullable
+    Map<K, V> hottest(@Nonnegative int limit) {
+        Map<K, Object> storedEntries = CacheSnapshots.hottest(delegate, limit);
+        if (isNull(storedEntries)) {
+            return null;
+        }
+
+        Map<K, V> entries = new LinkedHashMap<>(storedEntries.size());
+        storedEntries.forEach((k, v) -> entries.put(k, decode(v)));
+        return entries;
+    }
+
+    /**
+     * Returns the form in which the {@code value} is stored.
+     *
+     * @param value the value to store
+     *
+     * @return the stored form of the value
+     */
+    @Nullable
+    private Object encode(@Nullable V value) {
+        return encode(value, codec, threshold);
+    }
+
+    /**
+     * Returns the value represented by a stored form.
+     *
+     * @param storedValue the stored form of the value
+     *
+     * @return the value
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private V decode(@Nullable Object storedValue) {
+        return (V) decode(storedValue, codec);
+    }
+
+    /**
+     * Returns {@code true} if the {@code storedValue} represents the {@code value}. Byte arrays are compared by content,
+     * since a compressed value is decompressed into a new array on each read.
+     *
+     * @param storedValue the stored form of a value
+     * @param value       the value to compare with
+     *
+     * @return {@code true} if the stored form represents the value
+     */
+    private boolean matches(Object storedValue, @Nullable Object value) {
+        Object currentValue = decode(storedValue);
+        return currentValue instanceof byte[] && value instanceof byte[]
+                ? Arrays.equals((byte[]) currentValue, (byte[]) value)
+                : Objects.equals(currentValue, value);
+    }
+
+    /**
+     * The stored form of a compressed value.
+     */
+    @Immutable
+    private static final class Compressed {
+
+        /**
+         * The compressed data.
+         */
+        @Nonnull
+        final byte[] data;
+
+        /**
+         * The length of the original data.
+         */
+        @Nonnegative
+        final int length;
+
+        /**
+         * Constructs a new {@code Compressed}.
+         *
+         * @param data   the compressed data
+         * @param length the length of the original data
+         */
+        Compressed(byte[] data, @Nonnegative int length) {
+            this.data = data;
+            this.length = length;
+        }
+    }
+
+    /**
+     * A {@link ConcurrentMap} view of this cache, which compresses and decompresses the values of the view of the
+     * delegated cache. The operations on a single key are as atomic as in the delegated cache.
+     */
+    private final class MapView extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+
+        @Override
+        public int size() {
+            return delegate.asMap().size();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return delegate.asMap().containsKey(key);
+        }
+
+        @Override
+        public V get(Object key) {
+            return decode(delegate.asMap().get(key));
+        }
+
+        @Override
+        public V put(K key, V value) {
+            return decode(delegate.asMap().put(key, encode(value)));
+        }
+
+        @Override
+        public V remove(Object key) {
+            return decode(delegate.asMap().remove(key));
+        }
+
+        @Override
+        public void clear() {
+            delegate.invalidateAll();
+        }
+
+        @Override
+        public V putIfAbsent(K key, V value) {
+            return decode(delegate.asMap().putIfAbsent(key, encode(value)));
+        }
+
+        @Override
+        public boolean remove(Object key, Object value) {
+            Object storedValue = delegate.asMap().get(key);
+            return !isNull(storedValue)
+                    && matches(storedValue, value)
+                    && delegate.asMap().remove(key, storedValue);
+        }
+
+        @Override
+        public boolean replace(K key, V oldValue, V newValue) {
+            Object storedValue = delegate.asMap().get(key);
+            return !isNull(storedValue)
+                    && matches(storedValue, oldValue)
+                    && delegate.asMap().replace(key, storedValue, encode(newValue));
+        }
+
+        @Override
+        public V replace(K key, V value) {
+            return decode(delegate.asMap().replace(key, encode(value)));
+        }
+
+        @Override
+        public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+            Preconditions.checkNotNull(mappingFunction, "mappingFunction");
+
+            return decode(delegate.asMap().computeIfAbsent(key, k -> encode(mappingFunction.apply(k))));
+        }
+
+        @Override
+        public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+            Preconditions.checkNotNull(remappingFunction, "remappingFunction");
+
+            return decode(delegate.asMap().computeIfPresent(key, (k, v) -> encode(remappingFunction.apply(k, decode(v)))));
+        }
+
+        @Override
+        public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+            Preconditions.checkNotNull(remappingFunction, "remappingFunction");
+
+            return decode(delegate.asMap().compute(key, (k, v) -> encode(remappingFunction.apply(k, decode(v)))));
+        }
+
+        @Override
+        public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+            Preconditions.checkNotNull(remappingFunction, "remappingFunction");
+
+            return decode(delegate.asMap().merge(key, encode(value), (v1, v2) -> encode(remappingFunction.apply(decode(v1), decode(v2)))));
+        }
+
+        @Nonnull
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            return new AbstractSet<Entry<K, V>>() {
+                @Override
+                public int size() {
+                    return MapView.this.size();
+                }
+
+                @Override
+                public void clear() {
+                    delegate.invalidateAll();
+                }
+
+                @Nonnull
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    Iterator<Entry<K, Object>> iterator = delegate.asMap().entrySet().iterator();
+
+                    return new Iterator<Entry<K, V>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return iterator.hasNext();
+                        }
+
+                        @Override
+                        public Entry<K, V> next() {
+                            Entry<K, Object> entry = iterator.next();
+                            return new SimpleImmutableEntry<>(entry.getKey(), decode(entry.getValue()));
+                        }
+
+                        @Override
+                        public void remove() {
+                            iterator.remove();
+                        }
+                    };
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * A {@link ForwardingCache} that computes the missing values itself, outside the delegated cache, and stores them
+ * explicitly. The loadings are recorded by this cache, since they are not performed by the delegated cache.
+ * <p>
+ * If a key is invalidated while its value is computed, the computed value is returned to the callers but is not kept
+ * in the delegated cache, since it may have been computed from the data that the invalidation refers to. The
+ * concurrent loadings of the same key can be coalesced with a {@link SingleFlight}.
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of mapped values
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+abstract class ComputingCache<K, V> extends ForwardingCache<K, V> {
+
+    /**
+     * The statistics of the loadings, or {@code null} if they are not recorded.
+     */
+    @Nullable
+    private final ConcurrentStatsCounter loads;
+
+    /**
+     * The de-duplicator of the loadings, or {@code null} if the loadings are not coalesced.
+     */
+    @Nullable
+    private final SingleFlight<K, V> singleFlight;
+
+    /**
+     * The keys being loaded, associated with a flag per running loading, set when the key is invalidated during the
+     * loading. The lists are only accessed in the computations of this map.
+     */
+    @Nonnull
+    private final ConcurrentMap<K, List<AtomicBoolean>> loadingKeys = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new {@code ComputingCache}.
+     *
+     * @param recordStats   {@code true} if the statistics are recorded
+     * @param coalesceLoads {@code true} if the concurrent loadings of the same key are coalesced
+     */
+    protected ComputingCache(boolean recordStats, boolean coalesceLoads) {
+        this.loads = recordStats ? new ConcurrentStatsCounter() : null;
+        this.singleFlight = coalesceLoads ? new SingleFlight<>() : null;
+    }
+
+    @Override
+    public void invalidate(K key) {
+        markInvalidated(key);
+        delegate().invalidate(key);
+    }
+
+    @Override
+    public void invalidateAll(Iterable<? extends K> keys) {
+        keys.forEach(this::markInvalidated);
+        delegate().invalidateAll(keys);
+    }
+
+    @Override
+    public void invalidateAll() {
+        loadingKeys.keySet().forEach(this::markInvalidated);
+        delegate().invalidateAll();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The returned statistics include the loadings performed by this cache.
+     */
+    @Nonnull
+    @Override
+    public CacheStats stats() {
+        CacheStats stats = delegate().stats();
+        if (isNull(loads)) {
+            return stats;
+        }
+
+        stats = stats.plus(loads.snapshot());
+        return nonNull(singleFlight)
+                ? stats.toBuilder().coalescedCount(singleFlight.coalescedCount()).build()
+                : stats;
+    }
+
+    /**
+     * Returns whether the statistics of this cache are recorded.
+     *
+     * @return {@code true} if the statistics are recorded
+     */
+    protected final boolean recordsStats() {
+        return nonNull(loads);
+    }
+
+    /**
+     * Computes the value of the {@code key}, records the loading, and stores the value with the {@code storeFunction}.
+     * If the {@code key} is invalidated during the loading, the stored value is removed from the delegated cache.
+     *
+     * @param key             the key of the value
+     * @param mappingFunction the function to compute the value
+     * @param storeFunction   the function to store the computed value, which returns the current value associated with
+     *                        the {@code key}, or the computed value itself if it has been stored or is not to be stored
+     *
+     * @return the current value associated with the {@code key}, or {@code null} if the computed value is {@code null}
+     */
+    @Nullable
+    protected final V loadAndStore(K key, Function<? super K, ? extends V> mappingFunction, Function<V, V> storeFunction) {
+        return nonNull(singleFlight)
+                ? singleFlight.execute(key, k -> doLoadAndStore(k, mappingFunction, storeFunction))
+                : doLoadAndStore(key, mappingFunction, storeFunction);
+    }
+
+    /**
+     * Computes the value of the {@code key}, records the loading, and stores the value with the {@code storeFunction},
+     * without coalescing the loading.
+     *
+     * @param key             the key of the value
+     * @param mappingFunction the function to compute the value
+     * @param storeFunction   the function to store the computed value
+     *
+     * @return the current value associated with the {@code key}, or {@code null} if the computed value is {@code null}
+     */
+    @Nullable
+    private V doLoadAndStore(K key, Function<? super K, ? extends V> mappingFunction, Function<V, V> storeFunction) {
+        AtomicBoolean invalidated = new AtomicBoolean();
+        loadingKeys.compute(key, (k, flags) -> {
+            List<AtomicBoolean> newFlags = nonNull(flags) ? flags : new ArrayList<>(1);
+            newFlags.add(invalidated);
+            return newFlags;
+        });
+
+        try {
+            V value = load(key, mappingFunction);
+            if (isNull(value)) {
+                return null;
+            }
+
+            V currentValue = storeFunction.apply(value);
+
+            // The invalidations are marked before being applied: either they remove the value, or it is removed here
+            if (currentValue == value && invalidated.get()) {
+                delegate().asMap().remove(key, value);
+            }
+            return currentValue;
+        }
+        finally {
+            loadingKeys.computeIfPresent(key, (k, flags) -> {
+                flags.remove(invalidated);
+                return flags.isEmpty() ? null : flags;
+            });
+        }
+    }
+
+    /**
+     * Computes the value of the {@code key}, and records the loading.
+     *
+     * @param key             the key of the value
+     * @param mappingFunction the function to compute the value
+     *
+     * @return the computed value, or {@code null} if there is none
+     */
+    @Nullable
+    private V load(K key, Function<? super K, ? extends V> mappingFunction) {
+        long start = System.nanoTime();
+
+        V value;
+        try {
+            value = mappingFunction.apply(key);
+        }
+        catch (RuntimeException | Error e) {
+            recordLoad(false, start);
+            throw e;
+        }
+
+        recordLoad(nonNull(value), start);
+        return value;
+    }
+
+    /**
+     * Records a loading.
+     *
+     * @param success {@code true} if a value has been loaded
+     * @param start   the start time of the loading, in nanoseconds
+     */
+    private void recordLoad(boolean success, long start) {
+        if (isNull(loads)) {
+            return;
+        }
+
+        long loadTime = System.nanoTime() - start;
+        if (success) {
+            loads.recordLoadSuccess(loadTime);
+        }
+        else {
+            loads.recordLoadFailure(loadTime);
+        }
+    }
+
+    /**
+     * Marks the {@code key} as invalidated if it is being loaded.
+     *
+     * @param key the invalidated key
+     */
+    private void markInvalidated(K key) {
+        if (loadingKeys.isEmpty()) {
+            return;
+        }
+
+        loadingKeys.computeIfPresent(key, (k, flags) -> {
+            flags.forEach(f -> f.set(true));
+            return flags;
+        });
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A thread-safe accumulator of {@link CacheStats}, used by the {@link Cache} implementations that are not backed by
+ * Caffeine, and by default when the statistics are recorded.
+ * <p>
+ * The counters are {@link LongAdder}s, so recording an event does not allocate once the internal cells have been
+ * created.
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+class ConcurrentStatsCounter implements StatsCounter {
+
+    /**
+     * The number of cache hits.
+     */
+    @Nonnull
+    private final LongAdder hitCount = new LongAdder();
+
+    /**
+     * The number of cache misses.
+     */
+    @Nonnull
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * The number of successful cache loads.
+     */
+    @Nonnull
+    private final LongAdder loadSuccessCount = new LongAdder();
+
+    /**
+     * The number of failed cache loads.
+     */
+    @Nonnull
+    private final LongAdder loadFailureCount = new LongAdder();
+
+    /**
+     * The total load time (success and failure) in nanoseconds.
+     */
+    @Nonnull
+    private final LongAdder totalLoadTime = new LongAdder();
+
+    /**
+     * The number of entries evicted from the cache.
+     */
+    @Nonnull
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * The sum of weights of evicted entries.
+     */
+    @Nonnull
+    private final LongAdder evictionWeight = new LongAdder();
+
+    /**
+     * Records a cache hit.
+     */
+    public void recordHit() {
+        hitCount.increment();
+    }
+
+    @Override
+    public void recordHits(@Nonnegative int count) {
+        hitCount.add(count);
+    }
+
+    /**
+     * Records a cache miss.
+     */
+    public void recordMiss() {
+        missCount.increment();
+    }
+
+    @Override
+    public void recordMisses(@Nonnegative int count) {
+        missCount.add(count);
+    }
+
+    @Override
+    public void recordLoadSuccess(@Nonnegative long loadTime) {
+        loadSuccessCount.increment();
+        totalLoadTime.add(loadTime);
+    }
+
+    @Override
+    public void recordLoadFailure(@Nonnegative long loadTime) {
+        loadFailureCount.increment();
+        totalLoadTime.add(loadTime);
+    }
+
+    /**
+     * Records the eviction of an entry from the cache.
+     */
+    public void recordEviction() {
+        recordEviction(1);
+    }
+
+    /**
+     * Records the eviction of an entry from the cache.
+     *
+     * @param weight the weight of the evicted entry
+     */
+    public void recordEviction(@Nonnegative long weight) {
+        evictionCount.increment();
+        evictionWeight.add(weight);
+    }
+
+    @Override
+    public void recordEviction(@Nonnegative long weight, RemovalCause cause) {
+        recordEviction(weight);
+    }
+
+    @Nonnull
+    @Override
+    public CacheStats snapshot() {
+        return snapshot(0);
+    }
+
+    /**
+     * Returns a snapshot of the values of this counter, with the current weighted size of the cache.
+     *
+     * @param weightedSize the current weighted size of the cache
+     *
+     * @return a new statistics instance
+     */
+    @Nonnull
+    public CacheStats snapshot(@Nonnegative long weightedSize) {
+        return CacheStats.builder()
+                .hitCount(hitCount.sum())
+                .missCount(missCount.sum())
+                .loadSuccessCount(loadSuccessCount.sum())
+                .loadFailureCount(loadFailureCount.sum())
+                .totalLoadTime(totalLoadTime.sum())
+                .evictionCount(evictionCount.sum())
+                .evictionWeight(evictionWeight.sum())
+                .weightedSize(weightedSize)
+                .build();
+    }
+}
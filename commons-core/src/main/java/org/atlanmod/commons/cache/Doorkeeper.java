@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.Preconditions;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A Bloom filter that remembers the keys recently seen, in order to admit in a cache only the keys that are accessed
+ * at least twice.
+ * <p>
+ * The filter is sized for a number of keys, and is cleared each time this number of keys has been recorded: a key is
+ * therefore admitted if it has been seen since the last reset, and the keys read once by a scan are forgotten. A false
+ * positive admits a key on its first access, with a probability below 0.3% until the filter is full.
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+final class Doorkeeper {
+
+    /**
+     * The number of bits per expected key.
+     */
+    private static final int BITS_PER_KEY = 16;
+
+    /**
+     * The number of bits set for each key.
+     */
+    private static final int HASH_COUNT = 4;
+
+    /**
+     * The bits of the filter.
+     */
+    @Nonnull
+    private final AtomicLongArray bits;
+
+    /**
+     * The mask of the bit indices, the number of bits being a power of two.
+     */
+    private final int mask;
+
+    /**
+     * The number of keys to record before clearing the filter.
+     */
+    @Nonnegative
+    private final int resetThreshold;
+
+    /**
+     * The number of keys recorded since the last reset.
+     */
+    @Nonnull
+    private final AtomicInteger recordedCount = new AtomicInteger();
+
+    /**
+     * Constructs a new {@code Doorkeeper}.
+     *
+     * @param expectedKeys the number of keys to record before clearing the filter
+     *
+     * @throws IllegalArgumentException if {@code expectedKeys} is not positive
+     */
+    Doorkeeper(@Nonnegative long expectedKeys) {
+        Preconditions.checkArgument(expectedKeys > 0, "expectedKeys (%d) must be positive", expectedKeys);
+
+        int keys = (int) Math.min(expectedKeys, 1 << 25);
+        int bitCount = Math.max(Long.SIZE, Integer.highestOneBit(keys * BITS_PER_KEY - 1) << 1);
+
+        this.bits = new AtomicLongArray(bitCount / Long.SIZE);
+        this.mask = bitCount - 1;
+        this.resetThreshold = keys;
+    }
+
+    /**
+     * Records the {@code key}, and returns whether it had already been recorded since the last reset.
+     *
+     * @param key the key to record
+     *
+     * @return {@code true} if the key had probably been recorded, {@code false} if it is seen for the first time
+     */
+    boolean record(Object key) {
+        int hash = spread(key.hashCode());
+        int step = spread(hash) | 1;
+
+        boolean present = true;
+        for (int i = 0; i < HASH_COUNT; i++) {
+            present &= set((hash + i * step) & mask);
+        }
+
+        if (!present && recordedCount.incrementAndGet() >= resetThreshold) {
+            clear();
+        }
+        return present;
+    }
+
+    /**
+     * Forgets all the recorded keys.
+     */
+    void clear() {
+        recordedCount.set(0);
+        for (int i = 0; i < bits.length(); i++) {
+            bits.lazySet(i, 0L);
+        }
+    }
+
+    /**
+     * Sets a bit of the filter.
+     *
+     * @param index the index of the bit
+     *
+     * @return {@code true} if the bit was already set
+     */
+    private boolean set(int index) {
+        int word = index >>> 6;
+        long bit = 1L << index;
+
+        while (true) {
+            long current = bits.get(word);
+            if ((current & bit) != 0) {
+                return true;
+            }
+            if (bits.compareAndSet(word, current, current | bit)) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Applies a supplemental hash function to a hash code, to defend against poor quality hash functions.
+     *
+     * @param hash the hash code to spread
+     *
+     * @return the spread hash code
+     */
+    private static int spread(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
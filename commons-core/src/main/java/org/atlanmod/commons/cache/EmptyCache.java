@@ -124,6 +124,6 @@ class EmptyCache<K, V> implements Cache<K, V> {
     @Nonnull
     @Override
     public CacheStats stats() {
-        return new CacheStats(0, 0, 0, 0, 0, 0);
+        return CacheStats.builder().build();
     }
 }
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Calculates when cache entries expire. A single expiration time is retained so that the lifetime of an entry may be
+ * extended or reduced by subsequent evaluations.
+ * <p>
+ * All durations are expressed in nanoseconds, so that the evaluation of an expiration does not allocate on the read
+ * path.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ *
+ * @see CacheBuilder#expireAfter(Expiry)
+ */
+@FunctionalInterface
+@ParametersAreNonnullByDefault
+public interface Expiry<K, V> {
+
+    /**
+     * Specifies that the entry should be automatically removed from the cache once the duration has elapsed after the
+     * entry's creation.
+     *
+     * @param key   the key represented by this entry
+     * @param value the value represented by this entry
+     *
+     * @return the length of time before the entry expires, in nanoseconds
+     */
+    @Nonnegative
+    long expireAfterCreate(K key, V value);
+
+    /**
+     * Specifies that the entry should be automatically removed from the cache once the duration has elapsed after the
+     * replacement of its value. By default, the remaining duration is not modified.
+     *
+     * @param key             the key represented by this entry
+     * @param value           the value represented by this entry
+     * @param currentDuration the current duration, in nanoseconds
+     *
+     * @return the length of time before the entry expires, in nanoseconds
+     */
+    @Nonnegative
+    default long expireAfterUpdate(K key, V value, @Nonnegative long currentDuration) {
+        return currentDuration;
+    }
+
+    /**
+     * Specifies that the entry should be automatically removed from the cache once the duration has elapsed after its
+     * last read. By default, the remaining duration is not modified.
+     *
+     * @param key             the key represented by this entry
+     * @param value           the value represented by this entry
+     * @param currentDuration the current duration, in nanoseconds
+     *
+     * @return the length of time before the entry expires, in nanoseconds
+     */
+    @Nonnegative
+    default long expireAfterRead(K key, V value, @Nonnegative long currentDuration) {
+        return currentDuration;
+    }
+}
@@ -0,0 +1,747 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.Preconditions;
+import org.atlanmod.commons.io.serializer.BinarySerializer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * A persistent key-value store backed by an append-only file, used as the second tier of a {@link TieredCache}.
+ * <p>
+ * Each modification appends a record {@code [keyLength][valueLength][key][value]} to the file; a removal is recorded
+ * as a tombstone, with a negative {@code valueLength} and no value. The location of each live value is kept in an
+ * index on the heap, which is rebuilt by scanning the file when the store is opened, so that the content of the store
+ * survives restarts. An incomplete record at the end of the file, left by an interrupted write, is discarded.
+ * <p>
+ * The store is bounded by the number of bytes of its live records, and evicts the least recently used entries when
+ * this bound is exceeded. The file is compacted when the space occupied by obsolete records exceeds the space occupied
+ * by live records. Records are written through the operating system, but are not forced to the storage device.
+ *
+ * @param <K> the type of keys maintained by this store
+ * @param <V> the type of mapped values
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+final class FileStore<K, V> implements Closeable {
+
+    /**
+     * The magic number identifying the files of this store.
+     */
+    private static final int MAGIC = 0x41544C32;
+
+    /**
+     * The size of the file header: the magic number.
+     */
+    private static final int FILE_HEADER_SIZE = Integer.BYTES;
+
+    /**
+     * The size of the header of a record: the length of its key and the length of its value.
+     */
+    private static final int RECORD_HEADER_SIZE = Integer.BYTES * 2;
+
+    /**
+     * The value length of a tombstone.
+     */
+    private static final int TOMBSTONE = -1;
+
+    /**
+     * The minimum number of obsolete bytes before compacting the file.
+     */
+    private static final long MINIMUM_COMPACTION_SIZE = 1 << 20;
+
+    /**
+     * The lock guarding the index and the file.
+     */
+    @Nonnull
+    private final Object lock = new Object();
+
+    /**
+     * The location of each live value in the file, in access order.
+     */
+    @Nonnull
+    @GuardedBy("lock")
+    private final LinkedHashMap<K, Location> index = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * The file of this store.
+     */
+    @Nonnull
+    private final Path file;
+
+    /**
+     * The maximum number of bytes of the live records.
+     */
+    @Nonnegative
+    private final long maximumBytes;
+
+    /**
+     * The serializer used to store the keys.
+     */
+    @Nonnull
+    private final BinarySerializer<K> keySerializer;
+
+    /**
+     * The serializer used to store the values.
+     */
+    @Nonnull
+    private final BinarySerializer<V> valueSerializer;
+
+    /**
+     * The statistics of this store, or {@code null} if they are not recorded.
+     */
+    @Nullable
+    private final ConcurrentStatsCounter stats;
+
+    /**
+     * The channel used to access the file.
+     */
+    @Nonnull
+    @GuardedBy("lock")
+    private FileChannel channel;
+
+    /**
+     * The position where the next record will be appended.
+     */
+    @Nonnegative
+    @GuardedBy("lock")
+    private long end;
+
+    /**
+     * The number of bytes of the live records.
+     */
+    @Nonnegative
+    @GuardedBy("lock")
+    private long liveBytes;
+
+    /**
+     * Whether this store is closed.
+     */
+    @GuardedBy("lock")
+    private boolean closed;
+
+    /**
+     * Constructs a new {@code FileStore}, and rebuilds its index from the content of the {@code file}.
+     *
+     * @param file            the file of this store
+     * @param maximumBytes    the maximum number of bytes of the live records
+     * @param keySerializer   the serializer used to store the keys
+     * @param valueSerializer the serializer used to store the values
+     * @param recordStats     {@code true} if the statistics must be recorded
+     *
+     * @throws UncheckedIOException if the file cannot be opened, or is not a file of this store
+     */
+    public FileStore(Path file, @Nonnegative long maximumBytes, BinarySerializer<K> keySerializer, BinarySerializer<V> valueSerializer, boolean recordStats) {
+        Preconditions.checkGreaterThan(maximumBytes, 0L, "maximumBytes (%d) must be positive", maximumBytes);
+
+        this.file = file;
+        this.maximumBytes = maximumBytes;
+        this.keySerializer = keySerializer;
+        this.valueSerializer = valueSerializer;
+        this.stats = recordStats ? new ConcurrentStatsCounter() : null;
+
+        try {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (channel.size() == 0) {
+                writeHeader(channel);
+                end = FILE_HEADER_SIZE;
+            }
+            else {
+                rebuild();
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        synchronized (lock) {
+            evict();
+        }
+    }
+
+    /**
+     * Returns the value associated with the {@code key}, and records a hit or a miss.
+     *
+     * @param key the key whose associated value is to be returned
+     *
+     * @return the value, or {@code null} if this store contains no mapping for the key
+     */
+    @Nullable
+    public V get(K key) {
+        V value = read(key, false);
+        recordAccess(value);
+        return value;
+    }
+
+    /**
+     * Returns the value associated with the {@code key}, without recording any statistic.
+     *
+     * @param key the key whose associated value is to be returned
+     *
+     * @return the value, or {@code null} if this store contains no mapping for the key
+     */
+    @Nullable
+    public V peek(K key) {
+        return read(key, false);
+    }
+
+    /**
+     * Removes and returns the value associated with the {@code key}, and records a hit or a miss.
+     *
+     * @param key the key whose associated value is to be returned
+     *
+     * @return the value, or {@code null} if this store contained no mapping for the key
+     */
+    @Nullable
+    public V take(K key) {
+        V value = read(key, true);
+        recordAccess(value);
+        return value;
+    }
+
+    /**
+     * Removes and returns the value associated with the {@code key}, without recording any statistic.
+     *
+     * @param key the key whose associated value is to be returned
+     *
+     * @return the value, or {@code null} if this store contained no mapping for the key
+     */
+    @Nullable
+    public V remove(K key) {
+        return read(key, true);
+    }
+
+    /**
+     * Associates the {@code value} with the {@code key} in this store, evicting the least recently used entries if
+     * necessary.
+     *
+     * @param key   the key with which the specified value is to be associated
+     * @param value the value to be associated with the specified key
+     */
+    public void put(K key, V value) {
+        byte[] keyData = keySerializer.convert(key);
+        byte[] valueData = valueSerializer.convert(value);
+
+        synchronized (lock) {
+            checkNotClosed();
+
+            long recordSize = (long) RECORD_HEADER_SIZE + keyData.length + valueData.length;
+            if (recordSize > maximumBytes) {
+                delete(key, keyData);
+                recordEviction(recordSize);
+                return;
+            }
+
+            try {
+                long position = append(keyData, valueData);
+
+                Location previous = index.put(key, new Location(position, keyData.length, valueData.length));
+                if (nonNull(previous)) {
+                    liveBytes -= previous.recordSize();
+                }
+                liveBytes += recordSize;
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            evict();
+            compactIfNecessary();
+        }
+    }
+
+    /**
+     * Removes the value associated with the {@code key}.
+     *
+     * @param key the key of the entry to remove
+     */
+    public void invalidate(K key) {
+        synchronized (lock) {
+            checkNotClosed();
+
+            if (index.containsKey(key)) {
+                delete(key, keySerializer.convert(key));
+                compactIfNecessary();
+            }
+        }
+    }
+
+    /**
+     * Removes all the values of this store, and truncates its file.
+     */
+    public void invalidateAll() {
+        synchronized (lock) {
+            checkNotClosed();
+
+            try {
+                channel.truncate(FILE_HEADER_SIZE);
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            index.clear();
+            end = FILE_HEADER_SIZE;
+            liveBytes = 0;
+        }
+    }
+
+    /**
+     * Returns {@code true} if this store contains a value associated with the {@code key}.
+     *
+     * @param key the key whose presence is to be tested
+     *
+     * @return {@code true} if this store contains a value associated with the key
+     */
+    public boolean contains(K key) {
+        synchronized (lock) {
+            return index.containsKey(key);
+        }
+    }
+
+    /**
+     * Returns the number of entries in this store.
+     *
+     * @return the number of entries
+     */
+    @Nonnegative
+    public long size() {
+        synchronized (lock) {
+            return index.size();
+        }
+    }
+
+    /**
+     * Returns a snapshot of the keys of this store, from the least recently used to the most recently used.
+     *
+     * @return a new list
+     */
+    @Nonnull
+    public List<K> keys() {
+        synchronized (lock) {
+            return new ArrayList<>(index.keySet());
+        }
+    }
+
+    /**
+     * Returns a snapshot of the statistics of this store. The weighted size is the number of bytes of the live
+     * records.
+     *
+     * @return the statistics
+     */
+    @Nonnull
+    public CacheStats stats() {
+        if (isNull(stats)) {
+            return CacheStats.builder().build();
+        }
+
+        long weightedSize;
+        synchronized (lock) {
+            weightedSize = liveBytes;
+        }
+        return stats.snapshot(weightedSize);
+    }
+
+    /**
+     * Closes the file of this store. The records remain in the file, to be read by a new store.
+     *
+     * @throws IOException if an I/O error occurs while closing the file
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (!closed) {
+                closed = true;
+                index.clear();
+                liveBytes = 0;
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Ensures that this store is not closed.
+     *
+     * @throws IllegalStateException if this store is closed
+     */
+    @GuardedBy("lock")
+    private void checkNotClosed() {
+        Preconditions.checkState(!closed, "the store of %s is closed", file);
+    }
+
+    /**
+     * Reads the value associated with the {@code key}. The bytes are read under the lock, but deserialized outside of
+     * it.
+     *
+     * @param key    the key whose associated value is to be returned
+     * @param remove {@code true} if the entry must be removed
+     *
+     * @return the value, or {@code null} if this store contains no mapping for the key
+     */
+    @Nullable
+    private V read(K key, boolean remove) {
+        byte[] data;
+        synchronized (lock) {
+            checkNotClosed();
+
+            Location location = index.get(key);
+            if (isNull(location)) {
+                return null;
+            }
+
+            try {
+                data = readFully(location.position + RECORD_HEADER_SIZE + location.keyLength, location.valueLength);
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            if (remove) {
+                delete(key, keySerializer.convert(key));
+                compactIfNecessary();
+            }
+        }
+        return valueSerializer.revert(data);
+    }
+
+    /**
+     * Records a hit or a miss, depending on the {@code value} that has been read.
+     *
+     * @param value the value that has been read, or {@code null}
+     */
+    private void recordAccess(@Nullable V value) {
+        if (nonNull(stats)) {
+            if (nonNull(value)) {
+                stats.recordHit();
+            }
+            else {
+                stats.recordMiss();
+            }
+        }
+    }
+
+    /**
+     * Records the eviction of a record of {@code recordSize} bytes.
+     *
+     * @param recordSize the size of the evicted record
+     */
+    private void recordEviction(@Nonnegative long recordSize) {
+        if (nonNull(stats)) {
+            stats.recordEviction(recordSize);
+        }
+    }
+
+    /**
+     * Removes the entry associated with the {@code key} from the index, and appends a tombstone if it was present.
+     *
+     * @param key     the key of the entry to remove
+     * @param keyData the serialized key
+     */
+    @GuardedBy("lock")
+    private void delete(K key, byte[] keyData) {
+        Location location = index.remove(key);
+        if (nonNull(location)) {
+            liveBytes -= location.recordSize();
+
+            try {
+                append(keyData, null);
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Evicts the least recently used entries, until the live records fit in {@link #maximumBytes}.
+     */
+    @GuardedBy("lock")
+    private void evict() {
+        Iterator<Map.Entry<K, Location>> lru = index.entrySet().iterator();
+        while (liveBytes > maximumBytes) {
+            Map.Entry<K, Location> eldest = lru.next();
+            Location location = eldest.getValue();
+            lru.remove();
+            liveBytes -= location.recordSize();
+            recordEviction(location.recordSize());
+
+            try {
+                append(readFully(location.position + RECORD_HEADER_SIZE, location.keyLength), null);
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Appends a record at the end of the file.
+     *
+     * @param keyData   the serialized key
+     * @param valueData the serialized value, or {@code null} to append a tombstone
+     *
+     * @return the position of the record
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @GuardedBy("lock")
+    private long append(byte[] keyData, @Nullable byte[] valueData) throws IOException {
+        int valueLength = nonNull(valueData) ? valueData.length : 0;
+
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_SIZE + keyData.length + valueLength);
+        buffer.putInt(keyData.length);
+        buffer.putInt(nonNull(valueData) ? valueData.length : TOMBSTONE);
+        buffer.put(keyData);
+        if (nonNull(valueData)) {
+            buffer.put(valueData);
+        }
+        buffer.flip();
+
+        long position = end;
+        writeFully(channel, buffer, position);
+        end += buffer.capacity();
+        return position;
+    }
+
+    /**
+     * Rebuilds the index by scanning the records of the file. An incomplete record at the end of the file is
+     * discarded.
+     *
+     * @throws IOException if an I/O error occurs, or if the file is not a file of this store
+     */
+    @GuardedBy("lock")
+    private void rebuild() throws IOException {
+        long size = channel.size();
+        if (size < FILE_HEADER_SIZE || readInt(0) != MAGIC) {
+            throw new IOException(String.format("%s is not a cache file", file));
+        }
+
+        long position = FILE_HEADER_SIZE;
+        while (position + RECORD_HEADER_SIZE <= size) {
+            ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+            readFully(header, position);
+            header.flip();
+            int keyLength = header.getInt();
+            int valueLength = header.getInt();
+
+            long recordEnd = position + RECORD_HEADER_SIZE + keyLength + Math.max(0, valueLength);
+            if (keyLength < 0 || valueLength < TOMBSTONE || recordEnd > size) {
+                break;
+            }
+
+            K key = keySerializer.revert(readFully(position + RECORD_HEADER_SIZE, keyLength));
+            Location previous = valueLength == TOMBSTONE
+                    ? index.remove(key)
+                    : index.put(key, new Location(position, keyLength, valueLength));
+
+            if (nonNull(previous)) {
+                liveBytes -= previous.recordSize();
+            }
+            if (valueLength != TOMBSTONE) {
+                liveBytes += recordEnd - position;
+            }
+            position = recordEnd;
+        }
+
+        if (position < size) {
+            channel.truncate(position);
+        }
+        end = position;
+    }
+
+    /**
+     * Rewrites the live records in a new file, if the obsolete records occupy more space than the live records.
+     */
+    @GuardedBy("lock")
+    private void compactIfNecessary() {
+        long obsoleteBytes = end - FILE_HEADER_SIZE - liveBytes;
+        if (obsoleteBytes <= Math.max(liveBytes, MINIMUM_COMPACTION_SIZE)) {
+            return;
+        }
+
+        Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+        try {
+            try (FileChannel target = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                writeHeader(target);
+
+                long position = FILE_HEADER_SIZE;
+                for (Map.Entry<K, Location> e : index.entrySet()) {
+                    Location location = e.getValue();
+                    int recordSize = (int) location.recordSize();
+                    writeFully(target, ByteBuffer.wrap(readFully(location.position, recordSize)), position);
+                    e.setValue(new Location(position, location.keyLength, location.valueLength));
+                    position += recordSize;
+                }
+                end = position;
+            }
+
+            channel.close();
+            Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the header of a new file.
+     *
+     * @param target the channel of the file
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private static void writeHeader(FileChannel target) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+        header.putInt(MAGIC).flip();
+        writeFully(target, header, 0);
+    }
+
+    /**
+     * Writes all the remaining bytes of the {@code buffer} at the given {@code position}.
+     *
+     * @param target   the channel to write to
+     * @param buffer   the bytes to write
+     * @param position the position in the file
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private static void writeFully(FileChannel target, ByteBuffer buffer, long position) throws IOException {
+        long current = position;
+        while (buffer.hasRemaining()) {
+            current += target.write(buffer, current);
+        }
+    }
+
+    /**
+     * Reads {@code length} bytes from the file, at the given {@code position}.
+     *
+     * @param position the position in the file
+     * @param length   the number of bytes to read
+     *
+     * @return the bytes
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Nonnull
+    @GuardedBy("lock")
+    private byte[] readFully(long position, @Nonnegative int length) throws IOException {
+        byte[] data = new byte[length];
+        readFully(ByteBuffer.wrap(data), position);
+        return data;
+    }
+
+    /**
+     * Reads an {@code int} from the file, at the given {@code position}.
+     *
+     * @param position the position in the file
+     *
+     * @return the value
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @GuardedBy("lock")
+    private int readInt(long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES);
+        readFully(buffer, position);
+        buffer.flip();
+        return buffer.getInt();
+    }
+
+    /**
+     * Fills the {@code buffer} with the bytes of the file, starting at the given {@code position}.
+     *
+     * @param buffer   the buffer to fill
+     * @param position the position in the file
+     *
+     * @throws IOException if an I/O error occurs, or if the end of the file is reached
+     */
+    @GuardedBy("lock")
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        long current = position;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, current);
+            if (read < 0) {
+                throw new IOException(String.format("Unexpected end of file %s", file));
+            }
+            current += read;
+        }
+    }
+
+    /**
+     * The location of a record in the file.
+     */
+    private static final class Location {
+
+        /**
+         * The position of the record.
+         */
+        @Nonnegative
+        private final long position;
+
+        /**
+         * The length of the key of the record.
+         */
+        @Nonnegative
+        private final int keyLength;
+
+        /**
+         * The length of the value of the record.
+         */
+        @Nonnegative
+        private final int valueLength;
+
+        /**
+         * Constructs a new {@code Location}.
+         *
+         * @param position    the position of the record
+         * @param keyLength   the length of the key of the record
+         * @param valueLength the length of the value of the record
+         */
+        Location(@Nonnegative long position, @Nonnegative int keyLength, @Nonnegative int valueLength) {
+            this.position = position;
+            this.keyLength = keyLength;
+            this.valueLength = valueLength;
+        }
+
+        /**
+         * Returns the total size of the record.
+         *
+         * @return the number of bytes
+         */
+        @Nonnegative
+        long recordSize() {
+            return (long) RECORD_HEADER_SIZE + keyLength + valueLength;
+        }
+    }
+}
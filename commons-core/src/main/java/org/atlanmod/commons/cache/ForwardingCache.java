@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * A {@link Cache} which forwards all its method calls to another cache. Subclasses override one or more methods to
+ * modify the behavior of the delegated cache.
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of mapped values
+ */
+@ParametersAreNonnullByDefault
+public abstract class ForwardingCache<K, V> implements Cache<K, V> {
+
+    /**
+     * Returns the cache to which the method calls are forwarded.
+     *
+     * @return the delegated cache
+     */
+    @Nonnull
+    protected abstract Cache<K, V> delegate();
+
+    @Nullable
+    @Override
+    public V get(K key) {
+        return delegate().get(key);
+    }
+
+    @Override
+    public V get(K key, Function<? super K, ? extends V> mappingFunction) {
+        return delegate().get(key, mappingFunction);
+    }
+
+    @Override
+    public V bypass(K key, Function<? super K, ? extends V> mappingFunction) {
+        return delegate().bypass(key, mappingFunction);
+    }
+
+    @Nonnull
+    @Override
+    public Map<K, V> getAll(Iterable<? extends K> keys) {
+        return delegate().getAll(keys);
+    }
+
+    @Override
+    public void put(K key, V value) {
+        delegate().put(key, value);
+    }
+
+    @Override
+    public void putIfAbsent(K key, V value) {
+        delegate().putIfAbsent(key, value);
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> map) {
+        delegate().putAll(map);
+    }
+
+    @Override
+    public void invalidate(K key) {
+        delegate().invalidate(key);
+    }
+
+    @Override
+    public void invalidateAll(Iterable<? extends K> keys) {
+        delegate().invalidateAll(keys);
+    }
+
+    @Override
+    public void invalidateAll() {
+        delegate().invalidateAll();
+    }
+
+    @Override
+    public void forEach(@Nonnegative long parallelismThreshold, BiConsumer<? super K, ? super V> action) {
+        delegate().forEach(parallelismThreshold, action);
+    }
+
+    @Override
+    public long invalidateIf(@Nonnegative long parallelismThreshold, BiPredicate<? super K, ? super V> predicate) {
+        return delegate().invalidateIf(parallelismThreshold, predicate);
+    }
+
+    @Override
+    public void replaceAll(@Nonnegative long parallelismThreshold, BiFunction<? super K, ? super V, ? extends V> function) {
+        delegate().replaceAll(parallelismThreshold, function);
+    }
+
+    @Override
+    public boolean contains(K key) {
+        return delegate().contains(key);
+    }
+
+    @Override
+    public long size() {
+        return delegate().size();
+    }
+
+    @Override
+    public void refresh(K key) {
+        delegate().refresh(key);
+    }
+
+    @Override
+    public void cleanUp() {
+        delegate().cleanUp();
+    }
+
+    @Override
+    public void close() {
+        delegate().close();
+    }
+
+    @Nonnull
+    @Override
+    public ConcurrentMap<K, V> asMap() {
+        return delegate().asMap();
+    }
+
+    @Nonnull
+    @Override
+    public CacheStats stats() {
+        return delegate().stats();
+    }
+}
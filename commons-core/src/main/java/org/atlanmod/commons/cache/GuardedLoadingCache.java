@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.Preconditions;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * A loading {@link Cache} whose values are loaded through a {@link LoadGuard}, which caches the absent results and
+ * backs off after the failures.
+ * <p>
+ * The absent results are not stored in the delegated cache, so they are returned by this cache while they are kept by
+ * the guard. Storing or invalidating a key, or refreshing it, forgets its absent result or its failure.
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of mapped values
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+final class GuardedLoadingCache<K, V> extends ForwardingCache<K, V> {
+
+    /**
+     * The delegated cache, which loads its values with the {@link #guard}.
+     */
+    @Nonnull
+    private final Cache<K, V> delegate;
+
+    /**
+     * The guard of the loadings.
+     */
+    @Nonnull
+    private final LoadGuard<K, V> guard;
+
+    /**
+     * Constructs a new {@code GuardedLoadingCache}.
+     *
+     * @param delegate the delegated cache, which loads its values with the {@code guard}
+     * @param guard    the guard of the loadings
+     */
+    public GuardedLoadingCache(Cache<K, V> delegate, LoadGuard<K, V> guard) {
+        this.delegate = delegate;
+        this.guard = guard;
+    }
+
+    @Nonnull
+    @Override
+    protected Cache<K, V> delegate() {
+        return delegate;
+    }
+
+    @Nullable
+    @Override
+    public V get(K key) {
+        V value = delegate.get(key);
+        return nonNull(value) ? value : guard.absentValue(key);
+    }
+
+    @Nonnull
+    @Override
+    public Map<K, V> getAll(Iterable<? extends K> keys) {
+        Map<K, V> values = delegate.getAll(keys);
+
+        Map<K, V> allValues = null;
+        for (K key : keys) {
+            if (values.containsKey(key)) {
+                continue;
+            }
+
+            V absentValue = guard.absentValue(key);
+            if (nonNull(absentValue)) {
+                if (isNull(allValues)) {
+                    allValues = new HashMap<>(values);
+                }
+                allValues.put(key, absentValue);
+            }
+        }
+        return nonNull(allValues) ? allValues : values;
+    }
+
+    @Override
+    public void put(K key, V value) {
+        Preconditions.checkNotNull(key, "key");
+
+        guard.invalidate(key);
+        delegate.put(key, value);
+    }
+
+    @Override
+    public void putIfAbsent(K key, V value) {
+        Preconditions.checkNotNull(key, "key");
+
+        guard.invalidate(key);
+        delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> map) {
+        Preconditions.checkNotNull(map, "map");
+
+        map.keySet().forEach(guard::invalidate);
+        delegate.putAll(map);
+    }
+
+    @Override
+    public void invalidate(K key) {
+        Preconditions.checkNotNull(key, "key");
+
+        guard.invalidate(key);
+        delegate.invalidate(key);
+    }
+
+    @Override
+    public void invalidateAll(Iterable<? extends K> keys) {
+        Preconditions.checkNotNull(keys, "keys");
+
+        keys.forEach(guard::invalidate);
+        delegate.invalidateAll(keys);
+    }
+
+    @Override
+    public void invalidateAll() {
+        guard.invalidateAll();
+        delegate.invalidateAll();
+    }
+
+    @Override
+    public void refresh(K key) {
+        Preconditions.checkNotNull(key, "key");
+
+        guard.invalidate(key);
+        delegate.refresh(key);
+    }
+
+    @Override
+    public void cleanUp() {
+        guard.cleanUp();
+        delegate.cleanUp();
+    }
+}
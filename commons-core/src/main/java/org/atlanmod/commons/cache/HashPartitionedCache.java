@@ -0,0 +1,476 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.Preconditions;
+import org.atlanmod.commons.hash.Hasher;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * A {@link PartitionedCache} that designates the partition of a key by hashing its {@link Object#hashCode()} with a
+ * {@link Hasher}, which spreads the keys whose hash codes differ only in their high bits.
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of mapped values
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+final class HashPartitionedCache<K, V> implements PartitionedCache<K, V> {
+
+    /**
+     * The partitions of this cache.
+     */
+    @Nonnull
+    private final List<Cache<K, V>> partitions;
+
+    /**
+     * The hash function used to designate the partition of a key.
+     */
+    @Nonnull
+    private final Hasher hasher;
+
+    /**
+     * The {@link ConcurrentMap} view of this cache.
+     */
+    @Nonnull
+    private final MapView mapView = new MapView();
+
+    /**
+     * Constructs a new {@code HashPartitionedCache}.
+     *
+     * @param partitions the partitions of this cache
+     * @param hasher     the hash function used to designate the partition of a key
+     */
+    public HashPartitionedCache(List<Cache<K, V>> partitions, Hasher hasher) {
+        this.partitions = Collections.unmodifiableList(new ArrayList<>(partitions));
+        this.hasher = hasher;
+    }
+
+    @Override
+    public int partitionCount() {
+        return partitions.size();
+    }
+
+    @Override
+    public int partitionOf(K key) {
+        Preconditions.checkNotNull(key, "key");
+
+        return indexOf(key);
+    }
+
+    @Nonnull
+    @Override
+    public Cache<K, V> partition(int index) {
+        Preconditions.checkElementIndex(index, partitions.size());
+
+        return partitions.get(index);
+    }
+
+    @Nullable
+    @Override
+    public V get(K key) {
+        Preconditions.checkNotNull(key, "key");
+
+        return partitionFor(key).get(key);
+    }
+
+    @Override
+    public V get(K key, Function<? super K, ? extends V> mappingFunction) {
+        Preconditions.checkNotNull(key, "key");
+
+        return partitionFor(key).get(key, mappingFunction);
+    }
+
+    @Nonnull
+    @Override
+    public Map<K, V> getAll(Iterable<? extends K> keys) {
+        Preconditions.checkNotNull(keys, "keys");
+
+        Map<K, V> values = new HashMap<>();
+        for (Map.Entry<Integer, List<K>> e : split(keys).entrySet()) {
+            values.putAll(partitions.get(e.getKey()).getAll(e.getValue()));
+        }
+        return values;
+    }
+
+    @Override
+    public void put(K key, V value) {
+        Preconditions.checkNotNull(key, "key");
+
+        partitionFor(key).put(key, value);
+    }
+
+    @Override
+    public void putIfAbsent(K key, V value) {
+        Preconditions.checkNotNull(key, "key");
+
+        partitionFor(key).putIfAbsent(key, value);
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> map) {
+        Preconditions.checkNotNull(map, "map");
+
+        Map<Integer, Map<K, V>> maps = new HashMap<>();
+        map.forEach((k, v) -> maps.computeIfAbsent(indexOf(k), i -> new HashMap<>()).put(k, v));
+        maps.forEach((i, m) -> partitions.get(i).putAll(m));
+    }
+
+    @Override
+    public void invalidate(K key) {
+        Preconditions.checkNotNull(key, "key");
+
+        partitionFor(key).invalidate(key);
+    }
+
+    @Override
+    public void invalidateAll(Iterable<? extends K> keys) {
+        Preconditions.checkNotNull(keys, "keys");
+
+        split(keys).forEach((i, l) -> partitions.get(i).invalidateAll(l));
+    }
+
+    @Override
+    public void invalidateAll() {
+        for (Cache<K, V> partition : partitions) {
+            partition.invalidateAll();
+        }
+    }
+
+    @Override
+    public void forEach(@Nonnegative long parallelismThreshold, BiConsumer<? super K, ? super V> action) {
+        Preconditions.checkArgument(parallelismThreshold > 0, "parallelismThreshold (%d) must be positive", parallelismThreshold);
+        Preconditions.checkNotNull(action, "action");
+
+        partitions(parallelismThreshold).forEach(p -> p.forEach(parallelismThreshold, action));
+    }
+
+    @Override
+    public long invalidateIf(@Nonnegative long parallelismThreshold, BiPredicate<? super K, ? super V> predicate) {
+        Preconditions.checkArgument(parallelismThreshold > 0, "parallelismThreshold (%d) must be positive", parallelismThreshold);
+        Preconditions.checkNotNull(predicate, "predicate");
+
+        return partitions(parallelismThreshold).mapToLong(p -> p.invalidateIf(parallelismThreshold, predicate)).sum();
+    }
+
+    @Override
+    public void replaceAll(@Nonnegative long parallelismThreshold, BiFunction<? super K, ? super V, ? extends V> function) {
+        Preconditions.checkArgument(parallelismThreshold > 0, "parallelismThreshold (%d) must be positive", parallelismThreshold);
+        Preconditions.checkNotNull(function, "function");
+
+        partitions(parallelismThreshold).forEach(p -> p.replaceAll(parallelismThreshold, function));
+    }
+
+    @Override
+    public boolean contains(K key) {
+        Preconditions.checkNotNull(key, "key");
+
+        return partitionFor(key).contains(key);
+    }
+
+    @Override
+    public long size() {
+        long size = 0;
+        for (Cache<K, V> partition : partitions) {
+            size += partition.size();
+        }
+        return size;
+    }
+
+    @Override
+    public void refresh(K key) {
+        Preconditions.checkNotNull(key, "key");
+
+        partitionFor(key).refresh(key);
+    }
+
+    @Override
+    public void cleanUp() {
+        for (Cache<K, V> partition : partitions) {
+            partition.cleanUp();
+        }
+    }
+
+    @Override
+    public void close() {
+        for (Cache<K, V> partition : partitions) {
+            partition.close();
+        }
+    }
+
+    @Nonnull
+    @Override
+    public ConcurrentMap<K, V> asMap() {
+        return mapView;
+    }
+
+    @Nonnull
+    @Override
+    public CacheStats stats() {
+        CacheStats stats = partitions.get(0).stats();
+        for (int i = 1; i < partitions.size(); i++) {
+            stats = stats.plus(partitions.get(i).stats());
+        }
+        return stats;
+    }
+
+    /**
+     * Returns the index of the partition that holds the {@code key}.
+     *
+     * @param key the key
+     *
+     * @return the index of the partition
+     */
+    @Nonnegative
+    private int indexOf(Object key) {
+        long hash = hasher.hashToLong(key.hashCode());
+        return (int) ((hash & Long.MAX_VALUE) % partitions.size());
+    }
+
+    /**
+     * Returns a stream of the partitions of this cache, which is parallel if this cache contains at least {@code
+     * parallelismThreshold} entries. Each partition then decides on its own whether to process its entries in
+     * parallel.
+     *
+     * @param parallelismThreshold the estimated number of entries needed for a bulk operation to be executed in
+     *                             parallel
+     *
+     * @return a stream of the partitions
+     */
+    @Nonnull
+    private Stream<Cache<K, V>> partitions(@Nonnegative long parallelismThreshold) {
+        Stream<Cache<K, V>> stream = partitions.stream();
+        return size() >= parallelismThreshold ? stream.parallel() : stream;
+    }
+
+    /**
+     * Returns the partition that holds the {@code key}.
+     *
+     * @param key the key
+     *
+     * @return the partition
+     */
+    @Nonnull
+    private Cache<K, V> partitionFor(Object key) {
+        return partitions.get(indexOf(key));
+    }
+
+    /**
+     * Groups the {@code keys} by partition.
+     *
+     * @param keys the keys to group
+     *
+     * @return a map of the keys, by index of partition
+     */
+    @Nonnull
+    private Map<Integer, List<K>> split(Iterable<? extends K> keys) {
+        Map<Integer, List<K>> keysByPartition = new HashMap<>();
+        for (K key : keys) {
+            Preconditions.checkNotNull(key, "key");
+            keysByPartition.computeIfAbsent(indexOf(key), i -> new ArrayList<>()).add(key);
+        }
+        return keysByPartition;
+    }
+
+    /**
+     * A {@link ConcurrentMap} view of this cache, which forwards each operation to the view of the partition of its
+     * key. The operations on a single key are as atomic as in the partitions.
+     */
+    private final class MapView extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+
+        @Override
+        public int size() {
+            return (int) Math.min(Integer.MAX_VALUE, HashPartitionedCache.this.size());
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            Preconditions.checkNotNull(key, "key");
+
+            return partitionFor(key).asMap().containsKey(key);
+        }
+
+        @Override
+        public V get(Object key) {
+            Preconditions.checkNotNull(key, "key");
+
+            return partitionFor(key).asMap().get(key);
+        }
+
+        @Override
+        public V put(K key, V value) {
+            Preconditions.checkNotNull(key, "key");
+
+            return partitionFor(key).asMap().put(key, value);
+        }
+
+        @Override
+        public V remove(Object key) {
+            Preconditions.checkNotNull(key, "key");
+
+            return partitionFor(key).asMap().remove(key);
+        }
+
+        @Override
+        public void clear() {
+            invalidateAll();
+        }
+
+        @Override
+        public V putIfAbsent(K key, V value) {
+            Preconditions.checkNotNull(key, "key");
+
+            return partitionFor(key).asMap().putIfAbsent(key, value);
+        }
+
+        @Override
+        public boolean remove(Object key, Object value) {
+            Preconditions.checkNotNull(key, "key");
+
+            return partitionFor(key).asMap().remove(key, value);
+        }
+
+        @Override
+        public boolean replace(K key, V oldValue, V newValue) {
+            Preconditions.checkNotNull(key, "key");
+
+            return partitionFor(key).asMap().replace(key, oldValue, newValue);
+        }
+
+        @Override
+        public V replace(K key, V value) {
+            Preconditions.checkNotNull(key, "key");
+
+            return partitionFor(key).asMap().replace(key, value);
+        }
+
+        @Override
+        public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+            Preconditions.checkNotNull(key, "key");
+
+            return partitionFor(key).asMap().computeIfAbsent(key, mappingFunction);
+        }
+
+        @Override
+        public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+            Preconditions.checkNotNull(key, "key");
+
+            return partitionFor(key).asMap().computeIfPresent(key, remappingFunction);
+        }
+
+        @Override
+        public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+            Preconditions.checkNotNull(key, "key");
+
+            return partitionFor(key).asMap().compute(key, remappingFunction);
+        }
+
+        @Override
+        public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+            Preconditions.checkNotNull(key, "key");
+
+            return partitionFor(key).asMap().merge(key, value, remappingFunction);
+        }
+
+        @Nonnull
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            return new AbstractSet<Entry<K, V>>() {
+                @Override
+                public int size() {
+                    return MapView.this.size();
+                }
+
+                @Override
+                public void clear() {
+                    invalidateAll();
+                }
+
+                @Nonnull
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    return new EntryIterator();
+                }
+            };
+        }
+    }
+
+    /**
+     * An iterator over the entries of all the partitions, one partition after the other.
+     */
+    private final class EntryIterator implements Iterator<Map.Entry<K, V>> {
+
+        /**
+         * The index of the next partition to iterate.
+         */
+        @Nonnegative
+        private int nextPartition;
+
+        /**
+         * The iterator over the entries of the current partition, or {@code null} if the iteration has not started.
+         */
+        @Nullable
+        private Iterator<Map.Entry<K, V>> current;
+
+        /**
+         * The iterator that returned the last entry, or {@code null} if no entry has been returned.
+         */
+        @Nullable
+        private Iterator<Map.Entry<K, V>> last;
+
+        @Override
+        public boolean hasNext() {
+            while ((isNull(current) || !current.hasNext()) && nextPartition < partitions.size()) {
+                current = partitions.get(nextPartition++).asMap().entrySet().iterator();
+            }
+            return nonNull(current) && current.hasNext();
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = current;
+            return current.next();
+        }
+
+        @Override
+        public void remove() {
+            Preconditions.checkState(nonNull(last), "no entry to remove");
+
+            last.remove();
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.Preconditions;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A {@link StatsCounter} that records the distribution of the load times, and the number of evictions per {@link
+ * RemovalCause}, in addition to the cumulative {@link CacheStats}.
+ * <p>
+ * The load times (success and failure) are recorded in a log-linear histogram: each power of two is divided in 16
+ * buckets, so a quantile is estimated with a relative error of at most 6.25%, using a fixed amount of memory. Recording
+ * a load time does not allocate.
+ * <pre>{@code
+ * HistogramStatsCounter counter = new HistogramStatsCounter();
+ * Cache<K, V> cache = CacheBuilder.builder().recordStats(() -> counter).build(k -> ...);
+ *
+ * long p99 = counter.loadLatency(0.99);
+ * long expired = counter.evictionCount(RemovalCause.EXPIRED);
+ * }</pre>
+ * A counter should be used by a single cache.
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+public final class HistogramStatsCounter implements StatsCounter {
+
+    /**
+     * The number of bits used to index the buckets of a power of two.
+     */
+    private static final int SUB_BUCKET_BITS = 4;
+
+    /**
+     * The number of buckets per power of two.
+     */
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * The total number of buckets, enough to record any non-negative {@code long}.
+     */
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+    /**
+     * The cumulative statistics.
+     */
+    @Nonnull
+    private final ConcurrentStatsCounter counter = new ConcurrentStatsCounter();
+
+    /**
+     * The number of loads per bucket of load time.
+     */
+    @Nonnull
+    private final AtomicLongArray loadTimes = new AtomicLongArray(BUCKET_COUNT);
+
+    /**
+     * The longest recorded load time, in nanoseconds.
+     */
+    @Nonnull
+    private final LongAccumulator maxLoadTime = new LongAccumulator(Math::max, 0);
+
+    /**
+     * The number of evictions, indexed by the ordinal of their {@link RemovalCause}.
+     */
+    @Nonnull
+    private final LongAdder[] evictionCounts;
+
+    /**
+     * Constructs a new {@code HistogramStatsCounter}.
+     */
+    public HistogramStatsCounter() {
+        evictionCounts = new LongAdder[RemovalCause.values().length];
+        Arrays.setAll(evictionCounts, i -> new LongAdder());
+    }
+
+    @Override
+    public void recordHits(@Nonnegative int count) {
+        counter.recordHits(count);
+    }
+
+    @Override
+    public void recordMisses(@Nonnegative int count) {
+        counter.recordMisses(count);
+    }
+
+    @Override
+    public void recordLoadSuccess(@Nonnegative long loadTime) {
+        counter.recordLoadSuccess(loadTime);
+        recordLoadTime(loadTime);
+    }
+
+    @Override
+    public void recordLoadFailure(@Nonnegative long loadTime) {
+        counter.recordLoadFailure(loadTime);
+        recordLoadTime(loadTime);
+    }
+
+    @Override
+    public void recordEviction(@Nonnegative long weight, RemovalCause cause) {
+        counter.recordEviction(weight, cause);
+        evictionCounts[cause.ordinal()].increment();
+    }
+
+    @Nonnull
+    @Override
+    public CacheStats snapshot() {
+        return counter.snapshot();
+    }
+
+    /**
+     * Returns the estimated load time at the given {@code quantile}, such as {@code 0.5} for the median, or {@code
+     * 0.999} for the 99.9th percentile. The estimation is an upper bound of the actual value.
+     *
+     * @param quantile the quantile, between {@code 0} and {@code 1}
+     *
+     * @return the load time in nanoseconds, or {@code 0} if no load has been recorded
+     *
+     * @throws IllegalArgumentException if {@code quantile} is not between {@code 0} and {@code 1}
+     */
+    @Nonnegative
+    public long loadLatency(double quantile) {
+        Preconditions.checkArgument(quantile >= 0 && quantile <= 1, "quantile (%s) must be between 0 and 1", quantile);
+
+        long[] counts = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = loadTimes.get(i);
+            total += counts[i];
+        }
+
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long cumulativeCount = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            cumulativeCount += counts[i];
+            if (cumulativeCount >= rank) {
+                return Math.min(upperBound(i), maxLoadTime.get());
+            }
+        }
+        return maxLoadTime.get();
+    }
+
+    /**
+     * Returns the number of entries evicted for the given {@code cause}.
+     *
+     * @param cause the cause of the evictions
+     *
+     * @return the number of evictions
+     */
+    @Nonnegative
+    public long evictionCount(RemovalCause cause) {
+        Preconditions.checkNotNull(cause, "cause");
+
+        return evictionCounts[cause.ordinal()].sum();
+    }
+
+    /**
+     * Records a load time in the histogram.
+     *
+     * @param loadTime the load time in nanoseconds
+     */
+    private void recordLoadTime(@Nonnegative long loadTime) {
+        long value = Math.max(0, loadTime);
+        loadTimes.incrementAndGet(bucketOf(value));
+        maxLoadTime.accumulate(value);
+    }
+
+    /**
+     * Returns the index of the bucket containing the {@code value}.
+     *
+     * @param value the value
+     *
+     * @return the index of the bucket
+     */
+    @Nonnegative
+    private static int bucketOf(@Nonnegative long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+
+        int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKET_COUNT + (int) (value >>> shift) - SUB_BUCKET_COUNT;
+    }
+
+    /**
+     * Returns the highest value contained in the bucket at the given {@code index}.
+     *
+     * @param index the index of the bucket
+     *
+     * @return the highest value of the bucket
+     */
+    @Nonnegative
+    private static long upperBound(@Nonnegative int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long subBucket = index % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+        long upperBound = ((subBucket + 1) << shift) - 1;
+        return upperBound < 0 ? Long.MAX_VALUE : upperBound;
+    }
+}
@@ -0,0 +1,321 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.Preconditions;
+import org.atlanmod.commons.log.Log;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * A bus that propagates the invalidations of the source data to all the caches holding views of it.
+ * <p>
+ * Each registered cache provides a mapping from the key of the source data to its own key. Invalidating a source key
+ * only enqueues it: the pending keys are applied to the registered caches in batches, with {@link
+ * Cache#invalidateAll(Iterable)}, on the executor of the bus. The caller does not wait for the invalidations, so a
+ * cache may still return a stale value for a short time after {@link #invalidate(Object)} returns; {@link #flush()}
+ * applies the pending invalidations synchronously. If the executor has been shut down, the invalidations are applied
+ * in the calling thread.
+ * <p>
+ * If an {@link InvalidationTransport} is specified, each batch is also published to the buses of other processes, and
+ * the batches they publish are applied to the caches of this bus.
+ * <pre>{@code
+ * InvalidationBus<UserId> bus = new InvalidationBus<>(executor);
+ * bus.register(profiles, id -> id);
+ * bus.register(avatars, id -> id.toString());
+ *
+ * bus.invalidate(userId);
+ * }</pre>
+ *
+ * @param <T> the type of the source keys
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+public final class InvalidationBus<T> {
+
+    /**
+     * The default maximum number of keys in a batch.
+     */
+    private static final int DEFAULT_BATCH_SIZE = 1024;
+
+    /**
+     * The registered caches.
+     */
+    @Nonnull
+    private final List<Registration<T, ?>> registrations = new CopyOnWriteArrayList<>();
+
+    /**
+     * The source keys waiting to be invalidated.
+     */
+    @Nonnull
+    private final Queue<T> pendingKeys = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Whether a drain of the pending keys has been submitted to the executor, and has not started yet.
+     */
+    @Nonnull
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+    /**
+     * The executor that applies the invalidations.
+     */
+    @Nonnull
+    private final Executor executor;
+
+    /**
+     * The transport of the invalidations to other processes, or {@code null} if they remain local.
+     */
+    @Nullable
+    private final InvalidationTransport<T> transport;
+
+    /**
+     * The maximum number of keys in a batch.
+     */
+    @Nonnegative
+    private final int batchSize;
+
+    /**
+     * Constructs a new local {@code InvalidationBus}.
+     *
+     * @param executor the executor that applies the invalidations
+     */
+    public InvalidationBus(Executor executor) {
+        this(executor, null, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Constructs a new {@code InvalidationBus} connected to other processes through the {@code transport}.
+     *
+     * @param executor  the executor that applies the invalidations
+     * @param transport the transport of the invalidations to other processes
+     */
+    public InvalidationBus(Executor executor, InvalidationTransport<T> transport) {
+        this(executor, Preconditions.checkNotNull(transport, "transport"), DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Constructs a new {@code InvalidationBus}.
+     *
+     * @param executor  the executor that applies the invalidations
+     * @param transport the transport of the invalidations to other processes, or {@code null} if they remain local
+     * @param batchSize the maximum number of keys in a batch
+     *
+     * @throws IllegalArgumentException if {@code batchSize} is not positive
+     */
+    public InvalidationBus(Executor executor, @Nullable InvalidationTransport<T> transport, @Nonnegative int batchSize) {
+        Preconditions.checkNotNull(executor, "executor");
+        Preconditions.checkArgument(batchSize > 0, "batchSize (%d) must be positive", batchSize);
+
+        this.executor = executor;
+        this.transport = transport;
+        this.batchSize = batchSize;
+
+        if (nonNull(transport)) {
+            transport.subscribe(keys -> execute(() -> apply(keys)));
+        }
+    }
+
+    /**
+     * Registers a {@code cache} that holds views of the source data.
+     *
+     * @param cache      the cache to invalidate
+     * @param keyMapping the function that returns the key of the {@code cache} for a source key, or {@code null} if
+     *                   the source key has no view in the cache
+     * @param <K>        the type of keys maintained by the cache
+     */
+    public <K> void register(Cache<K, ?> cache, Function<? super T, ? extends K> keyMapping) {
+        Preconditions.checkNotNull(cache, "cache");
+        Preconditions.checkNotNull(keyMapping, "keyMapping");
+
+        registrations.add(new Registration<>(cache, keyMapping));
+    }
+
+    /**
+     * Unregisters a {@code cache}: it will no longer be invalidated by this bus.
+     *
+     * @param cache the cache to unregister
+     */
+    public void unregister(Cache<?, ?> cache) {
+        Preconditions.checkNotNull(cache, "cache");
+
+        registrations.removeIf(r -> r.cache == cache);
+    }
+
+    /**
+     * Invalidates the views of the source {@code key} in all the registered caches, asynchronously.
+     *
+     * @param key the source key to invalidate
+     */
+    public void invalidate(T key) {
+        Preconditions.checkNotNull(key, "key");
+
+        pendingKeys.add(key);
+        if (drainScheduled.compareAndSet(false, true)) {
+            execute(this::drain);
+        }
+    }
+
+    /**
+     * Invalidates all the entries of all the registered caches, synchronously. This invalidation is not published to
+     * other processes.
+     */
+    public void invalidateAll() {
+        pendingKeys.clear();
+        registrations.forEach(r -> r.cache.invalidateAll());
+    }
+
+    /**
+     * Applies the pending invalidations synchronously, in the calling thread.
+     */
+    public void flush() {
+        drainPendingKeys();
+    }
+
+    /**
+     * Returns the number of source keys waiting to be invalidated.
+     *
+     * @return the number of keys
+     */
+    @Nonnegative
+    public int pendingCount() {
+        return pendingKeys.size();
+    }
+
+    /**
+     * Runs a {@code task} on the executor, or in the current thread if the executor has been shut down.
+     *
+     * @param task the task to run
+     */
+    private void execute(Runnable task) {
+        try {
+            executor.execute(task);
+        }
+        catch (RejectedExecutionException e) {
+            task.run();
+        }
+    }
+
+    /**
+     * Applies the pending invalidations, from the executor.
+     */
+    private void drain() {
+        drainScheduled.set(false);
+        drainPendingKeys();
+    }
+
+    /**
+     * Applies the pending invalidations by batches, and publishes each batch to the other processes.
+     */
+    private void drainPendingKeys() {
+        List<T> batch = new ArrayList<>();
+        while (true) {
+            T key;
+            while (batch.size() < batchSize && nonNull(key = pendingKeys.poll())) {
+                batch.add(key);
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            apply(batch);
+            if (nonNull(transport)) {
+                try {
+                    transport.publish(batch);
+                }
+                catch (RuntimeException e) {
+                    Log.error(e, "Unable to publish {0} invalidations", batch.size());
+                }
+            }
+            batch = new ArrayList<>();
+        }
+    }
+
+    /**
+     * Invalidates the views of the source {@code keys} in all the registered caches.
+     *
+     * @param keys the source keys to invalidate
+     */
+    private void apply(Collection<? extends T> keys) {
+        for (Registration<T, ?> registration : registrations) {
+            try {
+                registration.invalidateAll(keys);
+            }
+            catch (RuntimeException e) {
+                Log.error(e, "Unable to invalidate {0} cache entries", keys.size());
+            }
+        }
+    }
+
+    /**
+     * A registered cache and its key mapping.
+     *
+     * @param <T> the type of the source keys
+     * @param <K> the type of keys maintained by the cache
+     */
+    private static final class Registration<T, K> {
+
+        /**
+         * The registered cache.
+         */
+        @Nonnull
+        final Cache<K, ?> cache;
+
+        /**
+         * The mapping from the source keys to the keys of the cache.
+         */
+        @Nonnull
+        final Function<? super T, ? extends K> keyMapping;
+
+        /**
+         * Constructs a new {@code Registration}.
+         *
+         * @param cache      the registered cache
+         * @param keyMapping the mapping from the source keys to the keys of the cache
+         */
+        Registration(Cache<K, ?> cache, Function<? super T, ? extends K> keyMapping) {
+            this.cache = cache;
+            this.keyMapping = keyMapping;
+        }
+
+        /**
+         * Invalidates the views of the source {@code keys} in the cache.
+         *
+         * @param keys the source keys to invalidate
+         */
+        void invalidateAll(Collection<? extends T> keys) {
+            List<K> cacheKeys = new ArrayList<>(keys.size());
+            for (T key : keys) {
+                K cacheKey = keyMapping.apply(key);
+                if (nonNull(cacheKey)) {
+                    cacheKeys.add(cacheKey);
+                }
+            }
+            if (!cacheKeys.isEmpty()) {
+                cache.invalidateAll(cacheKeys);
+            }
+        }
+    }
+}
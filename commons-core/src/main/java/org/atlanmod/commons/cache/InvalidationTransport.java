@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A channel that propagates the invalidations of an {@link InvalidationBus} to the buses of other processes, and
+ * delivers theirs.
+ * <p>
+ * A transport must not deliver the batches published by a bus to the bus itself. The delivery may be asynchronous,
+ * and an implementation may drop batches if the other endpoints are unreachable: the caches are then only eventually
+ * consistent.
+ *
+ * @param <T> the type of invalidated keys
+ *
+ * @see LocalInvalidationTransport
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+public interface InvalidationTransport<T> {
+
+    /**
+     * Sends a batch of invalidated keys to the other endpoints.
+     *
+     * @param keys the invalidated keys
+     */
+    void publish(Collection<? extends T> keys);
+
+    /**
+     * Registers the {@code listener} of the batches published by the other endpoints.
+     *
+     * @param listener the listener to notify
+     */
+    void subscribe(Consumer<? super Collection<? extends T>> listener);
+}
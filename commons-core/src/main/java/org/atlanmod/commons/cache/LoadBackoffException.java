@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Exception thrown when looking up a key whose loading has recently failed, without calling the mapping function
+ * again. The last failure of the mapping function is the cause of this exception.
+ *
+ * @see CacheBuilder#loadFailureBackoff(java.time.Duration, java.time.Duration)
+ */
+@ParametersAreNonnullByDefault
+public class LoadBackoffException extends RuntimeException {
+
+    @SuppressWarnings("JavaDoc")
+    private static final long serialVersionUID = 2306115429046285781L;
+
+    /**
+     * Constructs a {@code LoadBackoffException} with the specified detail {@code message} and {@code cause}.
+     * <p>
+     * The detail message associated with cause is not automatically incorporated into this exception's detail message.
+     *
+     * @param message the detail message (which is saved for later retrieval by the {@link #getMessage()} method)
+     * @param cause   the last failure of the mapping function (which is saved for later retrieval by the {@link
+     *                #getCause()} method)
+     */
+    public LoadBackoffException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * A mapping function that remembers the absent results and the failures of another function, for a limited time.
+ * <p>
+ * An absent result ({@code null} or an empty {@link Optional}) is not returned to the cache, but kept as a tombstone
+ * until the end of the negative caching duration. A failure is kept until the end of a backoff delay, which doubles
+ * with each consecutive failure of the same key, up to a maximum. While a tombstone is active, the function is not
+ * called again: the absent result is reported as {@code null}, and a new {@link LoadBackoffException} is thrown, caused by
+ * the failure.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ * @see GuardedLoadingCache
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+final class LoadGuard<K, V> implements Function<K, V> {
+
+    /**
+     * The value of a disabled duration.
+     */
+    static final long DISABLED = -1;
+
+    /**
+     * The function to compute the values.
+     */
+    @Nonnull
+    private final Function<? super K, ? extends V> mappingFunction;
+
+    /**
+     * The duration during which an absent result is kept, in nanoseconds, or {@link #DISABLED}.
+     */
+    private final long negativeTtlNanos;
+
+    /**
+     * The delay after the first failure of a key, in nanoseconds, or {@link #DISABLED}.
+     */
+    private final long initialBackoffNanos;
+
+    /**
+     * The maximum delay after consecutive failures of a key, in nanoseconds.
+     */
+    private final long maximumBackoffNanos;
+
+    /**
+     * The active tombstones, by key. A failure is kept during its backoff delay plus the maximum delay, so that a new
+     * failure soon after the end of the delay is counted as consecutive.
+     */
+    @Nonnull
+    private final com.github.benmanes.caffeine.cache.Cache<K, Tombstone<V>> tombstones;
+
+    /**
+     * Constructs a new {@code LoadGuard}.
+     *
+     * @param mappingFunction     the function to compute the values
+     * @param negativeTtlNanos    the duration during which an absent result is kept, or {@link #DISABLED}
+     * @param initialBackoffNanos the delay after the first failure of a key, or {@link #DISABLED}
+     * @param maximumBackoffNanos the maximum delay after consecutive failures of a key
+     * @param maximumSize         the maximum number of tombstones, or {@code -1} if unbounded
+     * @param executor            the executor used for the maintenance of the tombstones, or {@code null} to use the
+     *                            default one
+     */
+    public LoadGuard(Function<? super K, ? extends V> mappingFunction,
+                     long negativeTtlNanos,
+                     long initialBackoffNanos,
+                     long maximumBackoffNanos,
+                     long maximumSize,
+                     @Nullable Executor executor) {
+        this.mappingFunction = mappingFunction;
+        this.negativeTtlNanos = negativeTtlNanos;
+        this.initialBackoffNanos = initialBackoffNanos;
+        this.maximumBackoffNanos = maximumBackoffNanos;
+
+        Caffeine<Object, Tombstone<?>> caffeine = Caffeine.newBuilder().expireAfter(new TombstoneExpiry());
+        if (maximumSize >= 0) {
+            caffeine.maximumSize(maximumSize);
+        }
+        if (nonNull(executor)) {
+            caffeine.executor(executor);
+        }
+        this.tombstones = caffeine.build();
+    }
+
+    @Override
+    public V apply(K key) {
+        long now = System.nanoTime();
+
+        Tombstone<V> tombstone = tombstones.getIfPresent(key);
+        if (nonNull(tombstone) && tombstone.isActive(now)) {
+            if (nonNull(tombstone.failure)) {
+                throw new LoadBackoffException(String.format("Loading of %s is suspended after %d consecutive failures", key, tombstone.failureCount), tombstone.failure);
+            }
+            return null;
+        }
+
+        V value;
+        try {
+            value = mappingFunction.apply(key);
+        }
+        catch (RuntimeException | Error e) {
+            if (initialBackoffNanos != DISABLED) {
+                int failureCount = nonNull(tombstone) && nonNull(tombstone.failure) ? tombstone.failureCount + 1 : 1;
+                long delay = backoffDelay(failureCount);
+                tombstones.put(key, new Tombstone<>(null, e, failureCount, now + delay, delay + maximumBackoffNanos));
+            }
+            throw e;
+        }
+
+        if (negativeTtlNanos != DISABLED && isAbsent(value)) {
+            tombstones.put(key, new Tombstone<>(value, null, 0, now + negativeTtlNanos, negativeTtlNanos));
+            return null;
+        }
+
+        if (nonNull(tombstone)) {
+            tombstones.invalidate(key);
+        }
+        return value;
+    }
+
+    /**
+     * Returns the absent result kept for the {@code key}.
+     *
+     * @param key the key
+     *
+     * @return the absent result, or {@code null} if there is no such result, or if it is {@code null} itself
+     */
+    @Nullable
+    public V absentValue(K key) {
+        Tombstone<V> tombstone = tombstones.getIfPresent(key);
+        return nonNull(tombstone) && isNull(tombstone.failure) && tombstone.isActive(System.nanoTime())
+                ? tombstone.value
+                : null;
+    }
+
+    /**
+     * Forgets the absent result or the failure of the {@code key}.
+     *
+     * @param key the key
+     */
+    public void invalidate(K key) {
+        tombstones.invalidate(key);
+    }
+
+    /**
+     * Forgets all the absent results and failures.
+     */
+    public void invalidateAll() {
+        tombstones.invalidateAll();
+    }
+
+    /**
+     * Performs the pending maintenance operations of the tombstones.
+     */
+    public void cleanUp() {
+        tombstones.cleanUp();
+    }
+
+    /**
+     * Returns the delay after the given number of consecutive failures.
+     *
+     * @param failureCount the number of consecutive failures
+     *
+     * @return the delay in nanoseconds
+     */
+    @Nonnegative
+    private long backoffDelay(@Nonnegative int failureCount) {
+        int shift = Math.min(failureCount - 1, Long.numberOfLeadingZeros(initialBackoffNanos) - 1);
+        return Math.min(initialBackoffNanos << shift, maximumBackoffNanos);
+    }
+
+    /**
+     * Checks whether the {@code value} is an absent result.
+     *
+     * @param value the value
+     *
+     * @return {@code true} if the {@code value} is {@code null} or an empty {@link Optional}
+     */
+    private static boolean isAbsent(@Nullable Object value) {
+        return isNull(value) || value instanceof Optional && !((Optional<?>) value).isPresent();
+    }
+
+    /**
+     * The absent result or the failure of a key.
+     *
+     * @param <V> the type of the absent result
+     */
+    @Immutable
+    private static final class Tombstone<V> {
+
+        /**
+         * The absent result.
+         */
+        @Nullable
+        final V value;
+
+        /**
+         * The failure, or {@code null} if the result is absent.
+         */
+        @Nullable
+        final Throwable failure;
+
+        /**
+         * The number of consecutive failures.
+         */
+        final int failureCount;
+
+        /**
+         * The time until this tombstone is active, in nanoseconds.
+         */
+        final long deadline;
+
+        /**
+         * The duration during which this tombstone is kept, in nanoseconds.
+         */
+        final long retentionNanos;
+
+        /**
+         * Constructs a new {@code Tombstone}.
+         *
+         * @param value          the absent result
+         * @param failure        the failure, or {@code null} if the result is absent
+         * @param failureCount   the number of consecutive failures
+         * @param deadline       the time until this tombstone is active
+         * @param retentionNanos the duration during which this tombstone is kept
+         */
+        Tombstone(@Nullable V value, @Nullable Throwable failure, int failureCount, long deadline, long retentionNanos) {
+            this.value = value;
+            this.failure = failure;
+            this.failureCount = failureCount;
+            this.deadline = deadline;
+            this.retentionNanos = retentionNanos;
+        }
+
+        /**
+         * Checks whether this tombstone is still active.
+         *
+         * @param now the current time, in nanoseconds
+         *
+         * @return {@code true} if this tombstone is active
+         */
+        boolean isActive(long now) {
+            return now - deadline < 0;
+        }
+    }
+
+    /**
+     * The expiration policy of the tombstones.
+     */
+    private static final class TombstoneExpiry implements com.github.benmanes.caffeine.cache.Expiry<Object, Tombstone<?>> {
+
+        @Override
+        public long expireAfterCreate(Object key, Tombstone<?> value, long currentTime) {
+            return value.retentionNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Object key, Tombstone<?> value, long currentTime, long currentDuration) {
+            return value.retentionNanos;
+        }
+
+        @Override
+        public long expireAfterRead(Object key, Tombstone<?> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.Preconditions;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * An {@link InvalidationTransport} between the endpoints of a group in the same JVM, which stands in for an actual
+ * inter-process transport in tests and simulations. The batches published by an endpoint are delivered synchronously
+ * to the listeners of all the other endpoints of its group.
+ * <pre>{@code
+ * LocalInvalidationTransport<Id> first = new LocalInvalidationTransport<>();
+ * LocalInvalidationTransport<Id> second = first.connect();
+ *
+ * InvalidationBus<Id> firstBus = new InvalidationBus<>(executor, first);
+ * InvalidationBus<Id> secondBus = new InvalidationBus<>(executor, second);
+ * }</pre>
+ *
+ * @param <T> the type of invalidated keys
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+public final class LocalInvalidationTransport<T> implements InvalidationTransport<T> {
+
+    /**
+     * The endpoints of the group, including this one.
+     */
+    @Nonnull
+    private final List<LocalInvalidationTransport<T>> group;
+
+    /**
+     * The listeners of this endpoint.
+     */
+    @Nonnull
+    private final List<Consumer<? super Collection<? extends T>>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Constructs a new {@code LocalInvalidationTransport}, alone in a new group.
+     */
+    public LocalInvalidationTransport() {
+        this(new CopyOnWriteArrayList<>());
+    }
+
+    /**
+     * Constructs a new {@code LocalInvalidationTransport} in the given {@code group}.
+     *
+     * @param group the endpoints of the group
+     */
+    private LocalInvalidationTransport(List<LocalInvalidationTransport<T>> group) {
+        this.group = group;
+        group.add(this);
+    }
+
+    /**
+     * Creates a new endpoint in the group of this endpoint.
+     *
+     * @return a new endpoint
+     */
+    @Nonnull
+    public LocalInvalidationTransport<T> connect() {
+        return new LocalInvalidationTransport<>(group);
+    }
+
+    @Override
+    public void publish(Collection<? extends T> keys) {
+        Preconditions.checkNotNull(keys, "keys");
+
+        Collection<? extends T> batch = Collections.unmodifiableList(new ArrayList<>(keys));
+        for (LocalInvalidationTransport<T> endpoint : group) {
+            if (endpoint != this) {
+                endpoint.listeners.forEach(l -> l.accept(batch));
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<? super Collection<? extends T>> listener) {
+        Preconditions.checkNotNull(listener, "listener");
+
+        listeners.add(listener);
+    }
+}
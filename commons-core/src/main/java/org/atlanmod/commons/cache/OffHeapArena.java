@@ -0,0 +1,518 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.Preconditions;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * A fixed-size memory area, outside of the Java heap, divided in blocks of the same size.
+ * <p>
+ * A sequence of bytes is stored in a chain of blocks: the last 4 bytes of each block contain the index of the next
+ * block of the chain. Released blocks are linked in a free list, using the same pointer, so that the arena does not
+ * need any additional structure on the heap.
+ * <p>
+ * The memory is divided in {@link ByteBuffer}s of at most 1 GB, which are either allocated directly or mapped from a
+ * file. Each buffer is only allocated when one of its blocks is used for the first time. The buffers and the file are
+ * released when the arena is closed, without waiting for the garbage collector when the JVM allows it.
+ */
+@NotThreadSafe
+@ParametersAreNonnullByDefault
+final class OffHeapArena implements Closeable {
+
+    /**
+     * The default size of a block, in bytes.
+     */
+    static final int DEFAULT_BLOCK_SIZE = 64;
+
+    /**
+     * The size of a pointer to a block, in bytes.
+     */
+    private static final int POINTER_SIZE = Integer.BYTES;
+
+    /**
+     * The maximum size of a buffer, in bytes.
+     */
+    private static final int MAXIMUM_BUFFER_SIZE = 1 << 30;
+
+    /**
+     * The pointer used to indicate the end of a chain.
+     */
+    private static final int NO_BLOCK = -1;
+
+    /**
+     * The size of a block, in bytes.
+     */
+    @Nonnegative
+    private final int blockSize;
+
+    /**
+     * The number of bytes of data that can be stored in a block.
+     */
+    @Nonnegative
+    private final int payloadSize;
+
+    /**
+     * The total number of blocks of this arena.
+     */
+    @Nonnegative
+    private final int blockCount;
+
+    /**
+     * The number of blocks per buffer.
+     */
+    @Nonnegative
+    private final int blocksPerBuffer;
+
+    /**
+     * The buffers holding the blocks; an element is {@code null} until the buffer is used.
+     */
+    @Nonnull
+    private final ByteBuffer[] buffers;
+
+    /**
+     * The channel of the mapped file, or {@code null} if the buffers are allocated directly.
+     */
+    @Nullable
+    private final FileChannel channel;
+
+    /**
+     * The first block of the free list, or {@link #NO_BLOCK} if the list is empty.
+     */
+    private int freeHead = NO_BLOCK;
+
+    /**
+     * The index of the first block that has never been used; all following blocks are free.
+     */
+    @Nonnegative
+    private int nextUnused;
+
+    /**
+     * The number of blocks currently in use.
+     */
+    @Nonnegative
+    private int usedBlocks;
+
+    /**
+     * Whether this arena is closed.
+     */
+    private boolean closed;
+
+    /**
+     * Constructs a new {@code OffHeapArena}.
+     *
+     * @param maximumBytes the maximum number of bytes of this arena
+     * @param blockSize    the size of a block, in bytes
+     * @param file         the file to map, or {@code null} to allocate direct buffers
+     *
+     * @throws UncheckedIOException if the file cannot be opened
+     */
+    public OffHeapArena(@Nonnegative long maximumBytes, @Nonnegative int blockSize, @Nullable Path file) {
+        Preconditions.checkGreaterThan(blockSize, POINTER_SIZE, "blockSize (%d) must be greater than %d", blockSize, POINTER_SIZE);
+        Preconditions.checkGreaterThanOrEqualTo(maximumBytes, (long) blockSize, "maximumBytes (%d) must be greater than or equal to %d", maximumBytes, blockSize);
+
+        long blocks = maximumBytes / blockSize;
+        Preconditions.checkLessThanOrEqualTo(blocks, (long) Integer.MAX_VALUE, "maximumBytes (%d) must not exceed %d", maximumBytes, (long) Integer.MAX_VALUE * blockSize);
+
+        this.blockSize = blockSize;
+        this.payloadSize = blockSize - POINTER_SIZE;
+        this.blockCount = (int) blocks;
+        this.blocksPerBuffer = MAXIMUM_BUFFER_SIZE / blockSize;
+        this.buffers = new ByteBuffer[(blockCount + blocksPerBuffer - 1) / blocksPerBuffer];
+
+        try {
+            this.channel = isNull(file) ? null : FileChannel.open(file,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.READ,
+                    StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the size of a block, in bytes.
+     *
+     * @return the size of a block
+     */
+    @Nonnegative
+    public int blockSize() {
+        return blockSize;
+    }
+
+    /**
+     * Returns the total number of blocks of this arena.
+     *
+     * @return the number of blocks
+     */
+    @Nonnegative
+    public int blockCount() {
+        return blockCount;
+    }
+
+    /**
+     * Returns the number of blocks that are not currently in use.
+     *
+     * @return the number of free blocks
+     */
+    @Nonnegative
+    public int freeBlocks() {
+        return blockCount - usedBlocks;
+    }
+
+    /**
+     * Returns the number of bytes occupied by the blocks currently in use.
+     *
+     * @return the number of bytes
+     */
+    @Nonnegative
+    public long usedBytes() {
+        return (long) usedBlocks * blockSize;
+    }
+
+    /**
+     * Returns the number of blocks required to store {@code length} bytes.
+     *
+     * @param length the number of bytes
+     *
+     * @return the number of blocks
+     */
+    @Nonnegative
+    public int blocksFor(@Nonnegative int length) {
+        return Math.max(1, (length + payloadSize - 1) / payloadSize);
+    }
+
+    /**
+     * Writes the {@code data} in a new chain of blocks.
+     *
+     * @param data the bytes to write
+     *
+     * @return the index of the first block of the chain
+     *
+     * @throws IllegalStateException if there is not enough free blocks, or if this arena is closed
+     */
+    public int write(byte[] data) {
+        checkNotClosed();
+
+        int required = blocksFor(data.length);
+        Preconditions.checkState(required <= freeBlocks(), "not enough free blocks: %d required, %d available", required, freeBlocks());
+
+        int first = allocate();
+        int block = first;
+        int offset = 0;
+        while (true) {
+            int length = Math.min(payloadSize, data.length - offset);
+            ByteBuffer buffer = positionAt(block);
+            buffer.put(data, offset, length);
+            offset += length;
+
+            int next = offset < data.length ? allocate() : NO_BLOCK;
+            setNext(block, next);
+            if (next == NO_BLOCK) {
+                return first;
+            }
+            block = next;
+        }
+    }
+
+    /**
+     * Reads {@code length} bytes from the chain of blocks starting at {@code first}.
+     *
+     * @param first  the index of the first block of the chain
+     * @param length the number of bytes to read
+     *
+     * @return the bytes
+     *
+     * @throws IllegalStateException if this arena is closed
+     */
+    @Nonnull
+    public byte[] read(int first, @Nonnegative int length) {
+        checkNotClosed();
+
+        byte[] data = new byte[length];
+
+        int block = first;
+        int offset = 0;
+        while (offset < length) {
+            int chunk = Math.min(payloadSize, length - offset);
+            positionAt(block).get(data, offset, chunk);
+            offset += chunk;
+            block = next(block);
+        }
+
+        return data;
+    }
+
+    /**
+     * Releases the chain of blocks starting at {@code first}.
+     *
+     * @param first the index of the first block of the chain
+     *
+     * @throws IllegalStateException if this arena is closed
+     */
+    public void release(int first) {
+        checkNotClosed();
+
+        int block = first;
+        while (block != NO_BLOCK) {
+            int next = next(block);
+            setNext(block, freeHead);
+            freeHead = block;
+            usedBlocks--;
+            block = next;
+        }
+    }
+
+    /**
+     * Releases all the blocks of this arena. The buffers are kept, to be reused.
+     */
+    public void clear() {
+        freeHead = NO_BLOCK;
+        nextUnused = 0;
+        usedBlocks = 0;
+    }
+
+    /**
+     * Releases the buffers of this arena, and closes its file. The memory of the buffers is freed immediately when the
+     * JVM allows it, otherwise it is freed by the garbage collector. This arena must not be used after this call.
+     *
+     * @throws IOException if an I/O error occurs while closing the file
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        clear();
+        for (int i = 0; i < buffers.length; i++) {
+            if (nonNull(buffers[i])) {
+                BufferCleaner.free(buffers[i]);
+                buffers[i] = null;
+            }
+        }
+
+        if (nonNull(channel)) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Ensures that this arena is not closed.
+     *
+     * @throws IllegalStateException if this arena is closed
+     */
+    private void checkNotClosed() {
+        Preconditions.checkState(!closed, "the arena is closed");
+    }
+
+    /**
+     * Allocates a free block.
+     *
+     * @return the index of the block
+     */
+    private int allocate() {
+        int block;
+        if (freeHead != NO_BLOCK) {
+            block = freeHead;
+            freeHead = next(block);
+        }
+        else {
+            block = nextUnused++;
+        }
+
+        usedBlocks++;
+        return block;
+    }
+
+    /**
+     * Returns the index of the block following the {@code block} in its chain.
+     *
+     * @param block the index of the block
+     *
+     * @return the index of the next block, or {@link #NO_BLOCK}
+     */
+    private int next(int block) {
+        return bufferOf(block).getInt(offsetOf(block) + payloadSize);
+    }
+
+    /**
+     * Defines the index of the block following the {@code block} in its chain.
+     *
+     * @param block the index of the block
+     * @param next  the index of the next block, or {@link #NO_BLOCK}
+     */
+    private void setNext(int block, int next) {
+        bufferOf(block).putInt(offsetOf(block) + payloadSize, next);
+    }
+
+    /**
+     * Returns the buffer containing the {@code block}, positioned at the start of the block.
+     *
+     * @param block the index of the block
+     *
+     * @return the buffer
+     */
+    @Nonnull
+    private ByteBuffer positionAt(int block) {
+        ByteBuffer buffer = bufferOf(block);
+        buffer.position(offsetOf(block));
+        return buffer;
+    }
+
+    /**
+     * Returns the offset of the {@code block} in its buffer.
+     *
+     * @param block the index of the block
+     *
+     * @return the offset, in bytes
+     */
+    private int offsetOf(int block) {
+        return (block % blocksPerBuffer) * blockSize;
+    }
+
+    /**
+     * Returns the buffer containing the {@code block}, allocating it if necessary.
+     *
+     * @param block the index of the block
+     *
+     * @return the buffer
+     *
+     * @throws UncheckedIOException if the buffer cannot be mapped
+     */
+    @Nonnull
+    private ByteBuffer bufferOf(int block) {
+        int index = block / blocksPerBuffer;
+
+        ByteBuffer buffer = buffers[index];
+        if (isNull(buffer)) {
+            int blocks = Math.min(blocksPerBuffer, blockCount - index * blocksPerBuffer);
+            int size = blocks * blockSize;
+
+            if (nonNull(channel)) {
+                try {
+                    buffer = channel.map(FileChannel.MapMode.READ_WRITE, (long) index * blocksPerBuffer * blockSize, size);
+                }
+                catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            else {
+                buffer = ByteBuffer.allocateDirect(size);
+            }
+
+            buffers[index] = buffer;
+        }
+
+        return buffer;
+    }
+
+    /**
+     * Frees the memory of direct and mapped buffers, without waiting for their collection.
+     * <p>
+     * The buffer API does not provide any way to do so: the cleaner of a buffer is invoked with {@code
+     * sun.misc.Unsafe#invokeCleaner} since Java 9, and with {@code sun.nio.ch.DirectBuffer#cleaner} before. If none of
+     * them is accessible, the memory is left to the garbage collector.
+     */
+    private static final class BufferCleaner {
+
+        /**
+         * The function that frees a buffer, or {@code null} if the buffers cannot be freed explicitly.
+         */
+        @Nullable
+        private static final Cleaner CLEANER = createCleaner();
+
+        /**
+         * Frees the memory of the {@code buffer}. The buffer must not be used after this call.
+         *
+         * @param buffer the buffer to free
+         */
+        static void free(ByteBuffer buffer) {
+            if (nonNull(CLEANER) && buffer.isDirect()) {
+                try {
+                    CLEANER.clean(buffer);
+                }
+                catch (Exception ignored) {
+                    // The memory will be freed by the garbage collector
+                }
+            }
+        }
+
+        /**
+         * Looks for a way to free the buffers of the running JVM.
+         *
+         * @return the function that frees a buffer, or {@code null} if the buffers cannot be freed explicitly
+         */
+        @Nullable
+        private static Cleaner createCleaner() {
+            try {
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+                Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                Object unsafe = theUnsafe.get(null);
+                return buffer -> invokeCleaner.invoke(unsafe, buffer);
+            }
+            catch (Exception | LinkageError e) {
+                // Not available before Java 9
+            }
+
+            try {
+                Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+                Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+                return buffer -> {
+                    Object bufferCleaner = cleaner.invoke(buffer);
+                    if (nonNull(bufferCleaner)) {
+                        clean.invoke(bufferCleaner);
+                    }
+                };
+            }
+            catch (Exception | LinkageError e) {
+                return null;
+            }
+        }
+
+        /**
+         * A function that frees the memory of a buffer.
+         */
+        @FunctionalInterface
+        private interface Cleaner {
+
+            /**
+             * Frees the memory of the {@code buffer}.
+             *
+             * @param buffer the buffer to free
+             *
+             * @throws Exception if the buffer cannot be freed
+             */
+            void clean(ByteBuffer buffer) throws Exception;
+        }
+    }
+}
@@ -0,0 +1,739 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.Preconditions;
+import org.atlanmod.commons.io.serializer.BinarySerializer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * A {@link Cache} that stores its values outside of the Java heap, in an {@link OffHeapArena}.
+ * <p>
+ * Values are serialized with a {@link BinarySerializer} when they are stored, and deserialized each time they are
+ * read: two successive reads of the same key return equal, but distinct instances. Only the keys and the location of
+ * the values remain on the heap, so that large caches do not increase the pressure on the garbage collector.
+ * <p>
+ * The cache is bounded by a number of bytes. When the arena is full, the least recently used entries are evicted
+ * until the new value fits. The weight of an entry is the number of bytes of the blocks it occupies.
+ * <p>
+ * The index and the arena are guarded by a single lock. Reads take it too, since they update the access order of the
+ * index, but only to look up the location of the value and copy its bytes: values are serialized and deserialized
+ * outside of it. Striping the lock would require splitting the arena and the access order into independent segments,
+ * each bounded by a fraction of the size of the cache, so that the eviction would no longer be globally least recently
+ * used; this cache keeps a single lock instead, at the cost of contention between the threads reading the same cache.
+ * <p>
+ * If a key is invalidated while its value is loaded, the loaded value is returned to the callers but is not stored.
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of mapped values
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+final class OffHeapCache<K, V> implements Cache<K, V> {
+
+    /**
+     * The lock guarding the index and the arena.
+     */
+    @Nonnull
+    private final Object lock = new Object();
+
+    /**
+     * The location of each value in the arena, in access order.
+     */
+    @Nonnull
+    @GuardedBy("lock")
+    private final LinkedHashMap<K, Slot> index;
+
+    /**
+     * The memory area where the values are stored.
+     */
+    @Nonnull
+    @GuardedBy("lock")
+    private final OffHeapArena arena;
+
+    /**
+     * The serializer used to store the values.
+     */
+    @Nonnull
+    private final BinarySerializer<V> serializer;
+
+    /**
+     * The values currently being loaded, used to share a loading between concurrent callers.
+     */
+    @Nonnull
+    private final ConcurrentMap<K, Loading> loadings = new ConcurrentHashMap<>();
+
+    /**
+     * The statistics of this cache, or {@code null} if they are not recorded.
+     */
+    @Nullable
+    private final StatsCounter stats;
+
+    /**
+     * The map view of this cache, created on demand.
+     */
+    @Nullable
+    private ConcurrentMap<K, V> mapView;
+
+    /**
+     * Constructs a new {@code OffHeapCache}.
+     *
+     * @param arena           the memory area where the values are stored
+     * @param serializer      the serializer used to store the values
+     * @param initialCapacity the initial capacity of the index, or {@code -1} to use the default capacity
+     * @param stats           the statistics of this cache, or {@code null} if they must not be recorded
+     */
+    public OffHeapCache(OffHeapArena arena, BinarySerializer<V> serializer, int initialCapacity, @Nullable StatsCounter stats) {
+        this.arena = arena;
+        this.serializer = serializer;
+        this.index = new LinkedHashMap<>(Math.max(16, initialCapacity), 0.75f, true);
+        this.stats = stats;
+    }
+
+    @Nullable
+    @Override
+    public V get(K key) {
+        Preconditions.checkNotNull(key, "key");
+
+        V value = read(key);
+        recordAccess(value);
+        return value;
+    }
+
+    @Override
+    public V get(K key, Function<? super K, ? extends V> mappingFunction) {
+        Preconditions.checkNotNull(key, "key");
+        Preconditions.checkNotNull(mappingFunction, "mappingFunction");
+
+        V value = read(key);
+        recordAccess(value);
+        return nonNull(value) ? value : load(key, mappingFunction);
+    }
+
+    @Nonnull
+    @Override
+    public Map<K, V> getAll(Iterable<? extends K> keys) {
+        Preconditions.checkNotNull(keys, "keys");
+
+        Map<K, V> result = new LinkedHashMap<>();
+        for (K key : keys) {
+            V value = get(key);
+            if (nonNull(value)) {
+                result.put(key, value);
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    @Override
+    public void put(K key, V value) {
+        Preconditions.checkNotNull(key, "key");
+        Preconditions.checkNotNull(value, "value");
+
+        byte[] data = serializer.convert(value);
+        synchronized (lock) {
+            remove(key);
+            store(key, data);
+        }
+    }
+
+    @Override
+    public void putIfAbsent(K key, V value) {
+        Preconditions.checkNotNull(key, "key");
+        Preconditions.checkNotNull(value, "value");
+
+        byte[] data = serializer.convert(value);
+        synchronized (lock) {
+            if (!index.containsKey(key)) {
+                store(key, data);
+            }
+        }
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> map) {
+        Preconditions.checkNotNull(map, "map");
+
+        map.forEach(this::put);
+    }
+
+    @Override
+    public void invalidate(K key) {
+        Preconditions.checkNotNull(key, "key");
+
+        synchronized (lock) {
+            markInvalidated(key);
+            remove(key);
+        }
+    }
+
+    @Override
+    public void invalidateAll(Iterable<? extends K> keys) {
+        Preconditions.checkNotNull(keys, "keys");
+
+        synchronized (lock) {
+            for (K key : keys) {
+                markInvalidated(key);
+                remove(key);
+            }
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        synchronized (lock) {
+            loadings.values().forEach(l -> l.invalidated = true);
+            index.clear();
+            arena.clear();
+        }
+    }
+
+    @Override
+    public boolean contains(K key) {
+        Preconditions.checkNotNull(key, "key");
+
+        synchronized (lock) {
+            return index.containsKey(key);
+        }
+    }
+
+    @Override
+    public long size() {
+        synchronized (lock) {
+            return index.size();
+        }
+    }
+
+    @Override
+    public void refresh(K key) {
+        // Do nothing
+    }
+
+    @Override
+    public void cleanUp() {
+        // Do nothing: evictions are performed when a value is stored
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * All the entries are discarded, the memory of the arena is freed and its file is closed. After this call, the
+     * cache is empty, and any attempt to store a value throws an {@link IllegalStateException}.
+     *
+     * @throws UncheckedIOException if an I/O error occurs while closing the file of the arena
+     */
+    @Override
+    public void close() {
+        synchronized (lock) {
+            index.clear();
+            try {
+                arena.close();
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Nonnull
+    @Override
+    public ConcurrentMap<K, V> asMap() {
+        if (isNull(mapView)) {
+            mapView = new MapView();
+        }
+        return mapView;
+    }
+
+    @Nonnull
+    @Override
+    public CacheStats stats() {
+        if (isNull(stats)) {
+            return CacheStats.builder().build();
+        }
+
+        long weightedSize;
+        synchronized (lock) {
+            weightedSize = arena.usedBytes();
+        }
+        return stats.snapshot().toBuilder().weightedSize(weightedSize).build();
+    }
+
+    /**
+     * Reads the value associated with the {@code key}, without recording any statistic. The bytes are copied under the
+     * lock, but deserialized outside of it.
+     *
+     * @param key the key whose associated value is to be returned
+     *
+     * @return the value, or {@code null} if this cache contains no mapping for the key
+     */
+    @Nullable
+    private V read(Object key) {
+        byte[] data;
+        synchronized (lock) {
+            Slot slot = index.get(key);
+            if (isNull(slot)) {
+                return null;
+            }
+            data = arena.read(slot.block, slot.length);
+        }
+        return serializer.revert(data);
+    }
+
+    /**
+     * Records a hit or a miss, depending on the {@code value} that has been read.
+     *
+     * @param value the value that has been read, or {@code null}
+     */
+    private void recordAccess(@Nullable V value) {
+        if (nonNull(stats)) {
+            if (nonNull(value)) {
+                stats.recordHits(1);
+            }
+            else {
+                stats.recordMisses(1);
+            }
+        }
+    }
+
+    /**
+     * Loads the value associated with the {@code key} with the {@code mappingFunction}, and stores it in this cache. If
+     * the {@code key} is already being loaded by another thread, waits for its result instead of calling the {@code
+     * mappingFunction} again. If the {@code key} is invalidated during the loading, the loaded value is not stored.
+     *
+     * @param key             the key whose associated value is to be loaded
+     * @param mappingFunction the function to compute a value
+     *
+     * @return the loaded value, or {@code null} if the {@code mappingFunction} returned {@code null}
+     */
+    @Nullable
+    private V load(K key, Function<? super K, ? extends V> mappingFunction) {
+        Loading loading = new Loading();
+        Loading existing = loadings.putIfAbsent(key, loading);
+        if (nonNull(existing)) {
+            return join(existing.future);
+        }
+
+        try {
+            // The value may have been stored by a loading that completed in the meantime
+            V value = read(key);
+            if (isNull(value)) {
+                long start = System.nanoTime();
+                try {
+                    value = mappingFunction.apply(key);
+                }
+                catch (RuntimeException | Error e) {
+                    if (nonNull(stats)) {
+                        stats.recordLoadFailure(System.nanoTime() - start);
+                    }
+                    throw e;
+                }
+
+                if (nonNull(stats)) {
+                    if (nonNull(value)) {
+                        stats.recordLoadSuccess(System.nanoTime() - start);
+                    }
+                    else {
+                        stats.recordLoadFailure(System.nanoTime() - start);
+                    }
+                }
+
+                if (nonNull(value)) {
+                    byte[] data = serializer.convert(value);
+                    synchronized (lock) {
+                        // The invalidations are marked under the lock: either they remove the value, or it is not stored
+                        if (!loading.invalidated) {
+                            remove(key);
+                            store(key, data);
+                        }
+                    }
+                }
+            }
+
+            loading.future.complete(value);
+            return value;
+        }
+        catch (RuntimeException | Error e) {
+            loading.future.completeExceptionally(e);
+            throw e;
+        }
+        finally {
+            loadings.remove(key, loading);
+        }
+    }
+
+    /**
+     * Waits for the result of a loading performed by another thread.
+     *
+     * @param future the future of the loading
+     *
+     * @return the loaded value
+     */
+    @Nullable
+    private V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        }
+        catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Stores the {@code data} in the arena and associates it with the {@code key}, evicting the least recently used
+     * entries if necessary. If the {@code data} cannot fit in the arena, it is not stored.
+     *
+     * @param key  the key with which the data is to be associated
+     * @param data the serialized value
+     */
+    @GuardedBy("lock")
+    private void store(K key, byte[] data) {
+        int required = arena.blocksFor(data.length);
+        if (required > arena.blockCount()) {
+            recordEviction(required);
+            return;
+        }
+
+        Iterator<Slot> lru = index.values().iterator();
+        while (arena.freeBlocks() < required) {
+            Slot eldest = lru.next();
+            lru.remove();
+            arena.release(eldest.block);
+            recordEviction(arena.blocksFor(eldest.length));
+        }
+
+        index.put(key, new Slot(arena.write(data), data.length));
+    }
+
+    /**
+     * Removes the entry associated with the {@code key}, and releases its blocks.
+     *
+     * @param key the key of the entry to remove
+     *
+     * @return {@code true} if an entry has been removed
+     */
+    @GuardedBy("lock")
+    private boolean remove(Object key) {
+        Slot slot = index.remove(key);
+        if (nonNull(slot)) {
+            arena.release(slot.block);
+        }
+        return nonNull(slot);
+    }
+
+    /**
+     * Marks the loading of the {@code key}, if any, as invalidated, so that the loaded value is not stored.
+     *
+     * @param key the invalidated key
+     */
+    @GuardedBy("lock")
+    private void markInvalidated(Object key) {
+        Loading loading = loadings.get(key);
+        if (nonNull(loading)) {
+            loading.invalidated = true;
+        }
+    }
+
+    /**
+     * Records the eviction of an entry occupying {@code blocks} blocks.
+     *
+     * @param blocks the number of blocks of the evicted entry
+     */
+    private void recordEviction(@Nonnegative int blocks) {
+        if (nonNull(stats)) {
+            stats.recordEviction((long) blocks * arena.blockSize(), RemovalCause.SIZE);
+        }
+    }
+
+    /**
+     * The location of a value in the arena.
+     */
+    private static final class Slot {
+
+        /**
+         * The index of the first block of the value.
+         */
+        private final int block;
+
+        /**
+         * The number of bytes of the value.
+         */
+        @Nonnegative
+        private final int length;
+
+        /**
+         * Constructs a new {@code Slot}.
+         *
+         * @param block  the index of the first block of the value
+         * @param length the number of bytes of the value
+         */
+        Slot(int block, @Nonnegative int length) {
+            this.block = block;
+            this.length = length;
+        }
+    }
+
+    /**
+     * A loading of a value, shared between the concurrent callers.
+     */
+    private final class Loading {
+
+        /**
+         * The future of the loaded value.
+         */
+        @Nonnull
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+
+        /**
+         * Whether the key has been invalidated during the loading.
+         */
+        @GuardedBy("lock")
+        private boolean invalidated;
+    }
+
+    /**
+     * A {@link ConcurrentMap} view of this cache. Compound operations are performed under the lock of the cache, so
+     * they are atomic, but deserialize values while holding it. Reading this view does not record statistics.
+     */
+    private final class MapView extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+
+        @Override
+        public int size() {
+            return (int) Math.min(Integer.MAX_VALUE, OffHeapCache.this.size());
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            Preconditions.checkNotNull(key, "key");
+
+            synchronized (lock) {
+                return index.containsKey(key);
+            }
+        }
+
+        @Override
+        public V get(Object key) {
+            Preconditions.checkNotNull(key, "key");
+
+            return read(key);
+        }
+
+        @Override
+        public V put(K key, V value) {
+            Preconditions.checkNotNull(key, "key");
+            Preconditions.checkNotNull(value, "value");
+
+            byte[] data = serializer.convert(value);
+            synchronized (lock) {
+                V previous = read(key);
+                OffHeapCache.this.remove(key);
+                store(key, data);
+                return previous;
+            }
+        }
+
+        @Override
+        public V remove(Object key) {
+            Preconditions.checkNotNull(key, "key");
+
+            synchronized (lock) {
+                V previous = read(key);
+                markInvalidated(key);
+                OffHeapCache.this.remove(key);
+                return previous;
+            }
+        }
+
+        @Override
+        public void clear() {
+            invalidateAll();
+        }
+
+        @Override
+        public V putIfAbsent(K key, V value) {
+            Preconditions.checkNotNull(key, "key");
+            Preconditions.checkNotNull(value, "value");
+
+            byte[] data = serializer.convert(value);
+            synchronized (lock) {
+                V previous = read(key);
+                if (isNull(previous)) {
+                    store(key, data);
+                }
+                return previous;
+            }
+        }
+
+        @Override
+        public boolean remove(Object key, Object value) {
+            Preconditions.checkNotNull(key, "key");
+
+            synchronized (lock) {
+                return nonNull(value) && Objects.equals(read(key), value) && OffHeapCache.this.remove(key);
+            }
+        }
+
+        @Override
+        public boolean replace(K key, V oldValue, V newValue) {
+            Preconditions.checkNotNull(key, "key");
+            Preconditions.checkNotNull(oldValue, "oldValue");
+            Preconditions.checkNotNull(newValue, "newValue");
+
+            byte[] data = serializer.convert(newValue);
+            synchronized (lock) {
+                if (!Objects.equals(read(key), oldValue)) {
+                    return false;
+                }
+                OffHeapCache.this.remove(key);
+                store(key, data);
+                return true;
+            }
+        }
+
+        @Override
+        public V replace(K key, V value) {
+            Preconditions.checkNotNull(key, "key");
+            Preconditions.checkNotNull(value, "value");
+
+            byte[] data = serializer.convert(value);
+            synchronized (lock) {
+                V previous = read(key);
+                if (nonNull(previous)) {
+                    OffHeapCache.this.remove(key);
+                    store(key, data);
+                }
+                return previous;
+            }
+        }
+
+        @Nonnull
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            return new AbstractSet<Entry<K, V>>() {
+                @Override
+                public int size() {
+                    return MapView.this.size();
+                }
+
+                @Override
+                public void clear() {
+                    invalidateAll();
+                }
+
+                @Nonnull
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    return new EntryIterator();
+                }
+            };
+        }
+    }
+
+    /**
+     * An iterator over a snapshot of the keys of this cache, which reads the values lazily. The entries removed after
+     * the snapshot are skipped.
+     */
+    private final class EntryIterator implements Iterator<Map.Entry<K, V>> {
+
+        /**
+         * The snapshot of the keys.
+         */
+        @Nonnull
+        private final Iterator<K> keys;
+
+        /**
+         * The next entry to return, or {@code null} if it has not been read yet.
+         */
+        @Nullable
+        private Map.Entry<K, V> next;
+
+        /**
+         * The key of the last returned entry, or {@code null} if it has been removed.
+         */
+        @Nullable
+        private K last;
+
+        /**
+         * Constructs a new {@code EntryIterator}.
+         */
+        EntryIterator() {
+            List<K> snapshot;
+            synchronized (lock) {
+                snapshot = new ArrayList<>(index.keySet());
+            }
+            this.keys = snapshot.iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (isNull(next) && keys.hasNext()) {
+                K key = keys.next();
+                V value = read(key);
+                if (nonNull(value)) {
+                    next = new AbstractMap.SimpleImmutableEntry<>(key, value);
+                }
+            }
+            return nonNull(next);
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            Map.Entry<K, V> entry = next;
+            next = null;
+            last = entry.getKey();
+            return entry;
+        }
+
+        @Override
+        public void remove() {
+            Preconditions.checkState(nonNull(last), "no entry to remove");
+
+            invalidate(last);
+            last = null;
+        }
+    }
+}
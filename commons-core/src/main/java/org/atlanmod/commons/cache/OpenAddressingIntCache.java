@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.Preconditions;
+
+import java.util.function.IntFunction;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * An {@link IntCache} that widens its keys and delegates its calls to an {@link OpenAddressingLongCache}.
+ *
+ * @param <V> the type of mapped values
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+final class OpenAddressingIntCache<V> implements IntCache<V> {
+
+    /**
+     * The delegated cache.
+     */
+    @Nonnull
+    private final OpenAddressingLongCache<V> delegate;
+
+    /**
+     * Constructs a new {@code OpenAddressingIntCache}.
+     *
+     * @param delegate the delegated cache
+     */
+    public OpenAddressingIntCache(OpenAddressingLongCache<V> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Nullable
+    @Override
+    public V get(int key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public V get(int key, IntFunction<? extends V> mappingFunction) {
+        Preconditions.checkNotNull(mappingFunction, "mappingFunction");
+
+        V value = delegate.get(key);
+        return nonNull(value) ? value : delegate.load(key, k -> mappingFunction.apply((int) k));
+    }
+
+    @Override
+    public void put(int key, V value) {
+        delegate.put(key, value);
+    }
+
+    @Override
+    public void putIfAbsent(int key, V value) {
+        delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void invalidate(int key) {
+        delegate.invalidate(key);
+    }
+
+    @Override
+    public void invalidateAll() {
+        delegate.invalidateAll();
+    }
+
+    @Override
+    public boolean contains(int key) {
+        return delegate.contains(key);
+    }
+
+    @Override
+    public long size() {
+        return delegate.size();
+    }
+
+    @Override
+    public void cleanUp() {
+        delegate.cleanUp();
+    }
+
+    @Nonnull
+    @Override
+    public CacheStats stats() {
+        return delegate.stats();
+    }
+}
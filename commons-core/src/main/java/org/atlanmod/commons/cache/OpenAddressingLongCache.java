@@ -0,0 +1,733 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.Preconditions;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongFunction;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * A {@link LongCache} backed by an open-addressing hash table, which stores its keys in a {@code long[]}.
+ * <p>
+ * The table is divided into independent segments, each of them guarded by a {@link StampedLock}. Lookups are
+ * performed under an optimistic read, so that a cache hit neither blocks nor allocates. When a maximum size is
+ * defined, each segment evicts its entries with the CLOCK (second chance) algorithm.
+ *
+ * @param <V> the type of mapped values
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+final class OpenAddressingLongCache<V> implements LongCache<V> {
+
+    /**
+     * The minimum capacity of a segment.
+     */
+    private static final int MINIMUM_CAPACITY = 8;
+
+    /**
+     * The maximum capacity of a segment.
+     */
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /**
+     * The maximum ratio of used slots in a segment, before growing its table.
+     */
+    private static final float LOAD_FACTOR = 0.5f;
+
+    /**
+     * The minimum number of entries per segment, used to limit the number of segments of small caches.
+     */
+    private static final int MINIMUM_ENTRIES_PER_SEGMENT = 16;
+
+    /**
+     * The value of an undefined size.
+     */
+    private static final long UNSET = -1;
+
+    /**
+     * The segments of this cache.
+     */
+    @Nonnull
+    private final Segment[] segments;
+
+    /**
+     * The mask used to select a segment from the higher bits of a hash.
+     */
+    private final int segmentMask;
+
+    /**
+     * The shift used to select a segment from the higher bits of a hash.
+     */
+    private final int segmentShift;
+
+    /**
+     * The statistics of this cache, or {@code null} if they are not recorded.
+     */
+    @Nullable
+    private final StatsCounter stats;
+
+    /**
+     * Constructs a new {@code OpenAddressingLongCache}.
+     *
+     * @param initialCapacity the minimum total size for the internal data structures, or {@code -1} to use the
+     *                        default capacity
+     * @param maximumSize     the maximum number of entries the cache may contain, or {@code -1} if unbounded
+     * @param stats           the statistics of this cache, or {@code null} if they must not be recorded
+     */
+    public OpenAddressingLongCache(int initialCapacity, long maximumSize, @Nullable StatsCounter stats) {
+        int segmentCount = segmentCount(maximumSize);
+
+        this.segmentMask = segmentCount - 1;
+        this.segmentShift = Integer.SIZE - Integer.numberOfTrailingZeros(segmentCount);
+        this.stats = stats;
+
+        int capacity = initialCapacity == UNSET ? 0 : initialCapacity / segmentCount;
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            long maximum = maximumSize == UNSET
+                    ? UNSET
+                    : maximumSize / segmentCount + (i < maximumSize % segmentCount ? 1 : 0);
+
+            segments[i] = new Segment(capacity, maximum, stats);
+        }
+    }
+
+    /**
+     * Returns the number of segments to use for a cache of the given {@code maximumSize}.
+     *
+     * @param maximumSize the maximum number of entries the cache may contain, or {@code -1} if unbounded
+     *
+     * @return a power of two
+     */
+    @Nonnegative
+    private static int segmentCount(long maximumSize) {
+        int count = ceilingPowerOfTwo(Runtime.getRuntime().availableProcessors() * 4);
+
+        if (maximumSize != UNSET) {
+            while (count > 1 && maximumSize / count < MINIMUM_ENTRIES_PER_SEGMENT) {
+                count >>>= 1;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Returns the smallest power of two greater than or equal to {@code value}.
+     *
+     * @param value the value
+     *
+     * @return a power of two
+     */
+    @Nonnegative
+    private static int ceilingPowerOfTwo(int value) {
+        return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+
+    /**
+     * Computes the hash of the {@code key}.
+     *
+     * @param key the key
+     *
+     * @return the spread hash
+     */
+    private static int hash(long key) {
+        long h = key * 0x9e3779b97f4a7c15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Returns the segment that holds the key with the specified {@code hash}.
+     *
+     * @param hash the hash of the key
+     *
+     * @return the segment
+     */
+    @Nonnull
+    private Segment segmentFor(int hash) {
+        return segments[(hash >>> segmentShift) & segmentMask];
+    }
+
+    @Nullable
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int hash = hash(key);
+        V value = (V) segmentFor(hash).get(key, hash);
+
+        if (nonNull(stats)) {
+            if (nonNull(value)) {
+                stats.recordHits(1);
+            }
+            else {
+                stats.recordMisses(1);
+            }
+        }
+
+        return value;
+    }
+
+    @Override
+    public V get(long key, LongFunction<? extends V> mappingFunction) {
+        Preconditions.checkNotNull(mappingFunction, "mappingFunction");
+
+        V value = get(key);
+        return nonNull(value) ? value : load(key, mappingFunction);
+    }
+
+    /**
+     * Computes the value of the {@code key} if it is not already associated with a value. This method does not record
+     * any hit or miss: it is meant to be called after a miss.
+     *
+     * @param key             the key with which the specified value is to be associated
+     * @param mappingFunction the function to compute a value
+     *
+     * @return the current (existing or computed) value associated with the specified key, or {@code null} if the
+     * computed value is {@code null}
+     *
+     * @throws IllegalStateException if the current thread is already computing a value in this cache
+     */
+    @SuppressWarnings("unchecked")
+    V load(long key, LongFunction<? extends V> mappingFunction) {
+        // A computation holds the lock of its segment: computing another key, even in another segment, could deadlock
+        for (Segment segment : segments) {
+            segment.checkNotComputing();
+        }
+
+        int hash = hash(key);
+        return (V) segmentFor(hash).computeIfAbsent(key, hash, mappingFunction);
+    }
+
+    @Override
+    public void put(long key, V value) {
+        Preconditions.checkNotNull(value, "value");
+
+        int hash = hash(key);
+        segmentFor(hash).put(key, hash, value, false);
+    }
+
+    @Override
+    public void putIfAbsent(long key, V value) {
+        Preconditions.checkNotNull(value, "value");
+
+        int hash = hash(key);
+        segmentFor(hash).put(key, hash, value, true);
+    }
+
+    @Override
+    public void invalidate(long key) {
+        int hash = hash(key);
+        segmentFor(hash).remove(key, hash);
+    }
+
+    @Override
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    @Override
+    public boolean contains(long key) {
+        int hash = hash(key);
+        return nonNull(segmentFor(hash).get(key, hash));
+    }
+
+    @Override
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    @Override
+    public void cleanUp() {
+        // Do nothing: the eviction is performed on write
+    }
+
+    @Nonnull
+    @Override
+    public CacheStats stats() {
+        return nonNull(stats)
+                ? stats.snapshot()
+                : CacheStats.builder().build();
+    }
+
+    /**
+     * The arrays of an open-addressing hash table. The arrays are replaced all together when the table grows, so that
+     * an optimistic reader always sees arrays of the same length.
+     */
+    private static final class Table {
+
+        /**
+         * The keys of the entries.
+         */
+        @Nonnull
+        final long[] keys;
+
+        /**
+         * The values of the entries; a {@code null} value marks an empty slot.
+         */
+        @Nonnull
+        final Object[] values;
+
+        /**
+         * The reference bits of the entries, used by the CLOCK eviction.
+         */
+        @Nonnull
+        final boolean[] referenced;
+
+        /**
+         * The mask used to compute a slot from a hash.
+         */
+        final int mask;
+
+        /**
+         * Constructs a new {@code Table}.
+         *
+         * @param capacity the number of slots of this table; must be a power of two
+         */
+        Table(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new Object[capacity];
+            this.referenced = new boolean[capacity];
+            this.mask = capacity - 1;
+        }
+    }
+
+    /**
+     * An independent part of the cache, with its own table and lock.
+     */
+    private static final class Segment {
+
+        /**
+         * The lock guarding this segment.
+         */
+        @Nonnull
+        private final StampedLock lock = new StampedLock();
+
+        /**
+         * The maximum number of entries in this segment, or {@code -1} if unbounded.
+         */
+        private final long maximum;
+
+        /**
+         * The statistics of the cache, or {@code null} if they are not recorded.
+         */
+        @Nullable
+        private final StatsCounter stats;
+
+        /**
+         * The current table.
+         */
+        @Nonnull
+        private Table table;
+
+        /**
+         * The number of entries in this segment.
+         */
+        private volatile int size;
+
+        /**
+         * The position of the CLOCK hand.
+         */
+        private int hand;
+
+        /**
+         * The thread currently computing a value in this segment, used to detect recursive updates.
+         */
+        @Nullable
+        private Thread computingThread;
+
+        /**
+         * Constructs a new {@code Segment}.
+         *
+         * @param initialCapacity the expected number of entries
+         * @param maximum         the maximum number of entries in this segment, or {@code -1} if unbounded
+         * @param stats           the statistics of the cache, or {@code null} if they must not be recorded
+         */
+        Segment(int initialCapacity, long maximum, @Nullable StatsCounter stats) {
+            this.maximum = maximum;
+            this.stats = stats;
+
+            long expected = maximum == UNSET ? initialCapacity : Math.min(initialCapacity, maximum);
+            this.table = new Table(tableCapacity(expected));
+        }
+
+        /**
+         * Returns the number of slots needed to store the {@code expected} number of entries.
+         *
+         * @param expected the expected number of entries
+         *
+         * @return a power of two
+         */
+        private int tableCapacity(long expected) {
+            long capacity = (long) Math.ceil(expected / LOAD_FACTOR);
+            return capacity >= MAXIMUM_CAPACITY
+                    ? MAXIMUM_CAPACITY
+                    : Math.max(MINIMUM_CAPACITY, ceilingPowerOfTwo((int) capacity));
+        }
+
+        /**
+         * Returns the value associated with the {@code key}.
+         *
+         * @param key  the key
+         * @param hash the hash of the key
+         *
+         * @return the value, or {@code null} if absent
+         */
+        @Nullable
+        Object get(long key, int hash) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0L) {
+                Object value = find(table, key, hash);
+                if (lock.validate(stamp)) {
+                    return value;
+                }
+            }
+
+            checkNotComputing();
+            stamp = lock.readLock();
+            try {
+                return find(table, key, hash);
+            }
+            finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        /**
+         * Associates the {@code value} with the {@code key}.
+         *
+         * @param key          the key
+         * @param hash         the hash of the key
+         * @param value        the value
+         * @param onlyIfAbsent {@code true} if an existing value must not be replaced
+         */
+        void put(long key, int hash, Object value, boolean onlyIfAbsent) {
+            checkNotComputing();
+            long stamp = lock.writeLock();
+            try {
+                Table t = table;
+                int index = indexOf(t, key, hash);
+                if (index >= 0) {
+                    if (!onlyIfAbsent) {
+                        t.values[index] = value;
+                    }
+                    t.referenced[index] = true;
+                }
+                else {
+                    insert(key, hash, value);
+                }
+            }
+            finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * Computes the value of the {@code key} if absent, while holding the write lock of this segment.
+         *
+         * @param key             the key
+         * @param hash            the hash of the key
+         * @param mappingFunction the function to compute a value
+         *
+         * @return the current (existing or computed) value, or {@code null} if the computed value is {@code null}
+         */
+        @Nullable
+        Object computeIfAbsent(long key, int hash, LongFunction<?> mappingFunction) {
+            checkNotComputing();
+            long stamp = lock.writeLock();
+            try {
+                Object value = find(table, key, hash);
+                if (nonNull(value)) {
+                    return value;
+                }
+
+                long start = System.nanoTime();
+                computingThread = Thread.currentThread();
+                try {
+                    value = mappingFunction.apply(key);
+                }
+                catch (RuntimeException | Error e) {
+                    recordLoad(false, start);
+                    throw e;
+                }
+                finally {
+                    computingThread = null;
+                }
+
+                recordLoad(nonNull(value), start);
+                if (nonNull(value)) {
+                    insert(key, hash, value);
+                }
+                return value;
+            }
+            finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * Removes the value associated with the {@code key}.
+         *
+         * @param key  the key
+         * @param hash the hash of the key
+         */
+        void remove(long key, int hash) {
+            checkNotComputing();
+            long stamp = lock.writeLock();
+            try {
+                Table t = table;
+                int index = indexOf(t, key, hash);
+                if (index >= 0) {
+                    removeAt(t, index);
+                }
+            }
+            finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * Removes all the entries of this segment.
+         */
+        void clear() {
+            checkNotComputing();
+            long stamp = lock.writeLock();
+            try {
+                Table t = table;
+                Arrays.fill(t.values, null);
+                Arrays.fill(t.referenced, false);
+                size = 0;
+                hand = 0;
+            }
+            finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * Inserts a new entry, evicting another entry or growing the table if necessary. The {@code key} must not be
+         * present in this segment.
+         *
+         * @param key   the key
+         * @param hash  the hash of the key
+         * @param value the value
+         */
+        private void insert(long key, int hash, Object value) {
+            if (maximum != UNSET && size >= maximum) {
+                if (maximum == 0) {
+                    recordEviction();
+                    return;
+                }
+                evict();
+            }
+            if (size >= table.values.length * LOAD_FACTOR) {
+                grow();
+            }
+
+            Table t = table;
+            int index = hash & t.mask;
+            while (nonNull(t.values[index])) {
+                index = (index + 1) & t.mask;
+            }
+
+            t.keys[index] = key;
+            t.values[index] = value;
+            size++;
+        }
+
+        /**
+         * Evicts an entry with the CLOCK algorithm: the hand clears the reference bits until it finds an entry that has
+         * not been accessed since the last pass.
+         */
+        private void evict() {
+            Table t = table;
+            while (true) {
+                int index = hand;
+                hand = (hand + 1) & t.mask;
+
+                if (nonNull(t.values[index])) {
+                    if (t.referenced[index]) {
+                        t.referenced[index] = false;
+                    }
+                    else {
+                        removeAt(t, index);
+                        recordEviction();
+                        return;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Doubles the capacity of the current table.
+         *
+         * @throws IllegalStateException if the table has already reached its maximum capacity
+         */
+        private void grow() {
+            Table oldTable = table;
+            Preconditions.checkState(oldTable.values.length < MAXIMUM_CAPACITY, "Segment capacity exceeded");
+
+            Table newTable = new Table(oldTable.values.length << 1);
+            for (int i = 0; i < oldTable.values.length; i++) {
+                Object value = oldTable.values[i];
+                if (nonNull(value)) {
+                    long key = oldTable.keys[i];
+                    int index = hash(key) & newTable.mask;
+                    while (nonNull(newTable.values[index])) {
+                        index = (index + 1) & newTable.mask;
+                    }
+                    newTable.keys[index] = key;
+                    newTable.values[index] = value;
+                    newTable.referenced[index] = oldTable.referenced[i];
+                }
+            }
+
+            table = newTable;
+            hand = 0;
+        }
+
+        /**
+         * Removes the entry at the specified {@code index}, and shifts back the following entries of the same cluster
+         * so that no tombstone is needed.
+         *
+         * @param t     the table
+         * @param index the index of the entry to remove
+         */
+        private void removeAt(Table t, int index) {
+            int hole = index;
+            int next = index;
+            while (true) {
+                next = (next + 1) & t.mask;
+                if (isNull(t.values[next])) {
+                    break;
+                }
+
+                int home = hash(t.keys[next]) & t.mask;
+                boolean inPlace = hole <= next
+                        ? hole < home && home <= next
+                        : hole < home || home <= next;
+
+                if (!inPlace) {
+                    t.keys[hole] = t.keys[next];
+                    t.values[hole] = t.values[next];
+                    t.referenced[hole] = t.referenced[next];
+                    hole = next;
+                }
+            }
+
+            t.values[hole] = null;
+            t.referenced[hole] = false;
+            size--;
+        }
+
+        /**
+         * Ensures that the current thread is not computing a value in this segment.
+         *
+         * @throws IllegalStateException if the current thread attempts a recursive update
+         */
+        private void checkNotComputing() {
+            Preconditions.checkState(computingThread != Thread.currentThread(), "Recursive update");
+        }
+
+        /**
+         * Records the result of a load.
+         *
+         * @param success {@code true} if the load succeeded
+         * @param start   the start time of the load, in nanoseconds
+         */
+        private void recordLoad(boolean success, long start) {
+            if (nonNull(stats)) {
+                long loadTime = System.nanoTime() - start;
+                if (success) {
+                    stats.recordLoadSuccess(loadTime);
+                }
+                else {
+                    stats.recordLoadFailure(loadTime);
+                }
+            }
+        }
+
+        /**
+         * Records the eviction of an entry.
+         */
+        private void recordEviction() {
+            if (nonNull(stats)) {
+                stats.recordEviction(1, RemovalCause.SIZE);
+            }
+        }
+    }
+
+    /**
+     * Returns the index of the {@code key} in the table {@code t}.
+     *
+     * @param t    the table
+     * @param key  the key
+     * @param hash the hash of the key
+     *
+     * @return the index of the key, or {@code -1} if absent
+     */
+    private static int indexOf(Table t, long key, int hash) {
+        int index = hash & t.mask;
+        for (int probes = 0; probes <= t.mask; probes++) {
+            if (isNull(t.values[index])) {
+                return -1;
+            }
+            if (t.keys[index] == key) {
+                return index;
+            }
+            index = (index + 1) & t.mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the value associated with the {@code key} in the table {@code t}, and marks it as referenced.
+     * <p>
+     * This method is also called during an optimistic read, so the reference bit may be set without holding the lock
+     * of the segment. This race is harmless: the reference bit is only a hint for the CLOCK eviction, and a stale write
+     * can at worst give a second chance to an entry that moved into this slot, or be lost if the table has just been
+     * replaced. The arrays of a table have a fixed length, so the index is always in bounds, and the value itself is
+     * only returned if the read is validated.
+     *
+     * @param t    the table
+     * @param key  the key
+     * @param hash the hash of the key
+     *
+     * @return the value, or {@code null} if absent
+     */
+    @Nullable
+    private static Object find(Table t, long key, int hash) {
+        int index = indexOf(t, key, hash);
+        if (index < 0) {
+            return null;
+        }
+
+        Object value = t.values[index];
+        if (!t.referenced[index]) {
+            t.referenced[index] = true;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.hash.Hasher;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A {@link Cache} made of independent partitions, each one holding the keys whose hash designates it.
+ * <p>
+ * Each partition has its own size bound, its own maintenance and its own statistics, so the writes on different
+ * partitions do not contend, and a partition can be cleared without pausing the others. The statistics of this cache
+ * are the sum of the statistics of its partitions.
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of mapped values
+ *
+ * @see CacheBuilder#buildPartitioned(int, Hasher)
+ * @see CacheBuilder#buildPartitioned(int, Hasher, java.util.function.Function)
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+public interface PartitionedCache<K, V> extends Cache<K, V> {
+
+    /**
+     * Returns the number of partitions of this cache.
+     *
+     * @return the number of partitions
+     */
+    @Nonnegative
+    int partitionCount();
+
+    /**
+     * Returns the index of the partition that holds the {@code key}.
+     *
+     * @param key the key
+     *
+     * @return the index of the partition, between {@code 0} and {@link #partitionCount()} (exclusive)
+     */
+    @Nonnegative
+    int partitionOf(K key);
+
+    /**
+     * Returns the partition at the given {@code index}. The partition is a live view: its modifications are visible in
+     * this cache. Only the keys that belong to the partition should be stored in it.
+     *
+     * @param index the index of the partition
+     *
+     * @return the partition
+     *
+     * @throws IndexOutOfBoundsException if {@code index} is not between {@code 0} and {@link #partitionCount()}
+     *                                   (exclusive)
+     */
+    @Nonnull
+    Cache<K, V> partition(@Nonnegative int index);
+}
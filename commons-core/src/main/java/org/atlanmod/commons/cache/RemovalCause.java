@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+/**
+ * The reason why an entry has been removed from a {@link Cache}.
+ *
+ * @see RemovalListener
+ */
+public enum RemovalCause {
+
+    /**
+     * The entry was manually removed by the user, with {@link Cache#invalidate(Object)}, {@link
+     * Cache#invalidateAll()} or any operation of {@link Cache#asMap()} that removes an entry.
+     */
+    EXPLICIT {
+        @Override
+        public boolean wasEvicted() {
+            return false;
+        }
+    },
+
+    /**
+     * The value of the entry was replaced by the user, with {@link Cache#put(Object, Object)} or any operation of
+     * {@link Cache#asMap()} that replaces a value.
+     */
+    REPLACED {
+        @Override
+        public boolean wasEvicted() {
+            return false;
+        }
+    },
+
+    /**
+     * The entry was removed automatically because its key or value was garbage-collected, when using weak keys, weak
+     * values or soft values.
+     */
+    COLLECTED {
+        @Override
+        public boolean wasEvicted() {
+            return true;
+        }
+    },
+
+    /**
+     * The entry was removed automatically because it expired.
+     */
+    EXPIRED {
+        @Override
+        public boolean wasEvicted() {
+            return true;
+        }
+    },
+
+    /**
+     * The entry was evicted because the cache exceeded its maximum size or weight.
+     */
+    SIZE {
+        @Override
+        public boolean wasEvicted() {
+            return true;
+        }
+    };
+
+    /**
+     * Returns {@code true} if the entry was removed automatically, rather than by the user.
+     *
+     * @return {@code true} if the entry was evicted
+     */
+    public abstract boolean wasEvicted();
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * A listener notified when an entry is removed from a {@link Cache}.
+ * <p>
+ * Listeners are notified asynchronously, on the executor of the cache, after the entry has been removed. An exception
+ * thrown by a listener is logged, and does not affect the cache.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ *
+ * @see CacheBuilder#removalListener(RemovalListener)
+ */
+@FunctionalInterface
+@ParametersAreNonnullByDefault
+public interface RemovalListener<K, V> {
+
+    /**
+     * Notifies this listener that an entry has been removed.
+     *
+     * @param key   the key of the removed entry, or {@code null} if it has been garbage-collected
+     * @param value the value of the removed entry, or {@code null} if it has been garbage-collected
+     * @param cause the reason why the entry has been removed
+     */
+    void onRemoval(@Nullable K key, @Nullable V value, RemovalCause cause);
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.Preconditions;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A de-duplicator of concurrent computations: while a computation is in progress for a key, the other callers for the
+ * same key wait for its result instead of computing it again.
+ * <p>
+ * Unlike a cache, the results are not retained: a call made after the end of a computation starts a new one. The
+ * computations are performed in the calling thread, without holding any lock, so a long computation does not block
+ * the computations of other keys.
+ * <pre>{@code
+ * SingleFlight<String, Response> flight = new SingleFlight<>();
+ * Response response = flight.execute(url, u -> backend.fetch(u));
+ * }</pre>
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of computed values
+ * @see CacheBuilder#coalesceLoads()
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+public final class SingleFlight<K, V> {
+
+    /**
+     * The computations in progress, by key.
+     */
+    @Nonnull
+    private final ConcurrentMap<K, Flight<V>> flights = new ConcurrentHashMap<>();
+
+    /**
+     * The number of calls to {@link #execute(Object, Function)}.
+     */
+    @Nonnull
+    private final LongAdder callCount = new LongAdder();
+
+    /**
+     * The number of calls that waited for the computation of another caller.
+     */
+    @Nonnull
+    private final LongAdder coalescedCount = new LongAdder();
+
+    /**
+     * Returns the result of the computation of the {@code key}, computing it with the {@code mappingFunction} unless a
+     * computation is already in progress for this key, in which case this method waits for its result.
+     * <p>
+     * If the computation fails, the exception is rethrown to all the callers that waited for it; the checked
+     * exceptions are wrapped in a {@link CompletionException}.
+     *
+     * @param key             the key of the computation
+     * @param mappingFunction the function to compute the value
+     *
+     * @return the computed value, possibly {@code null}
+     *
+     * @throws IllegalStateException if the computation attempts a recursive computation of the same key
+     */
+    @Nullable
+    public V execute(K key, Function<? super K, ? extends V> mappingFunction) {
+        Preconditions.checkNotNull(key, "key");
+        Preconditions.checkNotNull(mappingFunction, "mappingFunction");
+
+        callCount.increment();
+
+        Flight<V> flight = new Flight<>();
+        Flight<V> existingFlight = flights.putIfAbsent(key, flight);
+        if (existingFlight != null) {
+            Preconditions.checkState(existingFlight.owner != Thread.currentThread(), "recursive computation of %s", key);
+
+            coalescedCount.increment();
+            return join(existingFlight.result);
+        }
+
+        try {
+            V value = mappingFunction.apply(key);
+            flight.result.complete(value);
+            return value;
+        }
+        catch (Throwable e) {
+            flight.result.completeExceptionally(e);
+            throw e;
+        }
+        finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    /**
+     * Returns the number of calls to {@link #execute(Object, Function)}.
+     *
+     * @return the number of calls
+     */
+    @Nonnegative
+    public long callCount() {
+        return callCount.sum();
+    }
+
+    /**
+     * Returns the number of calls that waited for the computation of another caller, instead of computing the value.
+     *
+     * @return the number of coalesced calls
+     */
+    @Nonnegative
+    public long coalescedCount() {
+        return coalescedCount.sum();
+    }
+
+    /**
+     * Returns the number of computations in progress.
+     *
+     * @return the number of computations
+     */
+    @Nonnegative
+    public int inFlightCount() {
+        return flights.size();
+    }
+
+    /**
+     * Waits for the {@code result} of a computation, and rethrows its exception as is if possible.
+     *
+     * @param result the result to wait for
+     * @param <V>    the type of the result
+     *
+     * @return the result
+     */
+    @Nullable
+    private static <V> V join(CompletableFuture<V> result) {
+        try {
+            return result.join();
+        }
+        catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * A computation in progress.
+     *
+     * @param <V> the type of the computed value
+     */
+    private static final class Flight<V> {
+
+        /**
+         * The thread performing the computation.
+         */
+        @Nonnull
+        final Thread owner = Thread.currentThread();
+
+        /**
+         * The result of the computation.
+         */
+        @Nonnull
+        final CompletableFuture<V> result = new CompletableFuture<>();
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * An accumulator of the statistics of a {@link Cache}, notified of each event as it occurs.
+ * <p>
+ * Implementations are called from the threads that access the cache, and possibly while internal locks are held: they
+ * must be thread-safe and must not block. They can push the events to a monitoring system, rather than waiting for
+ * {@link Cache#stats()} to be polled.
+ *
+ * @see CacheBuilder#recordStats(java.util.function.Supplier)
+ * @see HistogramStatsCounter
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+public interface StatsCounter {
+
+    /**
+     * Records cache hits.
+     *
+     * @param count the number of hits to record
+     */
+    void recordHits(@Nonnegative int count);
+
+    /**
+     * Records cache misses.
+     *
+     * @param count the number of misses to record
+     */
+    void recordMisses(@Nonnegative int count);
+
+    /**
+     * Records the successful load of a new entry.
+     *
+     * @param loadTime the number of nanoseconds the cache spent computing or retrieving the new value
+     */
+    void recordLoadSuccess(@Nonnegative long loadTime);
+
+    /**
+     * Records the failed load of a new entry, because an exception was thrown or the loaded value was {@code null}.
+     *
+     * @param loadTime the number of nanoseconds the cache spent computing or retrieving the new value prior to the
+     *                 failure
+     */
+    void recordLoadFailure(@Nonnegative long loadTime);
+
+    /**
+     * Records the automatic removal of an entry from the cache.
+     *
+     * @param weight the weight of the evicted entry
+     * @param cause  the reason why the entry was evicted; {@link RemovalCause#wasEvicted()} is always {@code true}
+     */
+    void recordEviction(@Nonnegative long weight, RemovalCause cause);
+
+    /**
+     * Returns a snapshot of the values of this counter. The {@link CacheStats#weightedSize()} of the snapshot is
+     * ignored: it is provided by the cache.
+     *
+     * @return a new statistics instance
+     */
+    @Nonnull
+    CacheStats snapshot();
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.io.serializer.BinarySerializer;
+
+import java.nio.file.Path;
+
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A {@link Cache} made of two tiers: a small on-heap cache in front of a larger store persisted in a file.
+ * <p>
+ * The entries evicted from the first tier because of its size are demoted to the second tier, and the entries found
+ * in the second tier are promoted to the first tier. Except after a {@link #flush()}, an entry is held by a single
+ * tier at a time. The content of the second tier survives restarts: a new cache built on the same file starts with
+ * the entries stored by the previous one.
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of mapped values
+ *
+ * @see CacheBuilder#buildTiered(Path, long, BinarySerializer, BinarySerializer)
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+public interface TieredCache<K, V> extends Cache<K, V> {
+
+    /**
+     * Demotes all the entries of the first tier to the second tier, so that they can be retrieved after a restart.
+     * The entries remain in the first tier until they are evicted.
+     */
+    void flush();
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The entries that are only held by the first tier are not demoted: call {@link #flush()} before closing to keep
+     * them after a restart.
+     */
+    @Override
+    void close();
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The returned statistics contain the statistics of each tier.
+     */
+    @Nonnull
+    @Override
+    TieredCacheStats stats();
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.Preconditions;
+
+import java.util.Objects;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Statistics about the performance of a {@link TieredCache}, with the statistics of each of its tiers.
+ * <p>
+ * The statistics of this instance describe the cache as a whole: a hit is a hit in any tier, a miss is a miss in both
+ * tiers, and an eviction is an entry dropped from the second tier. The weighted size is the number of bytes occupied
+ * by the second tier.
+ * <p>
+ * In the first tier, an eviction is a demotion to the second tier. In the second tier, a hit is a promotion to the
+ * first tier.
+ */
+@Immutable
+@ParametersAreNonnullByDefault
+public class TieredCacheStats extends CacheStats {
+
+    /**
+     * The statistics of the first tier.
+     */
+    @Nonnull
+    private final CacheStats l1;
+
+    /**
+     * The statistics of the second tier.
+     */
+    @Nonnull
+    private final CacheStats l2;
+
+    /**
+     * Constructs a new {@code TieredCacheStats}.
+     *
+     * @param l1    the statistics of the first tier
+     * @param l2    the statistics of the second tier
+     * @param loads the statistics of the loadings performed by the cache
+     */
+    protected TieredCacheStats(CacheStats l1, CacheStats l2, CacheStats loads) {
+        super(builder()
+                .hitCount(l1.hitCount() + l2.hitCount())
+                .missCount(l2.missCount())
+                .loadSuccessCount(loads.loadSuccessCount())
+                .loadFailureCount(loads.loadFailureCount())
+                .totalLoadTime(loads.totalLoadTime().toNanos())
+                .evictionCount(l2.evictionCount())
+                .evictionWeight(l2.evictionWeight())
+                .weightedSize(l2.weightedSize()));
+
+        this.l1 = Preconditions.checkNotNull(l1, "l1");
+        this.l2 = Preconditions.checkNotNull(l2, "l2");
+    }
+
+    /**
+     * Returns the statistics of the first tier, kept on the heap.
+     *
+     * @return the statistics of the first tier
+     */
+    @Nonnull
+    public CacheStats l1() {
+        return l1;
+    }
+
+    /**
+     * Returns the statistics of the second tier, kept on disk.
+     *
+     * @return the statistics of the second tier
+     */
+    @Nonnull
+    public CacheStats l2() {
+        return l2;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), l1, l2);
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!super.equals(o)) {
+            return false;
+        }
+
+        TieredCacheStats that = TieredCacheStats.class.cast(o);
+        return Objects.equals(l1, that.l1)
+                && Objects.equals(l2, that.l2);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TieredCacheStats {L1 = %s, L2 = %s}", l1, l2);
+    }
+}
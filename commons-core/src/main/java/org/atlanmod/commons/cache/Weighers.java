@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.Throwables;
+import org.atlanmod.commons.annotation.Static;
+import org.atlanmod.commons.io.serializer.BinarySerializer;
+import org.atlanmod.commons.io.serializer.BinarySerializerFactory;
+
+import java.io.Serializable;
+import java.util.function.ToIntBiFunction;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Static utility methods to estimate the memory retained by the entries of a cache, in bytes.
+ * <p>
+ * The estimations assume a 64-bit JVM with compressed references: objects have a 12-byte header, arrays have a 16-byte
+ * header, and all sizes are aligned on 8 bytes. The characters of a {@link String} are counted as 2 bytes each, which is
+ * an upper bound on JVMs that use compact strings. The size of other {@link Serializable} objects is estimated from the
+ * length of their serialized form, which is costly to compute: these weighers should be used with values that are
+ * rarely replaced.
+ *
+ * @see CacheBuilder#maximumMemory(long)
+ */
+@Static
+@ParametersAreNonnullByDefault
+public final class Weighers {
+
+    /**
+     * The size of the header of an object, in bytes.
+     */
+    private static final int OBJECT_HEADER = 12;
+
+    /**
+     * The size of the header of an array, in bytes.
+     */
+    private static final int ARRAY_HEADER = 16;
+
+    /**
+     * The alignment of the objects, in bytes.
+     */
+    private static final int ALIGNMENT = 8;
+
+    /**
+     * The estimated overhead of an entry in a cache, in bytes: the node holding the key and the value, and its slot in
+     * the hash table.
+     */
+    private static final int ENTRY_OVERHEAD = 64;
+
+    /**
+     * The weigher that estimates the memory retained by an entry.
+     */
+    @Nonnull
+    private static final ToIntBiFunction<Object, Object> RETAINED_SIZE = (k, v) ->
+            (int) Math.min(Integer.MAX_VALUE, ENTRY_OVERHEAD + sizeOf(k) + sizeOf(v));
+
+    /**
+     * The serializer used to estimate the size of the {@link Serializable} objects.
+     */
+    @Nonnull
+    private static final BinarySerializer<Object> SERIALIZER = BinarySerializerFactory.getInstance().forAny();
+
+    @SuppressWarnings("JavaDoc")
+    private Weighers() {
+        throw Throwables.notInstantiableClass(getClass());
+    }
+
+    /**
+     * Returns a weigher that estimates the memory retained by an entry, key and value included, in bytes.
+     *
+     * @param <K> the type of keys
+     * @param <V> the type of values
+     *
+     * @return a weigher
+     *
+     * @see #sizeOf(Object)
+     */
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    public static <K, V> ToIntBiFunction<K, V> retainedSize() {
+        return (ToIntBiFunction<K, V>) RETAINED_SIZE;
+    }
+
+    /**
+     * Estimates the memory retained by the {@code object}, in bytes.
+     * <p>
+     * Arrays of primitives, strings and boxed primitives are measured from their layout. Other serializable objects are
+     * measured from the length of their serialized form. Other objects are counted as an empty object.
+     *
+     * @param object the object to measure
+     *
+     * @return the estimated size, in bytes
+     */
+    @Nonnegative
+    public static long sizeOf(@Nullable Object object) {
+        if (isNull(object)) {
+            return 0;
+        }
+
+        Class<?> type = object.getClass();
+        if (type.isArray() && type.getComponentType().isPrimitive()) {
+            return arraySizeOf(object);
+        }
+        if (object instanceof String) {
+            return align(OBJECT_HEADER + 12) + align(ARRAY_HEADER + 2L * ((String) object).length());
+        }
+        if (object instanceof Long || object instanceof Double) {
+            return align(OBJECT_HEADER + 8);
+        }
+        if (object instanceof Integer || object instanceof Float || object instanceof Short || object instanceof Byte
+                || object instanceof Boolean || object instanceof Character) {
+            return align(OBJECT_HEADER + 4);
+        }
+        if (object instanceof Serializable) {
+            return serializedSizeOf(object);
+        }
+        return align(OBJECT_HEADER);
+    }
+
+    /**
+     * Estimates the memory retained by an array of primitives.
+     *
+     * @param array the array to measure
+     *
+     * @return the estimated size, in bytes
+     */
+    @Nonnegative
+    private static long arraySizeOf(Object array) {
+        if (array instanceof byte[]) {
+            return align(ARRAY_HEADER + (long) ((byte[]) array).length);
+        }
+        if (array instanceof boolean[]) {
+            return align(ARRAY_HEADER + (long) ((boolean[]) array).length);
+        }
+        if (array instanceof char[]) {
+            return align(ARRAY_HEADER + 2L * ((char[]) array).length);
+        }
+        if (array instanceof short[]) {
+            return align(ARRAY_HEADER + 2L * ((short[]) array).length);
+        }
+        if (array instanceof int[]) {
+            return align(ARRAY_HEADER + 4L * ((int[]) array).length);
+        }
+        if (array instanceof float[]) {
+            return align(ARRAY_HEADER + 4L * ((float[]) array).length);
+        }
+        if (array instanceof long[]) {
+            return align(ARRAY_HEADER + 8L * ((long[]) array).length);
+        }
+        return align(ARRAY_HEADER + 8L * ((double[]) array).length);
+    }
+
+    /**
+     * Estimates the memory retained by a serializable object, from the length of its serialized form.
+     *
+     * @param object the object to measure
+     *
+     * @return the estimated size, in bytes
+     */
+    @Nonnegative
+    private static long serializedSizeOf(Object object) {
+        try {
+            return align(OBJECT_HEADER + (long) SERIALIZER.convert(object).length);
+        }
+        catch (RuntimeException e) {
+            // The object graph contains a non-serializable object
+            return align(OBJECT_HEADER);
+        }
+    }
+
+    /**
+     * Aligns a size on the alignment of the objects.
+     *
+     * @param size the size to align
+     *
+     * @return the aligned size
+     */
+    @Nonnegative
+    private static long align(@Nonnegative long size) {
+        return (size + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+}
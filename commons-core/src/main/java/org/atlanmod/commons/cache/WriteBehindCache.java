@@ -0,0 +1,713 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.Preconditions;
+import org.atlanmod.commons.annotation.Static;
+import org.atlanmod.commons.concurrent.MoreExecutors;
+import org.atlanmod.commons.log.Log;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * A {@link Cache} that propagates its modifications to a {@link BatchWriter}, asynchronously and by batches.
+ * <p>
+ * The modified entries are marked as dirty, and only the latest modification of each key is kept. The dirty entries
+ * are flushed on an executor, after a delay following the first modification, or as soon as a batch is full. When a
+ * batch holds a single entry, or when too many entries are dirty, the modifying thread flushes the dirty entries
+ * itself. If the writer fails, the entries are marked as dirty again, unless they have been modified in the meantime,
+ * and will be written by the next flush; an entry that cannot be written after {@value #MAXIMUM_ATTEMPTS} attempts is
+ * discarded.
+ * <p>
+ * Until they are flushed, the dirty values remain readable even if they are evicted from the delegated cache. The
+ * entries are marked as dirty while they are computed in the delegated cache, so the latest value of a key is always
+ * the one that is written, including for the modifications performed through {@link #asMap()}.
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of mapped values
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+final class WriteBehindCache<K, V> extends ForwardingCache<K, V> {
+
+    /**
+     * The marker of a deleted entry.
+     */
+    private static final Object DELETED = new Object();
+
+    /**
+     * The maximum number of attempts to write an entry.
+     */
+    static final int MAXIMUM_ATTEMPTS = 3;
+
+    /**
+     * The maximum number of batches of dirty entries, beyond which the modifying threads flush the dirty entries
+     * themselves.
+     */
+    static final int MAXIMUM_PENDING_BATCHES = 16;
+
+    /**
+     * The delegated cache.
+     */
+    @Nonnull
+    private final Cache<K, V> delegate;
+
+    /**
+     * The writer of the dirty entries.
+     */
+    @Nonnull
+    private final BatchWriter<? super K, ? super V> writer;
+
+    /**
+     * The delay between the first modification and the flush, in nanoseconds.
+     */
+    @Nonnegative
+    private final long delayNanos;
+
+    /**
+     * The maximum number of entries written in a single batch.
+     */
+    @Nonnegative
+    private final int maximumBatchSize;
+
+    /**
+     * The maximum number of dirty entries, beyond which the modifying threads flush the dirty entries themselves.
+     */
+    @Nonnegative
+    private final int maximumPendingSize;
+
+    /**
+     * The executor used to flush the dirty entries.
+     */
+    @Nonnull
+    private final Executor executor;
+
+    /**
+     * The dirty entries, associated with their latest value, or with {@link #DELETED}.
+     */
+    @Nonnull
+    private final ConcurrentMap<K, Object> dirtyEntries = new ConcurrentHashMap<>();
+
+    /**
+     * The number of failed attempts to write the dirty entries, for the entries that could not be written.
+     */
+    @Nonnull
+    private final ConcurrentMap<K, Integer> failedAttempts = new ConcurrentHashMap<>();
+
+    /**
+     * Whether a delayed flush has been scheduled.
+     */
+    @Nonnull
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    /**
+     * Whether an immediate flush has been requested.
+     */
+    @Nonnull
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    /**
+     * The lock ensuring that the flushes are not performed concurrently.
+     */
+    @Nonnull
+    private final Object flushLock = new Object();
+
+    /**
+     * The {@link ConcurrentMap} view of this cache.
+     */
+    @Nonnull
+    private final ConcurrentMap<K, V> mapView = new MapView();
+
+    /**
+     * Constructs a new {@code WriteBehindCache}.
+     *
+     * @param delegate         the delegated cache
+     * @param writer           the writer of the dirty entries
+     * @param delayNanos       the delay between the first modification and the flush, in nanoseconds
+     * @param maximumBatchSize the maximum number of entries written in a single batch
+     * @param executor         the executor used to flush the dirty entries
+     */
+    public WriteBehindCache(Cache<K, V> delegate, BatchWriter<? super K, ? super V> writer, @Nonnegative long delayNanos, @Nonnegative int maximumBatchSize, Executor executor) {
+        this.delegate = delegate;
+        this.writer = writer;
+        this.delayNanos = delayNanos;
+        this.maximumBatchSize = maximumBatchSize;
+        this.maximumPendingSize = (int) Math.min((long) maximumBatchSize * MAXIMUM_PENDING_BATCHES, Integer.MAX_VALUE);
+        this.executor = executor;
+    }
+
+    @Nonnull
+    @Override
+    protected Cache<K, V> delegate() {
+        return delegate;
+    }
+
+    @Nullable
+    @Override
+    public V get(K key) {
+        V value = delegate.get(key);
+        return nonNull(value) ? value : dirtyValue(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * If the deletion of the {@code key} has not been written yet, it is written before computing the value, so that
+     * the {@code mappingFunction} cannot read the deleted value.
+     */
+    @Override
+    public V get(K key, Function<? super K, ? extends V> mappingFunction) {
+        V dirtyValue = dirtyValue(key);
+        if (nonNull(dirtyValue)) {
+            return delegate.get(key, k -> dirtyValue);
+        }
+
+        writeDeletion(key);
+        return delegate.get(key, mappingFunction);
+    }
+
+    @Override
+    public void put(K key, V value) {
+        Preconditions.checkNotNull(value, "value");
+
+        store(key, value);
+        requestFlush();
+    }
+
+    @Override
+    public void putIfAbsent(K key, V value) {
+        Preconditions.checkNotNull(value, "value");
+
+        mapView.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> map) {
+        map.forEach(this::store);
+        requestFlush();
+    }
+
+    @Override
+    public void invalidate(K key) {
+        store(key, null);
+        requestFlush();
+    }
+
+    @Override
+    public void invalidateAll(Iterable<? extends K> keys) {
+        keys.forEach(k -> store(k, null));
+        requestFlush();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The dirty entries that have been evicted from the delegated cache are deleted as well.
+     */
+    @Override
+    public void invalidateAll() {
+        Set<K> keys = new LinkedHashSet<>(delegate.asMap().keySet());
+        keys.addAll(dirtyEntries.keySet());
+        invalidateAll(keys);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The entries are discarded by {@link #replaceAll(long, BiFunction)}, so that their deletion is written.
+     */
+    @Override
+    public long invalidateIf(@Nonnegative long parallelismThreshold, BiPredicate<? super K, ? super V> predicate) {
+        Preconditions.checkNotNull(predicate, "predicate");
+
+        LongAdder count = new LongAdder();
+        replaceAll(parallelismThreshold, (k, v) -> {
+            if (!predicate.test(k, v)) {
+                return v;
+            }
+            count.increment();
+            return null;
+        });
+        return count.sum();
+    }
+
+    @Override
+    public void replaceAll(@Nonnegative long parallelismThreshold, BiFunction<? super K, ? super V, ? extends V> function) {
+        Preconditions.checkNotNull(function, "function");
+
+        delegate.replaceAll(parallelismThreshold, (k, v) -> {
+            V newValue = function.apply(k, v);
+            if (newValue != v) {
+                setDirty(k, nonNull(newValue) ? newValue : DELETED);
+            }
+            return newValue;
+        });
+        requestFlush();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The modifications performed through the returned view are written as the other modifications of this cache.
+     */
+    @Nonnull
+    @Override
+    public ConcurrentMap<K, V> asMap() {
+        return mapView;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The dirty entries are flushed synchronously before closing the delegated cache.
+     */
+    @Override
+    public void close() {
+        flush();
+        delegate.close();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The dirty entries are flushed synchronously.
+     */
+    @Override
+    public void cleanUp() {
+        delegate.cleanUp();
+        flush();
+    }
+
+    /**
+     * Returns the dirty value associated with the {@code key}.
+     *
+     * @param key the key whose associated value is to be returned
+     *
+     * @return the value, or {@code null} if the key is not dirty or has been deleted
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private V dirtyValue(K key) {
+        Object value = dirtyEntries.get(key);
+        return value == DELETED ? null : (V) value;
+    }
+
+    /**
+     * Stores the {@code value} in the delegated cache, and marks the entry as dirty while computing it, without
+     * scheduling a flush.
+     *
+     * @param key   the key of the modified entry
+     * @param value the new value of the entry, or {@code null} to delete it
+     */
+    private void store(K key, @Nullable V value) {
+        delegate.asMap().compute(key, (k, v) -> {
+            setDirty(k, nonNull(value) ? value : DELETED);
+            return value;
+        });
+    }
+
+    /**
+     * Computes a new value for the {@code key} in the delegated cache, marks the entry as dirty while computing it if
+     * its value changes, and schedules a flush if necessary. The current value of an entry that has been evicted from
+     * the delegated cache is its dirty value.
+     *
+     * @param key      the key of the modified entry
+     * @param function the function to compute the new value from the current value, or {@code null} to delete it
+     *
+     * @return the new value, or {@code null} if there is none
+     */
+    @Nullable
+    private V update(K key, BiFunction<? super K, ? super V, ? extends V> function) {
+        V value = delegate.asMap().compute(key, (k, v) -> {
+            V currentValue = nonNull(v) ? v : dirtyValue(k);
+            V newValue = function.apply(k, currentValue);
+            if (newValue != currentValue) {
+                setDirty(k, nonNull(newValue) ? newValue : DELETED);
+            }
+            return newValue;
+        });
+        requestFlush();
+        return value;
+    }
+
+    /**
+     * Writes the deletion of the {@code key} synchronously, if it has not been written yet.
+     *
+     * @param key the key of the deleted entry
+     */
+    private void writeDeletion(K key) {
+        if (dirtyEntries.get(key) != DELETED) {
+            return;
+        }
+
+        synchronized (flushLock) {
+            if (dirtyEntries.remove(key, DELETED)) {
+                write(new LinkedHashMap<>(), Collections.singleton(key));
+            }
+        }
+    }
+
+    /**
+     * Marks the entry associated with the {@code key} as dirty, without scheduling a flush. This method may be called
+     * while computing the entry in the delegated cache.
+     *
+     * @param key   the key of the modified entry
+     * @param value the new value of the entry, or {@link #DELETED}
+     */
+    private void setDirty(K key, Object value) {
+        dirtyEntries.put(key, value);
+        if (!failedAttempts.isEmpty()) {
+            failedAttempts.remove(key);
+        }
+    }
+
+    /**
+     * Flushes the dirty entries in the current thread if a batch holds a single entry or if too many entries are
+     * dirty, on the executor if a batch is full, and schedules a delayed flush otherwise.
+     */
+    private void requestFlush() {
+        if (dirtyEntries.isEmpty()) {
+            return;
+        }
+
+        if (maximumBatchSize == 1 || dirtyEntries.size() >= maximumPendingSize) {
+            flush();
+        }
+        else if (dirtyEntries.size() >= maximumBatchSize) {
+            if (flushRequested.compareAndSet(false, true)) {
+                flushAsync();
+            }
+        }
+        else if (flushScheduled.compareAndSet(false, true)) {
+            SchedulerHolder.SCHEDULER.schedule(this::flushAsync, delayNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Flushes the dirty entries on the executor, or in the current thread if the executor has been shut down.
+     */
+    private void flushAsync() {
+        try {
+            executor.execute(this::flush);
+        }
+        catch (RejectedExecutionException e) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes all the dirty entries, by batches.
+     */
+    @SuppressWarnings("unchecked")
+    private void flush() {
+        flushScheduled.set(false);
+        flushRequested.set(false);
+
+        synchronized (flushLock) {
+            Map<K, V> writes = new LinkedHashMap<>();
+            Set<K> deletes = new LinkedHashSet<>();
+
+            for (Map.Entry<K, Object> e : dirtyEntries.entrySet()) {
+                K key = e.getKey();
+                Object value = e.getValue();
+                if (!dirtyEntries.remove(key, value)) {
+                    continue;
+                }
+
+                if (value == DELETED) {
+                    deletes.add(key);
+                }
+                else {
+                    writes.put(key, (V) value);
+                }
+
+                if (writes.size() + deletes.size() >= maximumBatchSize) {
+                    write(writes, deletes);
+                    writes.clear();
+                    deletes.clear();
+                }
+            }
+
+            write(writes, deletes);
+        }
+    }
+
+    /**
+     * Writes a batch of entries. If the writer fails, the entries are marked as dirty again, unless they have been
+     * modified in the meantime or have already been attempted {@value #MAXIMUM_ATTEMPTS} times.
+     *
+     * @param writes  the entries to write
+     * @param deletes the keys of the entries to delete
+     */
+    private void write(Map<K, V> writes, Set<K> deletes) {
+        try {
+            if (!writes.isEmpty()) {
+                writer.writeAll(writes);
+            }
+            if (!deletes.isEmpty()) {
+                writer.deleteAll(deletes);
+            }
+            if (!failedAttempts.isEmpty()) {
+                writes.keySet().forEach(failedAttempts::remove);
+                deletes.forEach(failedAttempts::remove);
+            }
+        }
+        catch (RuntimeException e) {
+            long discarded = writes.entrySet().stream().filter(en -> !retry(en.getKey(), en.getValue())).count()
+                    + deletes.stream().filter(k -> !retry(k, DELETED)).count();
+
+            Log.error(e, "Unable to write {0} cache entries, {1} of them are discarded after {2} attempts",
+                    writes.size() + deletes.size(), discarded, MAXIMUM_ATTEMPTS);
+
+            if (discarded < writes.size() + deletes.size() && flushScheduled.compareAndSet(false, true)) {
+                SchedulerHolder.SCHEDULER.schedule(this::flushAsync, delayNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * Marks an entry that could not be written as dirty again, unless it has been modified in the meantime or has
+     * already been attempted {@value #MAXIMUM_ATTEMPTS} times.
+     *
+     * @param key   the key of the entry
+     * @param value the value of the entry, or {@link #DELETED}
+     *
+     * @return {@code false} if the entry is discarded
+     */
+    private boolean retry(K key, Object value) {
+        if (failedAttempts.merge(key, 1, Integer::sum) >= MAXIMUM_ATTEMPTS) {
+            failedAttempts.remove(key);
+            return false;
+        }
+
+        if (nonNull(dirtyEntries.putIfAbsent(key, value))) {
+            failedAttempts.remove(key);
+        }
+        return true;
+    }
+
+    /**
+     * A {@link ConcurrentMap} view of this cache, which marks the modified entries as dirty. The operations on a single
+     * key are as atomic as in the delegated cache.
+     */
+    private final class MapView extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+
+        @Override
+        public int size() {
+            return delegate.asMap().size();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return delegate.asMap().containsKey(key);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V get(Object key) {
+            V value = delegate.asMap().get(key);
+            return nonNull(value) ? value : dirtyValue((K) key);
+        }
+
+        @Override
+        public V put(K key, V value) {
+            Preconditions.checkNotNull(value, "value");
+
+            AtomicReference<V> previousValue = new AtomicReference<>();
+            update(key, (k, v) -> {
+                previousValue.set(v);
+                return value;
+            });
+            return previousValue.get();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V remove(Object key) {
+            AtomicReference<V> previousValue = new AtomicReference<>();
+            update((K) key, (k, v) -> {
+                previousValue.set(v);
+                return null;
+            });
+            return previousValue.get();
+        }
+
+        @Override
+        public void clear() {
+            invalidateAll();
+        }
+
+        @Override
+        public V putIfAbsent(K key, V value) {
+            Preconditions.checkNotNull(value, "value");
+
+            AtomicReference<V> previousValue = new AtomicReference<>();
+            update(key, (k, v) -> {
+                previousValue.set(v);
+                return nonNull(v) ? v : value;
+            });
+            return previousValue.get();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean remove(Object key, Object value) {
+            AtomicBoolean removed = new AtomicBoolean();
+            update((K) key, (k, v) -> {
+                removed.set(nonNull(v) && v.equals(value));
+                return removed.get() ? null : v;
+            });
+            return removed.get();
+        }
+
+        @Override
+        public boolean replace(K key, V oldValue, V newValue) {
+            Preconditions.checkNotNull(newValue, "newValue");
+
+            AtomicBoolean replaced = new AtomicBoolean();
+            update(key, (k, v) -> {
+                replaced.set(nonNull(v) && v.equals(oldValue));
+                return replaced.get() ? newValue : v;
+            });
+            return replaced.get();
+        }
+
+        @Override
+        public V replace(K key, V value) {
+            Preconditions.checkNotNull(value, "value");
+
+            AtomicReference<V> previousValue = new AtomicReference<>();
+            update(key, (k, v) -> {
+                previousValue.set(v);
+                return nonNull(v) ? value : null;
+            });
+            return previousValue.get();
+        }
+
+        @Override
+        public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+            Preconditions.checkNotNull(mappingFunction, "mappingFunction");
+
+            return update(key, (k, v) -> nonNull(v) ? v : mappingFunction.apply(k));
+        }
+
+        @Override
+        public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+            Preconditions.checkNotNull(remappingFunction, "remappingFunction");
+
+            return update(key, (k, v) -> nonNull(v) ? remappingFunction.apply(k, v) : null);
+        }
+
+        @Override
+        public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+            Preconditions.checkNotNull(remappingFunction, "remappingFunction");
+
+            return update(key, remappingFunction);
+        }
+
+        @Override
+        public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+            Preconditions.checkNotNull(value, "value");
+            Preconditions.checkNotNull(remappingFunction, "remappingFunction");
+
+            return update(key, (k, v) -> nonNull(v) ? remappingFunction.apply(v, value) : value);
+        }
+
+        @Nonnull
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            return new AbstractSet<Entry<K, V>>() {
+                @Override
+                public int size() {
+                    return MapView.this.size();
+                }
+
+                @Override
+                public void clear() {
+                    invalidateAll();
+                }
+
+                @Nonnull
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    Iterator<Entry<K, V>> iterator = delegate.asMap().entrySet().iterator();
+
+                    return new Iterator<Entry<K, V>>() {
+
+                        /**
+                         * The last returned entry.
+                         */
+                        @Nullable
+                        private Entry<K, V> current;
+
+                        @Override
+                        public boolean hasNext() {
+                            return iterator.hasNext();
+                        }
+
+                        @Override
+                        public Entry<K, V> next() {
+                            Entry<K, V> entry = iterator.next();
+                            current = new SimpleImmutableEntry<>(entry.getKey(), entry.getValue());
+                            return current;
+                        }
+
+                        @Override
+                        public void remove() {
+                            Preconditions.checkState(nonNull(current), "next() has not been called");
+
+                            MapView.this.remove(current.getKey());
+                            current = null;
+                        }
+                    };
+                }
+            };
+        }
+    }
+
+    /**
+     * The initialization-on-demand holder of the scheduler of the delayed flushes.
+     */
+    @Static
+    private static final class SchedulerHolder {
+
+        /**
+         * The scheduler shared by all write-behind caches.
+         */
+        @Nonnull
+        static final ScheduledExecutorService SCHEDULER = MoreExecutors.newSingleThreadScheduledExecutor("cache-writer");
+    }
+}
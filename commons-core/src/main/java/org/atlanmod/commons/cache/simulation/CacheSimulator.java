@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache.simulation;
+
+import org.atlanmod.commons.Preconditions;
+import org.atlanmod.commons.Throwables;
+import org.atlanmod.commons.annotation.Static;
+import org.atlanmod.commons.cache.Cache;
+import org.atlanmod.commons.cache.CacheBuilder;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * Static utility methods to replay a {@link Trace} against a cache, and to measure its hit rate and throughput.
+ * <p>
+ * The caches are configured with a {@link CacheBuilder}, so the settings can be compared before being applied in
+ * production. The simulated cache maps each key of the trace to the weight of its access, so a cache bounded by weight
+ * is configured with:
+ * <pre>{@code
+ * CacheBuilder.builder().maximumWeight(maximumWeight, (Long key, Integer weight) -> weight)
+ * }</pre>
+ * Each access is replayed as a {@link Cache#get(Object)}, followed by a {@link Cache#put(Object, Object)} on a miss,
+ * each insertion as a {@link Cache#put(Object, Object)}, and each invalidation as a {@link Cache#invalidate(Object)}.
+ * The hit rate is computed over the accesses only.
+ * The accesses are replayed sequentially, in the calling thread. A least-recently-used policy can also be simulated, as
+ * a baseline for the caches built by {@link CacheBuilder}, which use the W-TinyLFU policy.
+ * <p>
+ * Caches built by {@link CacheBuilder} perform part of their maintenance on their executor: use {@code
+ * executor(Runnable::run)} to get reproducible hit rates.
+ */
+@Static
+@ParametersAreNonnullByDefault
+public final class CacheSimulator {
+
+    private CacheSimulator() {
+        throw Throwables.notInstantiableClass(getClass());
+    }
+
+    /**
+     * Replays the {@code trace} against a new cache built by the {@code builder}.
+     *
+     * @param trace   the trace to replay
+     * @param builder the builder of the cache
+     * @param name    the name of the simulated cache
+     *
+     * @return the report of the simulation
+     */
+    @Nonnull
+    public static SimulationReport simulate(Trace trace, CacheBuilder<Object, Object> builder, String name) {
+        Preconditions.checkNotNull(builder, "builder");
+
+        return simulate(trace, builder.<Long, Integer>build(), name);
+    }
+
+    /**
+     * Replays the {@code trace} against the {@code cache}.
+     *
+     * @param trace the trace to replay
+     * @param cache the cache, mapping each key to the weight of its access
+     * @param name  the name of the simulated cache
+     *
+     * @return the report of the simulation
+     */
+    @Nonnull
+    public static SimulationReport simulate(Trace trace, Cache<Long, Integer> cache, String name) {
+        Preconditions.checkNotNull(cache, "cache");
+
+        return replay(trace, new Policy() {
+            @Override
+            public boolean access(long key, int weight) {
+                if (nonNull(cache.get(key))) {
+                    return true;
+                }
+                cache.put(key, weight);
+                return false;
+            }
+
+            @Override
+            public void invalidate(long key) {
+                cache.invalidate(key);
+            }
+
+            @Override
+            public void insert(long key, int weight) {
+                cache.put(key, weight);
+            }
+        }, name);
+    }
+
+    /**
+     * Replays the {@code trace} against a least-recently-used cache, bounded by the number of its entries.
+     *
+     * @param trace       the trace to replay
+     * @param maximumSize the maximum number of entries the cache may contain
+     *
+     * @return the report of the simulation
+     */
+    @Nonnull
+    public static SimulationReport simulateLru(Trace trace, @Nonnegative long maximumSize) {
+        Preconditions.checkGreaterThanOrEqualTo(maximumSize, 0L, "maximumSize (%d) must not be negative", maximumSize);
+
+        return replay(trace, new LruPolicy(maximumSize, true), "LRU");
+    }
+
+    /**
+     * Replays the {@code trace} against a least-recently-used cache, bounded by the total weight of its entries.
+     *
+     * @param trace         the trace to replay
+     * @param maximumWeight the maximum total weight of entries the cache may contain
+     *
+     * @return the report of the simulation
+     */
+    @Nonnull
+    public static SimulationReport simulateWeightedLru(Trace trace, @Nonnegative long maximumWeight) {
+        Preconditions.checkGreaterThanOrEqualTo(maximumWeight, 0L, "maximumWeight (%d) must not be negative", maximumWeight);
+
+        return replay(trace, new LruPolicy(maximumWeight, false), "Weighted LRU");
+    }
+
+    /**
+     * Replays the {@code trace} against the {@code policy}.
+     *
+     * @param trace  the trace to replay
+     * @param policy the simulated policy
+     * @param name   the name of the simulated cache
+     *
+     * @return the report of the simulation
+     */
+    @Nonnull
+    private static SimulationReport replay(Trace trace, Policy policy, String name) {
+        Preconditions.checkNotNull(trace, "trace");
+        Preconditions.checkNotNull(name, "name");
+
+        int size = trace.size();
+        long accessCount = 0;
+        long hitCount = 0;
+
+        long start = System.nanoTime();
+        for (int i = 0; i < size; i++) {
+            if (trace.isInvalidation(i)) {
+                policy.invalidate(trace.key(i));
+            }
+            else if (trace.isInsertion(i)) {
+                policy.insert(trace.key(i), trace.weight(i));
+            }
+            else {
+                accessCount++;
+                if (policy.access(trace.key(i), trace.weight(i))) {
+                    hitCount++;
+                }
+            }
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        return new SimulationReport(name, accessCount, hitCount, elapsedNanos);
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache.simulation;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * A least-recently-used {@link Policy}, bounded by the total weight of its entries. A policy bounded by size is a
+ * policy where each entry weighs {@code 1}.
+ */
+@NotThreadSafe
+@ParametersAreNonnullByDefault
+final class LruPolicy implements Policy {
+
+    /**
+     * The weights of the entries, from the least to the most recently used.
+     */
+    @Nonnull
+    private final LinkedHashMap<Long, Integer> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * The maximum total weight of the entries.
+     */
+    @Nonnegative
+    private final long maximumWeight;
+
+    /**
+     * Whether the weights of the accesses are ignored.
+     */
+    private final boolean unweighted;
+
+    /**
+     * The current total weight of the entries.
+     */
+    @Nonnegative
+    private long weightedSize;
+
+    /**
+     * Constructs a new {@code LruPolicy}.
+     *
+     * @param maximumWeight the maximum total weight of the entries
+     * @param unweighted    {@code true} if each entry weighs {@code 1}
+     */
+    LruPolicy(@Nonnegative long maximumWeight, boolean unweighted) {
+        this.maximumWeight = maximumWeight;
+        this.unweighted = unweighted;
+    }
+
+    @Override
+    public boolean access(long key, @Nonnegative int weight) {
+        if (nonNull(entries.get(key))) {
+            return true;
+        }
+
+        int entryWeight = unweighted ? 1 : weight;
+        if (entryWeight > maximumWeight) {
+            return false;
+        }
+
+        entries.put(key, entryWeight);
+        weightedSize += entryWeight;
+
+        Iterator<Map.Entry<Long, Integer>> iterator = entries.entrySet().iterator();
+        while (weightedSize > maximumWeight) {
+            weightedSize -= iterator.next().getValue();
+            iterator.remove();
+        }
+        return false;
+    }
+
+    @Override
+    public void invalidate(long key) {
+        Integer entryWeight = entries.remove(key);
+        if (nonNull(entryWeight)) {
+            weightedSize -= entryWeight;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache.simulation;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * A cache replacement policy, driven by the {@link CacheSimulator}.
+ */
+@FunctionalInterface
+@ParametersAreNonnullByDefault
+interface Policy {
+
+    /**
+     * Records an access to the {@code key}, and admits the key if it is not present.
+     *
+     * @param key    the accessed key
+     * @param weight the weight of the access
+     *
+     * @return {@code true} if the key was present (a hit)
+     */
+    boolean access(long key, @Nonnegative int weight);
+
+    /**
+     * Removes the {@code key}, if present. By default, the invalidations are ignored.
+     *
+     * @param key the invalidated key
+     */
+    default void invalidate(long key) {
+        // Do nothing
+    }
+
+    /**
+     * Stores the {@code key}, without counting an access. By default, the insertion is performed as an access whose
+     * result is ignored.
+     *
+     * @param key    the inserted key
+     * @param weight the weight of the insertion
+     */
+    default void insert(long key, @Nonnegative int weight) {
+        access(key, weight);
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache.simulation;
+
+import org.atlanmod.commons.Preconditions;
+
+import java.time.Duration;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * The result of the replay of a {@link Trace} by the {@link CacheSimulator}.
+ */
+@Immutable
+@ParametersAreNonnullByDefault
+public final class SimulationReport {
+
+    /**
+     * The name of the simulated cache.
+     */
+    @Nonnull
+    private final String name;
+
+    /**
+     * The number of replayed accesses.
+     */
+    @Nonnegative
+    private final long requestCount;
+
+    /**
+     * The number of accesses that found their key in the cache.
+     */
+    @Nonnegative
+    private final long hitCount;
+
+    /**
+     * The duration of the replay, in nanoseconds.
+     */
+    @Nonnegative
+    private final long elapsedNanos;
+
+    /**
+     * Constructs a new {@code SimulationReport}.
+     *
+     * @param name         the name of the simulated cache
+     * @param requestCount the number of replayed accesses
+     * @param hitCount     the number of accesses that found their key in the cache
+     * @param elapsedNanos the duration of the replay, in nanoseconds
+     */
+    SimulationReport(String name, @Nonnegative long requestCount, @Nonnegative long hitCount, @Nonnegative long elapsedNanos) {
+        this.name = Preconditions.checkNotNull(name, "name");
+        this.requestCount = requestCount;
+        this.hitCount = hitCount;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Returns the name of the simulated cache.
+     *
+     * @return the name
+     */
+    @Nonnull
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Returns the number of replayed accesses.
+     *
+     * @return the number of accesses
+     */
+    @Nonnegative
+    public long requestCount() {
+        return requestCount;
+    }
+
+    /**
+     * Returns the number of accesses that found their key in the cache.
+     *
+     * @return the number of hits
+     */
+    @Nonnegative
+    public long hitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of accesses that did not find their key in the cache.
+     *
+     * @return the number of misses
+     */
+    @Nonnegative
+    public long missCount() {
+        return requestCount - hitCount;
+    }
+
+    /**
+     * Returns the ratio of accesses that were hits, or {@code 1.0} if the trace is empty.
+     *
+     * @return the hit rate
+     */
+    @Nonnegative
+    public double hitRate() {
+        return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+    }
+
+    /**
+     * Returns the ratio of accesses that were misses, or {@code 0.0} if the trace is empty.
+     *
+     * @return the miss rate
+     */
+    @Nonnegative
+    public double missRate() {
+        return requestCount == 0 ? 0.0 : (double) missCount() / requestCount;
+    }
+
+    /**
+     * Returns the duration of the replay, including the time spent to admit the missing keys.
+     *
+     * @return the duration
+     */
+    @Nonnull
+    public Duration elapsed() {
+        return Duration.ofNanos(elapsedNanos);
+    }
+
+    /**
+     * Returns the number of accesses replayed per second.
+     *
+     * @return the throughput
+     */
+    @Nonnegative
+    public double throughput() {
+        return elapsedNanos == 0 ? 0.0 : requestCount * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s {"
+                        + "Hit Rate = %.2f%%, "
+                        + "Requests = %d, "
+                        + "Throughput = %.0f ops/s"
+                        + '}',
+                name,
+                hitRate() * 100,
+                requestCount,
+                throughput());
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache.simulation;
+
+import org.atlanmod.commons.Preconditions;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * A sequence of accesses to a cache, replayed by the {@link CacheSimulator}.
+ * <p>
+ * Each access is identified by a {@code long} key, such as the hash code of the actual key, and has a weight, such as
+ * the size of the accessed value. A trace can also contain invalidations, which remove a key from the simulated cache,
+ * and insertions, which store a key with a weight of {@code 1} without being counted as accesses. A trace file starts
+ * with the magic number {@code 0x41545231}, followed by fixed-size records {@code [long key][int weight]} in big-endian
+ * order, where a weight of {@code -1} denotes an invalidation and a weight of {@code -2} an insertion. Trace files are
+ * written with a {@link TraceWriter}.
+ * <p>
+ * A trace is entirely loaded in memory, so that the replay does not measure the time spent reading the file.
+ */
+@Immutable
+@ParametersAreNonnullByDefault
+public final class Trace {
+
+    /**
+     * The magic number identifying the trace files.
+     */
+    static final int MAGIC = 0x41545231;
+
+    /**
+     * The size of a record, in bytes.
+     */
+    static final int RECORD_SIZE = Long.BYTES + Integer.BYTES;
+
+    /**
+     * The weight of the records that denote an invalidation.
+     */
+    static final int INVALIDATION = -1;
+
+    /**
+     * The weight of the records that denote an insertion.
+     */
+    static final int INSERTION = -2;
+
+    /**
+     * The size of the buffer used to read the files.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The accessed keys.
+     */
+    @Nonnull
+    private final long[] keys;
+
+    /**
+     * The weights of the accesses, {@link #INVALIDATION} or {@link #INSERTION}.
+     */
+    @Nonnull
+    private final int[] weights;
+
+    /**
+     * Constructs a new {@code Trace}.
+     *
+     * @param keys    the accessed keys
+     * @param weights the weights of the accesses
+     */
+    private Trace(long[] keys, int[] weights) {
+        this.keys = keys;
+        this.weights = weights;
+    }
+
+    /**
+     * Creates a new trace where all accesses have a weight of {@code 1}.
+     *
+     * @param keys the accessed keys
+     *
+     * @return a new trace
+     */
+    @Nonnull
+    public static Trace of(long... keys) {
+        Preconditions.checkNotNull(keys, "keys");
+
+        int[] weights = new int[keys.length];
+        Arrays.fill(weights, 1);
+        return new Trace(keys.clone(), weights);
+    }
+
+    /**
+     * Creates a new trace.
+     *
+     * @param keys    the accessed keys
+     * @param weights the weights of the accesses
+     *
+     * @return a new trace
+     *
+     * @throws IllegalArgumentException if the arrays do not have the same length, or if a weight is negative
+     */
+    @Nonnull
+    public static Trace of(long[] keys, int[] weights) {
+        Preconditions.checkNotNull(keys, "keys");
+        Preconditions.checkNotNull(weights, "weights");
+        Preconditions.checkArgument(keys.length == weights.length, "keys and weights must have the same length");
+        Preconditions.checkArgument(Arrays.stream(weights).allMatch(w -> w >= 0), "weights must not be negative");
+
+        return new Trace(keys.clone(), weights.clone());
+    }
+
+    /**
+     * Reads a trace file.
+     *
+     * @param file the file to read
+     *
+     * @return a new trace
+     *
+     * @throws IOException if an I/O error occurs, or if the file is not a complete trace
+     */
+    @Nonnull
+    public static Trace read(Path file) throws IOException {
+        Preconditions.checkNotNull(file, "file");
+
+        long recordsSize = Files.size(file) - Integer.BYTES;
+        if (recordsSize < 0 || recordsSize % RECORD_SIZE != 0 || recordsSize / RECORD_SIZE > Integer.MAX_VALUE) {
+            throw new IOException(String.format("%s is not a complete trace", file));
+        }
+
+        int size = (int) (recordsSize / RECORD_SIZE);
+        long[] keys = new long[size];
+        int[] weights = new int[size];
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(String.format("%s is not a trace", file));
+            }
+
+            for (int i = 0; i < size; i++) {
+                keys[i] = in.readLong();
+                weights[i] = in.readInt();
+                if (weights[i] < 0 && weights[i] != INVALIDATION && weights[i] != INSERTION) {
+                    throw new IOException(String.format("Invalid weight at access %d: %d", i, weights[i]));
+                }
+            }
+        }
+
+        return new Trace(keys, weights);
+    }
+
+    /**
+     * Writes this trace in a file.
+     *
+     * @param file the file to write
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void write(Path file) throws IOException {
+        try (TraceWriter writer = new TraceWriter(file)) {
+            for (int i = 0; i < keys.length; i++) {
+                if (weights[i] == INVALIDATION) {
+                    writer.writeInvalidation(keys[i]);
+                }
+                else if (weights[i] == INSERTION) {
+                    writer.writeInsertion(keys[i]);
+                }
+                else {
+                    writer.write(keys[i], weights[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of records in this trace, accesses, invalidations and insertions included.
+     *
+     * @return the number of records
+     */
+    @Nonnegative
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * Returns the key of the record at the given {@code index}.
+     *
+     * @param index the index of the record
+     *
+     * @return the key
+     */
+    public long key(@Nonnegative int index) {
+        return keys[index];
+    }
+
+    /**
+     * Returns the weight of the access at the given {@code index}.
+     *
+     * @param index the index of the record
+     *
+     * @return the weight, {@code 1} if the record is an insertion, or {@code 0} if the record is an invalidation
+     */
+    @Nonnegative
+    public int weight(@Nonnegative int index) {
+        return weights[index] == INSERTION ? 1 : Math.max(0, weights[index]);
+    }
+
+    /**
+     * Checks whether the record at the given {@code index} is an invalidation.
+     *
+     * @param index the index of the record
+     *
+     * @return {@code true} if the record is an invalidation
+     */
+    public boolean isInvalidation(@Nonnegative int index) {
+        return weights[index] == INVALIDATION;
+    }
+
+    /**
+     * Checks whether the record at the given {@code index} is an insertion.
+     *
+     * @param index the index of the record
+     *
+     * @return {@code true} if the record is an insertion
+     */
+    public boolean isInsertion(@Nonnegative int index) {
+        return weights[index] == INSERTION;
+    }
+
+    /**
+     * Returns the number of distinct keys in this trace.
+     *
+     * @return the number of distinct keys
+     */
+    @Nonnegative
+    public long distinctKeys() {
+        return Arrays.stream(keys).distinct().count();
+    }
+}
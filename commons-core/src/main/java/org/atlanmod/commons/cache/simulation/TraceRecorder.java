@@ -0,0 +1,482 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache.simulation;
+
+import org.atlanmod.commons.Preconditions;
+import org.atlanmod.commons.cache.Cache;
+import org.atlanmod.commons.cache.ForwardingCache;
+import org.atlanmod.commons.concurrent.MoreExecutors;
+import org.atlanmod.commons.log.Log;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * A recorder of the accesses to caches, which writes them to a trace file that can be replayed by the {@link
+ * CacheSimulator}.
+ * <p>
+ * The events of a recorded cache are identified by the {@link Object#hashCode()} of their key. Lookups are recorded as
+ * accesses, insertions as insertions, which do not count in the hit rate of a replay, and invalidations of specific
+ * keys as invalidations. The events are pushed into a bounded
+ * lock-free ring buffer, which is drained to the file by a background thread at a fixed interval. Recording an event
+ * costs a compare-and-set and does not allocate; when the buffer is full, the event is dropped rather than blocking
+ * the caller, so the recorder can be left enabled in production.
+ * <pre>{@code
+ * TraceRecorder recorder = new TraceRecorder(file, 1 << 16, Duration.ofSeconds(1));
+ * Cache<K, V> cache = recorder.record(CacheBuilder.builder().maximumSize(10_000).build());
+ * ...
+ * recorder.close();
+ * SimulationReport report = CacheSimulator.simulateLru(Trace.read(file), 10_000);
+ * }</pre>
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+public final class TraceRecorder implements Closeable {
+
+    /**
+     * The ring buffer of the pending events.
+     */
+    @Nonnull
+    private final RingBuffer buffer;
+
+    /**
+     * The writer of the trace file.
+     */
+    @Nonnull
+    @GuardedBy("writer")
+    private final TraceWriter writer;
+
+    /**
+     * The executor that drains the buffer periodically.
+     */
+    @Nonnull
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Whether this recorder is closed.
+     */
+    @Nonnull
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    /**
+     * Constructs a new {@code TraceRecorder}. The {@code file} is created, or truncated if it already exists.
+     *
+     * @param file          the trace file to write
+     * @param capacity      the maximum number of pending events, rounded up to the next power of two
+     * @param flushInterval the interval between two writings of the pending events
+     *
+     * @throws IOException              if the file cannot be created
+     * @throws IllegalArgumentException if {@code capacity} or {@code flushInterval} is not positive
+     */
+    public TraceRecorder(Path file, @Nonnegative int capacity, Duration flushInterval) throws IOException {
+        Preconditions.checkNotNull(file, "file");
+        Preconditions.checkArgument(capacity > 0 && capacity <= 1 << 30, "capacity (%d) must be between 1 and 2^30", capacity);
+        Preconditions.checkNotNull(flushInterval, "flushInterval");
+        Preconditions.checkArgument(!flushInterval.isNegative() && !flushInterval.isZero(), "flushInterval (%s) must be positive", flushInterval);
+
+        this.buffer = new RingBuffer(capacity);
+        this.writer = new TraceWriter(file);
+        this.scheduler = MoreExecutors.newSingleThreadScheduledExecutor("trace-recorder");
+
+        long intervalNanos = flushInterval.toNanos();
+        scheduler.scheduleWithFixedDelay(this::drainQuietly, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns a view of the {@code cache} that records its accesses in this recorder. The accesses made directly to the
+     * {@code cache}, or through {@link Cache#asMap()}, are not recorded; {@link Cache#invalidateAll()} is not recorded
+     * either, since its keys are unknown.
+     *
+     * @param cache the cache to record
+     * @param <K>   the type of keys maintained by the cache
+     * @param <V>   the type of mapped values
+     *
+     * @return a recorded cache
+     */
+    @Nonnull
+    public <K, V> Cache<K, V> record(Cache<K, V> cache) {
+        Preconditions.checkNotNull(cache, "cache");
+
+        return new RecordingCache<>(cache);
+    }
+
+    /**
+     * Returns the number of recorded events, including those that are not written yet.
+     *
+     * @return the number of events
+     */
+    @Nonnegative
+    public long recordedCount() {
+        return buffer.recordedCount();
+    }
+
+    /**
+     * Returns the number of events that have been dropped because the buffer was full.
+     *
+     * @return the number of events
+     */
+    @Nonnegative
+    public long droppedCount() {
+        return buffer.droppedCount();
+    }
+
+    /**
+     * Writes the pending events to the file.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void flush() throws IOException {
+        synchronized (writer) {
+            buffer.drainTo(writer);
+            writer.flush();
+        }
+    }
+
+    /**
+     * Stops recording, and writes the pending events before closing the file. The events recorded after this call are
+     * dropped.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed.compareAndSet(false, true)) {
+            MoreExecutors.shutdown(scheduler, 1, TimeUnit.SECONDS);
+
+            synchronized (writer) {
+                buffer.drainTo(writer);
+                writer.close();
+            }
+        }
+    }
+
+    /**
+     * Records an access to the {@code key}.
+     *
+     * @param key the accessed key
+     */
+    private void recordAccess(@Nullable Object key) {
+        record(key, RingBuffer.ACCESS);
+    }
+
+    /**
+     * Records an insertion of the {@code key}.
+     *
+     * @param key the inserted key
+     */
+    private void recordInsertion(@Nullable Object key) {
+        record(key, RingBuffer.INSERTION);
+    }
+
+    /**
+     * Records an invalidation of the {@code key}.
+     *
+     * @param key the invalidated key
+     */
+    private void recordInvalidation(@Nullable Object key) {
+        record(key, RingBuffer.INVALIDATION);
+    }
+
+    /**
+     * Records an event on the {@code key}.
+     *
+     * @param key  the key of the event
+     * @param type the type of the event
+     */
+    private void record(@Nullable Object key, int type) {
+        if (!closed.get() && nonNull(key)) {
+            buffer.offer(key.hashCode(), type);
+        }
+    }
+
+    /**
+     * Writes the pending events to the file, and logs the errors instead of propagating them.
+     */
+    private void drainQuietly() {
+        try {
+            flush();
+        }
+        catch (IOException e) {
+            Log.error(e, "Unable to write the cache trace");
+        }
+    }
+
+    /**
+     * A bounded multi-producer single-consumer queue of events, where each slot carries a sequence number that tells
+     * whether it can be written or read.
+     * <p>
+     * A slot at position {@code p} is free when its sequence is {@code p}, and holds an event when its sequence is
+     * {@code p + 1}. Producers claim a position with a compare-and-set on the tail, write the event, then publish it by
+     * updating the sequence of the slot; the consumer releases a slot by setting its sequence to the position of the
+     * next round.
+     */
+    @ThreadSafe
+    private static final class RingBuffer {
+
+        /**
+         * The type of the access events.
+         */
+        static final int ACCESS = 0;
+
+        /**
+         * The type of the invalidation events.
+         */
+        static final int INVALIDATION = 1;
+
+        /**
+         * The type of the insertion events.
+         */
+        static final int INSERTION = 2;
+
+        /**
+         * The mask of the positions, the capacity being a power of two.
+         */
+        private final int mask;
+
+        /**
+         * The sequences of the slots.
+         */
+        @Nonnull
+        private final AtomicLongArray sequences;
+
+        /**
+         * The events of the slots: the key hash in the high 32 bits, and the type of the event in the low bits. Written
+         * before the publication of the slot, and read after it.
+         */
+        @Nonnull
+        private final long[] events;
+
+        /**
+         * The next position to claim by a producer.
+         */
+        @Nonnull
+        private final AtomicLong tail = new AtomicLong();
+
+        /**
+         * The next position to read by the consumer.
+         */
+        @GuardedBy("writer")
+        private long head;
+
+        /**
+         * The number of recorded events.
+         */
+        @Nonnull
+        private final LongAdder recordedCount = new LongAdder();
+
+        /**
+         * The number of dropped events.
+         */
+        @Nonnull
+        private final LongAdder droppedCount = new LongAdder();
+
+        /**
+         * Constructs a new {@code RingBuffer}.
+         *
+         * @param capacity the minimum number of slots
+         */
+        RingBuffer(@Nonnegative int capacity) {
+            int size = Integer.highestOneBit(capacity - 1) << 1;
+            size = Math.max(size, 1);
+
+            this.mask = size - 1;
+            this.sequences = new AtomicLongArray(size);
+            this.events = new long[size];
+            for (int i = 0; i < size; i++) {
+                sequences.lazySet(i, i);
+            }
+        }
+
+        /**
+         * Appends an event, or drops it if the buffer is full.
+         *
+         * @param hash the hash of the key
+         * @param type the type of the event
+         */
+        void offer(int hash, int type) {
+            long event = (long) hash << Integer.SIZE | type;
+
+            while (true) {
+                long position = tail.get();
+                int index = (int) position & mask;
+                long difference = sequences.get(index) - position;
+
+                if (difference == 0) {
+                    if (tail.compareAndSet(position, position + 1)) {
+                        events[index] = event;
+                        sequences.lazySet(index, position + 1);
+                        recordedCount.increment();
+                        return;
+                    }
+                }
+                else if (difference < 0) {
+                    droppedCount.increment();
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Writes the published events to the {@code writer}. Must be called by a single thread at a time.
+         *
+         * @param writer the writer of the trace
+         *
+         * @throws IOException if an I/O error occurs
+         */
+        void drainTo(TraceWriter writer) throws IOException {
+            while (true) {
+                int index = (int) head & mask;
+                if (sequences.get(index) != head + 1) {
+                    return;
+                }
+
+                long event = events[index];
+                sequences.lazySet(index, head + mask + 1);
+                head++;
+
+                long key = event >> Integer.SIZE;
+                int type = (int) event;
+                if (type == INVALIDATION) {
+                    writer.writeInvalidation(key);
+                }
+                else if (type == INSERTION) {
+                    writer.writeInsertion(key);
+                }
+                else {
+                    writer.write(key);
+                }
+            }
+        }
+
+        /**
+         * Returns the number of recorded events.
+         *
+         * @return the number of events
+         */
+        @Nonnegative
+        long recordedCount() {
+            return recordedCount.sum();
+        }
+
+        /**
+         * Returns the number of dropped events.
+         *
+         * @return the number of events
+         */
+        @Nonnegative
+        long droppedCount() {
+            return droppedCount.sum();
+        }
+    }
+
+    /**
+     * A {@link Cache} that records its accesses in this recorder.
+     *
+     * @param <K> the type of keys maintained by this cache
+     * @param <V> the type of mapped values
+     */
+    private final class RecordingCache<K, V> extends ForwardingCache<K, V> {
+
+        /**
+         * The recorded cache.
+         */
+        @Nonnull
+        private final Cache<K, V> delegate;
+
+        /**
+         * Constructs a new {@code RecordingCache}.
+         *
+         * @param delegate the recorded cache
+         */
+        RecordingCache(Cache<K, V> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Nonnull
+        @Override
+        protected Cache<K, V> delegate() {
+            return delegate;
+        }
+
+        @Nullable
+        @Override
+        public V get(K key) {
+            recordAccess(key);
+            return delegate.get(key);
+        }
+
+        @Override
+        public V get(K key, Function<? super K, ? extends V> mappingFunction) {
+            recordAccess(key);
+            return delegate.get(key, mappingFunction);
+        }
+
+        @Nonnull
+        @Override
+        public Map<K, V> getAll(Iterable<? extends K> keys) {
+            Preconditions.checkNotNull(keys, "keys");
+
+            keys.forEach(TraceRecorder.this::recordAccess);
+            return delegate.getAll(keys);
+        }
+
+        @Override
+        public void put(K key, V value) {
+            recordInsertion(key);
+            delegate.put(key, value);
+        }
+
+        @Override
+        public void putIfAbsent(K key, V value) {
+            recordInsertion(key);
+            delegate.putIfAbsent(key, value);
+        }
+
+        @Override
+        public void putAll(Map<? extends K, ? extends V> map) {
+            Preconditions.checkNotNull(map, "map");
+
+            map.keySet().forEach(TraceRecorder.this::recordInsertion);
+            delegate.putAll(map);
+        }
+
+        @Override
+        public void invalidate(K key) {
+            recordInvalidation(key);
+            delegate.invalidate(key);
+        }
+
+        @Override
+        public void invalidateAll(Iterable<? extends K> keys) {
+            Preconditions.checkNotNull(keys, "keys");
+
+            keys.forEach(TraceRecorder.this::recordInvalidation);
+            delegate.invalidateAll(keys);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache.simulation;
+
+import org.atlanmod.commons.Preconditions;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * A writer of trace files, which can be read with {@link Trace#read(Path)}. The accesses are streamed to the file, so
+ * the memory used does not depend on the length of the trace.
+ */
+@NotThreadSafe
+@ParametersAreNonnullByDefault
+public final class TraceWriter implements Closeable {
+
+    /**
+     * The size of the buffer used to write the file.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The output stream of the file.
+     */
+    @Nonnull
+    private final DataOutputStream out;
+
+    /**
+     * Constructs a new {@code TraceWriter}. The {@code file} is created, or truncated if it already exists.
+     *
+     * @param file the file to write
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public TraceWriter(Path file) throws IOException {
+        Preconditions.checkNotNull(file, "file");
+
+        out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE));
+        out.writeInt(Trace.MAGIC);
+    }
+
+    /**
+     * Appends an access with a weight of {@code 1}.
+     *
+     * @param key the accessed key
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void write(long key) throws IOException {
+        write(key, 1);
+    }
+
+    /**
+     * Appends an access.
+     *
+     * @param key    the accessed key
+     * @param weight the weight of the access
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void write(long key, @Nonnegative int weight) throws IOException {
+        Preconditions.checkGreaterThanOrEqualTo(weight, 0, "weight (%d) must not be negative", weight);
+
+        out.writeLong(key);
+        out.writeInt(weight);
+    }
+
+    /**
+     * Appends an invalidation.
+     *
+     * @param key the invalidated key
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeInvalidation(long key) throws IOException {
+        out.writeLong(key);
+        out.writeInt(Trace.INVALIDATION);
+    }
+
+    /**
+     * Appends an insertion, which stores the key with a weight of {@code 1} without being counted as an access.
+     *
+     * @param key the inserted key
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeInsertion(long key) throws IOException {
+        out.writeLong(key);
+        out.writeInt(Trace.INSERTION);
+    }
+
+    /**
+     * Writes the buffered records to the file.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -17,6 +17,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Nonnull;
@@ -118,6 +119,59 @@ public final class MoreExecutors {
         return shutdownAtExit(service, 100, TimeUnit.MILLISECONDS, true);
     }
 
+    /**
+     * Creates a new {@link ExecutorService} that creates new threads as needed, and reuses previously constructed
+     * threads when they are available. This pool is suitable for many short-lived and blocking tasks, such as I/O.
+     * The service will be closed when the application will exit.
+     *
+     * @return a new service
+     *
+     * @see #newCachedThreadPool(String)
+     */
+    @Nonnull
+    public static ExecutorService newCachedThreadPool() {
+        return newCachedThreadPool(null);
+    }
+
+    /**
+     * Creates a new {@link ExecutorService} that creates new threads as needed, and reuses previously constructed
+     * threads when they are available. This pool is suitable for many short-lived and blocking tasks, such as I/O.
+     * The service will be closed when the application will exit.
+     *
+     * @param name the name of the pool
+     *
+     * @return a new service
+     *
+     * @see Executors#newCachedThreadPool()
+     * @see MoreThreads#newThreadFactory()
+     * @see #shutdownAtExit(ExecutorService, long, TimeUnit, boolean)
+     */
+    @Nonnull
+    public static ExecutorService newCachedThreadPool(@Nullable String name) {
+        ExecutorService service = Executors.newCachedThreadPool(MoreThreads.newThreadFactory(name));
+        return shutdownAtExit(service, 100, TimeUnit.MILLISECONDS, true);
+    }
+
+    /**
+     * Creates a new {@link ScheduledExecutorService} that executes delayed tasks in a single thread. The service will
+     * be closed when the application will exit; the delayed tasks that are still pending are then executed
+     * immediately.
+     *
+     * @param name the name of the pool
+     *
+     * @return a new service
+     *
+     * @see Executors#newSingleThreadScheduledExecutor()
+     * @see MoreThreads#newThreadFactory()
+     * @see #shutdownAtExit(ExecutorService, long, TimeUnit, boolean)
+     */
+    @Nonnull
+    public static ScheduledExecutorService newSingleThreadScheduledExecutor(@Nullable String name) {
+        ScheduledExecutorService service = Executors.newSingleThreadScheduledExecutor(MoreThreads.newThreadFactory(name));
+        shutdownAtExit(service, 100, TimeUnit.MILLISECONDS, true);
+        return service;
+    }
+
     /**
      * Cleanly closes the {@code service}.
      *
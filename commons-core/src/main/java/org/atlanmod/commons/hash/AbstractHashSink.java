@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import org.atlanmod.commons.Preconditions;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * A {@link HashSink} that encodes the values into bytes, and delegates the hashing of the bytes to its subclasses.
+ * <p>
+ * The values are encoded in one of the two encodings of the {@link Hasher}s: in {@link ByteOrder#BIG_ENDIAN} order, the
+ * encoding of the default methods of {@link Hasher} (strings in UTF-8, canonical floating-point bits); in {@link
+ * ByteOrder#LITTLE_ENDIAN} order, the encoding of {@link ZeroAllocationHasher} (strings in UTF-16, raw floating-point
+ * bits).
+ */
+@NotThreadSafe
+@ParametersAreNonnullByDefault
+abstract class AbstractHashSink implements HashSink {
+
+    /**
+     * The buffer used to encode the primitive values.
+     */
+    @Nonnull
+    private final ByteBuffer scratch;
+
+    /**
+     * The charset used to encode the strings.
+     */
+    @Nonnull
+    private final Charset charset;
+
+    /**
+     * Whether the floating-point values are encoded with their raw bits.
+     */
+    private final boolean rawFloatingPointBits;
+
+    /**
+     * Whether the hash code has already been calculated.
+     */
+    private boolean hashed;
+
+    /**
+     * Constructs a new {@code AbstractHashSink}.
+     *
+     * @param order the byte order of the encoding
+     */
+    protected AbstractHashSink(ByteOrder order) {
+        this.scratch = ByteBuffer.allocate(Long.BYTES).order(order);
+        this.charset = order == ByteOrder.BIG_ENDIAN ? StandardCharsets.UTF_8 : StandardCharsets.UTF_16LE;
+        this.rawFloatingPointBits = order == ByteOrder.LITTLE_ENDIAN;
+    }
+
+    @Nonnull
+    @Override
+    public HashSink putByte(byte data) {
+        scratch.put(data);
+        return flushScratch();
+    }
+
+    @Nonnull
+    @Override
+    public HashSink putBoolean(boolean data) {
+        return putByte(data ? (byte) 1 : (byte) 0);
+    }
+
+    @Nonnull
+    @Override
+    public HashSink putChar(char data) {
+        scratch.putChar(data);
+        return flushScratch();
+    }
+
+    @Nonnull
+    @Override
+    public HashSink putShort(short data) {
+        scratch.putShort(data);
+        return flushScratch();
+    }
+
+    @Nonnull
+    @Override
+    public HashSink putInt(int data) {
+        scratch.putInt(data);
+        return flushScratch();
+    }
+
+    @Nonnull
+    @Override
+    public HashSink putLong(long data) {
+        scratch.putLong(data);
+        return flushScratch();
+    }
+
+    @Nonnull
+    @Override
+    public HashSink putFloat(float data) {
+        return putInt(rawFloatingPointBits ? Float.floatToRawIntBits(data) : Float.floatToIntBits(data));
+    }
+
+    @Nonnull
+    @Override
+    public HashSink putDouble(double data) {
+        return putLong(rawFloatingPointBits ? Double.doubleToRawLongBits(data) : Double.doubleToLongBits(data));
+    }
+
+    @Nonnull
+    @Override
+    public HashSink putString(String data) {
+        Preconditions.checkNotNull(data, "data");
+
+        return putBytes(data.getBytes(charset));
+    }
+
+    @Nonnull
+    @Override
+    public HashSink putBytes(byte[] data, @Nonnegative int offset, @Nonnegative int length) {
+        Preconditions.checkNotNull(data, "data");
+
+        return putBytes(ByteBuffer.wrap(data, offset, length));
+    }
+
+    @Nonnull
+    @Override
+    public HashSink putBytes(ByteBuffer buffer) {
+        Preconditions.checkNotNull(buffer, "buffer");
+        checkNotHashed();
+
+        update(buffer);
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    public HashCode hash() {
+        checkNotHashed();
+
+        hashed = true;
+        return computeHash();
+    }
+
+    /**
+     * Appends the remaining bytes of the {@code buffer} to the hashed data, and moves the position of the buffer to its
+     * limit.
+     *
+     * @param buffer the bytes to append
+     */
+    protected abstract void update(ByteBuffer buffer);
+
+    /**
+     * Calculates the {@link HashCode} of the hashed data.
+     *
+     * @return a new hash code
+     */
+    @Nonnull
+    protected abstract HashCode computeHash();
+
+    /**
+     * Appends the encoded value of the scratch buffer to the hashed data.
+     *
+     * @return this sink (for chaining)
+     */
+    @Nonnull
+    private HashSink flushScratch() {
+        scratch.flip();
+        try {
+            return putBytes(scratch);
+        }
+        finally {
+            scratch.clear();
+        }
+    }
+
+    /**
+     * Ensures that the hash code has not been calculated yet.
+     *
+     * @throws IllegalStateException if the hash code has already been calculated
+     */
+    private void checkNotHashed() {
+        Preconditions.checkState(!hashed, "the hash code has already been calculated");
+    }
+}
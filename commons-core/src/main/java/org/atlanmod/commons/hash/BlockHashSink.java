@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * A {@link HashSink} for the hash functions that process their input by blocks of fixed size, in little-endian order.
+ * Only the current incomplete block is buffered: the memory used by this sink does not depend on the size of the
+ * input.
+ */
+@NotThreadSafe
+@ParametersAreNonnullByDefault
+abstract class BlockHashSink extends AbstractHashSink {
+
+    /**
+     * The size of a block, in bytes.
+     */
+    @Nonnegative
+    private final int blockSize;
+
+    /**
+     * The current incomplete block.
+     */
+    @Nonnull
+    private final ByteBuffer block;
+
+    /**
+     * The number of bytes appended to this sink.
+     */
+    @Nonnegative
+    private long length;
+
+    /**
+     * Constructs a new {@code BlockHashSink}.
+     *
+     * @param blockSize the size of a block, in bytes
+     */
+    protected BlockHashSink(@Nonnegative int blockSize) {
+        super(ByteOrder.LITTLE_ENDIAN);
+        this.blockSize = blockSize;
+        this.block = ByteBuffer.allocate(blockSize).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Override
+    protected final void update(ByteBuffer buffer) {
+        ByteBuffer data = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        length += data.remaining();
+        buffer.position(buffer.limit());
+
+        if (block.position() > 0) {
+            fill(data);
+            if (block.hasRemaining()) {
+                return;
+            }
+            block.flip();
+            process(block);
+            block.clear();
+        }
+
+        while (data.remaining() >= blockSize) {
+            process(data);
+        }
+        block.put(data);
+    }
+
+    @Nonnull
+    @Override
+    protected final HashCode computeHash() {
+        block.flip();
+        return new LongHashCode(finish(block, length));
+    }
+
+    /**
+     * Processes a complete block.
+     *
+     * @param data the buffer to read the block from, in little-endian order; its position must be moved after the
+     *             block
+     */
+    protected abstract void process(ByteBuffer data);
+
+    /**
+     * Calculates the hash code from the processed blocks, the remaining bytes and the total length.
+     *
+     * @param remaining the bytes that do not form a complete block, in little-endian order
+     * @param length    the total number of hashed bytes
+     *
+     * @return the hash code
+     */
+    protected abstract long finish(ByteBuffer remaining, @Nonnegative long length);
+
+    /**
+     * Copies as many bytes of {@code data} as possible into the current block.
+     *
+     * @param data the bytes to copy
+     */
+    private void fill(ByteBuffer data) {
+        int count = Math.min(block.remaining(), data.remaining());
+
+        ByteBuffer part = data.duplicate();
+        part.limit(part.position() + count);
+        block.put(part);
+        data.position(data.position() + count);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.function.Function;
+
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * A {@link HashSink} that buffers all the appended bytes, and hashes them at once. This sink is used by the hash
+ * functions that cannot be calculated incrementally.
+ */
+@NotThreadSafe
+@ParametersAreNonnullByDefault
+final class BufferedHashSink extends AbstractHashSink {
+
+    /**
+     * The initial capacity of the buffer.
+     */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * The function that hashes the buffered bytes, from the position to the limit of a buffer backed by an array.
+     */
+    @Nonnull
+    private final Function<ByteBuffer, HashCode> hashFunction;
+
+    /**
+     * The appended bytes.
+     */
+    @Nonnull
+    private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_CAPACITY);
+
+    /**
+     * Constructs a new {@code BufferedHashSink}.
+     *
+     * @param order        the byte order of the encoding
+     * @param hashFunction the function that hashes the buffered bytes, from the position to the limit of a buffer
+     *                     backed by an array
+     */
+    public BufferedHashSink(ByteOrder order, Function<ByteBuffer, HashCode> hashFunction) {
+        super(order);
+        this.hashFunction = hashFunction;
+    }
+
+    @Override
+    protected void update(ByteBuffer data) {
+        if (buffer.remaining() < data.remaining()) {
+            int capacity = Math.max(buffer.capacity() * 2, buffer.position() + data.remaining());
+            buffer.flip();
+            buffer = ByteBuffer.allocate(capacity).put(buffer);
+        }
+        buffer.put(data);
+    }
+
+    @Nonnull
+    @Override
+    protected HashCode computeHash() {
+        buffer.flip();
+        return hashFunction.apply(buffer);
+    }
+}
@@ -45,6 +45,24 @@ public interface HashCode extends Serializable {
      */
     long toLong();
 
+    /**
+     * Returns the first 64 bits of this hash code as a long, in big-endian order. If this hash code has fewer than 64
+     * bits, the missing low-order bits are set to {@code 0}.
+     * <p>
+     * Unlike {@link #toLong()}, this method accepts the hash codes of any length.
+     *
+     * @return a long
+     */
+    default long padToLong() {
+        byte[] bytes = toBytes();
+
+        long value = 0L;
+        for (int i = 0; i < Math.min(bytes.length, Long.BYTES); i++) {
+            value |= (bytes[i] & 0xFFL) << Byte.SIZE * (Long.BYTES - 1 - i);
+        }
+        return value;
+    }
+
     /**
      * Returns the literal representation of this hash code.
      *
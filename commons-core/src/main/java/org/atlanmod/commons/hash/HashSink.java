@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import java.nio.ByteBuffer;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * A sink that calculates a {@link HashCode} incrementally, from a sequence of values, without materializing the whole
+ * sequence in memory.
+ * <p>
+ * Each value is encoded as by the {@link Hasher} that created this sink, so that {@code hasher.newSink().putInt(v).hash()}
+ * is equal to {@code hasher.hash(v)}. The hash code of a sequence of values is the hash code of the concatenation of
+ * their encodings: the boundaries between the values are not recorded.
+ * <p>
+ * A sink is intended to be used by a single thread, and calculates a single hash code.
+ *
+ * @see Hasher#newSink()
+ */
+@NotThreadSafe
+@ParametersAreNonnullByDefault
+public interface HashSink {
+
+    /**
+     * Appends the given {@code data} to this sink.
+     *
+     * @param data the {@code byte} to append
+     *
+     * @return this sink (for chaining)
+     *
+     * @throws IllegalStateException if the hash code has already been calculated
+     */
+    @Nonnull
+    HashSink putByte(byte data);
+
+    /**
+     * Appends the given {@code data} to this sink.
+     *
+     * @param data the {@code boolean} to append
+     *
+     * @return this sink (for chaining)
+     *
+     * @throws IllegalStateException if the hash code has already been calculated
+     */
+    @Nonnull
+    HashSink putBoolean(boolean data);
+
+    /**
+     * Appends the given {@code data} to this sink.
+     *
+     * @param data the {@code char} to append
+     *
+     * @return this sink (for chaining)
+     *
+     * @throws IllegalStateException if the hash code has already been calculated
+     */
+    @Nonnull
+    HashSink putChar(char data);
+
+    /**
+     * Appends the given {@code data} to this sink.
+     *
+     * @param data the {@code short} to append
+     *
+     * @return this sink (for chaining)
+     *
+     * @throws IllegalStateException if the hash code has already been calculated
+     */
+    @Nonnull
+    HashSink putShort(short data);
+
+    /**
+     * Appends the given {@code data} to this sink.
+     *
+     * @param data the {@code int} to append
+     *
+     * @return this sink (for chaining)
+     *
+     * @throws IllegalStateException if the hash code has already been calculated
+     */
+    @Nonnull
+    HashSink putInt(int data);
+
+    /**
+     * Appends the given {@code data} to this sink.
+     *
+     * @param data the {@code long} to append
+     *
+     * @return this sink (for chaining)
+     *
+     * @throws IllegalStateException if the hash code has already been calculated
+     */
+    @Nonnull
+    HashSink putLong(long data);
+
+    /**
+     * Appends the given {@code data} to this sink.
+     *
+     * @param data the {@code float} to append
+     *
+     * @return this sink (for chaining)
+     *
+     * @throws IllegalStateException if the hash code has already been calculated
+     */
+    @Nonnull
+    HashSink putFloat(float data);
+
+    /**
+     * Appends the given {@code data} to this sink.
+     *
+     * @param data the {@code double} to append
+     *
+     * @return this sink (for chaining)
+     *
+     * @throws IllegalStateException if the hash code has already been calculated
+     */
+    @Nonnull
+    HashSink putDouble(double data);
+
+    /**
+     * Appends the given {@code data} to this sink.
+     *
+     * @param data the string to append
+     *
+     * @return this sink (for chaining)
+     *
+     * @throws IllegalStateException if the hash code has already been calculated
+     */
+    @Nonnull
+    HashSink putString(String data);
+
+    /**
+     * Appends the given {@code byte} array to this sink.
+     *
+     * @param data the {@code byte} array to append
+     *
+     * @return this sink (for chaining)
+     *
+     * @throws IllegalStateException if the hash code has already been calculated
+     */
+    @Nonnull
+    default HashSink putBytes(byte[] data) {
+        return putBytes(data, 0, data.length);
+    }
+
+    /**
+     * Appends a range of the given {@code byte} array to this sink.
+     *
+     * @param data   the {@code byte} array to append
+     * @param offset the index of the first byte to append
+     * @param length the number of bytes to append
+     *
+     * @return this sink (for chaining)
+     *
+     * @throws IndexOutOfBoundsException if the range is out of the bounds of {@code data}
+     * @throws IllegalStateException     if the hash code has already been calculated
+     */
+    @Nonnull
+    HashSink putBytes(byte[] data, @Nonnegative int offset, @Nonnegative int length);
+
+    /**
+     * Appends the remaining bytes of the given {@code buffer} to this sink. The position of the buffer is moved to its
+     * limit.
+     *
+     * @param buffer the buffer to append
+     *
+     * @return this sink (for chaining)
+     *
+     * @throws IllegalStateException if the hash code has already been calculated
+     */
+    @Nonnull
+    HashSink putBytes(ByteBuffer buffer);
+
+    /**
+     * Calculates the {@link HashCode} of all the values appended to this sink. This method can be called only once.
+     *
+     * @return a new hash code
+     *
+     * @throws IllegalStateException if the hash code has already been calculated
+     */
+    @Nonnull
+    HashCode hash();
+}
@@ -17,6 +17,13 @@ import org.atlanmod.commons.primitive.Longs;
 import org.atlanmod.commons.primitive.Shorts;
 import org.atlanmod.commons.primitive.Strings;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.ParametersAreNonnullByDefault;
 
@@ -144,4 +151,129 @@ public interface Hasher {
      */
     @Nonnull
     HashCode hash(byte[] data);
+
+    /**
+     * Calculates the {@link HashCode} of a range of the given {@code byte} array.
+     *
+     * @param data   the {@code byte} array to hash
+     * @param offset the index of the first byte to hash
+     * @param length the number of bytes to hash
+     *
+     * @return a new hash code
+     *
+     * @throws IndexOutOfBoundsException if the range is out of the bounds of {@code data}
+     */
+    @Nonnull
+    default HashCode hash(byte[] data, @Nonnegative int offset, @Nonnegative int length) {
+        return newSink().putBytes(data, offset, length).hash();
+    }
+
+    /**
+     * Calculates the {@link HashCode} of the remaining bytes of the given {@code buffer}. The position of the buffer is
+     * not modified.
+     *
+     * @param data the buffer to hash
+     *
+     * @return a new hash code
+     */
+    @Nonnull
+    default HashCode hash(ByteBuffer data) {
+        return newSink().putBytes(data.duplicate()).hash();
+    }
+
+    /**
+     * Calculates the {@link HashCode} of the content of the given {@code file}. The large files are memory-mapped and
+     * hashed region by region, without being copied on the heap.
+     *
+     * @param file the file to hash
+     *
+     * @return a new hash code
+     *
+     * @throws IOException if an I/O error occurs while reading the file
+     */
+    @Nonnull
+    default HashCode hash(Path file) throws IOException {
+        return MappedFiles.hash(file, newSink());
+    }
+
+    /**
+     * Calculates the hash code of the given {@code data}, as a long. The result is equal to {@code
+     * hash(data).padToLong()}.
+     * <p>
+     * The 64-bit hashers calculate it without allocating any object, which suits the hot paths such as the partitioning
+     * of keys.
+     *
+     * @param data the {@code int} to hash
+     *
+     * @return the first 64 bits of the hash code
+     *
+     * @see HashCode#padToLong()
+     */
+    default long hashToLong(int data) {
+        return hash(data).padToLong();
+    }
+
+    /**
+     * Calculates the hash code of the given {@code data}, as a long. The result is equal to {@code
+     * hash(data).padToLong()}.
+     * <p>
+     * The 64-bit hashers calculate it without allocating any object, which suits the hot paths such as the partitioning
+     * of keys.
+     *
+     * @param data the {@code long} to hash
+     *
+     * @return the first 64 bits of the hash code
+     *
+     * @see HashCode#padToLong()
+     */
+    default long hashToLong(long data) {
+        return hash(data).padToLong();
+    }
+
+    /**
+     * Calculates the hash code of the given {@code data}, as a long. The result is equal to {@code
+     * hash(data.toString()).padToLong()}.
+     * <p>
+     * The 64-bit hashers calculate it without allocating any object, which suits the hot paths such as the partitioning
+     * of keys.
+     *
+     * @param data the characters to hash
+     *
+     * @return the first 64 bits of the hash code
+     *
+     * @see HashCode#padToLong()
+     */
+    default long hashToLong(CharSequence data) {
+        return hash(data.toString()).padToLong();
+    }
+
+    /**
+     * Calculates the hash code of the given {@code byte} array, as a long. The result is equal to {@code
+     * hash(data).padToLong()}.
+     * <p>
+     * The 64-bit hashers calculate it without allocating any object, which suits the hot paths such as the partitioning
+     * of keys.
+     *
+     * @param data the {@code byte} array to hash
+     *
+     * @return the first 64 bits of the hash code
+     *
+     * @see HashCode#padToLong()
+     */
+    default long hashToLong(byte[] data) {
+        return hash(data).padToLong();
+    }
+
+    /**
+     * Creates a new sink that calculates a {@link HashCode} incrementally, from a sequence of values.
+     * <p>
+     * The default implementation buffers the appended values, and calls {@link #hash(byte[])} once: the hashers that
+     * can calculate their hash code incrementally should override this method.
+     *
+     * @return a new sink
+     */
+    @Nonnull
+    default HashSink newSink() {
+        return new BufferedHashSink(ByteOrder.BIG_ENDIAN, b -> hash(Arrays.copyOfRange(b.array(), b.position(), b.limit())));
+    }
 }
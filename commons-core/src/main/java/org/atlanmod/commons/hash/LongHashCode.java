@@ -58,6 +58,11 @@ final class LongHashCode implements HashCode {
         return value;
     }
 
+    @Override
+    public long padToLong() {
+        return value;
+    }
+
     @Nonnull
     @Override
     public String toHexString() {
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import org.atlanmod.commons.Preconditions;
+import org.atlanmod.commons.Throwables;
+import org.atlanmod.commons.annotation.Static;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Static utility methods to read the content of the files to hash.
+ * <p>
+ * The large files are memory-mapped, so that their content is hashed directly from the page cache, without being
+ * copied on the heap. The small files are read, since mapping a file costs more than reading a few pages.
+ */
+@Static
+@ParametersAreNonnullByDefault
+final class MappedFiles {
+
+    /**
+     * The size from which a file is memory-mapped instead of being read.
+     */
+    @Nonnegative
+    static final int MAPPING_THRESHOLD = 1 << 20;
+
+    /**
+     * The size of the regions of a large file that are mapped at once. It is a multiple of the block size of the hash
+     * functions.
+     */
+    @Nonnegative
+    static final int CHUNK_SIZE = 1 << 26;
+
+    /**
+     * This class should not be instantiated.
+     *
+     * @throws IllegalStateException every time
+     */
+    private MappedFiles() {
+        throw Throwables.notInstantiableClass(getClass());
+    }
+
+    /**
+     * Appends the content of the {@code file} to the {@code sink}, region by region, and calculates its hash code.
+     *
+     * @param file the file to hash
+     * @param sink the sink to append the content of the file to
+     *
+     * @return the hash code of the file
+     *
+     * @throws IOException if an I/O error occurs while reading the file
+     */
+    @Nonnull
+    static HashCode hash(Path file, HashSink sink) throws IOException {
+        Preconditions.checkNotNull(file, "file");
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < MAPPING_THRESHOLD) {
+                sink.putBytes(read(channel, (int) size));
+            }
+            else {
+                for (long position = 0; position < size; position += CHUNK_SIZE) {
+                    sink.putBytes(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(CHUNK_SIZE, size - position)));
+                }
+            }
+        }
+        return sink.hash();
+    }
+
+    /**
+     * Returns the whole content of the {@code file}, for the hash functions that cannot be calculated incrementally.
+     *
+     * @param file the file to read
+     *
+     * @return a buffer containing the content of the file, between its position and its limit
+     *
+     * @throws IOException              if an I/O error occurs while reading the file
+     * @throws IllegalArgumentException if the file is larger than {@link Integer#MAX_VALUE} bytes
+     */
+    @Nonnull
+    static ByteBuffer map(Path file) throws IOException {
+        Preconditions.checkNotNull(file, "file");
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            Preconditions.checkArgument(size <= Integer.MAX_VALUE, "file is too large to be hashed at once (%d bytes)", size);
+
+            return size < MAPPING_THRESHOLD
+                    ? read(channel, (int) size)
+                    : channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+    /**
+     * Reads {@code size} bytes from the {@code channel}.
+     *
+     * @param channel the channel to read from
+     * @param size    the number of bytes to read
+     *
+     * @return a buffer containing the bytes that have been read, between its position and its limit
+     *
+     * @throws IOException if an I/O error occurs while reading the channel
+     */
+    @Nonnull
+    private static ByteBuffer read(FileChannel channel, @Nonnegative int size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            // Read until the end of the file
+        }
+        buffer.flip();
+        return buffer;
+    }
+}
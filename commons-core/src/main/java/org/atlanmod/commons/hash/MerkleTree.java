@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import org.atlanmod.commons.Preconditions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BinaryOperator;
+import java.util.stream.IntStream;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * The hash tree of a payload split into chunks of fixed size, as calculated by a {@link TreeHasher}.
+ * <p>
+ * The leaves are the hash codes of the chunks, and each node is the hash code of its two children; the last node of a
+ * level is promoted as is when the level has an odd number of nodes. The root identifies the whole payload, and the
+ * leaves allow to find and re-hash only the chunks that have changed.
+ */
+@Immutable
+@ParametersAreNonnullByDefault
+public final class MerkleTree {
+
+    /**
+     * The size of the chunks, in bytes.
+     */
+    @Nonnegative
+    private final int chunkSize;
+
+    /**
+     * The size of the payload, in bytes.
+     */
+    @Nonnegative
+    private final long length;
+
+    /**
+     * The levels of this tree, from the leaves to the root.
+     */
+    @Nonnull
+    private final List<HashCode[]> levels;
+
+    /**
+     * Constructs a new {@code MerkleTree}.
+     *
+     * @param chunkSize the size of the chunks, in bytes
+     * @param length    the size of the payload, in bytes
+     * @param leaves    the hash codes of the chunks
+     * @param combiner  the function that calculates the hash code of a node from the hash codes of its children
+     */
+    MerkleTree(@Nonnegative int chunkSize, @Nonnegative long length, HashCode[] leaves, BinaryOperator<HashCode> combiner) {
+        this.chunkSize = chunkSize;
+        this.length = length;
+        this.levels = buildLevels(leaves, combiner);
+    }
+
+    /**
+     * Builds the levels of a tree from its leaves.
+     *
+     * @param leaves   the leaves of the tree
+     * @param combiner the function that calculates the hash code of a node from the hash codes of its children
+     *
+     * @return the levels of the tree, from the leaves to the root
+     */
+    @Nonnull
+    private static List<HashCode[]> buildLevels(HashCode[] leaves, BinaryOperator<HashCode> combiner) {
+        List<HashCode[]> levels = new ArrayList<>();
+        levels.add(leaves);
+
+        HashCode[] children = leaves;
+        while (children.length > 1) {
+            HashCode[] level = new HashCode[(children.length + 1) / 2];
+            for (int i = 0; i < level.length; i++) {
+                level[i] = 2 * i + 1 < children.length
+                        ? combiner.apply(children[2 * i], children[2 * i + 1])
+                        : children[2 * i];
+            }
+            levels.add(level);
+            children = level;
+        }
+        return levels;
+    }
+
+    /**
+     * Returns the hash code of the whole payload.
+     *
+     * @return the root of this tree
+     */
+    @Nonnull
+    public HashCode root() {
+        return levels.get(levels.size() - 1)[0];
+    }
+
+    /**
+     * Returns the size of the chunks.
+     *
+     * @return the size of the chunks, in bytes
+     */
+    @Nonnegative
+    public int chunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Returns the size of the payload.
+     *
+     * @return the size of the payload, in bytes
+     */
+    @Nonnegative
+    public long length() {
+        return length;
+    }
+
+    /**
+     * Returns the number of chunks of the payload. An empty payload has a single empty chunk.
+     *
+     * @return the number of leaves of this tree
+     */
+    @Nonnegative
+    public int chunkCount() {
+        return levels.get(0).length;
+    }
+
+    /**
+     * Returns the hash code of a chunk.
+     *
+     * @param index the index of the chunk
+     *
+     * @return the leaf of this tree
+     *
+     * @throws IndexOutOfBoundsException if {@code index} is negative or is not less than {@link #chunkCount()}
+     */
+    @Nonnull
+    public HashCode leaf(@Nonnegative int index) {
+        return levels.get(0)[Preconditions.checkElementIndex(index, chunkCount())];
+    }
+
+    /**
+     * Returns the indices of the chunks that differ between this tree and the {@code other} tree. If both trees have
+     * the same shape, only the sub-trees whose roots differ are visited.
+     *
+     * @param other the tree to compare with
+     *
+     * @return the indices of the chunks that differ, in ascending order, including the chunks that exist in only one
+     * of the trees
+     *
+     * @throws IllegalArgumentException if the trees do not have the same chunk size
+     */
+    @Nonnull
+    public int[] diff(MerkleTree other) {
+        Preconditions.checkNotNull(other, "other");
+        Preconditions.checkArgument(chunkSize == other.chunkSize, "chunk sizes differ: %d and %d", chunkSize, other.chunkSize);
+
+        if (chunkCount() != other.chunkCount()) {
+            int commonCount = Math.min(chunkCount(), other.chunkCount());
+            return IntStream.range(0, Math.max(chunkCount(), other.chunkCount()))
+                    .filter(i -> i >= commonCount || !leaf(i).equals(other.leaf(i)))
+                    .toArray();
+        }
+
+        IntStream.Builder indices = IntStream.builder();
+        collectDifferences(other, levels.size() - 1, 0, indices);
+        return indices.build().toArray();
+    }
+
+    /**
+     * Collects the indices of the chunks that differ in the sub-tree of a node, between this tree and the {@code
+     * other} tree of the same shape.
+     *
+     * @param other   the tree to compare with
+     * @param level   the level of the node
+     * @param index   the index of the node in its level
+     * @param indices the builder to add the indices of the differing chunks to
+     */
+    private void collectDifferences(MerkleTree other, @Nonnegative int level, @Nonnegative int index, IntStream.Builder indices) {
+        if (levels.get(level)[index].equals(other.levels.get(level)[index])) {
+            return;
+        }
+        if (level == 0) {
+            indices.add(index);
+            return;
+        }
+
+        int childCount = levels.get(level - 1).length;
+        for (int child = 2 * index; child < Math.min(2 * index + 2, childCount); child++) {
+            collectDifferences(other, level - 1, child, indices);
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(chunkSize, length, root());
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!MerkleTree.class.isInstance(o)) {
+            return false;
+        }
+
+        MerkleTree that = MerkleTree.class.cast(o);
+        return chunkSize == that.chunkSize
+                && length == that.length
+                && Objects.equals(root(), that.root());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MerkleTree {%d chunks of %d bytes, root = %s}", chunkCount(), chunkSize, root().toHexString());
+    }
+}
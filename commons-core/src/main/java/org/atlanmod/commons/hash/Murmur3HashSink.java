@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import java.nio.ByteBuffer;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * A {@link HashSink} that calculates the {@code MurmurHash3 64-bit} incrementally, with the same result as {@link
+ * net.openhft.hashing.LongHashFunction#murmur_3()}: the lower half of {@code MurmurHash3_x64_128}, without seed.
+ *
+ * @see <a href="https://github.com/aappleby/smhasher/blob/master/src/MurmurHash3.cpp">aappleby/smhasher/../MurmurHash3.cpp</a>
+ */
+@NotThreadSafe
+@ParametersAreNonnullByDefault
+final class Murmur3HashSink extends BlockHashSink {
+
+    /**
+     * The multiplier of the first lane of a block.
+     */
+    private static final long C1 = 0x87C37B91114253D5L;
+
+    /**
+     * The multiplier of the second lane of a block.
+     */
+    private static final long C2 = 0x4CF5AD432745937FL;
+
+    /**
+     * The first half of the state of the algorithm, which is the lower half of the final hash.
+     */
+    private long h1;
+
+    /**
+     * The second half of the state of the algorithm.
+     */
+    private long h2;
+
+    /**
+     * Constructs a new {@code Murmur3HashSink}.
+     */
+    public Murmur3HashSink() {
+        super(16);
+    }
+
+    @Override
+    protected void process(ByteBuffer data) {
+        h1 ^= mixK1(data.getLong());
+        h1 = Long.rotateLeft(h1, 27) + h2;
+        h1 = h1 * 5 + 0x52DCE729;
+
+        h2 ^= mixK2(data.getLong());
+        h2 = Long.rotateLeft(h2, 31) + h1;
+        h2 = h2 * 5 + 0x38495AB5;
+    }
+
+    @Override
+    protected long finish(ByteBuffer remaining, @Nonnegative long length) {
+        int count = remaining.remaining();
+        if (count > 0) {
+            long k1 = 0;
+            long k2 = 0;
+            for (int i = 0; i < count; i++) {
+                long b = remaining.get() & 0xFFL;
+                if (i < Long.BYTES) {
+                    k1 |= b << (i * Byte.SIZE);
+                }
+                else {
+                    k2 |= b << ((i - Long.BYTES) * Byte.SIZE);
+                }
+            }
+            if (count > Long.BYTES) {
+                h2 ^= mixK2(k2);
+            }
+            h1 ^= mixK1(k1);
+        }
+
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix(h1);
+        h2 = fmix(h2);
+        return h1 + h2;
+    }
+
+    /**
+     * Mixes the first lane of a block.
+     *
+     * @param k1 the lane
+     *
+     * @return the mixed lane
+     */
+    private static long mixK1(long k1) {
+        return Long.rotateLeft(k1 * C1, 31) * C2;
+    }
+
+    /**
+     * Mixes the second lane of a block.
+     *
+     * @param k2 the lane
+     *
+     * @return the mixed lane
+     */
+    private static long mixK2(long k2) {
+        return Long.rotateLeft(k2 * C2, 33) * C1;
+    }
+
+    /**
+     * Applies the finalization mix, which forces all the bits of the hash to avalanche.
+     *
+     * @param k the hash to mix
+     *
+     * @return the mixed hash
+     */
+    private static long fmix(long k) {
+        k ^= k >>> 33;
+        k *= 0xFF51AFD7ED558CCDL;
+        k ^= k >>> 33;
+        k *= 0xC4CEB9FE1A85EC53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
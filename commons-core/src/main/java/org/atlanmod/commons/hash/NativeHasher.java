@@ -11,25 +11,38 @@ package org.atlanmod.commons.hash;
 import org.atlanmod.commons.Throwables;
 import org.atlanmod.commons.Preconditions;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.ParametersAreNonnullByDefault;
-
-import static org.atlanmod.commons.Preconditions.checkNotNull;
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.ThreadSafe;
 
 /**
  * A {@link Hasher} that delegate its calls to a {@link MessageDigest} from the Java API.
+ * <p>
+ * A {@link MessageDigest} is stateful, so each thread uses its own instance: the hasher can be shared without
+ * synchronization, and the concurrent calls do not contend with each other.
  */
+@ThreadSafe
 @ParametersAreNonnullByDefault
 final class NativeHasher implements Hasher {
 
     /**
-     * The delegated hash function.
+     * The instance of the delegated hash function from which the instances of each thread are copied.
+     */
+    @Nonnull
+    private final MessageDigest prototype;
+
+    /**
+     * The instance of the delegated hash function used by each thread.
      */
     @Nonnull
-    private final MessageDigest digest;
+    private final ThreadLocal<MessageDigest> digests;
 
     /**
      * Constructs a new {@code NativeHasher}.
@@ -39,7 +52,8 @@ final class NativeHasher implements Hasher {
     public NativeHasher(String algorithm) {
         Preconditions.checkNotNull(algorithm, "algorithm");
 
-        this.digest = create(algorithm);
+        this.prototype = create(algorithm);
+        this.digests = ThreadLocal.withInitial(this::copyPrototype);
     }
 
     /**
@@ -59,11 +73,82 @@ final class NativeHasher implements Hasher {
         }
     }
 
+    /**
+     * Creates a new instance of the delegated hash function, by cloning the prototype if its provider allows it, in
+     * order to avoid looking up the providers again.
+     *
+     * @return a new instance
+     */
+    @Nonnull
+    private MessageDigest copyPrototype() {
+        try {
+            return (MessageDigest) prototype.clone();
+        }
+        catch (CloneNotSupportedException e) {
+            return create(prototype.getAlgorithm());
+        }
+    }
+
     @Nonnull
     @Override
     public HashCode hash(byte[] data) {
-        HashCode h = new BinaryHashCode(digest.digest(data));
-        digest.reset();
-        return h;
+        return new BinaryHashCode(digests.get().digest(data));
+    }
+
+    @Nonnull
+    @Override
+    public HashCode hash(byte[] data, @Nonnegative int offset, @Nonnegative int length) {
+        MessageDigest digest = digests.get();
+        digest.update(ByteBuffer.wrap(data, offset, length));
+        return new BinaryHashCode(digest.digest());
+    }
+
+    @Nonnull
+    @Override
+    public HashCode hash(ByteBuffer data) {
+        MessageDigest digest = digests.get();
+        digest.update(data.duplicate());
+        return new BinaryHashCode(digest.digest());
+    }
+
+    @Nonnull
+    @Override
+    public HashSink newSink() {
+        return new DigestHashSink(copyPrototype());
+    }
+
+    /**
+     * A {@link HashSink} that updates its own instance of the delegated hash function.
+     */
+    @NotThreadSafe
+    @ParametersAreNonnullByDefault
+    private static final class DigestHashSink extends AbstractHashSink {
+
+        /**
+         * The instance of the delegated hash function.
+         */
+        @Nonnull
+        private final MessageDigest digest;
+
+        /**
+         * Constructs a new {@code DigestHashSink}.
+         *
+         * @param digest the instance of the delegated hash function
+         */
+        DigestHashSink(MessageDigest digest) {
+            super(ByteOrder.BIG_ENDIAN);
+            this.digest = digest;
+        }
+
+        @Override
+        protected void update(ByteBuffer buffer) {
+            digest.update(buffer);
+        }
+
+        @Nonnull
+        @Override
+        protected HashCode computeHash() {
+            return new BinaryHashCode(digest.digest());
+        }
     }
 }
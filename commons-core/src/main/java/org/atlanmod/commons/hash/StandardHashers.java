@@ -23,6 +23,8 @@ import javax.annotation.ParametersAreNonnullByDefault;
 
 /**
  * Constants definitions for the default {@link Hasher} instances.
+ * <p>
+ * All the instances are thread-safe, and can be shared without synchronization.
  */
 @Static
 @ParametersAreNonnullByDefault
@@ -52,7 +54,7 @@ public final class StandardHashers {
      * @see <a href="https://github.com/aappleby/smhasher/blob/master/src/MurmurHash3.cpp">aappleby/smhasher/../MurmurHash3.cpp</a>
      */
     @Nonnull
-    public static final Hasher MURMUR3 = new ZeroAllocationHasher(LongHashFunction.murmur_3());
+    public static final Hasher MURMUR3 = new ZeroAllocationHasher(LongHashFunction.murmur_3(), Murmur3HashSink::new);
 
     /**
      * A {@link Hasher} that uses the {@code xxHash} algorithm (64 bits).
@@ -60,7 +62,7 @@ public final class StandardHashers {
      * @see <a href="https://github.com/Cyan4973/xxHash">Cyan4973/xxHash</a>
      */
     @Nonnull
-    public static final Hasher XX = new ZeroAllocationHasher(LongHashFunction.xx());
+    public static final Hasher XX = new ZeroAllocationHasher(LongHashFunction.xx(), XxHashSink::new);
 
     /**
      * A {@link Hasher} that uses the {@code CityHash} algorithm (64 bits).
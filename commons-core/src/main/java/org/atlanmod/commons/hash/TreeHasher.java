@@ -0,0 +1,579 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import org.atlanmod.commons.Preconditions;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A {@link Hasher} that splits the data into chunks of fixed size, hashes the chunks in parallel, and combines their
+ * hash codes into a {@link MerkleTree}. The hash code of the data is the root of the tree.
+ * <p>
+ * The chunks and the nodes are hashed with a leaf hasher, with a different prefix for each kind of hash code, so that a
+ * chunk cannot be taken for a node. The hash codes are therefore not the ones of the leaf hasher, but they are stable:
+ * they only depend on the leaf hasher, the chunk size and the data, not on the number of threads.
+ * <p>
+ * The tree of a payload allows to find the chunks that have changed since its previous version (see {@link
+ * MerkleTree#diff(MerkleTree)}), to re-hash only the modified chunks (see {@link #update(MerkleTree, ByteBuffer, long,
+ * long)}), and to verify a single chunk (see {@link #verifyChunk(MerkleTree, int, ByteBuffer)}).
+ * <pre>{@code
+ * TreeHasher hasher = new TreeHasher(StandardHashers.SHA256);
+ * MerkleTree tree = hasher.tree(file);
+ *
+ * // ... 100 bytes are written at the position 5000
+ * MerkleTree updatedTree = hasher.update(tree, file, 5000, 100);
+ * }</pre>
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+public final class TreeHasher implements Hasher {
+
+    /**
+     * The default size of the chunks, in bytes.
+     */
+    @Nonnegative
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+    /**
+     * The prefix of the hashed data of a leaf.
+     */
+    private static final byte LEAF_PREFIX = 0;
+
+    /**
+     * The prefix of the hashed data of a node.
+     */
+    private static final byte NODE_PREFIX = 1;
+
+    /**
+     * The hasher used to hash the chunks and the nodes.
+     */
+    @Nonnull
+    private final Hasher leafHasher;
+
+    /**
+     * The size of the chunks, in bytes.
+     */
+    @Nonnegative
+    private final int chunkSize;
+
+    /**
+     * The pool in which the chunks are hashed.
+     */
+    @Nonnull
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs a new {@code TreeHasher} with chunks of {@link #DEFAULT_CHUNK_SIZE} bytes, hashed in the common pool.
+     *
+     * @param leafHasher the hasher used to hash the chunks and the nodes
+     */
+    public TreeHasher(Hasher leafHasher) {
+        this(leafHasher, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructs a new {@code TreeHasher} whose chunks are hashed in the common pool.
+     *
+     * @param leafHasher the hasher used to hash the chunks and the nodes
+     * @param chunkSize  the size of the chunks, in bytes
+     *
+     * @throws IllegalArgumentException if {@code chunkSize} is not positive
+     */
+    public TreeHasher(Hasher leafHasher, @Nonnegative int chunkSize) {
+        this(leafHasher, chunkSize, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a new {@code TreeHasher}.
+     *
+     * @param leafHasher the hasher used to hash the chunks and the nodes
+     * @param chunkSize  the size of the chunks, in bytes
+     * @param pool       the pool in which the chunks are hashed
+     *
+     * @throws IllegalArgumentException if {@code chunkSize} is not positive
+     */
+    public TreeHasher(Hasher leafHasher, @Nonnegative int chunkSize, ForkJoinPool pool) {
+        Preconditions.checkNotNull(leafHasher, "leafHasher");
+        Preconditions.checkArgument(chunkSize > 0, "chunkSize (%d) must be positive", chunkSize);
+        Preconditions.checkNotNull(pool, "pool");
+
+        this.leafHasher = leafHasher;
+        this.chunkSize = chunkSize;
+        this.pool = pool;
+    }
+
+    /**
+     * Returns the size of the chunks.
+     *
+     * @return the size of the chunks, in bytes
+     */
+    @Nonnegative
+    public int chunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Calculates the hash tree of the {@code data}.
+     *
+     * @param data the data to hash
+     *
+     * @return a new tree
+     */
+    @Nonnull
+    public MerkleTree tree(byte[] data) {
+        Preconditions.checkNotNull(data, "data");
+
+        return tree(ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Calculates the hash tree of the remaining bytes of the {@code data}. The position of the buffer is not changed.
+     *
+     * @param data the data to hash
+     *
+     * @return a new tree
+     */
+    @Nonnull
+    public MerkleTree tree(ByteBuffer data) {
+        Preconditions.checkNotNull(data, "data");
+
+        return build(data.remaining(), chunksOf(data), i -> true, null);
+    }
+
+    /**
+     * Calculates the hash tree of the content of the {@code file}. Each chunk of a large file is memory-mapped and
+     * hashed separately, so the file can be larger than {@link Integer#MAX_VALUE} bytes.
+     *
+     * @param file the file to hash
+     *
+     * @return a new tree
+     *
+     * @throws IOException if an I/O error occurs while reading the file
+     */
+    @Nonnull
+    public MerkleTree tree(Path file) throws IOException {
+        return build(file, null, 0, 0);
+    }
+
+    /**
+     * Calculates the hash tree of the new version of some data, by re-hashing only the chunks of the {@code
+     * previousTree} that overlap the modified region, and the chunks whose bounds have changed with the length of the
+     * data.
+     *
+     * @param previousTree the tree of the previous version of the data
+     * @param data         the new version of the data, between the position and the limit of the buffer
+     * @param offset       the offset of the modified region, relative to the position of the buffer
+     * @param length       the size of the modified region
+     *
+     * @return a new tree
+     *
+     * @throws IllegalArgumentException if the {@code previousTree} does not have the chunk size of this hasher
+     */
+    @Nonnull
+    public MerkleTree update(MerkleTree previousTree, ByteBuffer data, @Nonnegative long offset, @Nonnegative long length) {
+        Preconditions.checkNotNull(previousTree, "previousTree");
+        Preconditions.checkNotNull(data, "data");
+
+        return build(data.remaining(), chunksOf(data), modifiedChunks(previousTree, data.remaining(), offset, length), previousTree);
+    }
+
+    /**
+     * Calculates the hash tree of the new version of the content of a {@code file}, by re-hashing only the chunks of
+     * the {@code previousTree} that overlap the modified region, and the chunks whose bounds have changed with the size
+     * of the file.
+     *
+     * @param previousTree the tree of the previous version of the file
+     * @param file         the file to hash
+     * @param offset       the offset of the modified region
+     * @param length       the size of the modified region
+     *
+     * @return a new tree
+     *
+     * @throws IOException              if an I/O error occurs while reading the file
+     * @throws IllegalArgumentException if the {@code previousTree} does not have the chunk size of this hasher
+     */
+    @Nonnull
+    public MerkleTree update(MerkleTree previousTree, Path file, @Nonnegative long offset, @Nonnegative long length) throws IOException {
+        Preconditions.checkNotNull(previousTree, "previousTree");
+
+        return build(file, previousTree, offset, length);
+    }
+
+    /**
+     * Checks that a {@code chunk} has the hash code of the leaf at the specified {@code index} of the {@code tree}. The
+     * position of the buffer is not changed.
+     *
+     * @param tree  the tree of the data
+     * @param index the index of the chunk in the data
+     * @param chunk the chunk to verify, between the position and the limit of the buffer
+     *
+     * @return {@code true} if the chunk has not been modified
+     *
+     * @throws IllegalArgumentException  if the {@code tree} does not have the chunk size of this hasher
+     * @throws IndexOutOfBoundsException if {@code index} is negative or is not less than the number of chunks of the
+     *                                   {@code tree}
+     */
+    public boolean verifyChunk(MerkleTree tree, @Nonnegative int index, ByteBuffer chunk) {
+        Preconditions.checkNotNull(tree, "tree");
+        Preconditions.checkNotNull(chunk, "chunk");
+        checkChunkSize(tree);
+
+        return tree.leaf(index).equals(hashLeaf(chunk.duplicate()));
+    }
+
+    @Nonnull
+    @Override
+    public HashCode hash(byte[] data) {
+        return tree(data).root();
+    }
+
+    @Nonnull
+    @Override
+    public HashCode hash(byte[] data, @Nonnegative int offset, @Nonnegative int length) {
+        Preconditions.checkNotNull(data, "data");
+
+        return tree(ByteBuffer.wrap(data, offset, length)).root();
+    }
+
+    @Nonnull
+    @Override
+    public HashCode hash(ByteBuffer data) {
+        return tree(data).root();
+    }
+
+    @Nonnull
+    @Override
+    public HashCode hash(Path file) throws IOException {
+        return tree(file).root();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The chunks of the returned sink are hashed sequentially, as soon as they are complete: the appended data are
+     * never buffered.
+     */
+    @Nonnull
+    @Override
+    public HashSink newSink() {
+        return new TreeHashSink();
+    }
+
+    /**
+     * Calculates the hash tree of the content of a {@code file}.
+     *
+     * @param file         the file to hash
+     * @param previousTree the tree of the previous version of the file, or {@code null} to hash all the chunks
+     * @param offset       the offset of the modified region
+     * @param length       the size of the modified region
+     *
+     * @return a new tree
+     *
+     * @throws IOException if an I/O error occurs while reading the file
+     */
+    @Nonnull
+    private MerkleTree build(Path file, @Nullable MerkleTree previousTree, @Nonnegative long offset, @Nonnegative long length) throws IOException {
+        Preconditions.checkNotNull(file, "file");
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < MappedFiles.MAPPING_THRESHOLD) {
+                ByteBuffer data = MappedFiles.map(file);
+                return build(data.remaining(), chunksOf(data), modifiedChunks(previousTree, data.remaining(), offset, length), previousTree);
+            }
+
+            IntFunction<ByteBuffer> chunks = i -> {
+                long position = (long) i * chunkSize;
+                try {
+                    return channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(chunkSize, size - position));
+                }
+                catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            };
+            return build(size, chunks, modifiedChunks(previousTree, size, offset, length), previousTree);
+        }
+        catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Calculates the hash tree of some data.
+     *
+     * @param length       the size of the data
+     * @param chunks       the function that returns the chunk at a given index, between the position and the limit of a
+     *                     new buffer
+     * @param modified     the predicate that tests whether the chunk at a given index must be hashed
+     * @param previousTree the tree whose leaves are reused for the chunks that are not hashed, or {@code null} if all the
+     *                     chunks are hashed
+     *
+     * @return a new tree
+     */
+    @Nonnull
+    private MerkleTree build(@Nonnegative long length, IntFunction<ByteBuffer> chunks, IntPredicate modified, @Nullable MerkleTree previousTree) {
+        long chunkCount = Math.max(1, (length + chunkSize - 1) / chunkSize);
+        Preconditions.checkArgument(chunkCount <= Integer.MAX_VALUE, "too many chunks (%d)", chunkCount);
+
+        HashCode[] leaves = new HashCode[(int) chunkCount];
+        pool.invoke(new LeafTask(leaves, 0, leaves.length, i -> modified.test(i) ? hashLeaf(chunks.apply(i)) : previousTree.leaf(i)));
+        return new MerkleTree(chunkSize, length, leaves, this::hashNode);
+    }
+
+    /**
+     * Returns the function that returns the chunks of the remaining bytes of the {@code data}.
+     *
+     * @param data the data to split
+     *
+     * @return the function that returns the chunk at a given index, between the position and the limit of a new buffer
+     */
+    @Nonnull
+    private IntFunction<ByteBuffer> chunksOf(ByteBuffer data) {
+        ByteBuffer source = data.duplicate();
+        int start = source.position();
+        int end = source.limit();
+
+        return i -> {
+            ByteBuffer chunk = source.duplicate();
+            int position = start + i * chunkSize;
+            chunk.limit(Math.min(end, position + chunkSize)).position(position);
+            return chunk;
+        };
+    }
+
+    /**
+     * Returns the predicate that tests whether a chunk must be re-hashed after a modification of the data.
+     *
+     * @param previousTree the tree of the previous version of the data, or {@code null} if all the chunks must be hashed
+     * @param size         the size of the new version of the data
+     * @param offset       the offset of the modified region
+     * @param length       the size of the modified region
+     *
+     * @return the predicate that tests whether the chunk at a given index must be hashed
+     *
+     * @throws IllegalArgumentException if the {@code previousTree} does not have the chunk size of this hasher
+     */
+    @Nonnull
+    private IntPredicate modifiedChunks(@Nullable MerkleTree previousTree, @Nonnegative long size, @Nonnegative long offset, @Nonnegative long length) {
+        if (previousTree == null) {
+            return i -> true;
+        }
+
+        checkChunkSize(previousTree);
+        Preconditions.checkArgument(offset >= 0, "offset (%d) must not be negative", offset);
+        Preconditions.checkArgument(length >= 0, "length (%d) must not be negative", length);
+
+        long firstModified = offset / chunkSize;
+        long lastModified = (offset + Math.max(length, 1) - 1) / chunkSize;
+
+        // The last common chunk is truncated or extended if the size has changed
+        long chunkCount = Math.max(1, (size + chunkSize - 1) / chunkSize);
+        long firstResized = previousTree.length() == size
+                ? previousTree.chunkCount()
+                : Math.min(previousTree.chunkCount(), chunkCount) - 1;
+
+        return i -> i >= firstResized || (length > 0 && i >= firstModified && i <= lastModified);
+    }
+
+    /**
+     * Ensures that the {@code tree} has been calculated with the chunk size of this hasher.
+     *
+     * @param tree the tree to check
+     *
+     * @throws IllegalArgumentException if the chunk sizes differ
+     */
+    private void checkChunkSize(MerkleTree tree) {
+        Preconditions.checkArgument(tree.chunkSize() == chunkSize,
+                "the tree has chunks of %d bytes instead of %d", tree.chunkSize(), chunkSize);
+    }
+
+    /**
+     * Calculates the hash code of a leaf.
+     *
+     * @param chunk the chunk to hash, between the position and the limit of the buffer
+     *
+     * @return the hash code of the leaf
+     */
+    @Nonnull
+    private HashCode hashLeaf(ByteBuffer chunk) {
+        return leafHasher.newSink()
+                .putByte(LEAF_PREFIX)
+                .putBytes(chunk)
+                .hash();
+    }
+
+    /**
+     * Calculates the hash code of a node.
+     *
+     * @param left  the hash code of the left child
+     * @param right the hash code of the right child
+     *
+     * @return the hash code of the node
+     */
+    @Nonnull
+    private HashCode hashNode(HashCode left, HashCode right) {
+        return leafHasher.newSink()
+                .putByte(NODE_PREFIX)
+                .putBytes(left.toBytes())
+                .putBytes(right.toBytes())
+                .hash();
+    }
+
+    /**
+     * A task that calculates a range of leaves, by splitting it until a single leaf remains.
+     */
+    private static final class LeafTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 6270485727462419816L;
+
+        /**
+         * The calculated leaves.
+         */
+        @Nonnull
+        private final HashCode[] leaves;
+
+        /**
+         * The index of the first leaf to calculate (inclusive).
+         */
+        @Nonnegative
+        private final int from;
+
+        /**
+         * The index of the last leaf to calculate (exclusive).
+         */
+        @Nonnegative
+        private final int to;
+
+        /**
+         * The function that calculates the leaf at a given index.
+         */
+        @Nonnull
+        private final IntFunction<HashCode> leafFunction;
+
+        /**
+         * Constructs a new {@code LeafTask}.
+         *
+         * @param leaves       the calculated leaves
+         * @param from         the index of the first leaf to calculate (inclusive)
+         * @param to           the index of the last leaf to calculate (exclusive)
+         * @param leafFunction the function that calculates the leaf at a given index
+         */
+        LeafTask(HashCode[] leaves, @Nonnegative int from, @Nonnegative int to, IntFunction<HashCode> leafFunction) {
+            this.leaves = leaves;
+            this.from = from;
+            this.to = to;
+            this.leafFunction = leafFunction;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                leaves[from] = leafFunction.apply(from);
+            }
+            else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new LeafTask(leaves, from, middle, leafFunction), new LeafTask(leaves, middle, to, leafFunction));
+            }
+        }
+    }
+
+    /**
+     * A {@link HashSink} that hashes each chunk sequentially, as soon as it is complete, and builds the tree when the
+     * hash code is calculated.
+     */
+    @NotThreadSafe
+    private final class TreeHashSink extends AbstractHashSink {
+
+        /**
+         * The hash codes of the complete chunks.
+         */
+        @Nonnull
+        private final List<HashCode> leaves = new ArrayList<>();
+
+        /**
+         * The sink of the current chunk, or {@code null} if no byte has been appended since the last complete chunk.
+         */
+        @Nullable
+        private HashSink currentChunk;
+
+        /**
+         * The number of bytes of the current chunk.
+         */
+        @Nonnegative
+        private int currentSize;
+
+        /**
+         * The number of appended bytes.
+         */
+        @Nonnegative
+        private long length;
+
+        /**
+         * Constructs a new {@code TreeHashSink}.
+         */
+        TreeHashSink() {
+            super(ByteOrder.BIG_ENDIAN);
+        }
+
+        @Override
+        protected void update(ByteBuffer buffer) {
+            while (buffer.hasRemaining()) {
+                if (currentChunk == null) {
+                    currentChunk = leafHasher.newSink().putByte(LEAF_PREFIX);
+                }
+
+                int count = Math.min(buffer.remaining(), chunkSize - currentSize);
+                ByteBuffer part = buffer.duplicate();
+                part.limit(part.position() + count);
+                currentChunk.putBytes(part);
+                buffer.position(buffer.position() + count);
+
+                currentSize += count;
+                length += count;
+                if (currentSize == chunkSize) {
+                    leaves.add(currentChunk.hash());
+                    currentChunk = null;
+                    currentSize = 0;
+                }
+            }
+        }
+
+        @Nonnull
+        @Override
+        protected HashCode computeHash() {
+            if (currentChunk != null) {
+                leaves.add(currentChunk.hash());
+            }
+            else if (leaves.isEmpty()) {
+                leaves.add(hashLeaf(ByteBuffer.allocate(0)));
+            }
+            return new MerkleTree(chunkSize, length, leaves.toArray(new HashCode[0]), TreeHasher.this::hashNode).root();
+        }
+    }
+}
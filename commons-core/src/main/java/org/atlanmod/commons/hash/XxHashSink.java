@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import java.nio.ByteBuffer;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * A {@link HashSink} that calculates the {@code xxHash} (64 bits, without seed) incrementally, with the same result as
+ * {@link net.openhft.hashing.LongHashFunction#xx()}.
+ *
+ * @see <a href="https://github.com/Cyan4973/xxHash/blob/dev/doc/xxhash_spec.md">xxHash specification</a>
+ */
+@NotThreadSafe
+@ParametersAreNonnullByDefault
+final class XxHashSink extends BlockHashSink {
+
+    /**
+     * The prime number #1 of the algorithm.
+     */
+    private static final long PRIME64_1 = 0x9E3779B185EBCA87L;
+
+    /**
+     * The prime number #2 of the algorithm.
+     */
+    private static final long PRIME64_2 = 0xC2B2AE3D27D4EB4FL;
+
+    /**
+     * The prime number #3 of the algorithm.
+     */
+    private static final long PRIME64_3 = 0x165667B19E3779F9L;
+
+    /**
+     * The prime number #4 of the algorithm.
+     */
+    private static final long PRIME64_4 = 0x85EBCA77C2B2AE63L;
+
+    /**
+     * The prime number #5 of the algorithm.
+     */
+    private static final long PRIME64_5 = 0x27D4EB2F165667C5L;
+
+    /**
+     * The accumulator #1 of the algorithm.
+     */
+    private long v1 = PRIME64_1 + PRIME64_2;
+
+    /**
+     * The accumulator #2 of the algorithm.
+     */
+    private long v2 = PRIME64_2;
+
+    /**
+     * The accumulator #3 of the algorithm.
+     */
+    private long v3 = 0;
+
+    /**
+     * The accumulator #4 of the algorithm.
+     */
+    private long v4 = -PRIME64_1;
+
+    /**
+     * Constructs a new {@code XxHashSink}.
+     */
+    public XxHashSink() {
+        super(32);
+    }
+
+    @Override
+    protected void process(ByteBuffer data) {
+        v1 = round(v1, data.getLong());
+        v2 = round(v2, data.getLong());
+        v3 = round(v3, data.getLong());
+        v4 = round(v4, data.getLong());
+    }
+
+    @Override
+    protected long finish(ByteBuffer remaining, @Nonnegative long length) {
+        long hash;
+        if (length >= 32) {
+            hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            hash = mergeRound(hash, v1);
+            hash = mergeRound(hash, v2);
+            hash = mergeRound(hash, v3);
+            hash = mergeRound(hash, v4);
+        }
+        else {
+            hash = PRIME64_5;
+        }
+        hash += length;
+
+        while (remaining.remaining() >= Long.BYTES) {
+            hash ^= round(0, remaining.getLong());
+            hash = Long.rotateLeft(hash, 27) * PRIME64_1 + PRIME64_4;
+        }
+        if (remaining.remaining() >= Integer.BYTES) {
+            hash ^= (remaining.getInt() & 0xFFFFFFFFL) * PRIME64_1;
+            hash = Long.rotateLeft(hash, 23) * PRIME64_2 + PRIME64_3;
+        }
+        while (remaining.hasRemaining()) {
+            hash ^= (remaining.get() & 0xFFL) * PRIME64_5;
+            hash = Long.rotateLeft(hash, 11) * PRIME64_1;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= PRIME64_2;
+        hash ^= hash >>> 29;
+        hash *= PRIME64_3;
+        hash ^= hash >>> 32;
+        return hash;
+    }
+
+    /**
+     * Mixes an input lane into an accumulator.
+     *
+     * @param accumulator the accumulator
+     * @param input       the input lane
+     *
+     * @return the new accumulator
+     */
+    private static long round(long accumulator, long input) {
+        return Long.rotateLeft(accumulator + input * PRIME64_2, 31) * PRIME64_1;
+    }
+
+    /**
+     * Merges an accumulator into the hash.
+     *
+     * @param hash        the hash
+     * @param accumulator the accumulator to merge
+     *
+     * @return the new hash
+     */
+    private static long mergeRound(long hash, long accumulator) {
+        return (hash ^ round(0, accumulator)) * PRIME64_1 + PRIME64_4;
+    }
+}
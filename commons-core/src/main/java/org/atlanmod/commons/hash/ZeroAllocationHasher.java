@@ -8,11 +8,22 @@
 
 package org.atlanmod.commons.hash;
 
+import net.openhft.hashing.Access;
 import net.openhft.hashing.LongHashFunction;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 
+import static java.util.Objects.nonNull;
+
 /**
  * A {@link Hasher} that delegate its calls to a {@link LongHashFunction}.
  *
@@ -21,19 +32,44 @@ import javax.annotation.ParametersAreNonnullByDefault;
 @ParametersAreNonnullByDefault
 final class ZeroAllocationHasher implements Hasher {
 
+    /**
+     * Whether the delegated hash functions can read the direct buffers in place. They rely on an internal class of the
+     * JDK, which is not exported on Java 9 and later.
+     */
+    private static final boolean DIRECT_BUFFERS_SUPPORTED = isDirectBufferSupported();
+
     /**
      * The delegated hash function.
      */
     @Nonnull
     private final LongHashFunction delegate;
 
+    /**
+     * The supplier of the sinks calculating the delegated hash function incrementally, or {@code null} if the
+     * function cannot be calculated incrementally.
+     */
+    @Nullable
+    private final Supplier<HashSink> sinkSupplier;
+
     /**
      * Constructs a new {@code ZeroAllocationHasher}.
      *
      * @param delegate he delegated hash function
      */
     public ZeroAllocationHasher(LongHashFunction delegate) {
+        this(delegate, null);
+    }
+
+    /**
+     * Constructs a new {@code ZeroAllocationHasher}.
+     *
+     * @param delegate     he delegated hash function
+     * @param sinkSupplier the supplier of the sinks calculating the delegated hash function incrementally, or {@code
+     *                     null} if the function cannot be calculated incrementally
+     */
+    public ZeroAllocationHasher(LongHashFunction delegate, @Nullable Supplier<HashSink> sinkSupplier) {
         this.delegate = delegate;
+        this.sinkSupplier = sinkSupplier;
     }
 
     @Nonnull
@@ -96,6 +132,106 @@ final class ZeroAllocationHasher implements Hasher {
         return createHashCode(delegate.hashBytes(data));
     }
 
+    @Override
+    public long hashToLong(int data) {
+        return delegate.hashInt(data);
+    }
+
+    @Override
+    public long hashToLong(long data) {
+        return delegate.hashLong(data);
+    }
+
+    @Override
+    public long hashToLong(CharSequence data) {
+        if (data instanceof String) {
+            return delegate.hashChars((String) data);
+        }
+        if (data instanceof StringBuilder) {
+            return delegate.hashChars((StringBuilder) data);
+        }
+        return delegate.hash(data, Access.toNativeCharSequence(), 0, data.length() * (long) Character.BYTES);
+    }
+
+    @Override
+    public long hashToLong(byte[] data) {
+        return delegate.hashBytes(data);
+    }
+
+    @Nonnull
+    @Override
+    public HashCode hash(byte[] data, @Nonnegative int offset, @Nonnegative int length) {
+        return createHashCode(delegate.hashBytes(data, offset, length));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The direct buffers are hashed in place, without being copied on the heap, if the delegated hash function can
+     * read them or can be calculated incrementally.
+     */
+    @Nonnull
+    @Override
+    public HashCode hash(ByteBuffer data) {
+        if (!data.isDirect() || DIRECT_BUFFERS_SUPPORTED) {
+            return createHashCode(delegate.hashBytes(data));
+        }
+        if (nonNull(sinkSupplier)) {
+            return sinkSupplier.get().putBytes(data.duplicate()).hash();
+        }
+
+        ByteBuffer heapData = ByteBuffer.allocate(data.remaining());
+        heapData.put(data.duplicate());
+        return createHashCode(delegate.hashBytes(heapData.array()));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * If the delegated hash function cannot be calculated incrementally, the whole file is mapped at once.
+     *
+     * @throws IllegalArgumentException if the delegated hash function cannot be calculated incrementally, and the file
+     *                                  is larger than {@link Integer#MAX_VALUE} bytes
+     */
+    @Nonnull
+    @Override
+    public HashCode hash(Path file) throws IOException {
+        if (nonNull(sinkSupplier)) {
+            return MappedFiles.hash(file, sinkSupplier.get());
+        }
+        return hash(MappedFiles.map(file));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The values are encoded in little-endian order, and the strings in UTF-16, as by the delegated hash function. If
+     * this function cannot be calculated incrementally, the sink buffers the appended values.
+     */
+    @Nonnull
+    @Override
+    public HashSink newSink() {
+        if (nonNull(sinkSupplier)) {
+            return sinkSupplier.get();
+        }
+        return new BufferedHashSink(ByteOrder.LITTLE_ENDIAN, b -> createHashCode(delegate.hashBytes(b)));
+    }
+
+    /**
+     * Checks whether the delegated hash functions can read the direct buffers in place.
+     *
+     * @return {@code true} if the direct buffers are supported
+     */
+    private static boolean isDirectBufferSupported() {
+        try {
+            LongHashFunction.xx().hashBytes(ByteBuffer.allocateDirect(Long.BYTES));
+            return true;
+        }
+        catch (IllegalAccessError e) {
+            return false;
+        }
+    }
+
     /**
      * Creates a new {@link HashCode} from a long {@code hashCode}.
      *
@@ -0,0 +1,13 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+/**
+ * Provides classes to replay recorded access traces against caches, in order to choose their settings.
+ */
+
+package org.atlanmod.commons.cache.simulation;
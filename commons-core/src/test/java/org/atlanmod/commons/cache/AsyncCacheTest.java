@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.AbstractTest;
+import org.atlanmod.commons.concurrent.MoreExecutors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * A test-case that checks the behavior of {@link AsyncCache}.
+ */
+@ParametersAreNonnullByDefault
+public class AsyncCacheTest extends AbstractTest {
+
+    private AsyncCache<Integer, String> cache;
+
+    @BeforeEach
+    public void setUp() {
+        cache = CacheBuilder.builder()
+                .maximumSize(5)
+                .recordStats()
+                .buildAsync(key -> "Value" + key);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        cache.synchronous().invalidateAll();
+        cache.synchronous().cleanUp();
+    }
+
+    @Test
+    public void testUnsupportedSettings() {
+        assertThat(catchThrowable(() -> CacheBuilder.builder().weakKeys().buildAsync(key -> key)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void testGet() throws Exception {
+        assertThat(cache.getIfPresent(0)).isNull();
+
+        assertThat(cache.get(0).get()).isEqualTo("Value0");
+
+        assertThat(cache.getIfPresent(0)).isNotNull();
+        assertThat(cache.synchronous().get(0)).isEqualTo("Value0");
+    }
+
+    @Test
+    public void testGetWithFunction() throws Exception {
+        assertThat(cache.get(0, key -> "Other" + key).get()).isEqualTo("Other0");
+        assertThat(cache.get(0).get()).isEqualTo("Other0");
+    }
+
+    @Test
+    public void testGetAll() throws Exception {
+        Map<Integer, String> result = cache.getAll(IntStream.range(0, 3).boxed().collect(Collectors.toList())).get();
+
+        assertThat(result).hasSize(3);
+        assertThat(result.get(0)).isEqualTo("Value0");
+        assertThat(result.get(1)).isEqualTo("Value1");
+        assertThat(result.get(2)).isEqualTo("Value2");
+    }
+
+    @Test
+    public void testPut() throws Exception {
+        cache.put(0, CompletableFuture.completedFuture("Other0"));
+
+        assertThat(cache.get(0).get()).isEqualTo("Other0");
+    }
+
+    @Test
+    public void testExecutor() throws Exception {
+        AsyncCache<Integer, String> directCache = CacheBuilder.builder()
+                .buildAsync(key -> Thread.currentThread().getName(), MoreExecutors.newDirectPool());
+
+        assertThat(directCache.get(0).get()).isEqualTo(Thread.currentThread().getName());
+    }
+
+    @Test
+    public void testExecutorWithOtherSettings() throws Exception {
+        List<Integer> removedKeys = new CopyOnWriteArrayList<>();
+
+        AsyncCache<Integer, String> directCache = CacheBuilder.builder()
+                .refreshAfterWrite(Duration.ofHours(1))
+                .recordStats()
+                .<Integer, String>removalListener((k, v, c) -> removedKeys.add(k))
+                .buildAsync(key -> "Value" + key, MoreExecutors.newDirectPool());
+
+        assertThat(directCache.get(0).get()).isEqualTo("Value0");
+
+        directCache.synchronous().invalidate(0);
+        assertThat(removedKeys).containsExactly(0);
+        assertThat(directCache.synchronous().stats().missCount()).isEqualTo(1);
+    }
+}
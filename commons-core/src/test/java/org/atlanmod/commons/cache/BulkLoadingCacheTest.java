@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.AbstractTest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A test-case that checks the behavior of {@link Cache} with a bulk loading {@link java.util.function.Function}.
+ */
+@ParametersAreNonnullByDefault
+public class BulkLoadingCacheTest extends AbstractTest {
+
+    private List<Set<Integer>> loadedKeys;
+
+    private Cache<Integer, String> cache;
+
+    @BeforeEach
+    public void setUp() {
+        loadedKeys = new ArrayList<>();
+
+        cache = CacheBuilder.builder()
+                .maximumSize(100)
+                .recordStats()
+                .buildAll(keys -> {
+                    loadedKeys.add(new HashSet<>(keys));
+                    return keys.stream()
+                            .filter(k -> k >= 0)
+                            .collect(Collectors.toMap(Function.identity(), k -> "Value" + k));
+                });
+    }
+
+    @Test
+    public void testGet() {
+        assertThat(cache.get(0)).isEqualTo("Value0");
+        assertThat(cache.get(0)).isEqualTo("Value0");
+
+        assertThat(loadedKeys).hasSize(1);
+        assertThat(loadedKeys.get(0)).containsExactly(0);
+    }
+
+    @Test
+    public void testGetAbsent() {
+        assertThat(cache.get(-1)).isNull();
+        assertThat(cache.contains(-1)).isFalse();
+    }
+
+    @Test
+    public void testGetAllInSingleBatch() {
+        assertThat(cache.get(0)).isEqualTo("Value0");
+
+        Map<Integer, String> result = cache.getAll(IntStream.range(0, 10).boxed().collect(Collectors.toList()));
+
+        assertThat(result).hasSize(10);
+        IntStream.range(0, 10).forEach(i -> assertThat(result.get(i)).isEqualTo("Value" + i));
+
+        assertThat(loadedKeys).hasSize(2);
+        assertThat(loadedKeys.get(1)).hasSize(9).doesNotContain(0);
+    }
+
+    @Test
+    public void testGetAllWithMissingKeys() {
+        Map<Integer, String> result = cache.getAll(IntStream.range(-5, 5).boxed().collect(Collectors.toList()));
+
+        assertThat(result).hasSize(5).doesNotContainKeys(-5, -4, -3, -2, -1);
+        assertThat(loadedKeys).hasSize(1);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.AbstractTest;
+import org.atlanmod.commons.hash.StandardHashers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * A test-case that checks the behavior of the bulk operations of {@link Cache}.
+ */
+@ParametersAreNonnullByDefault
+public class BulkOperationsTest extends AbstractTest {
+
+    private static final int SIZE = 100_000;
+
+    @Test
+    public void testForEach() {
+        Cache<Integer, Integer> cache = newCache();
+
+        for (long threshold : new long[]{1, Long.MAX_VALUE}) {
+            LongAdder sum = new LongAdder();
+            cache.forEach(threshold, (k, v) -> sum.add(v));
+            assertThat(sum.sum()).isEqualTo((long) SIZE * (SIZE - 1) / 2);
+        }
+    }
+
+    @Test
+    public void testInvalidateIf() {
+        Cache<Integer, Integer> cache = newCache();
+
+        assertThat(cache.invalidateIf(1, (k, v) -> k % 2 == 0)).isEqualTo(SIZE / 2);
+        assertThat(cache.size()).isEqualTo(SIZE / 2);
+        assertThat(cache.get(2)).isNull();
+        assertThat(cache.get(3)).isEqualTo(3);
+
+        assertThat(cache.invalidateIf(Long.MAX_VALUE, (k, v) -> false)).isEqualTo(0);
+    }
+
+    @Test
+    public void testReplaceAll() {
+        Cache<Integer, Integer> cache = newCache();
+
+        cache.replaceAll(1, (k, v) -> k % 10 == 0 ? null : v + 1);
+
+        assertThat(cache.size()).isEqualTo(SIZE - SIZE / 10);
+        assertThat(cache.get(10)).isNull();
+        assertThat(cache.get(11)).isEqualTo(12);
+    }
+
+    @Test
+    public void testPartitioned() {
+        PartitionedCache<Integer, Integer> cache = CacheBuilder.builder().buildPartitioned(4, StandardHashers.MURMUR3);
+        IntStream.range(0, SIZE).forEach(i -> cache.put(i, i));
+
+        LongAdder count = new LongAdder();
+        cache.forEach(1, (k, v) -> count.increment());
+        assertThat(count.sum()).isEqualTo(SIZE);
+
+        assertThat(cache.invalidateIf(1, (k, v) -> k < 1_000)).isEqualTo(1_000);
+
+        cache.replaceAll(1, (k, v) -> -v);
+        assertThat(cache.get(1_000)).isEqualTo(-1_000);
+        assertThat(cache.size()).isEqualTo(SIZE - 1_000);
+    }
+
+    @Test
+    public void testInvalidThreshold() {
+        Cache<Integer, Integer> cache = CacheBuilder.builder().build();
+
+        assertThat(catchThrowable(() -> cache.forEach(0, (k, v) -> {
+        }))).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(catchThrowable(() -> cache.invalidateIf(-1, (k, v) -> true)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Cache<Integer, Integer> newCache() {
+        Cache<Integer, Integer> cache = CacheBuilder.builder().build();
+        IntStream.range(0, SIZE).forEach(i -> cache.put(i, i));
+        return cache;
+    }
+}
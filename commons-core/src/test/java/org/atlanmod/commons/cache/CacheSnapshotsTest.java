@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.AbstractFileBasedTest;
+import org.atlanmod.commons.io.serializer.BinarySerializer;
+import org.atlanmod.commons.io.serializer.BinarySerializerFactory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * A test-case that checks the behavior of {@link CacheSnapshots}.
+ */
+@ParametersAreNonnullByDefault
+public class CacheSnapshotsTest extends AbstractFileBasedTest {
+
+    private final BinarySerializer<Integer> keySerializer = BinarySerializerFactory.getInstance().forAny();
+
+    private final BinarySerializer<String> valueSerializer = BinarySerializerFactory.getInstance().forAny();
+
+    private Path file;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        file = currentTempFile().toPath();
+    }
+
+    @Test
+    public void testSaveLoad() throws IOException {
+        Cache<Integer, String> cache = CacheBuilder.builder().build();
+        IntStream.range(0, 1000).forEach(i -> cache.put(i, "Value" + i));
+
+        assertThat(CacheSnapshots.save(cache, file, keySerializer, valueSerializer)).isEqualTo(1000);
+
+        Cache<Integer, String> warmCache = CacheBuilder.builder().recordStats().build();
+        warmCache.put(0, "Fresh");
+
+        assertThat(CacheSnapshots.load(warmCache, file, keySerializer, valueSerializer)).isEqualTo(1000);
+        assertThat(warmCache.size()).isEqualTo(1000);
+        assertThat(warmCache.stats().requestCount()).isEqualTo(0);
+
+        assertThat(warmCache.get(0)).isEqualTo("Fresh");
+        assertThat(warmCache.get(999)).isEqualTo("Value999");
+    }
+
+    @Test
+    public void testSaveHottest() throws IOException {
+        Cache<Integer, String> cache = CacheBuilder.builder().maximumSize(1000).build();
+        IntStream.range(0, 1000).forEach(i -> cache.put(i, "Value" + i));
+        IntStream.range(0, 5).forEach(r -> IntStream.range(0, 10).forEach(i -> cache.get(i * 7)));
+
+        assertThat(CacheSnapshots.save(cache, file, keySerializer, valueSerializer, 10)).isEqualTo(10);
+
+        Cache<Integer, String> warmCache = CacheBuilder.builder().build();
+        CacheSnapshots.load(warmCache, file, keySerializer, valueSerializer);
+
+        assertThat(warmCache.asMap()).containsOnlyKeys(0, 7, 14, 21, 28, 35, 42, 49, 56, 63);
+    }
+
+    @Test
+    public void testSaveHottestDecorated() throws IOException {
+        List<Cache<Integer, String>> caches = Arrays.asList(
+                CacheBuilder.builder().maximumSize(1000).coalesceLoads().build(),
+                CacheBuilder.builder().maximumSize(1000).compressValues(16).build(),
+                CacheBuilder.builder().maximumSize(1000).scanResistant().build());
+
+        for (Cache<Integer, String> cache : caches) {
+            IntStream.range(0, 1000).forEach(i -> cache.put(i, "Value" + i));
+            IntStream.range(0, 5).forEach(r -> IntStream.range(0, 10).forEach(i -> cache.get(i * 7)));
+
+            assertThat(CacheSnapshots.save(cache, file, keySerializer, valueSerializer, 10)).isEqualTo(10);
+
+            Cache<Integer, String> warmCache = CacheBuilder.builder().build();
+            CacheSnapshots.load(warmCache, file, keySerializer, valueSerializer);
+
+            assertThat(warmCache.asMap()).containsOnlyKeys(0, 7, 14, 21, 28, 35, 42, 49, 56, 63);
+        }
+    }
+
+    @Test
+    public void testSaveFailure() throws IOException {
+        Cache<Integer, String> cache = CacheBuilder.builder().build();
+        cache.put(0, "Value0");
+
+        // The snapshot cannot replace a non-empty directory
+        Path directory = file.resolveSibling(file.getFileName() + ".d");
+        Files.createDirectories(directory.resolve("child"));
+
+        assertThat(catchThrowable(() -> CacheSnapshots.save(cache, directory, keySerializer, valueSerializer)))
+                .isInstanceOf(IOException.class);
+
+        try (Stream<Path> files = Files.list(directory.toAbsolutePath().getParent())) {
+            assertThat(files.noneMatch(f -> f.getFileName().toString().endsWith(".tmp"))).isTrue();
+        }
+    }
+
+    @Test
+    public void testLoadMissingFile() throws IOException {
+        Cache<Integer, String> cache = CacheBuilder.builder().build();
+
+        assertThat(CacheSnapshots.load(cache, file, keySerializer, valueSerializer)).isEqualTo(0);
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void testLoadInvalidFile() throws IOException {
+        Cache<Integer, String> cache = CacheBuilder.builder().build();
+        IntStream.range(0, 100).forEach(i -> cache.put(i, "Value" + i));
+        CacheSnapshots.save(cache, file, keySerializer, valueSerializer);
+
+        byte[] content = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(content, content.length - 8));
+
+        assertThat(catchThrowable(() -> CacheSnapshots.load(CacheBuilder.builder().build(), file, keySerializer, valueSerializer)))
+                .isInstanceOf(IOException.class);
+
+        Files.write(file, new byte[]{1, 2, 3, 4});
+
+        assertThat(catchThrowable(() -> CacheSnapshots.load(CacheBuilder.builder().build(), file, keySerializer, valueSerializer)))
+                .isInstanceOf(IOException.class);
+    }
+}
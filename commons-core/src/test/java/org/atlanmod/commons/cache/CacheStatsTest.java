@@ -30,31 +30,58 @@ public class CacheStatsTest extends AbstractTest {
 
     @BeforeEach
     public void setUp() {
-        stats = new CacheStats(30, 10, 15, 5, 2000, 2);
+        stats = newStats(30, 10, 15, 5, 2000, 2);
     }
 
     @Test
-    public void testConstructor() {
-        assertThat(catchThrowable(() -> new CacheStats(0, 0, 0, 0, 0, 0)))
+    public void testBuilder() {
+        assertThat(catchThrowable(() -> CacheStats.builder().build()))
                 .isNull();
 
-        assertThat(catchThrowable(() -> new CacheStats(-1, 0, 0, 0, 0, 0)))
+        assertThat(catchThrowable(() -> CacheStats.builder().hitCount(-1).build()))
                 .isInstanceOf(IllegalArgumentException.class);
 
-        assertThat(catchThrowable(() -> new CacheStats(0, -1, 0, 0, 0, 0)))
+        assertThat(catchThrowable(() -> CacheStats.builder().missCount(-1).build()))
                 .isInstanceOf(IllegalArgumentException.class);
 
-        assertThat(catchThrowable(() -> new CacheStats(0, 0, -1, 0, 0, 0)))
+        assertThat(catchThrowable(() -> CacheStats.builder().loadSuccessCount(-1).build()))
                 .isInstanceOf(IllegalArgumentException.class);
 
-        assertThat(catchThrowable(() -> new CacheStats(0, 0, 0, -1, 0, 0)))
+        assertThat(catchThrowable(() -> CacheStats.builder().loadFailureCount(-1).build()))
                 .isInstanceOf(IllegalArgumentException.class);
 
-        assertThat(catchThrowable(() -> new CacheStats(0, 0, 0, 0, -1, 0)))
+        assertThat(catchThrowable(() -> CacheStats.builder().totalLoadTime(-1).build()))
                 .isInstanceOf(IllegalArgumentException.class);
 
-        assertThat(catchThrowable(() -> new CacheStats(0, 0, 0, 0, 0, -1)))
+        assertThat(catchThrowable(() -> CacheStats.builder().evictionCount(-1).build()))
                 .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(catchThrowable(() -> CacheStats.builder().coalescedCount(-1).build()))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(catchThrowable(() -> CacheStats.builder().admissionRejectedCount(-1).build()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testToBuilder() {
+        CacheStats copy = stats.toBuilder().weightedSize(1024).coalescedCount(3).build();
+
+        assertThat(copy.hitCount()).isEqualTo(30);
+        assertThat(copy.evictionWeight()).isEqualTo(2);
+        assertThat(copy.weightedSize()).isEqualTo(1024);
+        assertThat(copy.coalescedCount()).isEqualTo(3);
+
+        assertThat(stats.toBuilder().build()).isEqualTo(stats);
+    }
+
+    @Test
+    public void testToString() {
+        CacheStats other = stats.toBuilder().weightedSize(1024).coalescedCount(3).admissionRejectedCount(4).build();
+
+        assertThat(other.toString()).isEqualTo("CacheStats {Hit = 30 (75%), Miss = 10 (25%), Load Success = 15, "
+                + "Load Failure = 5, Eviction Count = 2, Eviction Weight = 2, Weighted Size = 1024, Coalesced = 3, "
+                + "Admission Rejected = 4}");
     }
 
     @Test
@@ -162,6 +189,31 @@ public class CacheStatsTest extends AbstractTest {
         assertThat(result.evictionCount()).isEqualTo(4);
     }
 
+    @Test
+    public void testWeights() {
+        CacheStats weighted = newStats(30, 10, 15, 5, 2000, 2).toBuilder()
+                .evictionWeight(128)
+                .weightedSize(1024)
+                .build();
+
+        assertThat(stats.evictionWeight()).isEqualTo(2);
+        assertThat(stats.weightedSize()).isEqualTo(0);
+
+        assertThat(weighted.evictionWeight()).isEqualTo(128);
+        assertThat(weighted.weightedSize()).isEqualTo(1024);
+
+        CacheStats difference = weighted.minus(weighted);
+        assertThat(difference.evictionWeight()).isEqualTo(0);
+        assertThat(difference.weightedSize()).isEqualTo(1024);
+
+        CacheStats sum = weighted.plus(weighted);
+        assertThat(sum.evictionWeight()).isEqualTo(256);
+        assertThat(sum.weightedSize()).isEqualTo(2048);
+
+        assertThat(catchThrowable(() -> CacheStats.builder().evictionWeight(-1).build()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
     @Test
     public void testEquals() {
         //noinspection EqualsWithItself, EqualsReplaceableByObjectsCall
@@ -171,21 +223,33 @@ public class CacheStatsTest extends AbstractTest {
         assertThat(stats.equals(null)).isFalse();
 
         //noinspection EqualsReplaceableByObjectsCall
-        assertThat(stats.equals(new CacheStats(0, 10, 15, 5, 2000, 2))).isFalse();
+        assertThat(stats.equals(newStats(0, 10, 15, 5, 2000, 2))).isFalse();
 
         //noinspection EqualsReplaceableByObjectsCall
-        assertThat(stats.equals(new CacheStats(30, 0, 15, 5, 2000, 2))).isFalse();
+        assertThat(stats.equals(newStats(30, 0, 15, 5, 2000, 2))).isFalse();
 
         //noinspection EqualsReplaceableByObjectsCall
-        assertThat(stats.equals(new CacheStats(30, 10, 0, 5, 2000, 2))).isFalse();
+        assertThat(stats.equals(newStats(30, 10, 0, 5, 2000, 2))).isFalse();
 
         //noinspection EqualsReplaceableByObjectsCall
-        assertThat(stats.equals(new CacheStats(30, 10, 15, 0, 2000, 2))).isFalse();
+        assertThat(stats.equals(newStats(30, 10, 15, 0, 2000, 2))).isFalse();
 
         //noinspection EqualsReplaceableByObjectsCall
-        assertThat(stats.equals(new CacheStats(30, 10, 15, 5, 0, 2))).isFalse();
+        assertThat(stats.equals(newStats(30, 10, 15, 5, 0, 2))).isFalse();
 
         //noinspection EqualsReplaceableByObjectsCall
-        assertThat(stats.equals(new CacheStats(30, 10, 15, 5, 2000, 0))).isFalse();
+        assertThat(stats.equals(newStats(30, 10, 15, 5, 2000, 0))).isFalse();
+    }
+
+    private static CacheStats newStats(long hitCount, long missCount, long loadSuccessCount, long loadFailureCount, long totalLoadTime, long evictionCount) {
+        return CacheStats.builder()
+                .hitCount(hitCount)
+                .missCount(missCount)
+                .loadSuccessCount(loadSuccessCount)
+                .loadFailureCount(loadFailureCount)
+                .totalLoadTime(totalLoadTime)
+                .evictionCount(evictionCount)
+                .evictionWeight(evictionCount)
+                .build();
     }
-}
\ No newline at end of file
+}
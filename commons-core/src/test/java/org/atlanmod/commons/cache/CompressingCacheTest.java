@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.AbstractTest;
+import org.atlanmod.commons.hash.StandardHashers;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * A test-case that checks the behavior of the caches built with {@link CacheBuilder#compressValues(int, Codec)}, and
+ * of {@link Codecs}.
+ */
+@ParametersAreNonnullByDefault
+public class CompressingCacheTest extends AbstractTest {
+
+    @Test
+    public void testCodec() {
+        Codec codec = Codecs.deflate();
+        byte[] data = document(1);
+
+        byte[] compressedData = codec.encode(data);
+        assertThat(compressedData.length).isLessThan(data.length);
+        assertThat(codec.decode(compressedData, data.length)).isEqualTo(data);
+
+        assertThat(catchThrowable(() -> codec.decode(compressedData, data.length + 1)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(catchThrowable(() -> codec.decode(new byte[]{1, 2, 3}, 10)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(catchThrowable(() -> Codecs.deflate(10)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testValues() {
+        Cache<Integer, byte[]> cache = CacheBuilder.builder()
+                .compressValues(1024)
+                .build();
+
+        cache.put(1, document(1));
+        assertThat(cache.get(1)).isEqualTo(document(1));
+        assertThat(cache.asMap().get(1)).isEqualTo(document(1));
+        assertThat(cache.get(2, CompressingCacheTest::document)).isEqualTo(document(2));
+
+        byte[] smallValue = {1, 2, 3};
+        cache.put(3, smallValue);
+        assertThat(cache.get(3)).isSameAs(smallValue);
+
+        assertThat(cache.asMap().replace(1, document(1), document(4))).isTrue();
+        assertThat(cache.get(1)).isEqualTo(document(4));
+
+        assertThat(cache.asMap().remove(1, document(1))).isFalse();
+        assertThat(cache.asMap().remove(1, document(4))).isTrue();
+        assertThat(cache.asMap().containsKey(1)).isFalse();
+
+        assertThat(cache.asMap().values()).containsExactlyInAnyOrder(document(2), smallValue);
+    }
+
+    @Test
+    public void testLoading() {
+        Cache<Integer, byte[]> cache = CacheBuilder.builder()
+                .compressValues(0)
+                .build(CompressingCacheTest::document);
+
+        assertThat(cache.get(1)).isEqualTo(document(1));
+        assertThat(cache.getAll(IntStream.range(0, 3).boxed()::iterator)).hasSize(3);
+    }
+
+    @Test
+    public void testWeight() {
+        Cache<Integer, byte[]> compressingCache = CacheBuilder.builder()
+                .maximumMemory(1_000_000)
+                .compressValues(1024)
+                .build();
+
+        Cache<Integer, byte[]> cache = CacheBuilder.builder()
+                .maximumMemory(1_000_000)
+                .build();
+
+        for (int i = 0; i < 500; i++) {
+            compressingCache.put(i, document(i));
+            cache.put(i, document(i));
+        }
+        compressingCache.cleanUp();
+        cache.cleanUp();
+
+        assertThat(compressingCache.size()).isEqualTo(500);
+        assertThat(cache.size()).isLessThan(500);
+    }
+
+    @Test
+    public void testRemovalListener() {
+        List<byte[]> removedValues = new ArrayList<>();
+
+        Cache<Integer, byte[]> cache = CacheBuilder.builder()
+                .compressValues(0)
+                .executor(Runnable::run)
+                .removalListener((Integer k, byte[] v, RemovalCause c) -> removedValues.add(v))
+                .build();
+
+        cache.put(1, document(1));
+        cache.invalidate(1);
+
+        assertThat(removedValues).containsExactly(document(1));
+    }
+
+    @Test
+    public void testPartitioned() {
+        Cache<Integer, byte[]> cache = CacheBuilder.builder()
+                .compressValues(1024)
+                .buildPartitioned(4, StandardHashers.MURMUR3);
+
+        IntStream.range(0, 10).forEach(i -> cache.put(i, document(i)));
+        IntStream.range(0, 10).forEach(i -> assertThat(cache.get(i)).isEqualTo(document(i)));
+    }
+
+    @Test
+    public void testUnsupported() {
+        assertThat(catchThrowable(() -> CacheBuilder.builder().compressValues(-1)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(catchThrowable(() -> CacheBuilder.builder().compressValues(0).compressValues(0)))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(catchThrowable(() -> CacheBuilder.builder().compressValues(0).buildLong()))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(catchThrowable(() -> CacheBuilder.builder().compressValues(0).buildAsync(k -> k)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    /**
+     * Returns a compressible document of about 10 KB.
+     *
+     * @param id the identifier of the document
+     *
+     * @return the bytes of the document
+     */
+    @Nonnull
+    private static byte[] document(int id) {
+        StringBuilder builder = new StringBuilder();
+        while (builder.length() < 10_000) {
+            builder.append("{\"id\":").append(id).append(",\"name\":\"value\",\"tags\":[\"a\",\"b\"]},");
+        }
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.AbstractTest;
+import org.atlanmod.commons.concurrent.MoreExecutors;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * A test-case that checks the behavior of {@link Cache}s with expiration and refresh policies.
+ */
+@ParametersAreNonnullByDefault
+public class ExpirationCacheTest extends AbstractTest {
+
+    @Test
+    public void testInvalidSettings() {
+        assertThat(catchThrowable(() -> CacheBuilder.builder().expireAfterWrite(Duration.ofSeconds(-1))))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(catchThrowable(() -> CacheBuilder.builder().refreshAfterWrite(Duration.ZERO)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(catchThrowable(() -> CacheBuilder.builder().expireAfterWrite(Duration.ofSeconds(1)).expireAfter((k, v) -> 0L)))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(catchThrowable(() -> CacheBuilder.builder().refreshAfterWrite(Duration.ofSeconds(1)).build()))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void testExpireAfterWrite() throws Exception {
+        Cache<Integer, String> cache = CacheBuilder.builder()
+                .expireAfterWrite(Duration.ofMillis(50))
+                .build();
+
+        cache.put(0, "Value0");
+        assertThat(cache.get(0)).isEqualTo("Value0");
+
+        Thread.sleep(100);
+
+        assertThat(cache.get(0)).isNull();
+    }
+
+    @Test
+    public void testExpireAfterAccess() throws Exception {
+        Cache<Integer, String> cache = CacheBuilder.builder()
+                .expireAfterAccess(Duration.ofMillis(200))
+                .build();
+
+        cache.put(0, "Value0");
+        cache.put(1, "Value1");
+
+        for (int i = 0; i < 5; i++) {
+            Thread.sleep(50);
+            assertThat(cache.get(0)).isEqualTo("Value0");
+        }
+
+        assertThat(cache.get(1)).isNull();
+    }
+
+    @Test
+    public void testExpireAfter() throws Exception {
+        Cache<Integer, String> cache = CacheBuilder.builder()
+                .expireAfter((Integer key, String value) -> key == 0 ? TimeUnit.MILLISECONDS.toNanos(50) : Long.MAX_VALUE)
+                .build();
+
+        cache.put(0, "Value0");
+        cache.put(1, "Value1");
+
+        Thread.sleep(100);
+
+        assertThat(cache.get(0)).isNull();
+        assertThat(cache.get(1)).isEqualTo("Value1");
+    }
+
+    @Test
+    public void testRefreshAfterWrite() throws Exception {
+        AtomicInteger loadCount = new AtomicInteger();
+
+        Cache<Integer, String> cache = CacheBuilder.builder()
+                .refreshAfterWrite(Duration.ofMillis(50))
+                .executor(MoreExecutors.newDirectPool())
+                .build(key -> "Value" + loadCount.incrementAndGet());
+
+        assertThat(cache.get(0)).isEqualTo("Value1");
+
+        Thread.sleep(100);
+
+        // The stale value is returned while the refresh is triggered
+        assertThat(cache.get(0)).isEqualTo("Value1");
+        assertThat(cache.get(0)).isEqualTo("Value2");
+        assertThat(loadCount.get()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.AbstractTest;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * A test-case that checks the behavior of the caches built with {@link CacheBuilder#negativeCaching(Duration)} and
+ * {@link CacheBuilder#loadFailureBackoff(Duration, Duration)}.
+ */
+@ParametersAreNonnullByDefault
+public class GuardedLoadingCacheTest extends AbstractTest {
+
+    @Test
+    public void testNegativeCaching() {
+        AtomicInteger calls = new AtomicInteger();
+
+        Cache<Integer, Optional<String>> cache = CacheBuilder.builder()
+                .executor(Runnable::run)
+                .recordStats()
+                .negativeCaching(Duration.ofMinutes(1))
+                .build(k -> {
+                    calls.incrementAndGet();
+                    return k == 0 ? Optional.empty() : k == 1 ? null : Optional.of("Value" + k);
+                });
+
+        IntStream.range(0, 5).forEach(i -> {
+            assertThat(cache.get(0)).isEmpty();
+            assertThat(cache.get(1)).isNull();
+        });
+        assertThat(cache.get(2)).contains("Value2");
+
+        assertThat(calls).hasValue(3);
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.stats().loadFailureCount()).isEqualTo(10);
+
+        assertThat(cache.getAll(Arrays.asList(0, 1, 2)))
+                .containsOnlyKeys(0, 2)
+                .containsEntry(0, Optional.empty());
+
+        cache.invalidate(0);
+        assertThat(cache.get(0)).isEmpty();
+        assertThat(calls).hasValue(4);
+    }
+
+    @Test
+    public void testNegativeCachingExpiration() throws InterruptedException {
+        AtomicInteger calls = new AtomicInteger();
+
+        Cache<Integer, String> cache = CacheBuilder.builder()
+                .executor(Runnable::run)
+                .negativeCaching(Duration.ofMillis(50))
+                .build(k -> {
+                    calls.incrementAndGet();
+                    return null;
+                });
+
+        assertThat(cache.get(0)).isNull();
+        assertThat(cache.get(0)).isNull();
+        assertThat(calls).hasValue(1);
+
+        Thread.sleep(100);
+
+        assertThat(cache.get(0)).isNull();
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    public void testLoadFailureBackoff() throws InterruptedException {
+        AtomicInteger calls = new AtomicInteger();
+        AtomicBoolean available = new AtomicBoolean();
+
+        Cache<Integer, String> cache = CacheBuilder.builder()
+                .executor(Runnable::run)
+                .recordStats()
+                .loadFailureBackoff(Duration.ofMillis(100), Duration.ofMinutes(1))
+                .build(k -> {
+                    calls.incrementAndGet();
+                    if (!available.get()) {
+                        throw new IllegalStateException("Unavailable");
+                    }
+                    return "Value" + k;
+                });
+
+        Throwable failure = catchThrowable(() -> cache.get(0));
+        assertThat(failure)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Unavailable");
+
+        Throwable backoff = catchThrowable(() -> cache.get(0));
+        assertThat(backoff).isInstanceOf(LoadBackoffException.class);
+        assertThat(backoff.getCause()).isSameAs(failure);
+
+        IntStream.range(2, 10).forEach(i -> assertThat(catchThrowable(() -> cache.get(0)))
+                .isInstanceOf(LoadBackoffException.class)
+                .isNotSameAs(backoff)
+                .hasCauseExactlyInstanceOf(IllegalStateException.class));
+
+        assertThat(calls).hasValue(1);
+        assertThat(cache.stats().loadFailureCount()).isEqualTo(10);
+
+        // The second failure doubles the delay
+        Thread.sleep(150);
+        assertThat(catchThrowable(() -> cache.get(0))).isInstanceOf(IllegalStateException.class);
+        assertThat(calls).hasValue(2);
+
+        Thread.sleep(100);
+        assertThat(catchThrowable(() -> cache.get(0))).isInstanceOf(LoadBackoffException.class);
+        assertThat(calls).hasValue(2);
+
+        // Refreshing a key resets its delay
+        available.set(true);
+        cache.refresh(0);
+        assertThat(cache.get(0)).isEqualTo("Value0");
+        assertThat(calls).hasValue(3);
+    }
+
+    @Test
+    public void testUnsupportedCaches() {
+        assertThat(catchThrowable(() -> CacheBuilder.builder().negativeCaching(Duration.ofSeconds(1)).build()))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(catchThrowable(() -> CacheBuilder.builder().loadFailureBackoff(Duration.ofSeconds(1), Duration.ofSeconds(1)).buildAsync(k -> k)))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(catchThrowable(() -> CacheBuilder.builder().loadFailureBackoff(Duration.ofSeconds(2), Duration.ofSeconds(1))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
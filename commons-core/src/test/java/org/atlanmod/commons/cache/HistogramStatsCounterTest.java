@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.AbstractTest;
+import org.atlanmod.commons.io.serializer.BinarySerializerFactory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * A test-case that checks the behavior of {@link HistogramStatsCounter}.
+ */
+@ParametersAreNonnullByDefault
+public class HistogramStatsCounterTest extends AbstractTest {
+
+    @Test
+    public void testLoadLatency() {
+        HistogramStatsCounter counter = new HistogramStatsCounter();
+
+        assertThat(counter.loadLatency(0.5)).isEqualTo(0);
+
+        LongStream.rangeClosed(1, 1000).forEach(i -> counter.recordLoadSuccess(i * 1000));
+
+        assertThat(counter.loadLatency(0.5)).isCloseTo(500_000, within(500_000 / 16L));
+        assertThat(counter.loadLatency(0.99)).isCloseTo(990_000, within(990_000 / 16L));
+        assertThat(counter.loadLatency(0.999)).isCloseTo(999_000, within(999_000 / 16L));
+        assertThat(counter.loadLatency(1)).isEqualTo(1_000_000);
+
+        assertThat(counter.snapshot().loadSuccessCount()).isEqualTo(1000);
+
+        assertThat(catchThrowable(() -> counter.loadLatency(1.5)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testExtremeLatencies() {
+        LongStream.of(0, 1, 15, 16, 31, 32, 1_000_000_007, Long.MAX_VALUE).forEach(v -> {
+            HistogramStatsCounter counter = new HistogramStatsCounter();
+            counter.recordLoadFailure(v);
+
+            assertThat(counter.loadLatency(1)).isEqualTo(v);
+        });
+    }
+
+    @Test
+    public void testCaffeineCache() {
+        HistogramStatsCounter counter = new HistogramStatsCounter();
+
+        Cache<Integer, String> cache = CacheBuilder.builder()
+                .maximumSize(10)
+                .executor(Runnable::run)
+                .recordStats(() -> counter)
+                .build(k -> "Value" + k);
+
+        IntStream.range(0, 20).forEach(cache::get);
+        IntStream.range(0, 20).forEach(i -> cache.get(19));
+        cache.cleanUp();
+        cache.invalidate(19);
+
+        assertThat(counter.evictionCount(RemovalCause.SIZE)).isEqualTo(10);
+        assertThat(counter.evictionCount(RemovalCause.EXPLICIT)).isEqualTo(0);
+        assertThat(counter.loadLatency(0.99)).isPositive();
+
+        CacheStats stats = cache.stats();
+        assertThat(stats.hitCount()).isEqualTo(20);
+        assertThat(stats.loadSuccessCount()).isEqualTo(20);
+        assertThat(stats.evictionCount()).isEqualTo(10);
+    }
+
+    @Test
+    public void testWeightedCache() {
+        Cache<Integer, String> cache = CacheBuilder.builder()
+                .maximumWeight(100, (Integer k, String v) -> 10)
+                .executor(Runnable::run)
+                .recordStats(HistogramStatsCounter::new)
+                .build();
+
+        IntStream.range(0, 20).forEach(i -> cache.put(i, "Value" + i));
+        cache.cleanUp();
+
+        CacheStats stats = cache.stats();
+        assertThat(stats.evictionWeight()).isEqualTo(100);
+        assertThat(stats.weightedSize()).isEqualTo(100);
+    }
+
+    @Test
+    public void testOffHeapCache() {
+        HistogramStatsCounter counter = new HistogramStatsCounter();
+
+        Cache<Integer, String> cache = CacheBuilder.builder()
+                .recordStats(() -> counter)
+                .buildOffHeap(4096, BinarySerializerFactory.getInstance().forAny());
+
+        IntStream.range(0, 200).forEach(i -> cache.put(i, "Value" + i));
+
+        assertThat(counter.evictionCount(RemovalCause.SIZE)).isPositive();
+        assertThat(cache.stats().weightedSize()).isPositive();
+    }
+
+    @Test
+    public void testUnsupportedSettings() {
+        assertThat(catchThrowable(() -> CacheBuilder.builder().recordStats(HistogramStatsCounter::new).recordStats(HistogramStatsCounter::new)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
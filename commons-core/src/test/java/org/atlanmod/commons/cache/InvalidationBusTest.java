@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.AbstractTest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A test-case that checks the behavior of {@link InvalidationBus}.
+ */
+@ParametersAreNonnullByDefault
+public class InvalidationBusTest extends AbstractTest {
+
+    @Test
+    public void testInvalidate() {
+        List<Runnable> tasks = new ArrayList<>();
+        InvalidationBus<Integer> bus = new InvalidationBus<>(tasks::add);
+
+        Cache<Integer, String> first = CacheBuilder.builder().build();
+        Cache<String, String> second = CacheBuilder.builder().build();
+        bus.register(first, k -> k);
+        bus.register(second, k -> k % 2 == 0 ? "k" + k : null);
+
+        IntStream.range(0, 10).forEach(i -> {
+            first.put(i, "v" + i);
+            second.put("k" + i, "v" + i);
+        });
+
+        IntStream.range(0, 4).forEach(bus::invalidate);
+        assertThat(tasks).hasSize(1);
+        assertThat(bus.pendingCount()).isEqualTo(4);
+        assertThat(first.size()).isEqualTo(10);
+
+        tasks.forEach(Runnable::run);
+        assertThat(bus.pendingCount()).isEqualTo(0);
+        assertThat(first.size()).isEqualTo(6);
+        assertThat(first.get(3)).isNull();
+        assertThat(second.size()).isEqualTo(8);
+        assertThat(second.get("k3")).isEqualTo("v3");
+    }
+
+    @Test
+    public void testRejectedExecution() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.shutdown();
+        InvalidationBus<Integer> bus = new InvalidationBus<>(executor);
+
+        Cache<Integer, String> cache = CacheBuilder.builder().build();
+        bus.register(cache, k -> k);
+        IntStream.range(0, 10).forEach(i -> cache.put(i, "v" + i));
+
+        bus.invalidate(0);
+        bus.invalidate(1);
+
+        assertThat(bus.pendingCount()).isEqualTo(0);
+        assertThat(cache.size()).isEqualTo(8);
+    }
+
+    @Test
+    public void testFlushAndUnregister() {
+        InvalidationBus<Integer> bus = new InvalidationBus<>(r -> {
+        });
+
+        Cache<Integer, String> first = CacheBuilder.builder().build();
+        Cache<Integer, String> second = CacheBuilder.builder().build();
+        bus.register(first, k -> k);
+        bus.register(second, k -> k);
+        IntStream.range(0, 10).forEach(i -> {
+            first.put(i, "v" + i);
+            second.put(i, "v" + i);
+        });
+
+        bus.unregister(second);
+        IntStream.range(0, 10).forEach(bus::invalidate);
+        bus.flush();
+
+        assertThat(first.size()).isEqualTo(0);
+        assertThat(second.size()).isEqualTo(10);
+
+        bus.register(second, k -> k);
+        bus.invalidateAll();
+        assertThat(second.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void testTransport() {
+        Executor direct = Runnable::run;
+
+        LocalInvalidationTransport<Integer> firstTransport = new LocalInvalidationTransport<>();
+        InvalidationBus<Integer> firstBus = new InvalidationBus<>(direct, firstTransport);
+        InvalidationBus<Integer> secondBus = new InvalidationBus<>(direct, firstTransport.connect());
+
+        Cache<Integer, String> first = CacheBuilder.builder().build();
+        Cache<Integer, String> second = CacheBuilder.builder().build();
+        firstBus.register(first, k -> k);
+        secondBus.register(second, k -> k);
+        IntStream.range(0, 10).forEach(i -> {
+            first.put(i, "v" + i);
+            second.put(i, "v" + i);
+        });
+
+        firstBus.invalidate(1);
+        secondBus.invalidate(2);
+
+        assertThat(first.asMap()).doesNotContainKeys(1, 2);
+        assertThat(second.asMap()).doesNotContainKeys(1, 2);
+        assertThat(first.size()).isEqualTo(8);
+        assertThat(second.size()).isEqualTo(8);
+    }
+
+    @Test
+    public void testBatchSize() {
+        List<Integer> batchSizes = new ArrayList<>();
+        InvalidationTransport<Integer> transport = new InvalidationTransport<Integer>() {
+            @Override
+            public void publish(Collection<? extends Integer> keys) {
+                batchSizes.add(keys.size());
+            }
+
+            @Override
+            public void subscribe(Consumer<? super Collection<? extends Integer>> listener) {
+            }
+        };
+
+        InvalidationBus<Integer> bus = new InvalidationBus<>(r -> {
+        }, transport, 4);
+        IntStream.range(0, 10).forEach(bus::invalidate);
+        bus.flush();
+
+        assertThat(batchSizes).containsExactly(4, 4, 2);
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.AbstractTest;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.LongStream;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * A test-case that checks the behavior of {@link LongCache} and {@link IntCache}.
+ */
+@ParametersAreNonnullByDefault
+public class LongCacheTest extends AbstractTest {
+
+    private LongCache<String> cache;
+
+    @BeforeEach
+    public void setUp() {
+        cache = CacheBuilder.builder()
+                .recordStats()
+                .buildLong();
+
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        cache.invalidateAll();
+        cache.cleanUp();
+    }
+
+    @Test
+    public void testUnsupportedSettings() {
+        assertThat(catchThrowable(() -> CacheBuilder.builder().weakKeys().buildLong()))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(catchThrowable(() -> CacheBuilder.builder().softValues().buildInt()))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void testGetPut() {
+        String value0 = "Value0";
+
+        cache.put(0L, value0);
+
+        assertThat(cache.get(0L)).isEqualTo(value0);
+        assertThat(cache.contains(0L)).isTrue();
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void testGetAbsent() {
+        assertThat(cache.get(0L)).isNull();
+        assertThat(cache.contains(0L)).isFalse();
+    }
+
+    @Test
+    public void testPutIfAbsent() {
+        cache.putIfAbsent(0L, "Value0");
+        cache.putIfAbsent(0L, "Value1");
+
+        assertThat(cache.get(0L)).isEqualTo("Value0");
+    }
+
+    @Test
+    public void testGetWithFunction() {
+        String prefix = "Value";
+
+        assertThat(cache.get(0L, key -> prefix + key)).isEqualTo("Value0");
+        assertThat(cache.get(0L, key -> "Other")).isEqualTo("Value0");
+        assertThat(cache.size()).isEqualTo(1);
+
+        assertThat(cache.get(1L, key -> null)).isNull();
+        assertThat(cache.contains(1L)).isFalse();
+    }
+
+    @Test
+    public void testGetWithRecursiveFunction() {
+        assertThat(catchThrowable(() -> cache.get(0L, key -> cache.get(1L, k -> "Value"))))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void testInvalidate() {
+        LongStream.range(0, 1000).forEach(i -> cache.put(i, "Value" + i));
+
+        assertThat(cache.size()).isEqualTo(1000);
+
+        LongStream.range(0, 1000).filter(i -> i % 2 == 0).forEach(cache::invalidate);
+
+        assertThat(cache.size()).isEqualTo(500);
+        LongStream.range(0, 1000).forEach(i -> assertThat(cache.contains(i)).isEqualTo(i % 2 != 0));
+
+        cache.invalidateAll();
+
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void testMaximumSize() {
+        LongCache<String> boundedCache = CacheBuilder.builder()
+                .maximumSize(100)
+                .recordStats()
+                .buildLong();
+
+        LongStream.range(0, 1000).forEach(i -> boundedCache.put(i, "Value" + i));
+
+        assertThat(boundedCache.size()).isEqualTo(100);
+        assertThat(boundedCache.stats().evictionCount()).isEqualTo(900);
+    }
+
+    @Test
+    public void testIntCache() {
+        IntCache<String> intCache = CacheBuilder.builder()
+                .recordStats()
+                .buildInt();
+
+        assertThat(intCache.get(0, key -> "Value" + key)).isEqualTo("Value0");
+        assertThat(intCache.get(0)).isEqualTo("Value0");
+        assertThat(intCache.contains(1)).isFalse();
+
+        intCache.invalidate(0);
+
+        assertThat(intCache.get(0)).isNull();
+    }
+
+    @Test
+    public void stats() {
+        cache.get(0L);
+        cache.get(0L, key -> "Value0");
+        cache.get(0L);
+
+        CacheStats stats = cache.stats();
+        assertThat(stats.hitCount()).isEqualTo(1);
+        assertThat(stats.missCount()).isEqualTo(2);
+        assertThat(stats.loadSuccessCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.AbstractFileBasedTest;
+import org.atlanmod.commons.io.serializer.BinarySerializer;
+import org.atlanmod.commons.io.serializer.BinarySerializerFactory;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.IntStream;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static java.util.Objects.isNull;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * A test-case that checks the behavior of off-heap {@link Cache}s.
+ */
+@ParametersAreNonnullByDefault
+public class OffHeapCacheTest extends AbstractFileBasedTest {
+
+    private final BinarySerializer<String> serializer = BinarySerializerFactory.getInstance().forAny();
+
+    @Test
+    public void testUnsupportedSettings() {
+        assertThat(catchThrowable(() -> CacheBuilder.builder().maximumSize(10).buildOffHeap(1024, serializer)))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(catchThrowable(() -> CacheBuilder.builder().weakKeys().buildOffHeap(1024, serializer)))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(catchThrowable(() -> CacheBuilder.builder().buildOffHeap(1, serializer)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testGetPutDirect() {
+        Cache<Integer, String> cache = CacheBuilder.builder()
+                .recordStats()
+                .buildOffHeap(1 << 20, serializer);
+
+        assertGetPut(cache);
+    }
+
+    @Test
+    public void testGetPutMapped() throws Exception {
+        Cache<Integer, String> cache = CacheBuilder.builder()
+                .recordStats()
+                .buildOffHeap(1 << 20, serializer, currentTempFile().toPath());
+
+        assertGetPut(cache);
+    }
+
+    @Test
+    public void testLargeValue() {
+        Cache<Integer, String> cache = CacheBuilder.builder()
+                .buildOffHeap(1 << 20, serializer);
+
+        char[] chars = new char[10_000];
+        Arrays.fill(chars, 'a');
+        String value = new String(chars);
+
+        cache.put(0, value);
+        cache.put(1, "Value1");
+
+        assertThat(cache.get(0)).isEqualTo(value);
+        assertThat(cache.get(1)).isEqualTo("Value1");
+    }
+
+    @Test
+    public void testEviction() {
+        Cache<Integer, String> cache = CacheBuilder.builder()
+                .recordStats()
+                .buildOffHeap(4096, serializer);
+
+        IntStream.range(0, 1000).forEach(i -> cache.put(i, "Value" + i));
+
+        assertThat(cache.size()).isLessThan(1000);
+        assertThat(cache.get(999)).isEqualTo("Value999");
+        assertThat(cache.contains(0)).isFalse();
+
+        CacheStats stats = cache.stats();
+        assertThat(stats.evictionCount()).isEqualTo(1000 - cache.size());
+        assertThat(stats.weightedSize()).isPositive().isLessThanOrEqualTo(4096);
+    }
+
+    @Test
+    public void testEvictionOrder() {
+        Cache<Integer, String> cache = CacheBuilder.builder()
+                .buildOffHeap(4096, serializer);
+
+        cache.put(0, "Value0");
+        IntStream.range(1, 1000).forEach(i -> {
+            cache.get(0);
+            cache.put(i, "Value" + i);
+        });
+
+        assertThat(cache.get(0)).isEqualTo("Value0");
+    }
+
+    @Test
+    public void testLoad() {
+        Cache<Integer, String> cache = CacheBuilder.builder()
+                .recordStats()
+                .buildOffHeap(1 << 20, serializer);
+
+        assertThat(cache.get(0, k -> "Value" + k)).isEqualTo("Value0");
+        assertThat(cache.get(0, k -> "Other" + k)).isEqualTo("Value0");
+        assertThat(cache.get(1, k -> null)).isNull();
+
+        CacheStats stats = cache.stats();
+        assertThat(stats.hitCount()).isEqualTo(1);
+        assertThat(stats.missCount()).isEqualTo(2);
+        assertThat(stats.loadSuccessCount()).isEqualTo(1);
+        assertThat(stats.loadFailureCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testInvalidate() {
+        Cache<Integer, String> cache = CacheBuilder.builder()
+                .recordStats()
+                .buildOffHeap(1 << 20, serializer);
+
+        IntStream.range(0, 100).forEach(i -> cache.put(i, "Value" + i));
+
+        cache.invalidate(0);
+        assertThat(cache.contains(0)).isFalse();
+        assertThat(cache.size()).isEqualTo(99);
+
+        cache.invalidateAll();
+        assertThat(cache.size()).isEqualTo(0);
+        assertThat(cache.stats().weightedSize()).isEqualTo(0);
+
+        cache.put(0, "Value0");
+        assertThat(cache.get(0)).isEqualTo("Value0");
+    }
+
+    @Test
+    public void testInvalidateDuringLoad() {
+        Cache<Integer, String> cache = CacheBuilder.builder()
+                .buildOffHeap(1 << 20, serializer);
+
+        assertThat(cache.get(0, k -> {
+            cache.invalidate(k);
+            return "Value" + k;
+        })).isEqualTo("Value0");
+        assertThat(cache.contains(0)).isFalse();
+
+        assertThat(cache.get(0, k -> {
+            cache.invalidateAll();
+            return "Value" + k;
+        })).isEqualTo("Value0");
+        assertThat(cache.contains(0)).isFalse();
+
+        assertThat(cache.get(0, k -> "Value" + k)).isEqualTo("Value0");
+        assertThat(cache.contains(0)).isTrue();
+    }
+
+    @Test
+    public void testAsMap() {
+        Cache<Integer, String> cache = CacheBuilder.builder()
+                .buildOffHeap(1 << 20, serializer);
+
+        ConcurrentMap<Integer, String> map = cache.asMap();
+
+        assertThat(map.put(0, "Value0")).isNull();
+        assertThat(map.putIfAbsent(0, "Value1")).isEqualTo("Value0");
+        assertThat(map.replace(0, "Value0", "Value2")).isTrue();
+        assertThat(map.put(1, "Value1")).isNull();
+
+        assertThat(map).containsOnly(
+                new AbstractMap.SimpleImmutableEntry<>(0, "Value2"),
+                new AbstractMap.SimpleImmutableEntry<>(1, "Value1"));
+
+        assertThat(map.remove(0, "Value0")).isFalse();
+        assertThat(map.remove(0)).isEqualTo("Value2");
+        assertThat(cache.contains(0)).isFalse();
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        for (Path file : Arrays.asList(null, currentTempFile().toPath())) {
+            Cache<Integer, String> cache = isNull(file)
+                    ? CacheBuilder.builder().buildOffHeap(1 << 20, serializer)
+                    : CacheBuilder.builder().buildOffHeap(1 << 20, serializer, file);
+
+            cache.put(0, "Value0");
+            cache.close();
+
+            assertThat(cache.get(0)).isNull();
+            assertThat(cache.size()).isEqualTo(0);
+
+            assertThat(catchThrowable(() -> cache.put(1, "Value1")))
+                    .isInstanceOf(IllegalStateException.class);
+
+            cache.close();
+        }
+    }
+
+    private void assertGetPut(Cache<Integer, String> cache) {
+        Map<Integer, String> values = new HashMap<>();
+        IntStream.range(0, 100).forEach(i -> values.put(i, "Value" + i));
+
+        cache.putAll(values);
+
+        assertThat(cache.size()).isEqualTo(100);
+        assertThat(cache.getAll(values.keySet())).isEqualTo(values);
+
+        cache.put(0, "Other0");
+        assertThat(cache.get(0)).isEqualTo("Other0");
+        assertThat(cache.get(100)).isNull();
+
+        CacheStats stats = cache.stats();
+        assertThat(stats.hitCount()).isEqualTo(101);
+        assertThat(stats.missCount()).isEqualTo(1);
+        assertThat(stats.evictionCount()).isEqualTo(0);
+        assertThat(stats.weightedSize()).isPositive();
+    }
+}
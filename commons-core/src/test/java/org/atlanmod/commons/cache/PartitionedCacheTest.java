@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.AbstractTest;
+import org.atlanmod.commons.hash.Hasher;
+import org.atlanmod.commons.hash.StandardHashers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * A test-case that checks the behavior of {@link PartitionedCache}.
+ */
+@ParametersAreNonnullByDefault
+public class PartitionedCacheTest extends AbstractTest {
+
+    @Test
+    public void testPartitions() {
+        PartitionedCache<Integer, String> cache = CacheBuilder.builder()
+                .executor(Runnable::run)
+                .recordStats()
+                .maximumSize(400)
+                .buildPartitioned(4, StandardHashers.MURMUR3);
+
+        assertThat(cache.partitionCount()).isEqualTo(4);
+
+        IntStream.range(0, 1000).forEach(i -> cache.put(i, "Value" + i));
+        cache.cleanUp();
+
+        assertThat(cache.size()).isLessThanOrEqualTo(400);
+        IntStream.range(0, 4).forEach(i -> assertThat(cache.partition(i).size()).isPositive().isLessThanOrEqualTo(100));
+
+        IntStream.range(0, 1000).forEach(cache::get);
+
+        CacheStats stats = cache.stats();
+        assertThat(stats.requestCount()).isEqualTo(1000);
+        assertThat(stats.hitCount()).isEqualTo(cache.size());
+        assertThat(stats.evictionCount()).isEqualTo(1000 - cache.size());
+
+        assertThat(catchThrowable(() -> cache.partition(4))).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    public void testCryptographicHashers() {
+        for (Hasher hasher : Arrays.asList(StandardHashers.MD5, StandardHashers.SHA1, StandardHashers.SHA256)) {
+            PartitionedCache<Integer, String> cache = CacheBuilder.builder()
+                    .buildPartitioned(4, hasher);
+
+            IntStream.range(0, 100).forEach(i -> cache.put(i, "Value" + i));
+
+            assertThat(cache.size()).isEqualTo(100);
+            assertThat(cache.get(0)).isEqualTo("Value0");
+            IntStream.range(0, 4).forEach(i -> assertThat(cache.partition(i).size()).isPositive());
+        }
+    }
+
+    @Test
+    public void testInvalidatePartition() {
+        PartitionedCache<Integer, String> cache = CacheBuilder.builder()
+                .buildPartitioned(4, StandardHashers.XX);
+
+        IntStream.range(0, 100).forEach(i -> cache.put(i, "Value" + i));
+
+        int partition = cache.partitionOf(0);
+        cache.partition(partition).invalidateAll();
+
+        IntStream.range(0, 100).forEach(i -> assertThat(cache.contains(i)).isEqualTo(cache.partitionOf(i) != partition));
+        assertThat(cache.asMap().keySet()).allMatch(k -> cache.partitionOf(k) != partition);
+    }
+
+    @Test
+    public void testMapView() {
+        PartitionedCache<Integer, String> cache = CacheBuilder.builder()
+                .buildPartitioned(4, StandardHashers.XX);
+
+        IntStream.range(0, 100).forEach(i -> cache.asMap().put(i, "Value" + i));
+        assertThat(cache.asMap()).hasSize(100).containsEntry(42, "Value42");
+        assertThat(cache.asMap().computeIfAbsent(100, k -> "Value" + k)).isEqualTo("Value100");
+
+        Iterator<Map.Entry<Integer, String>> iterator = cache.asMap().entrySet().iterator();
+        while (iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void testLoadingPartitions() {
+        PartitionedCache<Integer, String> cache = CacheBuilder.builder()
+                .recordStats()
+                .buildPartitioned(8, StandardHashers.MURMUR3, k -> "Value" + k);
+
+        assertThat(cache.getAll(Arrays.asList(1, 2, 3, 4, 5))).hasSize(5).containsEntry(3, "Value3");
+        assertThat(cache.get(6)).isEqualTo("Value6");
+
+        assertThat(cache.stats().loadSuccessCount()).isEqualTo(6);
+    }
+
+    @Test
+    public void testUnsupportedSettings() {
+        assertThat(catchThrowable(() -> CacheBuilder.builder().buildPartitioned(0, StandardHashers.XX)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(catchThrowable(() -> CacheBuilder.builder().coalesceLoads().buildPartitioned(2, StandardHashers.XX)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
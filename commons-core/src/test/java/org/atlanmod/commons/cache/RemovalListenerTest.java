@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.AbstractTest;
+import org.atlanmod.commons.io.serializer.BinarySerializerFactory;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * A test-case that checks the behavior of {@link RemovalListener}.
+ */
+@ParametersAreNonnullByDefault
+public class RemovalListenerTest extends AbstractTest {
+
+    private final List<RemovalCause> causes = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void testExplicit() {
+        Cache<Integer, String> cache = newBuilder().build();
+
+        cache.put(0, "Value0");
+        cache.put(0, "Other0");
+        cache.invalidate(0);
+
+        assertThat(causes).containsExactly(RemovalCause.REPLACED, RemovalCause.EXPLICIT);
+        assertThat(causes).noneMatch(RemovalCause::wasEvicted);
+    }
+
+    @Test
+    public void testSize() {
+        Cache<Integer, String> cache = newBuilder().maximumSize(10).build();
+
+        IntStream.range(0, 20).forEach(i -> cache.put(i, "Value" + i));
+        cache.cleanUp();
+
+        assertThat(causes).hasSize(10).containsOnly(RemovalCause.SIZE);
+    }
+
+    @Test
+    public void testExpired() throws InterruptedException {
+        Cache<Integer, String> cache = newBuilder().expireAfterWrite(Duration.ofMillis(10)).build();
+
+        cache.put(0, "Value0");
+        Thread.sleep(50);
+        cache.cleanUp();
+
+        assertThat(causes).containsExactly(RemovalCause.EXPIRED);
+    }
+
+    @Test
+    public void testUnsupportedSettings() {
+        assertThat(catchThrowable(() -> newBuilder().buildLong()))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(catchThrowable(() -> newBuilder().buildOffHeap(1 << 20, BinarySerializerFactory.getInstance().forAny())))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(catchThrowable(() -> newBuilder().removalListener((k, v, c) -> {})))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private CacheBuilder<Object, Object> newBuilder() {
+        return CacheBuilder.builder()
+                .executor(Runnable::run)
+                .removalListener((k, v, c) -> causes.add(c));
+    }
+}
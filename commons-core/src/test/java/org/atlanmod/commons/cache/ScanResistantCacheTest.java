@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.AbstractTest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * A test-case that checks the behavior of the caches built with {@link CacheBuilder#scanResistant()}, and of {@link
+ * Cache#bypass(Object, java.util.function.Function)}.
+ */
+@ParametersAreNonnullByDefault
+public class ScanResistantCacheTest extends AbstractTest {
+
+    @Test
+    public void testAdmission() {
+        Cache<Integer, Integer> cache = CacheBuilder.builder()
+                .maximumSize(100)
+                .recordStats()
+                .scanResistant()
+                .build();
+
+        assertThat(cache.get(1, k -> k)).isEqualTo(1);
+        assertThat(cache.asMap().containsKey(1)).isFalse();
+        assertThat(cache.stats().admissionRejectedCount()).isEqualTo(1);
+
+        assertThat(cache.get(1, k -> k)).isEqualTo(1);
+        assertThat(cache.asMap().containsKey(1)).isTrue();
+
+        cache.put(2, 2);
+        assertThat(cache.asMap().containsKey(2)).isTrue();
+
+        CacheStats stats = cache.stats();
+        assertThat(stats.missCount()).isEqualTo(2);
+        assertThat(stats.loadSuccessCount()).isEqualTo(2);
+        assertThat(stats.admissionRejectedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testScan() {
+        Cache<Integer, Integer> cache = CacheBuilder.builder()
+                .maximumSize(1_000)
+                .recordStats()
+                .scanResistant()
+                .build();
+
+        for (int round = 0; round < 5; round++) {
+            IntStream.range(0, 500).forEach(i -> cache.get(i, k -> k));
+        }
+        IntStream.range(100_000, 200_000).forEach(i -> cache.get(i, k -> k));
+        cache.cleanUp();
+
+        assertThat(IntStream.range(0, 500).filter(cache::contains).count()).isEqualTo(500);
+        assertThat(cache.stats().admissionRejectedCount()).isGreaterThan(99_000);
+    }
+
+    @Test
+    public void testLoading() {
+        AtomicInteger calls = new AtomicInteger();
+        Cache<Integer, Integer> cache = CacheBuilder.builder()
+                .maximumSize(100)
+                .scanResistant()
+                .build(k -> {
+                    calls.incrementAndGet();
+                    return k * 2;
+                });
+
+        assertThat(cache.get(3)).isEqualTo(6);
+        assertThat(cache.get(3)).isEqualTo(6);
+        assertThat(cache.get(3)).isEqualTo(6);
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testGetAllAndRefresh() {
+        AtomicInteger calls = new AtomicInteger();
+        Cache<Integer, Integer> cache = CacheBuilder.builder()
+                .maximumSize(100)
+                .scanResistant()
+                .build(k -> {
+                    calls.incrementAndGet();
+                    return k * 2;
+                });
+
+        assertThat(cache.getAll(Arrays.asList(1, 2, 3))).containsOnlyKeys(1, 2, 3).containsEntry(1, 2).containsEntry(3, 6);
+        assertThat(cache.size()).isEqualTo(0);
+
+        assertThat(cache.getAll(Arrays.asList(1, 2, 3))).containsOnlyKeys(1, 2, 3);
+        assertThat(cache.size()).isEqualTo(3);
+        assertThat(calls.get()).isEqualTo(6);
+
+        cache.refresh(4);
+        assertThat(cache.contains(4)).isFalse();
+        cache.refresh(4);
+        assertThat(cache.get(4)).isEqualTo(8);
+
+        cache.refresh(1);
+        assertThat(calls.get()).isEqualTo(9);
+        assertThat(cache.get(1)).isEqualTo(2);
+    }
+
+    @Test
+    public void testInvalidateDuringLoad() {
+        Cache<Integer, Integer> cache = CacheBuilder.builder()
+                .maximumSize(100)
+                .scanResistant()
+                .build();
+
+        cache.get(1, k -> k);
+        assertThat(cache.get(1, k -> {
+            cache.invalidate(k);
+            return k;
+        })).isEqualTo(1);
+        assertThat(cache.contains(1)).isFalse();
+
+        assertThat(cache.get(1, k -> k)).isEqualTo(1);
+        assertThat(cache.contains(1)).isTrue();
+    }
+
+    @Test
+    public void testCoalesceLoads() throws Exception {
+        Cache<Integer, Integer> cache = CacheBuilder.builder()
+                .maximumSize(100)
+                .recordStats()
+                .scanResistant()
+                .coalesceLoads()
+                .build();
+
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                futures.add(executor.submit(() -> cache.get(1, k -> {
+                    loads.incrementAndGet();
+                    await(latch);
+                    return k;
+                })));
+            }
+
+            while (cache.stats().coalescedCount() < 1) {
+                Thread.sleep(5);
+            }
+            latch.countDown();
+
+            for (Future<Integer> future : futures) {
+                assertThat(future.get()).isEqualTo(1);
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cache.stats().admissionRejectedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testBypass() {
+        Cache<Integer, Integer> cache = CacheBuilder.builder()
+                .maximumSize(100)
+                .recordStats()
+                .scanResistant()
+                .build();
+
+        cache.put(1, 10);
+        assertThat(cache.bypass(1, k -> -1)).isEqualTo(10);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(cache.bypass(2, k -> k)).isEqualTo(2);
+        }
+        assertThat(cache.asMap().containsKey(2)).isFalse();
+
+        cache.get(2, k -> k);
+        assertThat(cache.asMap().containsKey(2)).isFalse();
+
+        CacheStats stats = cache.stats();
+        assertThat(stats.requestCount()).isEqualTo(1);
+        assertThat(stats.admissionRejectedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testBypassWithoutAdmission() {
+        Cache<Integer, Integer> cache = CacheBuilder.builder().build();
+
+        assertThat(cache.bypass(1, k -> k)).isEqualTo(1);
+        assertThat(cache.contains(1)).isFalse();
+    }
+
+    @Test
+    public void testUnsupported() {
+        assertThat(catchThrowable(() -> CacheBuilder.builder().scanResistant().build()))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(catchThrowable(() -> CacheBuilder.builder().maximumSize(10).scanResistant().buildLong()))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(catchThrowable(() -> CacheBuilder.builder().scanResistant().scanResistant()))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.AbstractTest;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * A test-case that checks the behavior of {@link SingleFlight}, and of the caches built with {@link
+ * CacheBuilder#coalesceLoads()}.
+ */
+@ParametersAreNonnullByDefault
+public class SingleFlightTest extends AbstractTest {
+
+    private static final int THREAD_COUNT = 8;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void createExecutor() {
+        executor = Executors.newFixedThreadPool(THREAD_COUNT);
+    }
+
+    @AfterEach
+    void shutdownExecutor() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testExecute() throws Exception {
+        SingleFlight<Integer, String> flight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(1);
+
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            futures.add(executor.submit(() -> flight.execute(1, k -> {
+                calls.incrementAndGet();
+                await(latch);
+                return "Value" + k;
+            })));
+        }
+
+        while (flight.callCount() < THREAD_COUNT) {
+            Thread.sleep(5);
+        }
+        latch.countDown();
+
+        for (Future<String> future : futures) {
+            assertThat(future.get()).isEqualTo("Value1");
+        }
+
+        assertThat(calls).hasValue(1);
+        assertThat(flight.coalescedCount()).isEqualTo(THREAD_COUNT - 1);
+        assertThat(flight.inFlightCount()).isEqualTo(0);
+
+        // The results are not retained
+        assertThat(flight.execute(1, k -> "Other")).isEqualTo("Other");
+    }
+
+    @Test
+    public void testExecuteFailure() throws Exception {
+        SingleFlight<Integer, String> flight = new SingleFlight<>();
+        CountDownLatch latch = new CountDownLatch(1);
+
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            futures.add(executor.submit(() -> flight.execute(1, k -> {
+                await(latch);
+                throw new IllegalStateException("Failure");
+            })));
+        }
+
+        while (flight.callCount() < THREAD_COUNT) {
+            Thread.sleep(5);
+        }
+        latch.countDown();
+
+        for (Future<String> future : futures) {
+            assertThat(catchThrowable(future::get))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(IllegalStateException.class);
+        }
+
+        assertThat(flight.inFlightCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testExecuteRecursive() {
+        SingleFlight<Integer, String> flight = new SingleFlight<>();
+
+        assertThat(catchThrowable(() -> flight.execute(1, k -> flight.execute(k, j -> "Value" + j))))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(flight.inFlightCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testCoalesceLoads() throws Exception {
+        Cache<Integer, String> cache = CacheBuilder.builder()
+                .coalesceLoads()
+                .recordStats()
+                .build();
+
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(1);
+
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            futures.add(executor.submit(() -> cache.get(1, k -> {
+                loads.incrementAndGet();
+                await(latch);
+                return "Value" + k;
+            })));
+        }
+
+        while (cache.stats().missCount() < THREAD_COUNT) {
+            Thread.sleep(5);
+        }
+        latch.countDown();
+
+        for (Future<String> future : futures) {
+            assertThat(future.get()).isEqualTo("Value1");
+        }
+
+        assertThat(loads).hasValue(1);
+        assertThat(cache.get(1, k -> "Other")).isEqualTo("Value1");
+
+        CacheStats stats = cache.stats();
+        assertThat(stats.hitCount()).isEqualTo(1);
+        assertThat(stats.missCount()).isEqualTo(THREAD_COUNT);
+        assertThat(stats.loadSuccessCount()).isEqualTo(1);
+        assertThat(stats.coalescedCount()).isEqualTo(THREAD_COUNT - 1);
+    }
+
+    @Test
+    public void testInvalidateDuringLoad() {
+        Cache<Integer, String> cache = CacheBuilder.builder()
+                .coalesceLoads()
+                .build();
+
+        assertThat(cache.get(1, k -> {
+            cache.invalidate(k);
+            return "Value" + k;
+        })).isEqualTo("Value1");
+        assertThat(cache.contains(1)).isFalse();
+
+        assertThat(cache.get(1, k -> {
+            cache.invalidateAll();
+            return "Value" + k;
+        })).isEqualTo("Value1");
+        assertThat(cache.contains(1)).isFalse();
+
+        assertThat(cache.get(1, k -> "Value" + k)).isEqualTo("Value1");
+        assertThat(cache.contains(1)).isTrue();
+    }
+
+    @Test
+    public void testCoalesceLoadsWithLoadingCache() {
+        assertThat(catchThrowable(() -> CacheBuilder.builder().coalesceLoads().build(k -> k)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.AbstractFileBasedTest;
+import org.atlanmod.commons.io.serializer.BinarySerializer;
+import org.atlanmod.commons.io.serializer.BinarySerializerFactory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * A test-case that checks the behavior of {@link TieredCache}.
+ */
+@ParametersAreNonnullByDefault
+public class TieredCacheTest extends AbstractFileBasedTest {
+
+    private final BinarySerializer<Integer> keySerializer = BinarySerializerFactory.getInstance().forAny();
+
+    private final BinarySerializer<String> valueSerializer = BinarySerializerFactory.getInstance().forAny();
+
+    private Path file;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        file = currentTempFile().toPath();
+    }
+
+    @Test
+    public void testUnsupportedSettings() {
+        assertThat(catchThrowable(() -> CacheBuilder.builder().buildTiered(file, 1 << 20, keySerializer, valueSerializer)))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(catchThrowable(() -> CacheBuilder.builder().maximumSize(10).softValues().buildTiered(file, 1 << 20, keySerializer, valueSerializer)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void testDemotionAndPromotion() {
+        TieredCache<Integer, String> cache = newCache(1 << 20);
+
+        IntStream.range(0, 100).forEach(i -> cache.put(i, "Value" + i));
+        cache.cleanUp();
+
+        assertThat(cache.size()).isEqualTo(100);
+
+        TieredCacheStats stats = cache.stats();
+        assertThat(stats.l1().evictionCount()).isEqualTo(90);
+        assertThat(stats.l2().weightedSize()).isPositive();
+
+        IntStream.range(0, 100).forEach(i -> assertThat(cache.get(i)).isEqualTo("Value" + i));
+
+        stats = cache.stats();
+        assertThat(stats.hitCount()).isEqualTo(100);
+        assertThat(stats.missCount()).isEqualTo(0);
+        assertThat(stats.l2().hitCount()).isEqualTo(stats.l1().missCount());
+    }
+
+    @Test
+    public void testLoad() {
+        TieredCache<Integer, String> cache = newCache(1 << 20);
+
+        assertThat(cache.get(0)).isNull();
+        assertThat(cache.get(0, k -> "Value" + k)).isEqualTo("Value0");
+        assertThat(cache.get(0, k -> "Other" + k)).isEqualTo("Value0");
+
+        TieredCacheStats stats = cache.stats();
+        assertThat(stats.missCount()).isEqualTo(2);
+        assertThat(stats.hitCount()).isEqualTo(1);
+        assertThat(stats.loadSuccessCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testInvalidate() {
+        TieredCache<Integer, String> cache = newCache(1 << 20);
+
+        IntStream.range(0, 100).forEach(i -> cache.put(i, "Value" + i));
+        cache.cleanUp();
+
+        cache.invalidate(0);
+        cache.invalidate(99);
+        assertThat(cache.contains(0)).isFalse();
+        assertThat(cache.contains(99)).isFalse();
+        assertThat(cache.size()).isEqualTo(98);
+
+        cache.invalidateAll();
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void testInvalidateDuringEviction() throws Exception {
+        TieredCache<Integer, String> cache = CacheBuilder.builder()
+                .maximumSize(10)
+                .buildTiered(file, 1 << 20, keySerializer, valueSerializer);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> future = executor.submit(() -> {
+                for (int i = 1000; running.get(); i = i < 2000 ? i + 1 : 1000) {
+                    cache.put(i, "Value" + i);
+                }
+            });
+
+            for (int i = 0; i < 1000; i++) {
+                cache.put(i, "Value" + i);
+                cache.invalidate(i);
+                assertThat(cache.get(i)).isNull();
+            }
+
+            running.set(false);
+            future.get();
+        }
+        finally {
+            running.set(false);
+            executor.shutdown();
+        }
+
+        cache.cleanUp();
+        IntStream.range(0, 1000).forEach(i -> assertThat(cache.contains(i)).isFalse());
+    }
+
+    @Test
+    public void testSizeAfterFlush() {
+        TieredCache<Integer, String> cache = newCache(1 << 20);
+
+        IntStream.range(0, 100).forEach(i -> cache.put(i, "Value" + i));
+        cache.cleanUp();
+        cache.flush();
+
+        assertThat(cache.size()).isEqualTo(100);
+        assertThat(cache.asMap()).hasSize(100);
+    }
+
+    @Test
+    public void testRestart() {
+        TieredCache<Integer, String> cache = newCache(1 << 20);
+
+        IntStream.range(0, 100).forEach(i -> cache.put(i, "Value" + i));
+        cache.invalidate(50);
+        cache.flush();
+
+        TieredCache<Integer, String> restored = newCache(1 << 20);
+
+        assertThat(restored.size()).isEqualTo(99);
+        assertThat(restored.get(0)).isEqualTo("Value0");
+        assertThat(restored.get(50)).isNull();
+    }
+
+    @Test
+    public void testRestartAfterIncompleteWrite() throws IOException {
+        TieredCache<Integer, String> cache = newCache(1 << 20);
+
+        IntStream.range(0, 100).forEach(i -> cache.put(i, "Value" + i));
+        cache.flush();
+
+        Files.write(file, new byte[]{0, 0, 0, 5, 0}, StandardOpenOption.APPEND);
+
+        TieredCache<Integer, String> restored = newCache(1 << 20);
+        assertThat(restored.size()).isEqualTo(100);
+        assertThat(restored.get(0)).isEqualTo("Value0");
+    }
+
+    @Test
+    public void testSecondTierEviction() {
+        TieredCache<Integer, String> cache = newCache(2048);
+
+        IntStream.range(0, 1000).forEach(i -> cache.put(i, "Value" + i));
+        cache.cleanUp();
+
+        TieredCacheStats stats = cache.stats();
+        assertThat(cache.size()).isLessThan(1000);
+        assertThat(stats.evictionCount()).isPositive();
+        assertThat(stats.weightedSize()).isLessThanOrEqualTo(2048);
+    }
+
+    @Test
+    public void testAsMap() {
+        TieredCache<Integer, String> cache = newCache(1 << 20);
+
+        IntStream.range(0, 100).forEach(i -> cache.put(i, "Value" + i));
+        cache.cleanUp();
+
+        assertThat(cache.asMap()).hasSize(100);
+        assertThat(cache.asMap().get(0)).isEqualTo("Value0");
+        assertThat(cache.asMap().putIfAbsent(0, "Other0")).isEqualTo("Value0");
+        assertThat(cache.asMap().remove(1)).isEqualTo("Value1");
+        assertThat(cache.contains(1)).isFalse();
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        TieredCache<Integer, String> cache = newCache(1 << 20);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int version = 0; version < 50; version++) {
+                        for (int key = thread * 25; key < (thread + 1) * 25; key++) {
+                            assertThat(cache.get(key)).isEqualTo(version == 0 ? null : key + "-" + (version - 1));
+                            cache.put(key, key + "-" + version);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+
+        IntStream.range(0, 100).forEach(i -> assertThat(cache.get(i)).isEqualTo(i + "-49"));
+    }
+
+    @Test
+    public void testClose() {
+        TieredCache<Integer, String> cache = newCache(1 << 20);
+
+        IntStream.range(0, 100).forEach(i -> cache.put(i, "Value" + i));
+        cache.flush();
+        cache.close();
+
+        assertThat(catchThrowable(() -> cache.put(0, "Other0")))
+                .isInstanceOf(IllegalStateException.class);
+
+        TieredCache<Integer, String> restored = newCache(1 << 20);
+        assertThat(restored.size()).isEqualTo(100);
+        assertThat(restored.get(0)).isEqualTo("Value0");
+        restored.close();
+    }
+
+    @Test
+    public void testStatsEquality() {
+        CacheStats l1 = CacheStats.builder().hitCount(1).missCount(2).build();
+        CacheStats l2 = CacheStats.builder().hitCount(3).missCount(4).build();
+        CacheStats loads = CacheStats.builder().loadSuccessCount(5).loadFailureCount(6).totalLoadTime(7).build();
+        CacheStats sum = CacheStats.builder().hitCount(4).missCount(4).loadSuccessCount(5).loadFailureCount(6).totalLoadTime(7).build();
+
+        TieredCacheStats stats = new TieredCacheStats(l1, l2, loads);
+        assertThat(stats).isEqualTo(new TieredCacheStats(l1, l2, loads));
+        assertThat(stats.hashCode()).isEqualTo(new TieredCacheStats(l1, l2, loads).hashCode());
+
+        assertThat(stats).isNotEqualTo(new TieredCacheStats(l1.toBuilder().missCount(5).build(), l2, loads));
+        assertThat(stats).isNotEqualTo(sum);
+        assertThat(sum).isNotEqualTo(stats);
+    }
+
+    private TieredCache<Integer, String> newCache(long maximumBytes) {
+        return CacheBuilder.builder()
+                .maximumSize(10)
+                .executor(Runnable::run)
+                .recordStats()
+                .buildTiered(file, maximumBytes, keySerializer, valueSerializer);
+    }
+}
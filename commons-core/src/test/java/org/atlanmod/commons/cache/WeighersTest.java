@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.AbstractTest;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * A test-case that checks the behavior of {@link Weighers}.
+ */
+@ParametersAreNonnullByDefault
+public class WeighersTest extends AbstractTest {
+
+    @Test
+    public void testSizeOf() {
+        assertThat(Weighers.sizeOf(null)).isEqualTo(0);
+        assertThat(Weighers.sizeOf(new Object())).isEqualTo(16);
+
+        assertThat(Weighers.sizeOf(new byte[100])).isEqualTo(120);
+        assertThat(Weighers.sizeOf(new long[3])).isEqualTo(40);
+        assertThat(Weighers.sizeOf(new char[10])).isEqualTo(Weighers.sizeOf(new short[10]));
+
+        assertThat(Weighers.sizeOf(1)).isEqualTo(16);
+        assertThat(Weighers.sizeOf(1L)).isEqualTo(24);
+        assertThat(Weighers.sizeOf((short) 1)).isEqualTo(16);
+        assertThat(Weighers.sizeOf(BigInteger.ONE.shiftLeft(4000))).isGreaterThan(500);
+        assertThat(Weighers.sizeOf(BigDecimal.ONE)).isGreaterThan(Weighers.sizeOf(1));
+
+        assertThat(Weighers.sizeOf("")).isEqualTo(40);
+        assertThat(Weighers.sizeOf("a string of 24 chars....")).isEqualTo(88);
+
+        assertThat(Weighers.sizeOf(new ArrayList<>(Arrays.asList(1, 2, 3)))).isPositive();
+    }
+
+    @Test
+    public void testRetainedSize() {
+        assertThat(Weighers.<Integer, byte[]>retainedSize().applyAsInt(1, new byte[100]))
+                .isEqualTo(64 + 16 + 120);
+    }
+
+    @Test
+    public void testMaximumMemory() {
+        Cache<Integer, byte[]> cache = CacheBuilder.builder()
+                .executor(Runnable::run)
+                .maximumMemory(1 << 20)
+                .build();
+
+        IntStream.range(0, 100).forEach(i -> cache.put(i, new byte[64 * 1024]));
+        cache.cleanUp();
+
+        assertThat(cache.size()).isLessThan(16);
+        assertThat(cache.stats().weightedSize()).isLessThanOrEqualTo(1 << 20);
+
+        assertThat(catchThrowable(() -> CacheBuilder.builder().maximumSize(10).maximumMemory(1024)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
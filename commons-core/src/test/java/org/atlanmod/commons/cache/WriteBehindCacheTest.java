@@ -0,0 +1,302 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache;
+
+import org.atlanmod.commons.AbstractTest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * A test-case that checks the behavior of write-behind {@link Cache}s.
+ */
+@ParametersAreNonnullByDefault
+public class WriteBehindCacheTest extends AbstractTest {
+
+    private Map<Integer, String> store;
+
+    private List<Integer> batchSizes;
+
+    private BatchWriter<Integer, String> writer;
+
+    @BeforeEach
+    public void setUp() {
+        store = new ConcurrentHashMap<>();
+        batchSizes = new CopyOnWriteArrayList<>();
+
+        writer = new BatchWriter<Integer, String>() {
+            @Override
+            public void writeAll(Map<? extends Integer, ? extends String> entries) {
+                batchSizes.add(entries.size());
+                store.putAll(entries);
+            }
+
+            @Override
+            public void deleteAll(Set<? extends Integer> keys) {
+                batchSizes.add(keys.size());
+                keys.forEach(store::remove);
+            }
+        };
+    }
+
+    @Test
+    public void testInvalidSettings() {
+        assertThat(catchThrowable(() -> CacheBuilder.builder().writeBehind(writer, Duration.ofSeconds(1), 0)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(catchThrowable(() -> CacheBuilder.builder().writeBehind(writer, Duration.ofSeconds(1), 10).buildAsync(k -> k)))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(catchThrowable(() -> CacheBuilder.builder().writeBehind(writer, Duration.ofSeconds(1), 10).buildLong()))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void testCoalescing() {
+        Cache<Integer, String> cache = newCache(Duration.ofHours(1), 100);
+
+        IntStream.range(0, 10).forEach(i -> cache.put(0, "Value" + i));
+        cache.put(1, "Value1");
+        cache.invalidate(1);
+
+        assertThat(store).isEmpty();
+
+        cache.cleanUp();
+
+        assertThat(store).containsOnlyKeys(0).containsEntry(0, "Value9");
+        assertThat(batchSizes).containsExactly(1, 1);
+    }
+
+    @Test
+    public void testBatches() {
+        Cache<Integer, String> cache = newCache(Duration.ofHours(1), 10);
+
+        IntStream.range(0, 25).forEach(i -> cache.put(i, "Value" + i));
+
+        assertThat(store).hasSize(20);
+        assertThat(batchSizes).containsOnly(10);
+
+        cache.cleanUp();
+
+        assertThat(store).hasSize(25);
+    }
+
+    @Test
+    public void testDelay() throws InterruptedException {
+        Cache<Integer, String> cache = newCache(Duration.ofMillis(10), 100);
+
+        cache.put(0, "Value0");
+        Thread.sleep(500);
+
+        assertThat(store).containsEntry(0, "Value0");
+    }
+
+    @Test
+    public void testDirtyValuesAfterEviction() {
+        Cache<Integer, String> cache = CacheBuilder.builder()
+                .maximumSize(1)
+                .executor(Runnable::run)
+                .writeBehind(writer, Duration.ofHours(1), 100)
+                .build();
+
+        IntStream.range(0, 10).forEach(i -> cache.put(i, "Value" + i));
+
+        assertThat(store).isEmpty();
+        assertThat(cache.get(0)).isEqualTo("Value0");
+    }
+
+    @Test
+    public void testRetryAfterFailure() {
+        AtomicInteger failures = new AtomicInteger(1);
+
+        Cache<Integer, String> cache = CacheBuilder.builder()
+                .executor(Runnable::run)
+                .<Integer, String>writeBehind(entries -> {
+                    if (failures.getAndDecrement() > 0) {
+                        throw new IllegalStateException();
+                    }
+                    store.putAll(entries);
+                }, Duration.ofHours(1), 100)
+                .build();
+
+        cache.put(0, "Value0");
+        cache.cleanUp();
+
+        assertThat(store).isEmpty();
+
+        cache.cleanUp();
+
+        assertThat(store).containsEntry(0, "Value0");
+    }
+
+    @Test
+    public void testBulkOperations() {
+        Cache<Integer, String> cache = newCache(Duration.ofHours(1), 100);
+        IntStream.range(0, 10).forEach(i -> cache.put(i, "Value" + i));
+        cache.cleanUp();
+
+        assertThat(cache.invalidateIf(1, (k, v) -> k < 5)).isEqualTo(5);
+        cache.replaceAll(1, (k, v) -> k == 9 ? null : v + '!');
+        cache.cleanUp();
+
+        assertThat(store).containsOnlyKeys(5, 6, 7, 8).containsEntry(5, "Value5!");
+    }
+
+    @Test
+    public void testWriteThrough() {
+        Cache<Integer, String> cache = CacheBuilder.builder()
+                .executor(r -> {})
+                .writeBehind(writer, Duration.ofHours(1), 1)
+                .build();
+
+        cache.put(0, "Value0");
+        assertThat(store).containsEntry(0, "Value0");
+
+        cache.invalidate(0);
+        assertThat(store).isEmpty();
+    }
+
+    @Test
+    public void testLimitedRetries() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        Cache<Integer, String> cache = CacheBuilder.builder()
+                .executor(Runnable::run)
+                .<Integer, String>writeBehind(entries -> {
+                    attempts.incrementAndGet();
+                    throw new IllegalStateException();
+                }, Duration.ofHours(1), 100)
+                .build();
+
+        cache.put(0, "Value0");
+        IntStream.range(0, 5).forEach(i -> cache.cleanUp());
+
+        assertThat(attempts.get()).isEqualTo(WriteBehindCache.MAXIMUM_ATTEMPTS);
+        assertThat(cache.get(0)).isEqualTo("Value0");
+    }
+
+    @Test
+    public void testLimitedPendingSize() {
+        Cache<Integer, String> cache = CacheBuilder.builder()
+                .executor(r -> {})
+                .writeBehind(writer, Duration.ofHours(1), 10)
+                .build();
+
+        IntStream.range(0, 1000).forEach(i -> cache.put(i, "Value" + i));
+
+        assertThat(store.size()).isGreaterThanOrEqualTo(1000 - 10 * WriteBehindCache.MAXIMUM_PENDING_BATCHES);
+    }
+
+    @Test
+    public void testClose() {
+        Cache<Integer, String> cache = newCache(Duration.ofHours(1), 100);
+
+        cache.put(0, "Value0");
+        cache.close();
+
+        assertThat(store).containsEntry(0, "Value0");
+    }
+
+    @Test
+    public void testConcurrentPuts() throws Exception {
+        Cache<Integer, String> cache = newCache(Duration.ofHours(1), 100);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> IntStream.range(0, 10_000).forEach(i -> cache.put(i % 10, "Value" + thread + '-' + i))));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        cache.cleanUp();
+
+        IntStream.range(0, 10).forEach(i -> assertThat(store.get(i)).isEqualTo(cache.get(i)));
+    }
+
+    @Test
+    public void testMapView() {
+        Cache<Integer, String> cache = newCache(Duration.ofHours(1), 100);
+        IntStream.range(0, 4).forEach(i -> cache.put(i, "Value" + i));
+        cache.cleanUp();
+
+        Map<Integer, String> map = cache.asMap();
+        assertThat(map.put(4, "Value4")).isNull();
+        assertThat(map.remove(0)).isEqualTo("Value0");
+        assertThat(map.putIfAbsent(1, "Other1")).isEqualTo("Value1");
+        assertThat(map.compute(2, (k, v) -> v + '!')).isEqualTo("Value2!");
+        map.keySet().removeIf(k -> k == 3);
+
+        cache.cleanUp();
+
+        assertThat(store).containsOnlyKeys(1, 2, 4).containsEntry(2, "Value2!");
+    }
+
+    @Test
+    public void testInvalidateAllAfterEviction() {
+        Cache<Integer, String> cache = CacheBuilder.builder()
+                .maximumSize(1)
+                .executor(Runnable::run)
+                .writeBehind(writer, Duration.ofHours(1), 100)
+                .build();
+
+        IntStream.range(0, 10).forEach(i -> cache.put(i, "Value" + i));
+        cache.invalidateAll();
+
+        assertThat(cache.get(0)).isNull();
+
+        cache.cleanUp();
+
+        assertThat(store).isEmpty();
+    }
+
+    @Test
+    public void testGetAfterInvalidate() {
+        Cache<Integer, String> cache = newCache(Duration.ofHours(1), 100);
+        cache.put(0, "Value0");
+        cache.cleanUp();
+
+        cache.invalidate(0);
+
+        assertThat(cache.get(0, store::get)).isNull();
+        assertThat(store).isEmpty();
+    }
+
+    private Cache<Integer, String> newCache(Duration delay, int maximumBatchSize) {
+        return CacheBuilder.builder()
+                .executor(Runnable::run)
+                .writeBehind(writer, delay, maximumBatchSize)
+                .build();
+    }
+}
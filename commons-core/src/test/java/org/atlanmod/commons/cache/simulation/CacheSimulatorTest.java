@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache.simulation;
+
+import org.atlanmod.commons.AbstractFileBasedTest;
+import org.atlanmod.commons.cache.CacheBuilder;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * A test-case that checks the behavior of {@link CacheSimulator} and {@link Trace}.
+ */
+@ParametersAreNonnullByDefault
+public class CacheSimulatorTest extends AbstractFileBasedTest {
+
+    @Test
+    public void testLru() {
+        SimulationReport report = CacheSimulator.simulateLru(Trace.of(1, 2, 1, 3, 1, 2), 2);
+
+        assertThat(report.name()).isEqualTo("LRU");
+        assertThat(report.requestCount()).isEqualTo(6);
+        assertThat(report.hitCount()).isEqualTo(2);
+        assertThat(report.missCount()).isEqualTo(4);
+    }
+
+    @Test
+    public void testWeightedLru() {
+        Trace trace = Trace.of(new long[]{1, 2, 1, 3, 1}, new int[]{1, 1, 1, 2, 1});
+
+        SimulationReport report = CacheSimulator.simulateWeightedLru(trace, 3);
+        assertThat(report.hitCount()).isEqualTo(2);
+
+        report = CacheSimulator.simulateWeightedLru(trace, 2);
+        assertThat(report.hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testCompare() {
+        Trace trace = newSkewedTrace(100_000);
+
+        SimulationReport lru = CacheSimulator.simulateLru(trace, 500);
+        SimulationReport tinyLfu = CacheSimulator.simulate(trace, CacheBuilder.builder().maximumSize(500).executor(Runnable::run), "W-TinyLFU");
+        SimulationReport unbounded = CacheSimulator.simulate(trace, CacheBuilder.builder(), "Unbounded");
+
+        assertThat(tinyLfu.hitRate()).isGreaterThan(lru.hitRate());
+        assertThat(unbounded.missCount()).isEqualTo(trace.distinctKeys());
+        assertThat(tinyLfu.throughput()).isPositive();
+    }
+
+    @Test
+    public void testReadWrite() throws IOException {
+        Path file = currentTempFile().toPath();
+        Trace trace = newSkewedTrace(1000);
+        trace.write(file);
+
+        Trace read = Trace.read(file);
+        assertThat(read.size()).isEqualTo(1000);
+        for (int i = 0; i < 1000; i++) {
+            assertThat(read.key(i)).isEqualTo(trace.key(i));
+            assertThat(read.weight(i)).isEqualTo(trace.weight(i));
+        }
+
+        byte[] content = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(content, content.length - 3));
+
+        assertThat(catchThrowable(() -> Trace.read(file))).isInstanceOf(IOException.class);
+    }
+
+    private Trace newSkewedTrace(int size) {
+        Random random = new Random(42);
+
+        long[] keys = new long[size];
+        int[] weights = new int[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = (long) (Math.pow(random.nextDouble(), 3) * 10_000);
+            weights[i] = 1 + (int) (keys[i] % 10);
+        }
+        return Trace.of(keys, weights);
+    }
+}
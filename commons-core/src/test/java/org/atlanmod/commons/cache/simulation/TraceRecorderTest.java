@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.cache.simulation;
+
+import org.atlanmod.commons.AbstractFileBasedTest;
+import org.atlanmod.commons.cache.Cache;
+import org.atlanmod.commons.cache.CacheBuilder;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A test-case that checks the behavior of {@link TraceRecorder}.
+ */
+@ParametersAreNonnullByDefault
+public class TraceRecorderTest extends AbstractFileBasedTest {
+
+    @Test
+    public void testRecord() throws IOException {
+        Path file = currentTempFile().toPath();
+
+        try (TraceRecorder recorder = new TraceRecorder(file, 1024, Duration.ofHours(1))) {
+            Cache<String, Integer> cache = recorder.record(CacheBuilder.builder().build());
+
+            cache.get("a");
+            cache.put("a", 1);
+            cache.get("b", k -> 2);
+            cache.invalidate("a");
+            cache.invalidateAll();
+
+            assertThat(recorder.recordedCount()).isEqualTo(4);
+        }
+
+        Trace trace = Trace.read(file);
+        assertThat(trace.size()).isEqualTo(4);
+        assertThat(trace.key(0)).isEqualTo("a".hashCode());
+        assertThat(trace.isInsertion(1)).isTrue();
+        assertThat(trace.key(2)).isEqualTo("b".hashCode());
+        assertThat(trace.isInvalidation(2)).isFalse();
+        assertThat(trace.isInsertion(2)).isFalse();
+        assertThat(trace.isInvalidation(3)).isTrue();
+        assertThat(trace.weight(3)).isEqualTo(0);
+
+        SimulationReport report = CacheSimulator.simulateLru(trace, 10);
+        assertThat(report.requestCount()).isEqualTo(2);
+        assertThat(report.hitCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testRecordInsertion() throws IOException {
+        Path file = currentTempFile().toPath();
+
+        try (TraceRecorder recorder = new TraceRecorder(file, 1024, Duration.ofHours(1))) {
+            Cache<String, Integer> cache = recorder.record(CacheBuilder.builder().build());
+
+            cache.put("a", 1);
+            cache.putIfAbsent("b", 2);
+            cache.get("a");
+            cache.get("b");
+        }
+
+        Trace trace = Trace.read(file);
+        assertThat(trace.size()).isEqualTo(4);
+        assertThat(trace.isInsertion(0)).isTrue();
+        assertThat(trace.isInsertion(1)).isTrue();
+        assertThat(trace.weight(0)).isEqualTo(1);
+
+        SimulationReport report = CacheSimulator.simulateLru(trace, 10);
+        assertThat(report.requestCount()).isEqualTo(2);
+        assertThat(report.hitCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testConcurrentRecord() throws Exception {
+        Path file = currentTempFile().toPath();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (TraceRecorder recorder = new TraceRecorder(file, 1 << 16, Duration.ofMillis(10))) {
+            Cache<Integer, Integer> cache = recorder.record(CacheBuilder.builder().maximumSize(100).build());
+
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> IntStream.range(0, 10_000).forEach(i -> cache.get(i % 500, k -> k))));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            recorder.close();
+
+            Trace trace = Trace.read(file);
+            assertThat(trace.size() + recorder.droppedCount()).isEqualTo(40_000);
+            assertThat(trace.size()).isEqualTo(recorder.recordedCount());
+            assertThat(trace.distinctKeys()).isEqualTo(500);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFullBuffer() throws IOException {
+        Path file = currentTempFile().toPath();
+
+        try (TraceRecorder recorder = new TraceRecorder(file, 8, Duration.ofHours(1))) {
+            Cache<Integer, Integer> cache = recorder.record(CacheBuilder.builder().build());
+
+            IntStream.range(0, 100).forEach(cache::get);
+            assertThat(recorder.recordedCount()).isEqualTo(8);
+            assertThat(recorder.droppedCount()).isEqualTo(92);
+
+            recorder.flush();
+            IntStream.range(0, 5).forEach(cache::get);
+        }
+
+        assertThat(Trace.read(file).size()).isEqualTo(13);
+    }
+}
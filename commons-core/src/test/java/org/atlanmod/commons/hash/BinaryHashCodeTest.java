@@ -35,6 +35,12 @@ public class BinaryHashCodeTest extends AbstractTest {
         assertThat(HASH.toBytes()).isEqualTo(Strings.toBytes("HashCode0"));
     }
 
+    @Test
+    public void testPadToLong() {
+        assertThat(HASH.padToLong()).isEqualTo(0x48617368436F6465L);
+        assertThat(new BinaryHashCode(new byte[]{0x12, 0x34}).padToLong()).isEqualTo(0x1234000000000000L);
+    }
+
     @Test
     public void testToHexString() {
         assertThat(HASH.toHexString()).isEqualToIgnoringCase("48617368436f646530");
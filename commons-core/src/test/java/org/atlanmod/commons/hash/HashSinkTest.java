@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import org.atlanmod.commons.AbstractTest;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * A test-case that checks the behavior of the {@link HashSink}s created by the {@link StandardHashers}.
+ */
+@ParametersAreNonnullByDefault
+public class HashSinkTest extends AbstractTest {
+
+    /**
+     * The names of all the standard hashers.
+     */
+    private static final List<String> NAMES = Arrays.asList("MD5", "SHA1", "SHA256", "MURMUR3", "XX", "CITY", "FARM_NA", "FARM_UO");
+
+    @Test
+    public void testBytes() {
+        NAMES.forEach(n -> checkBytes(StandardHashers.forName(n)));
+    }
+
+    @Test
+    public void testValues() {
+        NAMES.forEach(n -> checkValues(StandardHashers.forName(n)));
+    }
+
+    @Test
+    public void testSingleUse() {
+        for (String name : Arrays.asList("SHA1", "XX", "CITY")) {
+            HashSink sink = StandardHashers.forName(name).newSink();
+            sink.putInt(1).hash();
+
+            assertThat(catchThrowable(() -> sink.putInt(2)))
+                    .isInstanceOf(IllegalStateException.class);
+
+            assertThat(catchThrowable(sink::hash))
+                    .isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    public void testDefaultSink() {
+        for (String name : Arrays.asList("SHA1", "MURMUR3")) {
+            Hasher hasher = StandardHashers.forName(name);
+            Hasher customHasher = hasher::hash;
+
+            assertThat(customHasher.newSink().putString("abc").putLong(1L).hash())
+                    .isEqualTo(hasher.hash(new byte[]{'a', 'b', 'c', 0, 0, 0, 0, 0, 0, 0, 1}));
+        }
+    }
+
+    /**
+     * Checks that the sinks of the {@code hasher} calculate the same hash codes as the hasher, whatever the way the
+     * bytes are appended.
+     *
+     * @param hasher the hasher to check
+     */
+    private static void checkBytes(Hasher hasher) {
+        Random random = new Random(42L);
+
+        for (int length = 0; length < 200; length++) {
+            byte[] data = new byte[length];
+            random.nextBytes(data);
+
+            HashSink sink = hasher.newSink();
+            int offset = 0;
+            while (offset < length) {
+                int count = random.nextInt(length - offset + 1);
+                if (random.nextBoolean()) {
+                    sink.putBytes(data, offset, count);
+                }
+                else {
+                    ByteBuffer buffer = ByteBuffer.allocateDirect(count);
+                    buffer.put(data, offset, count).flip();
+                    sink.putBytes(buffer);
+                    assertThat(buffer.hasRemaining()).isFalse();
+                }
+                offset += count;
+            }
+
+            assertThat(sink.hash()).isEqualTo(hasher.hash(data));
+        }
+    }
+
+    /**
+     * Checks that the sinks of the {@code hasher} encode each value as the hasher.
+     *
+     * @param hasher the hasher to check
+     */
+    private static void checkValues(Hasher hasher) {
+        assertThat(hasher.newSink().putByte((byte) 7).hash()).isEqualTo(hasher.hash((byte) 7));
+        assertThat(hasher.newSink().putBoolean(true).hash()).isEqualTo(hasher.hash(true));
+        assertThat(hasher.newSink().putChar('c').hash()).isEqualTo(hasher.hash('c'));
+        assertThat(hasher.newSink().putShort((short) 42).hash()).isEqualTo(hasher.hash((short) 42));
+        assertThat(hasher.newSink().putInt(0x12345678).hash()).isEqualTo(hasher.hash(0x12345678));
+        assertThat(hasher.newSink().putLong(-3L).hash()).isEqualTo(hasher.hash(-3L));
+        assertThat(hasher.newSink().putFloat(2.5f).hash()).isEqualTo(hasher.hash(2.5f));
+        assertThat(hasher.newSink().putDouble(1.5d).hash()).isEqualTo(hasher.hash(1.5d));
+        assertThat(hasher.newSink().putString("h\u00e9llo").hash()).isEqualTo(hasher.hash("h\u00e9llo"));
+    }
+}
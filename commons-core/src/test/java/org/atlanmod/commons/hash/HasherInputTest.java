@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import org.atlanmod.commons.AbstractFileBasedTest;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * A test-case that checks the hashing of array ranges, {@link ByteBuffer}s and files by the {@link StandardHashers}.
+ */
+@ParametersAreNonnullByDefault
+public class HasherInputTest extends AbstractFileBasedTest {
+
+    /**
+     * The names of all the standard hashers.
+     */
+    private static final List<String> NAMES = Arrays.asList("MD5", "SHA1", "SHA256", "MURMUR3", "XX", "CITY", "FARM_NA", "FARM_UO");
+
+    /**
+     * The data to hash, larger than the size from which the files are memory-mapped.
+     */
+    private static final byte[] DATA = randomBytes(MappedFiles.MAPPING_THRESHOLD * 3 + 17);
+
+    @Test
+    public void testRange() {
+        for (String name : NAMES) {
+            Hasher hasher = StandardHashers.forName(name);
+
+            assertThat(hasher.hash(DATA, 5, 100)).isEqualTo(hasher.hash(Arrays.copyOfRange(DATA, 5, 105)));
+
+            assertThat(catchThrowable(() -> hasher.hash(DATA, DATA.length - 2, 5)))
+                    .isInstanceOf(IndexOutOfBoundsException.class);
+        }
+    }
+
+    @Test
+    public void testByteBuffer() {
+        for (String name : NAMES) {
+            Hasher hasher = StandardHashers.forName(name);
+
+            ByteBuffer heapBuffer = ByteBuffer.wrap(DATA, 20, 30);
+            assertThat(hasher.hash(heapBuffer)).isEqualTo(hasher.hash(Arrays.copyOfRange(DATA, 20, 50)));
+            assertThat(heapBuffer.position()).isEqualTo(20);
+
+            ByteBuffer directBuffer = ByteBuffer.allocateDirect(200);
+            directBuffer.put(DATA, 0, 200).position(10).limit(150);
+            assertThat(hasher.hash(directBuffer)).isEqualTo(hasher.hash(Arrays.copyOfRange(DATA, 10, 150)));
+            assertThat(directBuffer.position()).isEqualTo(10);
+        }
+    }
+
+    @Test
+    public void testSmallFile() throws Exception {
+        Path file = currentTempFile().toPath();
+        Files.write(file, Arrays.copyOf(DATA, 1000));
+
+        for (String name : NAMES) {
+            Hasher hasher = StandardHashers.forName(name);
+            assertThat(hasher.hash(file)).isEqualTo(hasher.hash(Arrays.copyOf(DATA, 1000)));
+        }
+    }
+
+    @Test
+    public void testLargeFile() throws Exception {
+        Path file = currentTempFile().toPath();
+        Files.write(file, DATA);
+
+        for (String name : NAMES) {
+            Hasher hasher = StandardHashers.forName(name);
+            assertThat(hasher.hash(file)).isEqualTo(hasher.hash(DATA));
+        }
+    }
+
+    @Test
+    public void testEmptyFile() throws Exception {
+        Path file = currentTempFile().toPath();
+        Files.write(file, new byte[0]);
+
+        for (String name : NAMES) {
+            Hasher hasher = StandardHashers.forName(name);
+            assertThat(hasher.hash(file)).isEqualTo(hasher.hash(new byte[0]));
+        }
+    }
+
+    /**
+     * Generates random bytes.
+     *
+     * @param length the number of bytes to generate
+     *
+     * @return the generated bytes
+     */
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(42L).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -15,7 +15,14 @@ import org.junit.jupiter.api.Test;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Modifier;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import javax.annotation.Nonnull;
 import javax.annotation.ParametersAreNonnullByDefault;
@@ -67,6 +74,47 @@ public class HasherTest extends AbstractTest {
                 .hasCauseExactlyInstanceOf(NoSuchAlgorithmException.class);
     }
 
+    @Test
+    public void testConcurrentNativeHashers() throws Exception {
+        byte[][] data = IntStream.range(0, 64)
+                .mapToObj(i -> (DATA + i).getBytes(StandardCharsets.UTF_8))
+                .toArray(byte[][]::new);
+
+        for (String algorithm : Arrays.asList("MD5", "SHA-1", "SHA-256")) {
+            Hasher hasher = new NativeHasher(algorithm);
+            MessageDigest digest = MessageDigest.getInstance(algorithm);
+
+            List<HashCode> expected = Arrays.stream(data)
+                    .map(d -> new BinaryHashCode(digest.digest(d)))
+                    .collect(Collectors.toList());
+
+            List<HashCode> actual = IntStream.range(0, 10_000)
+                    .parallel()
+                    .mapToObj(i -> hasher.hash(data[i % data.length]))
+                    .collect(Collectors.toList());
+
+            for (int i = 0; i < actual.size(); i++) {
+                assertThat(actual.get(i)).isEqualTo(expected.get(i % data.length));
+            }
+        }
+    }
+
+    @Test
+    public void testHashToLong() {
+        for (String name : Arrays.asList("MD5", "SHA1", "SHA256", "MURMUR3", "XX", "CITY", "FARM_NA", "FARM_UO")) {
+            Hasher hasher = StandardHashers.forName(name);
+
+            assertThat(hasher.hashToLong(42)).isEqualTo(hasher.hash(42).padToLong());
+            assertThat(hasher.hashToLong(-42L)).isEqualTo(hasher.hash(-42L).padToLong());
+            assertThat(hasher.hashToLong(DATA)).isEqualTo(hasher.hash(DATA).padToLong());
+            assertThat(hasher.hashToLong(new StringBuilder(DATA))).isEqualTo(hasher.hash(DATA).padToLong());
+            assertThat(hasher.hashToLong(CharBuffer.wrap(DATA))).isEqualTo(hasher.hash(DATA).padToLong());
+            assertThat(hasher.hashToLong(DATA.getBytes(StandardCharsets.UTF_8))).isEqualTo(hasher.hash(DATA.getBytes(StandardCharsets.UTF_8)).padToLong());
+        }
+
+        assertThat(StandardHashers.XX.hashToLong(42)).isEqualTo(StandardHashers.XX.hash(42).toLong());
+    }
+
     @Test
     public void testMD5() {
         assertThat(hashWith(StandardHashers.MD5, "MD5").toHexString()).isEqualToIgnoringCase("3ffd50062f0a110bdcfbc7b8d611aa80");
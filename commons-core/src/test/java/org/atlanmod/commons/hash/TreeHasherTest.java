@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2017 Atlanmod.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v2.0 which accompanies
+ * this distribution, and is available at https://www.eclipse.org/legal/epl-2.0/
+ */
+
+package org.atlanmod.commons.hash;
+
+import org.atlanmod.commons.AbstractFileBasedTest;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * A test-case that checks the behavior of {@link TreeHasher}.
+ */
+@ParametersAreNonnullByDefault
+public class TreeHasherTest extends AbstractFileBasedTest {
+
+    /**
+     * The size of the chunks of the tested hasher.
+     */
+    private static final int CHUNK_SIZE = 100;
+
+    /**
+     * The tested hasher.
+     */
+    private final TreeHasher hasher = new TreeHasher(StandardHashers.SHA256, CHUNK_SIZE, new ForkJoinPool(4));
+
+    @Test
+    public void testRoot() {
+        byte[] data = randomBytes(250);
+
+        HashCode leaf0 = StandardHashers.SHA256.hash(prefixed((byte) 0, Arrays.copyOfRange(data, 0, 100)));
+        HashCode leaf1 = StandardHashers.SHA256.hash(prefixed((byte) 0, Arrays.copyOfRange(data, 100, 200)));
+        HashCode leaf2 = StandardHashers.SHA256.hash(prefixed((byte) 0, Arrays.copyOfRange(data, 200, 250)));
+        HashCode node01 = StandardHashers.SHA256.hash(prefixed((byte) 1, concat(leaf0.toBytes(), leaf1.toBytes())));
+        HashCode root = StandardHashers.SHA256.hash(prefixed((byte) 1, concat(node01.toBytes(), leaf2.toBytes())));
+
+        MerkleTree tree = hasher.tree(data);
+        assertThat(tree.chunkCount()).isEqualTo(3);
+        assertThat(tree.length()).isEqualTo(250);
+        assertThat(tree.leaf(2)).isEqualTo(leaf2);
+        assertThat(tree.root()).isEqualTo(root);
+        assertThat(hasher.hash(data)).isEqualTo(root);
+    }
+
+    @Test
+    public void testStableRoot() {
+        TreeHasher sequentialHasher = new TreeHasher(StandardHashers.SHA256, CHUNK_SIZE, new ForkJoinPool(1));
+
+        for (int length : Arrays.asList(0, 1, 99, 100, 101, 200, 777, 1001)) {
+            byte[] data = randomBytes(length);
+            HashCode root = sequentialHasher.hash(data);
+
+            assertThat(hasher.hash(data)).isEqualTo(root);
+            assertThat(hasher.hash(ByteBuffer.wrap(data))).isEqualTo(root);
+            assertThat(hasher.newSink().putBytes(data).hash()).isEqualTo(root);
+        }
+
+        assertThat(hasher.tree(new byte[0]).chunkCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testUpdate() {
+        byte[] data = randomBytes(1000);
+        MerkleTree tree = hasher.tree(data);
+
+        byte[] modifiedData = data.clone();
+        modifiedData[250] ^= 1;
+        modifiedData[420] ^= 1;
+        MerkleTree updatedTree = hasher.update(tree, ByteBuffer.wrap(modifiedData), 250, 171);
+        assertThat(updatedTree).isEqualTo(hasher.tree(modifiedData));
+        assertThat(tree.diff(updatedTree)).containsExactly(2, 4);
+
+        byte[] truncatedData = Arrays.copyOf(data, 450);
+        MerkleTree truncatedTree = hasher.update(tree, ByteBuffer.wrap(truncatedData), 0, 0);
+        assertThat(truncatedTree).isEqualTo(hasher.tree(truncatedData));
+        assertThat(tree.diff(truncatedTree)).containsExactly(4, 5, 6, 7, 8, 9);
+
+        byte[] extendedData = Arrays.copyOf(data, 1050);
+        MerkleTree extendedTree = hasher.update(tree, ByteBuffer.wrap(extendedData), 1000, 50);
+        assertThat(extendedTree).isEqualTo(hasher.tree(extendedData));
+        assertThat(tree.diff(extendedTree)).containsExactly(10);
+    }
+
+    @Test
+    public void testVerifyChunk() {
+        byte[] data = randomBytes(250);
+        MerkleTree tree = hasher.tree(data);
+
+        assertThat(hasher.verifyChunk(tree, 1, ByteBuffer.wrap(data, 100, 100))).isTrue();
+        assertThat(hasher.verifyChunk(tree, 2, ByteBuffer.wrap(data, 200, 50))).isTrue();
+        assertThat(hasher.verifyChunk(tree, 0, ByteBuffer.wrap(data, 100, 100))).isFalse();
+
+        assertThat(catchThrowable(() -> hasher.verifyChunk(tree, 3, ByteBuffer.wrap(data))))
+                .isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    public void testChunkSizeMismatch() {
+        MerkleTree tree = new TreeHasher(StandardHashers.SHA256, 50).tree(randomBytes(250));
+
+        assertThat(catchThrowable(() -> hasher.update(tree, ByteBuffer.allocate(250), 0, 1)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(catchThrowable(() -> hasher.tree(new byte[250]).diff(tree)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testLargeFile() throws Exception {
+        byte[] data = randomBytes(MappedFiles.MAPPING_THRESHOLD * 3 + 17);
+        Path file = currentTempFile().toPath();
+        Files.write(file, data);
+
+        TreeHasher fileHasher = new TreeHasher(StandardHashers.XX, 1 << 18);
+        MerkleTree tree = fileHasher.tree(file);
+        assertThat(tree).isEqualTo(fileHasher.tree(data));
+
+        data[600_000] ^= 1;
+        Files.write(file, data);
+        MerkleTree updatedTree = fileHasher.update(tree, file, 600_000, 1);
+        assertThat(updatedTree).isEqualTo(fileHasher.tree(data));
+        assertThat(tree.diff(updatedTree)).containsExactly(2);
+    }
+
+    @Test
+    public void testSmallFile() throws Exception {
+        byte[] data = randomBytes(1000);
+        Path file = currentTempFile().toPath();
+        Files.write(file, data);
+
+        assertThat(hasher.hash(file)).isEqualTo(hasher.hash(data));
+    }
+
+    /**
+     * Generates random bytes.
+     *
+     * @param length the number of bytes to generate
+     *
+     * @return the generated bytes
+     */
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(42L).nextBytes(bytes);
+        return bytes;
+    }
+
+    /**
+     * Prepends a byte to the {@code data}.
+     *
+     * @param prefix the byte to prepend
+     * @param data   the data
+     *
+     * @return a new array
+     */
+    private static byte[] prefixed(byte prefix, byte[] data) {
+        return concat(new byte[]{prefix}, data);
+    }
+
+    /**
+     * Concatenates two arrays.
+     *
+     * @param first  the first array
+     * @param second the second array
+     *
+     * @return a new array
+     */
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+}